@@ -0,0 +1,70 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import io.nats.client.support.ByteArrayBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating NUIDs from an instance and from the global instances, which are shared by all the benchmark threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NuidBenchmark {
+    private NUID nuid;
+    private StripedNUID stripedNuid;
+    private byte[] dest;
+    private ByteArrayBuilder bab;
+
+    @Setup
+    public void setup() {
+        nuid = new NUID();
+        stripedNuid = new StripedNUID();
+        dest = new byte[StripedNUID.LENGTH];
+        bab = new ByteArrayBuilder(64);
+    }
+
+    @Benchmark
+    public String next() {
+        return nuid.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextGlobal() {
+        return NUID.nextGlobal();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextGlobalStriped() {
+        return StripedNUID.nextGlobal();
+    }
+
+    @Benchmark
+    public int nextStripedIntoBytes() {
+        return stripedNuid.next(dest, 0);
+    }
+
+    @Benchmark
+    public ByteArrayBuilder nextStripedIntoBuilder() {
+        return stripedNuid.next(bab.clear());
+    }
+}
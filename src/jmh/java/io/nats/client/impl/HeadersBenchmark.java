@@ -0,0 +1,61 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.support.IncomingHeadersProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing headers for a publish and processing the headers of a received message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeadersBenchmark {
+    private Headers headers;
+    private byte[] dest;
+    private byte[] incoming;
+    private byte[] incomingStatus;
+
+    @Setup
+    public void setup() {
+        headers = new Headers()
+            .add("Nats-Msg-Id", "0123456789abcdef")
+            .add("Nats-Expected-Stream", "stream")
+            .add("Multi", "one", "two");
+        dest = new byte[headers.serializedLength()];
+        incoming = headers.getSerialized();
+        incomingStatus = "NATS/1.0 408 Request Timeout\r\nNats-Pending-Messages: 10\r\nNats-Pending-Bytes: 1000\r\n\r\n".getBytes();
+    }
+
+    @Benchmark
+    public int serialize() {
+        return headers.serializeToArray(0, dest);
+    }
+
+    @Benchmark
+    public Headers process() {
+        return new IncomingHeadersProcessor(incoming).getHeaders();
+    }
+
+    @Benchmark
+    public IncomingHeadersProcessor processStatus() {
+        return new IncomingHeadersProcessor(incomingStatus);
+    }
+}
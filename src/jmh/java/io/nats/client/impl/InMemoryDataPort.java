@@ -0,0 +1,65 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A data port with no socket. Writes are only counted and there is never anything to read.
+ */
+class InMemoryDataPort implements DataPort {
+    private long written;
+
+    long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void connect(String serverURI, NatsConnection conn, long timeoutNanos) {}
+
+    @Override
+    public void upgradeToSecure() {}
+
+    @Override
+    public int read(byte[] dst, int off, int len) {
+        return -1;
+    }
+
+    @Override
+    public void write(byte[] src, int toWrite) {
+        written += toWrite;
+    }
+
+    @Override
+    public boolean supportsGatheringWrites() {
+        return true;
+    }
+
+    @Override
+    public void write(ByteBuffer[] srcs, int offset, int length) {
+        for (int x = offset; x < offset + length; x++) {
+            written += srcs[x].remaining();
+            srcs[x].position(srcs[x].limit());
+        }
+    }
+
+    @Override
+    public void shutdownInput() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void flush() {}
+}
@@ -0,0 +1,70 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the JetStream metadata out of the reply to subject of a JetStream message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JetStreamMetaDataBenchmark {
+    @Param({
+        "$JS.ACK.test-stream.test-consumer.1.2.3.1605139610113260000.4",
+        "$JS.ACK.v2Domain.v2Hash.test-stream.test-consumer.1.2.3.1605139610113260000.4.random"
+    })
+    public String replyTo;
+
+    // as the byte parser leaves the message, with the subject and reply to still bytes
+    @Param({"false", "true"})
+    public boolean fromBytes;
+
+    private NatsMessage message;
+
+    @Setup
+    public void setup() {
+        if (fromBytes) {
+            byte[] raw = ("subject" + replyTo).getBytes(StandardCharsets.UTF_8);
+            message = new IncomingMessageFactory(raw, 7, 1, 0, false).getMessage();
+        }
+        else {
+            message = new IncomingMessageFactory("1", "subject", replyTo, 0, false).getMessage();
+        }
+    }
+
+    @Benchmark
+    public long parse() {
+        NatsJetStreamMetaData meta = new NatsJetStreamMetaData(message);
+        return meta.streamSequence() + meta.pendingCount();
+    }
+
+    @Benchmark
+    public String parseWithStream() {
+        return new NatsJetStreamMetaData(message).getStream();
+    }
+
+    @Benchmark
+    public ZonedDateTime parseWithTimestamp() {
+        return new NatsJetStreamMetaData(message).timestamp();
+    }
+}
@@ -0,0 +1,96 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushing a batch of messages onto the outgoing queue, one at a time or as a linked batch,
+ * then taking them off one at a time or accumulating them the way the writer does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutgoingQueueBenchmark {
+    static final int MESSAGES = 1000;
+    static final Duration REQUEST_CLEANUP_INTERVAL = Duration.ofSeconds(5);
+
+    @Param({"linked", "ring"})
+    public String queueType;
+
+    private MessageQueue queue;
+    private NatsMessage[] messages;
+
+    @Setup
+    public void setup() {
+        queue = "ring".equals(queueType)
+            ? new RingBufferMessageQueue(MESSAGES * 2, false, REQUEST_CLEANUP_INTERVAL, null)
+            : new MessageQueue(true, REQUEST_CLEANUP_INTERVAL);
+        messages = new NatsMessage[MESSAGES];
+        byte[] payload = new byte[16];
+        for (int x = 0; x < MESSAGES; x++) {
+            messages[x] = new NatsMessage("subject.one.two", null, payload);
+        }
+    }
+
+    private void pushAll() {
+        for (NatsMessage m : messages) {
+            m.next = null;
+            queue.push(m);
+        }
+    }
+
+    private void pushBatch() {
+        long bytes = 0;
+        for (int x = 0; x < MESSAGES; x++) {
+            messages[x].next = x + 1 < MESSAGES ? messages[x + 1] : null;
+            bytes += messages[x].getSizeInBytes();
+        }
+        queue.pushBatch(messages[0], MESSAGES, bytes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void pushAndPopNow(Blackhole bh) throws InterruptedException {
+        pushAll();
+        for (int x = 0; x < MESSAGES; x++) {
+            bh.consume(queue.popNow());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void pushAndAccumulate(Blackhole bh) throws InterruptedException {
+        pushAll();
+        while (queue.length() > 0) {
+            bh.consume(queue.accumulate(64 * 1024, 100, Duration.ofMillis(500)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void pushBatchAndAccumulate(Blackhole bh) throws InterruptedException {
+        pushBatch();
+        while (queue.length() > 0) {
+            bh.consume(queue.accumulate(64 * 1024, 100, Duration.ofMillis(500)));
+        }
+    }
+}
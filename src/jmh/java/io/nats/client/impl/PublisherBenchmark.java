@@ -0,0 +1,78 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Options;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating outgoing messages and writing them with {@link NatsConnectionWriter#sendMessageBatch},
+ * the way a publish does and the way a {@link NatsPublisher} does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublisherBenchmark {
+    static final int MESSAGES = 100;
+    static final String SUBJECT = "market.data.equities.ticker";
+
+    @Param({"16", "256"})
+    public int payloadSize;
+
+    private NatsConnectionWriter writer;
+    private InMemoryDataPort dataPort;
+    private NatsStatistics stats;
+    private NatsPublisher publisher;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        NatsConnection connection = new NatsConnection(Options.builder().build());
+        writer = new NatsConnectionWriter(connection, null);
+        dataPort = new InMemoryDataPort();
+        stats = new NatsStatistics();
+        publisher = new NatsPublisher(connection, SUBJECT, null, null);
+        payload = new byte[payloadSize];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void publishMessage() throws IOException {
+        NatsMessage first = new NatsPublishableMessage(SUBJECT, null, null, payload, true, false);
+        NatsMessage last = first;
+        for (int x = 1; x < MESSAGES; x++) {
+            last.next = new NatsPublishableMessage(SUBJECT, null, null, payload, true, false);
+            last = last.next;
+        }
+        writer.sendMessageBatch(first, dataPort, stats);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void publisherMessage() throws IOException {
+        NatsMessage first = new NatsPublisher.PublisherMessage(publisher, payload);
+        NatsMessage last = first;
+        for (int x = 1; x < MESSAGES; x++) {
+            last.next = new NatsPublisher.PublisherMessage(publisher, payload);
+            last = last.next;
+        }
+        writer.sendMessageBatch(first, dataPort, stats);
+    }
+}
@@ -0,0 +1,82 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Options;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of incoming MSG and HMSG protocol, from the reader's buffer through to the connection
+ * delivering the message. There is no subscription, so delivery ends at the sid lookup.
+ * The buffer is sized to hold the whole block, so each invocation is one read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+    static final int MESSAGES = 100;
+
+    @Param({"16", "1024"})
+    public int payloadSize;
+
+    @Param({"false", "true"})
+    public boolean headers;
+
+    @Param({"false", "true"})
+    public boolean byteParser;
+
+    private NatsConnectionReader reader;
+    private byte[] block;
+
+    @Setup
+    public void setup() {
+        byte[] payload = new byte[payloadSize];
+        byte[] hdr = "NATS/1.0\r\nKey1: Value1\r\nKey2: Value2\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int x = 0; x < MESSAGES; x++) {
+            String line = headers
+                ? "HMSG subject.one.two 1 _INBOX.replyto." + x + " " + hdr.length + " " + (hdr.length + payloadSize) + "\r\n"
+                : "MSG subject.one.two 1 _INBOX.replyto." + x + " " + payloadSize + "\r\n";
+            out.write(line.getBytes(StandardCharsets.US_ASCII), 0, line.length());
+            if (headers) {
+                out.write(hdr, 0, hdr.length);
+            }
+            out.write(payload, 0, payload.length);
+            out.write('\r');
+            out.write('\n');
+        }
+        block = out.toByteArray();
+
+        Options.Builder builder = Options.builder().bufferSize(block.length);
+        if (byteParser) {
+            builder.useMessageByteParser();
+        }
+        reader = new NatsConnectionReader(new NatsConnection(builder.build()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void parse() throws IOException {
+        reader.fakeReadForTest(block);
+        reader.processBytes(block.length);
+    }
+}
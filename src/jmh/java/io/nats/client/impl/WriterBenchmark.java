@@ -0,0 +1,74 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Options;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NatsConnectionWriter#sendMessageBatch} for a batch of messages, to a data port that only counts bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriterBenchmark {
+    static final int MESSAGES = 100;
+
+    @Param({"16", "1024", "16384"})
+    public int payloadSize;
+
+    @Param({"false", "true"})
+    public boolean gatheringWrites;
+
+    private NatsConnectionWriter writer;
+    private InMemoryDataPort dataPort;
+    private NatsStatistics stats;
+    private NatsMessage batch;
+
+    @Setup
+    public void setup() {
+        Options.Builder builder = Options.builder();
+        if (gatheringWrites) {
+            builder.useGatheringWrites();
+        }
+        writer = new NatsConnectionWriter(new NatsConnection(builder.build()), null);
+        dataPort = new InMemoryDataPort();
+        stats = new NatsStatistics();
+
+        byte[] payload = new byte[payloadSize];
+        NatsMessage last = null;
+        for (int x = 0; x < MESSAGES; x++) {
+            NatsMessage m = new NatsMessage("subject.one.two", "_INBOX.replyto", payload);
+            if (last == null) {
+                batch = m;
+            }
+            else {
+                last.next = m;
+            }
+            last = m;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void sendMessageBatch() throws IOException {
+        writer.sendMessageBatch(batch, dataPort, stats);
+    }
+}
@@ -0,0 +1,58 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.support;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a typical JetStream api response, a publish ack and a consumer info.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParserBenchmark {
+    static final String PUBLISH_ACK = "{\"stream\":\"test-stream\",\"seq\":1234567,\"domain\":\"hub\",\"duplicate\":false}";
+
+    static final String CONSUMER_INFO = "{\"type\":\"io.nats.jetstream.api.v1.consumer_info_response\","
+        + "\"stream_name\":\"foo-stream\",\"name\":\"foo-name\",\"created\":\"2020-11-05T19:33:21.163377Z\","
+        + "\"config\":{\"durable_name\":\"foo-name\",\"deliver_subject\":\"bar\",\"deliver_policy\":\"all\","
+        + "\"ack_policy\":\"all\",\"ack_wait\":30000000000,\"max_deliver\":10,\"replay_policy\":\"original\","
+        + "\"filter_subjects\":[\"one.>\",\"two.*\"],\"max_ack_pending\":2000,\"metadata\":{\"key\":\"value\"}},"
+        + "\"delivered\":{\"consumer_seq\":1,\"stream_seq\":2,\"last_active\":\"2022-06-29T19:33:21.163377Z\"},"
+        + "\"ack_floor\":{\"consumer_seq\":3,\"stream_seq\":4},\"num_ack_pending\":24,\"num_redelivered\":42,"
+        + "\"num_waiting\":56,\"num_pending\":99,\"cluster\":{\"name\":\"clustername\",\"leader\":\"clusterleader\","
+        + "\"replicas\":[{\"name\":\"name0\",\"current\":true,\"offline\":true,\"active\":230000000000,\"lag\":3}]},"
+        + "\"push_bound\":true,\"ts\":\"2023-08-29T19:33:21.163377Z\"}";
+
+    @Param({"publishAck", "consumerInfo"})
+    public String document;
+
+    private byte[] json;
+
+    @Setup
+    public void setup() {
+        json = ("publishAck".equals(document) ? PUBLISH_ACK : CONSUMER_INFO).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JsonValue parse() throws JsonParseException {
+        return JsonParser.parse(json);
+    }
+}
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
@@ -219,6 +220,55 @@ public interface Connection extends AutoCloseable {
      */
     void publish(Message message);
 
+    /**
+     * Create a {@link Publisher} for a subject. The subject is validated and encoded once, here,
+     * so each publish with the publisher does less work than {@link #publish(String, byte[]) publish(subject, body)}.
+     *
+     * @param subject the subject to send messages to
+     * @return the publisher
+     * @throws IllegalArgumentException if the subject is not valid
+     */
+    Publisher publisher(String subject);
+
+    /**
+     * Create a {@link Publisher} for a subject, with a reply to and headers that are sent with every message.
+     * The headers are copied, so changing them afterwards does not change the publisher.
+     *
+     * @param subject the subject to send messages to
+     * @param replyTo the subject the receiver should send the response to, or null
+     * @param headers the headers to send with every message, or null
+     * @return the publisher
+     * @throws IllegalArgumentException if the subject or reply to is not valid
+     */
+    Publisher publisher(String subject, String replyTo, Headers headers);
+
+    /**
+     * Send a batch of messages, in order. The message bodies <strong>will not</strong> be copied.
+     * The batch goes into the outgoing queue as one operation, instead of one publish at a time,
+     * which is cheaper for bursts of messages.
+     *
+     * <p>All the messages are checked before any is queued, so a bad message fails the whole batch.
+     * If the outgoing queue is set to discard when full, the whole batch is discarded unless there is room for all of it.
+     * Otherwise, if the queue stays full part way through the batch, the messages that were queued stay queued and
+     * exactly the ones that were not are reported to {@link ErrorListener#messageDiscarded(Connection, Message) messageDiscarded}.
+     * See {@link #publish(String, String, byte[]) publish()} for more details on
+     * publish during reconnect.
+     *
+     * @param messages the messages
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publishBatch(List<Message> messages);
+
+    /**
+     * Send a batch of messages, in order, like {@link #publishBatch(List) publishBatch(messages)},
+     * optionally flushing the socket once the last message of the batch is written.
+     *
+     * @param messages the messages
+     * @param flush whether to flush the socket after the last message is written
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publishBatch(List<Message> messages, boolean flush);
+
     /**
      * Send a request. The returned future will be completed when the
      * response comes back.
@@ -501,6 +551,20 @@ public interface Connection extends AutoCloseable {
      */
     Statistics getStatistics();
 
+    /**
+     * @return latency histograms for the connection, or null if latency tracking is not turned on,
+     * see {@link Options.Builder#turnOnLatencyTracking() turnOnLatencyTracking()}
+     */
+    LatencyStatistics getLatencyStatistics();
+
+    /**
+     * Get a view of each of the connection's current subscriptions, including those in dispatchers,
+     * with its pending, dropped, delivered and handler numbers. The views are live, so they can be
+     * registered as gauges, but the list is not, so get it again to see new subscriptions.
+     * @return the list of subscription metrics
+     */
+    List<SubscriptionMetrics> getSubscriptionMetrics();
+
     /**
      * @return the read-only options used to create this connection
      */
@@ -109,6 +109,38 @@ public interface Dispatcher extends Consumer {
      */
     Subscription subscribe(String subject, String queue, MessageHandler handler);
 
+    /**
+     * Create a subscription like {@link Dispatcher#subscribe(String, MessageHandler)} whose messages and their
+     * data come from a pool and go back to it when the handler returns, or when {@link Message#release()} is called.
+     *
+     * <p>
+     * The handler owns the message only until it returns. A message or its data that is needed
+     * after that must be copied. In exchange, receiving messages of the same size creates almost no garbage.
+     * JetStream and status messages are never pooled.
+     *
+     * @param subject The subject to subscribe to.
+     * @param handler The target for the messages
+     * @return The Subscription, so subscriptions may be later unsubscribed manually.
+     * @throws IllegalStateException if the dispatcher was previously closed
+     */
+    default Subscription subscribePooled(String subject, MessageHandler handler) {
+        return subscribe(subject, handler);
+    }
+
+    /**
+     * Create a queue subscription like {@link Dispatcher#subscribe(String, String, MessageHandler)} whose messages
+     * are pooled, see {@link Dispatcher#subscribePooled(String, MessageHandler)}.
+     *
+     * @param subject The subject to subscribe to.
+     * @param queue The queue group to join.
+     * @param handler The target for the messages
+     * @return The Subscription, so subscriptions may be later unsubscribed manually.
+     * @throws IllegalStateException if the dispatcher was previously closed
+     */
+    default Subscription subscribePooled(String subject, String queue, MessageHandler handler) {
+        return subscribe(subject, queue, handler);
+    }
+
     /**
      * Unsubscribe from the specified subject, the queue is implicit.
      *
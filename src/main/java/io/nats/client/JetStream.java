@@ -423,6 +423,26 @@ public interface JetStream {
      */
     CompletableFuture<PublishAck> publishAsync(Message message, PublishOptions options);
 
+    /**
+     * Create a {@link JetStreamPublisher JetStreamPublisher} that publishes asynchronously
+     * with a bounded number of publishes waiting for an ack.
+     *
+     * @param options the window and retry options, or null for the defaults
+     * @return the publisher
+     */
+    JetStreamPublisher publisher(JetStreamPublisherOptions options);
+
+    /**
+     * Create a {@link PublishAckTracker PublishAckTracker} that reports the acks of its publishes
+     * to a listener instead of completing a future for each publish.
+     *
+     * @param capacity the number of publishes that can be waiting for an ack at once, rounded up to a power of 2
+     * @param listener the listener that is told about every ack or failure
+     * @return the tracker
+     * @throws IllegalArgumentException if the capacity is less than 1 or the listener is null
+     */
+    PublishAckTracker publishAckTracker(int capacity, PublishAckListener listener);
+
     /**
      * Create a synchronous subscription to the specified subject with default options.
      *
@@ -0,0 +1,144 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import io.nats.client.api.PublishAck;
+import io.nats.client.impl.Headers;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A JetStreamPublisher publishes asynchronously like {@link JetStream#publishAsync(String, byte[]) JetStream.publishAsync()},
+ * but limits how many publishes, and optionally how many bytes, can be waiting for an ack at once.
+ * It is created with {@link JetStream#publisher(JetStreamPublisherOptions) JetStream.publisher()}.
+ *
+ * <p>Without a limit, a producer that is faster than the stream piles up outstanding publishes, which then
+ * time out together. When a publish does not fit in the window, the publisher blocks until acks make room
+ * or fails right away, see {@link JetStreamPublisherOptions.FullWindowAction FullWindowAction}, and tells
+ * the {@link WindowListener WindowListener} if there is one. Publishes that time out or get a 503 can be
+ * retried automatically. A publisher can be used from many threads.
+ */
+public interface JetStreamPublisher {
+
+    /**
+     * Called when the window fills up and when it has room again.
+     * Called on the thread that found the window full, or that completed the ack that made room,
+     * so it should not block.
+     */
+    interface WindowListener {
+        /**
+         * The window is full, publishes will block or fail until there is room.
+         * @param publisher the publisher
+         */
+        default void windowFull(JetStreamPublisher publisher) {}
+
+        /**
+         * The window was full and now has room.
+         * @param publisher the publisher
+         */
+        default void windowAvailable(JetStreamPublisher publisher) {}
+    }
+
+    /**
+     * Send a message to the specified subject, once there is room in the window.
+     * See {@link JetStream#publishAsync(String, byte[]) JetStream.publishAsync()}.
+     *
+     * @param subject the subject to send the message to
+     * @param body the message body
+     * @return The future
+     * @throws IllegalStateException if there is no room in the window in time
+     */
+    CompletableFuture<PublishAck> publishAsync(String subject, byte[] body);
+
+    /**
+     * Send a message to the specified subject, once there is room in the window.
+     * See {@link JetStream#publishAsync(String, Headers, byte[]) JetStream.publishAsync()}.
+     *
+     * @param subject the subject to send the message to
+     * @param headers Optional headers to publish with the message.
+     * @param body the message body
+     * @return The future
+     * @throws IllegalStateException if there is no room in the window in time
+     */
+    CompletableFuture<PublishAck> publishAsync(String subject, Headers headers, byte[] body);
+
+    /**
+     * Send a message to the specified subject, once there is room in the window.
+     * See {@link JetStream#publishAsync(String, Headers, byte[], PublishOptions) JetStream.publishAsync()}.
+     *
+     * @param subject the subject to send the message to
+     * @param headers Optional headers to publish with the message.
+     * @param body the message body
+     * @param options publish options
+     * @return The future
+     * @throws IllegalStateException if there is no room in the window in time
+     */
+    CompletableFuture<PublishAck> publishAsync(String subject, Headers headers, byte[] body, PublishOptions options);
+
+    /**
+     * Send a message, once there is room in the window.
+     * See {@link JetStream#publishAsync(Message) JetStream.publishAsync()}.
+     *
+     * @param message the message to publish
+     * @return The future
+     * @throws IllegalStateException if there is no room in the window in time
+     */
+    CompletableFuture<PublishAck> publishAsync(Message message);
+
+    /**
+     * Send a message, once there is room in the window.
+     * See {@link JetStream#publishAsync(Message, PublishOptions) JetStream.publishAsync()}.
+     *
+     * @param message the message to publish
+     * @param options publish options
+     * @return The future
+     * @throws IllegalStateException if there is no room in the window in time
+     */
+    CompletableFuture<PublishAck> publishAsync(Message message, PublishOptions options);
+
+    /**
+     * Wait until every publish has been acked or has failed.
+     *
+     * @param timeout the longest to wait, 0 to wait forever
+     * @return true if nothing is in flight, false if the timeout was reached first
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    boolean waitForAcks(Duration timeout) throws InterruptedException;
+
+    /**
+     * @return the number of publishes waiting for an ack
+     */
+    int getInFlight();
+
+    /**
+     * @return the number of body and header bytes waiting for an ack
+     */
+    long getInFlightBytes();
+
+    /**
+     * @return the largest number of publishes that were waiting for an ack at once
+     */
+    int getPeakInFlight();
+
+    /**
+     * @return the number of publishes that found the window full
+     */
+    long getWindowFullCount();
+
+    /**
+     * @return the number of publishes that were sent again after a timeout or 503
+     */
+    long getRetryCount();
+}
@@ -0,0 +1,228 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import java.time.Duration;
+
+/**
+ * The JetStreamPublisherOptions class specifies the window and retry behavior of a {@link JetStreamPublisher JetStreamPublisher}.
+ * Options are created using a {@link JetStreamPublisherOptions.Builder Builder}.
+ */
+public class JetStreamPublisherOptions {
+
+    /**
+     * Default maximum number of publishes waiting for an ack, see {@link Builder#maxInFlight(int) maxInFlight}.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+
+    /**
+     * The default wait before the first retry, see {@link Builder#retryWait(Duration) retryWait}.
+     */
+    public static final Duration DEFAULT_RETRY_WAIT = Duration.ofMillis(100);
+
+    /**
+     * What to do when a publish does not fit in the window
+     */
+    public enum FullWindowAction {
+        /**
+         * Wait for acks to make room, up to the {@link Builder#maxBlock(Duration) maxBlock} time.
+         */
+        BLOCK,
+        /**
+         * Throw an IllegalStateException right away.
+         */
+        FAIL
+    }
+
+    private final int maxInFlight;
+    private final long maxInFlightBytes;
+    private final FullWindowAction fullWindowAction;
+    private final Duration maxBlock;
+    private final int maxRetries;
+    private final Duration retryWait;
+    private final JetStreamPublisher.WindowListener windowListener;
+
+    private JetStreamPublisherOptions(Builder b) {
+        this.maxInFlight = b.maxInFlight;
+        this.maxInFlightBytes = b.maxInFlightBytes;
+        this.fullWindowAction = b.fullWindowAction;
+        this.maxBlock = b.maxBlock;
+        this.maxRetries = b.maxRetries;
+        this.retryWait = b.retryWait;
+        this.windowListener = b.windowListener;
+    }
+
+    /**
+     * @return the maximum number of publishes waiting for an ack
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @return the maximum number of bytes waiting for an ack, 0 if there is no byte limit
+     */
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    /**
+     * @return what to do when a publish does not fit in the window
+     */
+    public FullWindowAction getFullWindowAction() {
+        return fullWindowAction;
+    }
+
+    /**
+     * @return the longest a publish blocks waiting for room, 0 to wait forever, or null to use the JetStream request timeout
+     */
+    public Duration getMaxBlock() {
+        return maxBlock;
+    }
+
+    /**
+     * @return how many times a publish that timed out or got a 503 is sent again
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return the wait before the first retry, which doubles for each retry after it
+     */
+    public Duration getRetryWait() {
+        return retryWait;
+    }
+
+    /**
+     * @return the window listener, or null
+     */
+    public JetStreamPublisher.WindowListener getWindowListener() {
+        return windowListener;
+    }
+
+    /**
+     * Creates a builder for the options.
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * JetStreamPublisherOptions are created using a Builder.
+     */
+    public static class Builder {
+        int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        long maxInFlightBytes = 0;
+        FullWindowAction fullWindowAction = FullWindowAction.BLOCK;
+        Duration maxBlock;
+        int maxRetries = 0;
+        Duration retryWait = DEFAULT_RETRY_WAIT;
+        JetStreamPublisher.WindowListener windowListener;
+
+        /**
+         * Constructs a new Builder with the default values.
+         */
+        public Builder() {}
+
+        /**
+         * Set the maximum number of publishes waiting for an ack.
+         * The default is {@value #DEFAULT_MAX_IN_FLIGHT}, less than 1 means the default.
+         * @param maxInFlight the number of publishes
+         * @return the builder
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight < 1 ? DEFAULT_MAX_IN_FLIGHT : maxInFlight;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of body and header bytes waiting for an ack. A single publish bigger than this
+         * is still sent when nothing else is waiting. The default, 0 or less, is no byte limit.
+         * @param maxInFlightBytes the number of bytes
+         * @return the builder
+         */
+        public Builder maxInFlightBytes(long maxInFlightBytes) {
+            this.maxInFlightBytes = Math.max(0, maxInFlightBytes);
+            return this;
+        }
+
+        /**
+         * Set what to do when a publish does not fit in the window. The default is {@link FullWindowAction#BLOCK BLOCK}.
+         * @param fullWindowAction the action, null means the default
+         * @return the builder
+         */
+        public Builder fullWindowAction(FullWindowAction fullWindowAction) {
+            this.fullWindowAction = fullWindowAction == null ? FullWindowAction.BLOCK : fullWindowAction;
+            return this;
+        }
+
+        /**
+         * Set the longest a publish blocks waiting for room before it throws an IllegalStateException.
+         * The default is the JetStream request timeout.
+         * @param maxBlock the time, 0 to wait forever, null means the default
+         * @return the builder
+         */
+        public Builder maxBlock(Duration maxBlock) {
+            this.maxBlock = maxBlock;
+            return this;
+        }
+
+        /**
+         * Set how many times a publish that timed out or got a 503 no responders is sent again, after the
+         * {@link #retryWait(Duration) retry wait}, before its future fails. A publish is not retried once the
+         * connection is closing. A retry keeps its place in the window. Retrying a publish that did reach the stream stores it
+         * twice unless it has a {@link PublishOptions.Builder#messageId(String) message id}, so set one when
+         * retrying. The default is 0, no retries.
+         * @param maxRetries the number of retries
+         * @return the builder
+         */
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = Math.max(0, maxRetries);
+            return this;
+        }
+
+        /**
+         * Set how long to wait before the first retry. Each retry after it waits twice as long as the one
+         * before, but never longer than the JetStream request timeout, so a stream that is briefly unavailable
+         * is not hit again right away. The default is 100 milliseconds.
+         * @param retryWait the wait, null or negative means the default
+         * @return the builder
+         */
+        public Builder retryWait(Duration retryWait) {
+            this.retryWait = retryWait == null || retryWait.isNegative() ? DEFAULT_RETRY_WAIT : retryWait;
+            return this;
+        }
+
+        /**
+         * Set a listener that is called when the window fills and when it has room again,
+         * so a producer can pause and resume instead of blocking or handling failures.
+         * @param windowListener the listener
+         * @return the builder
+         */
+        public Builder windowListener(JetStreamPublisher.WindowListener windowListener) {
+            this.windowListener = windowListener;
+            return this;
+        }
+
+        /**
+         * Builds the JetStreamPublisherOptions.
+         * @return JetStreamPublisherOptions
+         */
+        public JetStreamPublisherOptions build() {
+            return new JetStreamPublisherOptions(this);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import io.nats.client.support.LatencyHistogram;
+
+/**
+ * Connections can provide latency distributions, {@link Connection#getLatencyStatistics() getLatencyStatistics()},
+ * when latency tracking is turned on with {@link Options.Builder#turnOnLatencyTracking() turnOnLatencyTracking()}.
+ * Each is a {@link LatencyHistogram} of durations in nanoseconds, over the life of the connection
+ * or since the last {@link #reset()}.
+ *
+ * <p>The LatencyStatistics toString() provides a summary of the histograms.
+ */
+public interface LatencyStatistics {
+
+    /**
+     * @return the time from sending a request to its reply being delivered to the waiting future.
+     * This includes the requests the library makes, like JetStream api calls and publishes.
+     */
+    LatencyHistogram getRequestLatency();
+
+    /**
+     * @return the time from reading a message off the socket to a dispatcher calling its handler.
+     */
+    LatencyHistogram getDeliveryLatency();
+
+    /**
+     * @return the time from a JetStream async publish to its publish ack being processed.
+     */
+    LatencyHistogram getPublishAckLatency();
+
+    /**
+     * @return the time a message spends in the outgoing queue, from being queued by a publish
+     * to the writer picking it up to send.
+     */
+    LatencyHistogram getOutgoingQueueLatency();
+
+    /**
+     * Clear all the histograms.
+     */
+    void reset();
+}
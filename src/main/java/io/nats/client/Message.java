@@ -163,4 +163,12 @@ public interface Message {
 	 * @return the consumption byte count or -1 if the message implementation does not support this method
 	 */
 	default long consumeByteCount() { return -1; }
+
+	/**
+	 * Give the message back to its pool. Only messages from a subscription made with
+	 * {@link Dispatcher#subscribePooled(String, MessageHandler) subscribePooled} are pooled, for any other
+	 * message this does nothing. Pooled messages are released automatically when the handler returns, so this
+	 * only needs to be called to release one earlier. The message must not be used once released.
+	 */
+	default void release() {}
 }
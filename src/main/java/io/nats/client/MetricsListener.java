@@ -0,0 +1,60 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+/**
+ * A MetricsListener receives timing and size events from a connection, to pass on to
+ * the application's metrics system, for instance as JFR events or Micrometer meters.
+ * The listener is configured in the {@link Options Options} at creation time.
+ *
+ * <p>The methods are called on the library's own threads, at the moment the event happens,
+ * with only primitive values and objects that already exist, so they must be quick and must not block.
+ * An exception thrown by a listener is caught and counted in the connection {@link Statistics#getExceptions() statistics}.
+ * Every method has an empty default, so a listener only implements what it needs.
+ *
+ * <p>Setting a listener also turns on timing of message handlers, which is available with the other
+ * per subscription numbers from {@link Connection#getSubscriptionMetrics() getSubscriptionMetrics()}.
+ */
+public interface MetricsListener {
+    /**
+     * Called when the connection has reconnected.
+     * @param conn the connection
+     * @param attempts the number of servers tried, including the one that succeeded
+     * @param nanos the time from starting to reconnect to being connected, in nanoseconds
+     */
+    default void reconnected(Connection conn, int attempts, long nanos) {}
+
+    /**
+     * Called when a consumer is marked slow and starts to drop messages, at the same time as
+     * {@link ErrorListener#slowConsumerDetected(Connection, Consumer) ErrorListener.slowConsumerDetected}.
+     * @param conn the connection
+     * @param consumer the consumer that is being marked slow
+     */
+    default void slowConsumer(Connection conn, Consumer consumer) {}
+
+    /**
+     * Called when a {@link Connection#flush(java.time.Duration) flush} completes.
+     * @param conn the connection
+     * @param nanos the round trip time of the flush, in nanoseconds
+     */
+    default void flushed(Connection conn, long nanos) {}
+
+    /**
+     * Called when the writer has written a batch of messages to the socket.
+     * @param conn the connection
+     * @param messages the number of messages, including protocol messages, in the batch
+     * @param bytes the number of bytes in the batch
+     */
+    default void batchWritten(Connection conn, int messages, long bytes) {}
+}
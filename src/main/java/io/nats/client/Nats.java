@@ -261,6 +261,23 @@ public abstract class Nats {
         return createConnection(options, true);
     }
 
+    /**
+     * Connect several connections with the same options and use them together as one {@link ShardedConnection}.
+     * Publishes and subscriptions are spread over the connections by subject, requests are balanced across them.
+     * Each connection is made like {@link #connect(Options) connect(Options)}, if any of them fails the ones
+     * already made are closed.
+     *
+     * @param options the options object to use to create each connection
+     * @param connections the number of connections, at least 1
+     * @return the sharded connection
+     * @throws IOException if a networking issue occurs
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws IllegalArgumentException if connections is less than 1
+     */
+    public static ShardedConnection connectSharded(Options options, int connections) throws IOException, InterruptedException {
+        return NatsImpl.createShardedConnection(options, connections, false);
+    }
+
     /**
      * Try to connect in another thread, a connection listener is required to get
      * the connection.
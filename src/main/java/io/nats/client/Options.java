@@ -18,6 +18,7 @@ import io.nats.client.support.HttpRequest;
 import io.nats.client.support.NatsConstants;
 import io.nats.client.support.NatsUri;
 import io.nats.client.support.SSLUtils;
+import io.nats.client.support.VirtualThreads;
 
 import javax.net.ssl.SSLContext;
 import java.io.File;
@@ -121,6 +122,24 @@ public class Options {
      */
     public static final Duration DEFAULT_SOCKET_WRITE_TIMEOUT = Duration.ofMinutes(1);
 
+    /**
+     * Default number of bytes that ends flush coalescing, see {@link #getFlushCoalescingBytes() getFlushCoalescingBytes()}.
+     * This property is defined as 16 KB.
+     */
+    public static final int DEFAULT_FLUSH_COALESCING_BYTES = 16 * 1024;
+
+    /**
+     * Default smallest payload that is encoded, see {@link #getPayloadCodecThreshold() getPayloadCodecThreshold()}.
+     * This property is defined as 1 KB.
+     */
+    public static final int DEFAULT_PAYLOAD_CODEC_THRESHOLD = 1024;
+
+    /**
+     * Default largest body a payload codec may decode to, see {@link #getPayloadCodecMaxDecodedSize() getPayloadCodecMaxDecodedSize()}.
+     * This property is defined as 8 MB.
+     */
+    public static final int DEFAULT_PAYLOAD_CODEC_MAX_DECODED_SIZE = 8 * 1024 * 1024;
+
     /**
      * Constant used for calculating if a socket write timeout is large enough.
      */
@@ -263,6 +282,26 @@ public class Options {
      * {@link Builder#statisticsCollector(StatisticsCollector) statisticsCollector}.
      */
     public static final String PROP_STATISTICS_COLLECTOR = PFX + "statisticscollector";
+    /**
+     * Property used to configure a builder from a Properties object. {@value}, see
+     * {@link Builder#metricsListener(MetricsListener) metricsListener}.
+     */
+    public static final String PROP_METRICS_LISTENER = PFX + "callback.metrics";
+    /**
+     * Property used to configure a builder from a Properties object. {@value}, see
+     * {@link Builder#payloadCodec(PayloadCodec) payloadCodec}.
+     */
+    public static final String PROP_PAYLOAD_CODEC = PFX + "payload.codec";
+    /**
+     * Property used to configure a builder from a Properties object. {@value}, see
+     * {@link Builder#payloadCodecThreshold(int) payloadCodecThreshold}.
+     */
+    public static final String PROP_PAYLOAD_CODEC_THRESHOLD = PFX + "payload.codec.threshold";
+    /**
+     * Property used to configure a builder from a Properties object. {@value}, see
+     * {@link Builder#payloadCodecMaxDecodedSize(int) payloadCodecMaxDecodedSize}.
+     */
+    public static final String PROP_PAYLOAD_CODEC_MAX_DECODED_SIZE = PFX + "payload.codec.max.decoded.size";
     /**
      * Property used to configure a builder from a Properties object. {@value}, see {@link Builder#maxPingsOut(int) maxPingsOut}.
      */
@@ -412,6 +451,41 @@ public class Options {
      * discardMessagesWhenOutgoingQueueFull}.
      */
     public static final String PROP_DISCARD_MESSAGES_WHEN_OUTGOING_QUEUE_FULL = PFX + "outgoingqueue.discardwhenfull";
+    /**
+     * Property used to configure a builder from a Properties object.
+     * {@value}, see {@link Builder#useRingBufferOutgoingQueue() useRingBufferOutgoingQueue}.
+     */
+    public static final String PROP_USE_RING_BUFFER_OUTGOING_QUEUE = PFX + "outgoingqueue.ringbuffer";
+    /**
+     * Property used to configure a builder from a Properties object.
+     * {@value}, see {@link Builder#useGatheringWrites() useGatheringWrites}.
+     */
+    public static final String PROP_USE_GATHERING_WRITES = PFX + "gathering.writes";
+    /**
+     * Property used to configure a builder from a Properties object.
+     * {@value}, see {@link Builder#flushCoalescingWindow(Duration) flushCoalescingWindow}.
+     */
+    public static final String PROP_FLUSH_COALESCING_WINDOW = PFX + "flush.coalescing.window";
+    /**
+     * Property used to configure a builder from a Properties object.
+     * {@value}, see {@link Builder#flushCoalescingBytes(int) flushCoalescingBytes}.
+     */
+    public static final String PROP_FLUSH_COALESCING_BYTES = PFX + "flush.coalescing.bytes";
+    /**
+     * Property used to configure a builder from a Properties object.
+     * {@value}, see {@link Builder#useSharedIoLoop() useSharedIoLoop}.
+     */
+    public static final String PROP_USE_SHARED_IO_LOOP = PFX + "io.shared";
+    /**
+     * Property used to configure a builder from a Properties object.
+     * {@value}, see {@link Builder#useVirtualThreads() useVirtualThreads}.
+     */
+    public static final String PROP_USE_VIRTUAL_THREADS = PFX + "virtual.threads";
+    /**
+     * Property used to configure a builder from a Properties object.
+     * {@value}, see {@link Builder#turnOnLatencyTracking() turnOnLatencyTracking}.
+     */
+    public static final String PROP_TRACK_LATENCY = PFX + "latency.tracking";
     /**
      * Property used to configure a builder from a Properties object. {@value}, see {@link Builder#oldRequestStyle()
      * oldRequestStyle}.
@@ -502,6 +576,11 @@ public class Options {
      * Property used to configure a builder from a Properties object. {@value}, see {@link Builder#forceFlushOnRequest() forceFlushOnRequest}.
      */
     public static final String PROP_FORCE_FLUSH_ON_REQUEST = PFX + "force.flush.on.request";
+    /**
+     * Property used to parse incoming MSG/HMSG control lines at the byte level.
+     * {@link Builder#useMessageByteParser()}.
+     */
+    public static final String PROP_USE_MESSAGE_BYTE_PARSER = PFX + "use.message.byte.parser";
     /**
      * Property used to set class name for the Executor Service (executor) class
      * {@link Builder#executor(ExecutorService) executor}.
@@ -651,11 +730,21 @@ public class Options {
     private final boolean supportUTF8Subjects;
     private final int maxMessagesInOutgoingQueue;
     private final boolean discardMessagesWhenOutgoingQueueFull;
+    private final boolean useRingBufferOutgoingQueue;
+    private final boolean useGatheringWrites;
+    private final Duration flushCoalescingWindow;
+    private final int flushCoalescingBytes;
+    private final int payloadCodecThreshold;
+    private final int payloadCodecMaxDecodedSize;
+    private final boolean useSharedIoLoop;
+    private final boolean useVirtualThreads;
+    private final boolean trackLatency;
     private final boolean ignoreDiscoveredServers;
     private final boolean tlsFirst;
     private final boolean useTimeoutException;
     private final boolean useDispatcherWithExecutor;
     private final boolean forceFlushOnRequest;
+    private final boolean useMessageByteParser;
 
     private final AuthHandler authHandler;
     private final ReconnectDelayHandler reconnectDelayHandler;
@@ -665,6 +754,8 @@ public class Options {
     private final ConnectionListener connectionListener;
     private ReadListener readListener;
     private final StatisticsCollector statisticsCollector;
+    private final MetricsListener metricsListener;
+    private final PayloadCodec payloadCodec;
     private final String dataPortType;
 
     private final boolean trackAdvancedStats;
@@ -771,11 +862,21 @@ public class Options {
         private String inboxPrefix = DEFAULT_INBOX_PREFIX;
         private int maxMessagesInOutgoingQueue = DEFAULT_MAX_MESSAGES_IN_OUTGOING_QUEUE;
         private boolean discardMessagesWhenOutgoingQueueFull = DEFAULT_DISCARD_MESSAGES_WHEN_OUTGOING_QUEUE_FULL;
+        private boolean useRingBufferOutgoingQueue = false;
+        private boolean useGatheringWrites = false;
+        private Duration flushCoalescingWindow = Duration.ZERO;
+        private int flushCoalescingBytes = DEFAULT_FLUSH_COALESCING_BYTES;
+        private int payloadCodecThreshold = DEFAULT_PAYLOAD_CODEC_THRESHOLD;
+        private int payloadCodecMaxDecodedSize = DEFAULT_PAYLOAD_CODEC_MAX_DECODED_SIZE;
+        private boolean useSharedIoLoop = false;
+        private boolean useVirtualThreads = false;
+        private boolean trackLatency = false;
         private boolean ignoreDiscoveredServers = false;
         private boolean tlsFirst = false;
         private boolean useTimeoutException = false;
         private boolean useDispatcherWithExecutor = false;
         private boolean forceFlushOnRequest = true; // true since it's the original b/w compatible way
+        private boolean useMessageByteParser = false;
         private ServerPool serverPool = null;
         private DispatcherFactory dispatcherFactory = null;
 
@@ -787,6 +888,8 @@ public class Options {
         private ConnectionListener connectionListener = null;
         private ReadListener readListener = null;
         private StatisticsCollector statisticsCollector = null;
+        private MetricsListener metricsListener = null;
+        private PayloadCodec payloadCodec = null;
         private String dataPortType = DEFAULT_DATA_PORT_TYPE;
         private ExecutorService executor;
         private ThreadFactory connectThreadFactory;
@@ -905,17 +1008,29 @@ public class Options {
             classnameProperty(props, PROP_CONNECTION_CB, o -> this.connectionListener = (ConnectionListener) o);
             classnameProperty(props, PROP_READ_LISTENER_CLASS, o -> this.readListener = (ReadListener) o);
             classnameProperty(props, PROP_STATISTICS_COLLECTOR, o -> this.statisticsCollector = (StatisticsCollector) o);
+            classnameProperty(props, PROP_METRICS_LISTENER, o -> this.metricsListener = (MetricsListener) o);
+            classnameProperty(props, PROP_PAYLOAD_CODEC, o -> this.payloadCodec = (PayloadCodec) o);
 
             stringProperty(props, PROP_DATA_PORT_TYPE, s -> this.dataPortType = s);
             stringProperty(props, PROP_INBOX_PREFIX, this::inboxPrefix);
             intGtEqZeroProperty(props, PROP_MAX_MESSAGES_IN_OUTGOING_QUEUE, DEFAULT_MAX_MESSAGES_IN_OUTGOING_QUEUE, i -> this.maxMessagesInOutgoingQueue = i);
             booleanProperty(props, PROP_DISCARD_MESSAGES_WHEN_OUTGOING_QUEUE_FULL, b -> this.discardMessagesWhenOutgoingQueueFull = b);
+            booleanProperty(props, PROP_USE_RING_BUFFER_OUTGOING_QUEUE, b -> this.useRingBufferOutgoingQueue = b);
+            booleanProperty(props, PROP_USE_GATHERING_WRITES, b -> this.useGatheringWrites = b);
+            durationProperty(props, PROP_FLUSH_COALESCING_WINDOW, Duration.ZERO, d -> this.flushCoalescingWindow = d);
+            intProperty(props, PROP_FLUSH_COALESCING_BYTES, DEFAULT_FLUSH_COALESCING_BYTES, i -> this.flushCoalescingBytes = i);
+            intGtEqZeroProperty(props, PROP_PAYLOAD_CODEC_THRESHOLD, DEFAULT_PAYLOAD_CODEC_THRESHOLD, i -> this.payloadCodecThreshold = i);
+            intGtEqZeroProperty(props, PROP_PAYLOAD_CODEC_MAX_DECODED_SIZE, DEFAULT_PAYLOAD_CODEC_MAX_DECODED_SIZE, i -> this.payloadCodecMaxDecodedSize = i);
+            booleanProperty(props, PROP_USE_SHARED_IO_LOOP, b -> this.useSharedIoLoop = b);
+            booleanProperty(props, PROP_USE_VIRTUAL_THREADS, b -> this.useVirtualThreads = b);
+            booleanProperty(props, PROP_TRACK_LATENCY, b -> this.trackLatency = b);
 
             booleanProperty(props, PROP_IGNORE_DISCOVERED_SERVERS, b -> this.ignoreDiscoveredServers = b);
             booleanProperty(props, PROP_TLS_FIRST, b -> this.tlsFirst = b);
             booleanProperty(props, PROP_USE_TIMEOUT_EXCEPTION, b -> this.useTimeoutException = b);
             booleanProperty(props, PROP_USE_DISPATCHER_WITH_EXECUTOR, b -> this.useDispatcherWithExecutor = b);
             booleanProperty(props, PROP_FORCE_FLUSH_ON_REQUEST, b -> this.forceFlushOnRequest = b);
+            booleanProperty(props, PROP_USE_MESSAGE_BYTE_PARSER, b -> this.useMessageByteParser = b);
 
             classnameProperty(props, PROP_SERVERS_POOL_IMPLEMENTATION_CLASS, o -> this.serverPool = (ServerPool) o);
             classnameProperty(props, PROP_DISPATCHER_FACTORY_CLASS, o -> this.dispatcherFactory = (DispatcherFactory) o);
@@ -1582,6 +1697,68 @@ public class Options {
             return this;
         }
 
+        /**
+         * Set a {@link MetricsListener MetricsListener} to receive reconnect, slow consumer, flush
+         * and write batch events as they happen. Setting one also turns on timing of message handlers,
+         * see {@link Connection#getSubscriptionMetrics() getSubscriptionMetrics()}.
+         * <p>
+         * If not set, none of this is tracked.
+         *
+         * @param listener the new MetricsListener for this connection.
+         * @return the Builder for chaining
+         */
+        public Builder metricsListener(MetricsListener listener) {
+            this.metricsListener = listener;
+            return this;
+        }
+
+        /**
+         * Set a {@link PayloadCodec PayloadCodec}, like {@link io.nats.client.support.DeflatePayloadCodec DeflatePayloadCodec},
+         * to compress message bodies. Bodies of at least {@link #payloadCodecThreshold(int) payloadCodecThreshold} bytes
+         * given to publish, publishBatch, a {@link Publisher Publisher} or a JetStream publish are encoded and marked
+         * with a {@link PayloadCodec#ENCODING_HEADER Content-Encoding} header. Incoming messages marked with the codec's
+         * encoding are decoded before they are delivered, unless the subscription was given its own codec with
+         * {@link Subscription#setPayloadCodec(PayloadCodec) setPayloadCodec}. Other messages are left as they are,
+         * so encoded and plain traffic can be mixed. Requests are not encoded, but replies are decoded.
+         * Encoding requires a server that supports headers.
+         * <p>
+         * If not set, bodies are sent and delivered as they are.
+         *
+         * @param codec the codec
+         * @return the Builder for chaining
+         */
+        public Builder payloadCodec(PayloadCodec codec) {
+            this.payloadCodec = codec;
+            return this;
+        }
+
+        /**
+         * Set the smallest body that is encoded by the {@link #payloadCodec(PayloadCodec) payloadCodec}.
+         * Small bodies rarely get smaller and are sent as they are.
+         * The default is {@value #DEFAULT_PAYLOAD_CODEC_THRESHOLD}.
+         *
+         * @param bytes the number of bytes
+         * @return the Builder for chaining
+         */
+        public Builder payloadCodecThreshold(int bytes) {
+            this.payloadCodecThreshold = bytes;
+            return this;
+        }
+
+        /**
+         * Set the largest body the {@link #payloadCodec(PayloadCodec) payloadCodec} may decode an incoming body to.
+         * A small encoded body can decode to a very large one, so decoding stops at this size. A message that
+         * would be larger is delivered as it arrived, still marked as encoded, and the error goes to the error listener.
+         * The default is {@value #DEFAULT_PAYLOAD_CODEC_MAX_DECODED_SIZE}.
+         *
+         * @param bytes the number of bytes
+         * @return the Builder for chaining
+         */
+        public Builder payloadCodecMaxDecodedSize(int bytes) {
+            this.payloadCodecMaxDecodedSize = bytes;
+            return this;
+        }
+
         /**
          * Set the {@link ExecutorService ExecutorService} used to run threaded tasks. The default is a
          * cached thread pool that names threads after the connection name (or a default). This executor
@@ -1659,7 +1836,8 @@ public class Options {
 
         /**
          * The class to use for this connections data port. This is an advanced setting
-         * and primarily useful for testing.
+         * and primarily useful for testing. {@link io.nats.client.impl.SocketChannelDataPort SocketChannelDataPort}
+         * is an alternative to the default that does its network io through pooled direct buffers.
          *
          * @param dataPortClassName a valid and accessible class name
          * @return the Builder for chaining
@@ -1692,6 +1870,101 @@ public class Options {
             return this;
         }
 
+        /**
+         * Use a lock free ring buffer for the outgoing queue instead of the default linked queue.
+         * Publishing threads don't lock or allocate a queue node to add a message. The ring buffer is bounded,
+         * so it is only used when {@link Builder#maxMessagesInOutgoingQueue(int) maxMessagesInOutgoingQueue} is greater than 0.
+         * {@link Builder#discardMessagesWhenOutgoingQueueFull() discardMessagesWhenOutgoingQueueFull} is honored.
+         *
+         * @return the Builder for chaining
+         */
+        public Builder useRingBufferOutgoingQueue() {
+            this.useRingBufferOutgoingQueue = true;
+            return this;
+        }
+
+        /**
+         * Write large payloads straight from the message to the data port as separate buffers instead of
+         * copying them into the connection's send buffer. Small messages are still coalesced.
+         * Only data ports that gather writes, like {@link io.nats.client.impl.SocketChannelDataPort SocketChannelDataPort}
+         * without TLS, take the payloads this way. Otherwise the payloads are copied as before.
+         *
+         * @return the Builder for chaining
+         */
+        public Builder useGatheringWrites() {
+            this.useGatheringWrites = true;
+            return this;
+        }
+
+        /**
+         * Turn on adaptive flush coalescing by setting how long the writer may wait for more messages.
+         * When the writer has been writing often and what it has to write is small, it waits up to the window,
+         * or until {@link #flushCoalescingBytes(int) flushCoalescingBytes} are ready, so that messages,
+         * including requests that would otherwise be flushed on their own, go out in fewer, larger socket writes.
+         * After a quiet period it writes at once, so a lone message is not delayed.
+         * The decisions are counted in the connection {@link io.nats.client.Statistics Statistics}.
+         * Only used with the writer's own thread, not with {@link #useSharedIoLoop() useSharedIoLoop}.
+         * Zero, the default, turns coalescing off.
+         *
+         * @param window the longest a write is delayed, in the order of tens or hundreds of microseconds
+         * @return the Builder for chaining
+         */
+        public Builder flushCoalescingWindow(Duration window) {
+            this.flushCoalescingWindow = window;
+            return this;
+        }
+
+        /**
+         * Set the number of bytes ready to write that ends flush coalescing early,
+         * see {@link #flushCoalescingWindow(Duration) flushCoalescingWindow}.
+         * The default is {@value #DEFAULT_FLUSH_COALESCING_BYTES}.
+         *
+         * @param bytes the number of bytes
+         * @return the Builder for chaining
+         */
+        public Builder flushCoalescingBytes(int bytes) {
+            this.flushCoalescingBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Read and write on a small pool of threads shared by all the connections in the JVM that use this option,
+         * instead of a reader thread and a writer thread for each connection. Useful when there are many connections.
+         * Only applies with the {@link io.nats.client.impl.SocketChannelDataPort SocketChannelDataPort}
+         * {@link #dataPortType(String) data port type}, other data ports keep their own threads.
+         *
+         * @return the Builder for chaining
+         */
+        public Builder useSharedIoLoop() {
+            this.useSharedIoLoop = true;
+            return this;
+        }
+
+        /**
+         * Run the reader, the writer, dispatchers, handler tasks and callbacks on virtual threads when the JVM
+         * supports them, Java 21 or later. Each dispatcher then costs a virtual thread instead of a platform thread,
+         * so an application can have thousands of them. Has no effect on older JVMs, or on an
+         * {@link #executor(ExecutorService) executor} or thread factories supplied by the application.
+         *
+         * @return the Builder for chaining
+         */
+        public Builder useVirtualThreads() {
+            this.useVirtualThreads = true;
+            return this;
+        }
+
+        /**
+         * Turn on latency tracking. The connection keeps histograms of request round trip time, time from reading
+         * a message to its handler being called, JetStream publish ack time and time spent in the outgoing queue.
+         * They are available from {@link Connection#getLatencyStatistics() getLatencyStatistics()}.
+         * Each tracked event costs a couple of {@link System#nanoTime()} calls and a few atomic adds.
+         * @return the Builder for chaining
+         */
+        public Builder turnOnLatencyTracking() {
+            this.trackLatency = true;
+            return this;
+        }
+
         /**
          * Turn off use of discovered servers when connecting / reconnecting. Used in the default server list provider.
          * @return the Builder for chaining
@@ -1742,6 +2015,17 @@ public class Options {
             return this;
         }
 
+        /**
+         * Instruct the reader to parse MSG and HMSG control lines directly from the read buffer,
+         * without building intermediate strings. The sid and lengths are parsed as numbers and
+         * the subject and reply to of a message are only decoded when they are first accessed.
+         * @return the Builder for chaining
+         */
+        public Builder useMessageByteParser() {
+            this.useMessageByteParser = true;
+            return this;
+        }
+
         /**
          * Set the ServerPool implementation for connections to use instead of the default implementation
          * @param serverPool the implementation
@@ -1871,6 +2155,11 @@ public class Options {
                 authHandler = Nats.credentials(file.toString());
             }
 
+            if (this.executor == null && useVirtualThreads) {
+                String threadPrefix = nullOrEmpty(this.connectionName) ? DEFAULT_THREAD_NAME_PREFIX : this.connectionName;
+                this.executor = VirtualThreads.newThreadPerTaskExecutor(threadPrefix + ":");
+            }
+
             if (this.executor == null) {
                 String threadPrefix = nullOrEmpty(this.connectionName) ? DEFAULT_THREAD_NAME_PREFIX : this.connectionName;
                 this.executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
@@ -1971,6 +2260,15 @@ public class Options {
             this.traceConnection = o.traceConnection;
             this.maxMessagesInOutgoingQueue = o.maxMessagesInOutgoingQueue;
             this.discardMessagesWhenOutgoingQueueFull = o.discardMessagesWhenOutgoingQueueFull;
+            this.useRingBufferOutgoingQueue = o.useRingBufferOutgoingQueue;
+            this.useGatheringWrites = o.useGatheringWrites;
+            this.flushCoalescingWindow = o.flushCoalescingWindow;
+            this.flushCoalescingBytes = o.flushCoalescingBytes;
+            this.payloadCodecThreshold = o.payloadCodecThreshold;
+            this.payloadCodecMaxDecodedSize = o.payloadCodecMaxDecodedSize;
+            this.useSharedIoLoop = o.useSharedIoLoop;
+            this.useVirtualThreads = o.useVirtualThreads;
+            this.trackLatency = o.trackLatency;
 
             this.authHandler = o.authHandler;
             this.reconnectDelayHandler = o.reconnectDelayHandler;
@@ -1980,6 +2278,8 @@ public class Options {
             this.connectionListener = o.connectionListener;
             this.readListener = o.readListener;
             this.statisticsCollector = o.statisticsCollector;
+            this.metricsListener = o.metricsListener;
+            this.payloadCodec = o.payloadCodec;
             this.dataPortType = o.dataPortType;
             this.trackAdvancedStats = o.trackAdvancedStats;
             this.executor = o.executor;
@@ -1993,6 +2293,7 @@ public class Options {
             this.useTimeoutException = o.useTimeoutException;
             this.useDispatcherWithExecutor = o.useDispatcherWithExecutor;
             this.forceFlushOnRequest = o.forceFlushOnRequest;
+            this.useMessageByteParser = o.useMessageByteParser;
 
             this.serverPool = o.serverPool;
             this.dispatcherFactory = o.dispatcherFactory;
@@ -2039,6 +2340,15 @@ public class Options {
         this.traceConnection = b.traceConnection;
         this.maxMessagesInOutgoingQueue = b.maxMessagesInOutgoingQueue;
         this.discardMessagesWhenOutgoingQueueFull = b.discardMessagesWhenOutgoingQueueFull;
+        this.useRingBufferOutgoingQueue = b.useRingBufferOutgoingQueue;
+        this.useGatheringWrites = b.useGatheringWrites;
+        this.flushCoalescingWindow = b.flushCoalescingWindow == null || b.flushCoalescingWindow.isNegative() ? Duration.ZERO : b.flushCoalescingWindow;
+        this.flushCoalescingBytes = b.flushCoalescingBytes;
+        this.payloadCodecThreshold = Math.max(0, b.payloadCodecThreshold);
+        this.payloadCodecMaxDecodedSize = b.payloadCodecMaxDecodedSize < 1 ? DEFAULT_PAYLOAD_CODEC_MAX_DECODED_SIZE : b.payloadCodecMaxDecodedSize;
+        this.useSharedIoLoop = b.useSharedIoLoop;
+        this.useVirtualThreads = b.useVirtualThreads;
+        this.trackLatency = b.trackLatency;
 
         this.authHandler = b.authHandler;
         this.reconnectDelayHandler = b.reconnectDelayHandler;
@@ -2048,6 +2358,8 @@ public class Options {
         this.connectionListener = b.connectionListener;
         this.readListener = b.readListener;
         this.statisticsCollector = b.statisticsCollector;
+        this.metricsListener = b.metricsListener;
+        this.payloadCodec = b.payloadCodec;
         this.dataPortType = b.dataPortType;
         this.trackAdvancedStats = b.trackAdvancedStats;
         this.executor = b.executor;
@@ -2061,6 +2373,7 @@ public class Options {
         this.useTimeoutException = b.useTimeoutException;
         this.useDispatcherWithExecutor = b.useDispatcherWithExecutor;
         this.forceFlushOnRequest = b.forceFlushOnRequest;
+        this.useMessageByteParser = b.useMessageByteParser;
 
         this.serverPool = b.serverPool;
         this.dispatcherFactory = b.dispatcherFactory;
@@ -2080,16 +2393,23 @@ public class Options {
      * @return the callback executor, see {@link Builder#callbackThreadFactory(ThreadFactory) callbackThreadFactory()} in the builder doc
      */
     public ExecutorService getCallbackExecutor() {
-        return this.callbackThreadFactory == null ?
-                DEFAULT_SINGLE_THREAD_EXECUTOR.get() : Executors.newSingleThreadExecutor(this.callbackThreadFactory);
+        return singleThreadExecutor(this.callbackThreadFactory, "callback");
     }
 
     /**
      * @return the connect executor, see {@link Builder#connectThreadFactory(ThreadFactory) connectThreadFactory()} in the builder doc
      */
     public ExecutorService getConnectExecutor() {
-        return this.connectThreadFactory == null ?
-                DEFAULT_SINGLE_THREAD_EXECUTOR.get() : Executors.newSingleThreadExecutor(this.connectThreadFactory);
+        return singleThreadExecutor(this.connectThreadFactory, "connect");
+    }
+
+    private ExecutorService singleThreadExecutor(ThreadFactory threadFactory, String purpose) {
+        if (threadFactory == null && useVirtualThreads) {
+            String threadPrefix = nullOrEmpty(this.connectionName) ? DEFAULT_THREAD_NAME_PREFIX : this.connectionName;
+            threadFactory = VirtualThreads.factory(threadPrefix + ":" + purpose + ":");
+        }
+        return threadFactory == null ?
+                DEFAULT_SINGLE_THREAD_EXECUTOR.get() : Executors.newSingleThreadExecutor(threadFactory);
     }
 
     /**
@@ -2146,6 +2466,13 @@ public class Options {
         return this.statisticsCollector;
     }
 
+    /**
+     * @return the metrics listener, or null, see {@link Builder#metricsListener(MetricsListener) metricsListener()} in the builder doc
+     */
+    public MetricsListener getMetricsListener() {
+        return this.metricsListener;
+    }
+
     /**
      * @return the auth handler, or null, see {@link Builder#authHandler(AuthHandler) authHandler()} in the builder doc
      */
@@ -2496,6 +2823,84 @@ public class Options {
         return discardMessagesWhenOutgoingQueueFull;
     }
 
+    /**
+     * @return should the outgoing queue be a ring buffer, see {@link Builder#useRingBufferOutgoingQueue()
+     * useRingBufferOutgoingQueue()} in the builder doc
+     */
+    public boolean useRingBufferOutgoingQueue() {
+        return useRingBufferOutgoingQueue;
+    }
+
+    /**
+     * @return should large payloads be written without copying, see {@link Builder#useGatheringWrites()
+     * useGatheringWrites()} in the builder doc
+     */
+    public boolean useGatheringWrites() {
+        return useGatheringWrites;
+    }
+
+    /**
+     * @return the longest the writer may wait to coalesce writes, zero if coalescing is off,
+     * see {@link Builder#flushCoalescingWindow(Duration) flushCoalescingWindow()} in the builder doc
+     */
+    public Duration getFlushCoalescingWindow() {
+        return flushCoalescingWindow;
+    }
+
+    /**
+     * @return the number of bytes that ends flush coalescing early,
+     * see {@link Builder#flushCoalescingBytes(int) flushCoalescingBytes()} in the builder doc
+     */
+    public int getFlushCoalescingBytes() {
+        return flushCoalescingBytes;
+    }
+
+    /**
+     * @return the payload codec, or null, see {@link Builder#payloadCodec(PayloadCodec) payloadCodec()} in the builder doc
+     */
+    public PayloadCodec getPayloadCodec() {
+        return payloadCodec;
+    }
+
+    /**
+     * @return the smallest body that is encoded,
+     * see {@link Builder#payloadCodecThreshold(int) payloadCodecThreshold()} in the builder doc
+     */
+    public int getPayloadCodecThreshold() {
+        return payloadCodecThreshold;
+    }
+
+    /**
+     * @return the largest body the payload codec may decode to,
+     * see {@link Builder#payloadCodecMaxDecodedSize(int) payloadCodecMaxDecodedSize()} in the builder doc
+     */
+    public int getPayloadCodecMaxDecodedSize() {
+        return payloadCodecMaxDecodedSize;
+    }
+
+    /**
+     * @return should connections share io threads, see {@link Builder#useSharedIoLoop()
+     * useSharedIoLoop()} in the builder doc
+     */
+    public boolean useSharedIoLoop() {
+        return useSharedIoLoop;
+    }
+
+    /**
+     * @return should the library's threads be virtual threads when available, see {@link Builder#useVirtualThreads()
+     * useVirtualThreads()} in the builder doc
+     */
+    public boolean useVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * @return should we track latency, see {@link Builder#turnOnLatencyTracking() turnOnLatencyTracking()} in the builder doc
+     */
+    public boolean isTrackLatency() {
+        return trackLatency;
+    }
+
     /**
      * Get whether to ignore discovered servers
      * @return the flag
@@ -2534,6 +2939,14 @@ public class Options {
         return forceFlushOnRequest;
     }
 
+    /**
+     * Whether the reader parses message control lines at the byte level
+     * @return the flag
+     */
+    public boolean useMessageByteParser() {
+        return useMessageByteParser;
+    }
+
     /**
      * Get the ServerPool implementation. If null, a default implementation is used.
      * @return the ServerPool implementation
@@ -0,0 +1,65 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+/**
+ * A PayloadCodec encodes message bodies, usually to compress them, and decodes them again.
+ * Set one with {@link Options.Builder#payloadCodec(PayloadCodec) payloadCodec} to encode outgoing bodies
+ * and decode incoming ones, or on one subscription with {@link Subscription#setPayloadCodec(PayloadCodec) setPayloadCodec}.
+ *
+ * <p>An encoded message carries the {@link #ENCODING_HEADER} header with the codec's {@link #getEncoding() encoding},
+ * which is how the receiving side knows to decode it. A codec must be safe to use from many threads.
+ */
+public interface PayloadCodec {
+
+    /**
+     * The header that marks an encoded body: {@value}
+     */
+    String ENCODING_HEADER = "Content-Encoding";
+
+    /**
+     * @return the name of the encoding, the value of the {@link #ENCODING_HEADER} header, for example "deflate"
+     */
+    String getEncoding();
+
+    /**
+     * Encode a body.
+     *
+     * @param data the body, not null
+     * @return the encoded body
+     */
+    byte[] encode(byte[] data);
+
+    /**
+     * Decode a body encoded by {@link #encode(byte[]) encode}, with no limit on its size.
+     *
+     * @param data the encoded body, not null
+     * @return the body
+     * @throws IllegalArgumentException if the data cannot be decoded
+     */
+    default byte[] decode(byte[] data) {
+        return decode(data, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Decode a body encoded by {@link #encode(byte[]) encode}, giving up as soon as it would be larger than
+     * the maximum size, so a small body that decodes to a huge one can't use up memory.
+     *
+     * @param data the encoded body, not null
+     * @param maxSize the largest body allowed
+     * @return the body
+     * @throws IllegalArgumentException if the data cannot be decoded or the body would be larger than the maximum size
+     */
+    byte[] decode(byte[] data, int maxSize);
+}
@@ -0,0 +1,44 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+/**
+ * Receives the outcome of publishes made with a {@link PublishAckTracker PublishAckTracker}.
+ * Publishes are identified by the id the tracker returned when they were sent.
+ *
+ * <p>Acks are delivered on the tracker's dispatcher thread and timeouts on its timer thread,
+ * so the listener must be thread safe and should not block.
+ */
+public interface PublishAckListener {
+
+    /**
+     * The stream stored the message.
+     *
+     * @param id the id returned when the message was published
+     * @param seqno the stream sequence of the stored message
+     * @param duplicate true if the stream detected the message as a duplicate
+     */
+    void acked(long id, long seqno, boolean duplicate);
+
+    /**
+     * The publish failed. The exception is a {@link JetStreamApiException JetStreamApiException} if the stream
+     * rejected the message, an {@link java.io.IOException IOException} if the reply was not an ack,
+     * a {@link java.util.concurrent.TimeoutException TimeoutException} if no ack came in time, or an
+     * {@link IllegalStateException IllegalStateException} if the tracker was closed while it was pending.
+     *
+     * @param id the id returned when the message was published
+     * @param e the reason
+     */
+    void failed(long id, Exception e);
+}
@@ -0,0 +1,101 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import io.nats.client.impl.Headers;
+
+/**
+ * A PublishAckTracker publishes to JetStream and reports every ack to one {@link PublishAckListener PublishAckListener}
+ * instead of completing a future per publish. It is created with
+ * {@link JetStream#publishAckTracker(int, PublishAckListener) JetStream.publishAckTracker()}.
+ *
+ * <p>Each publish gets a long id that is carried in its reply subject. Pending publishes are kept in a ring
+ * of fixed capacity indexed by the id, and the sequence is read straight from the ack bytes, so a publish
+ * costs no future, no completion stage and no {@link io.nats.client.api.PublishAck PublishAck}.
+ * The capacity limits how many publishes can be waiting for an ack. A publish that would reuse a slot
+ * that is still waiting fails, so the capacity should be larger than the number of acks
+ * expected to be outstanding.
+ *
+ * <p>Publishes that are not acked within the JetStream request timeout are reported as failed.
+ * A tracker can be used from many threads and should be closed when it is no longer needed.
+ */
+public interface PublishAckTracker extends AutoCloseable {
+
+    /**
+     * Send a message to the specified subject.
+     *
+     * @param subject the subject to send the message to
+     * @param body the message body
+     * @return the id the ack or failure will be reported with
+     * @throws IllegalStateException if the tracker is full or closed
+     */
+    long publish(String subject, byte[] body);
+
+    /**
+     * Send a message to the specified subject.
+     *
+     * @param subject the subject to send the message to
+     * @param headers Optional headers to publish with the message.
+     * @param body the message body
+     * @return the id the ack or failure will be reported with
+     * @throws IllegalStateException if the tracker is full or closed
+     */
+    long publish(String subject, Headers headers, byte[] body);
+
+    /**
+     * Send a message to the specified subject.
+     *
+     * @param subject the subject to send the message to
+     * @param headers Optional headers to publish with the message.
+     * @param body the message body
+     * @param options publisher options
+     * @return the id the ack or failure will be reported with
+     * @throws IllegalStateException if the tracker is full or closed
+     */
+    long publish(String subject, Headers headers, byte[] body, PublishOptions options);
+
+    /**
+     * Send a message. The message's reply to is ignored.
+     *
+     * @param message the message to publish
+     * @return the id the ack or failure will be reported with
+     * @throws IllegalStateException if the tracker is full or closed
+     */
+    long publish(Message message);
+
+    /**
+     * Send a message. The message's reply to is ignored.
+     *
+     * @param message the message to publish
+     * @param options publisher options
+     * @return the id the ack or failure will be reported with
+     * @throws IllegalStateException if the tracker is full or closed
+     */
+    long publish(Message message, PublishOptions options);
+
+    /**
+     * @return the number of publishes waiting for an ack
+     */
+    int getPending();
+
+    /**
+     * @return the number of publishes that can be waiting for an ack at once
+     */
+    int getCapacity();
+
+    /**
+     * Stop receiving acks. Publishes still waiting are reported as failed.
+     */
+    void close();
+}
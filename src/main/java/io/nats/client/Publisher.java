@@ -0,0 +1,53 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import io.nats.client.impl.Headers;
+
+/**
+ * A Publisher sends messages to one subject, with an optional fixed reply to and headers,
+ * and is created with {@link Connection#publisher(String) Connection.publisher()}.
+ *
+ * <p>The subject and reply to are validated, and the start of the protocol line and the headers are encoded,
+ * once when the publisher is created, instead of on every publish. This makes publishing many small messages to
+ * the same subjects cheaper. A publisher is tied to its connection, can be kept for the life of the connection
+ * and can be used from many threads.
+ */
+public interface Publisher {
+
+    /**
+     * @return the subject messages are published to
+     */
+    String getSubject();
+
+    /**
+     * @return the reply to subject sent with each message, or null if there is none
+     */
+    String getReplyTo();
+
+    /**
+     * @return the read only headers sent with each message, or null if there are none
+     */
+    Headers getHeaders();
+
+    /**
+     * Send a message to the publisher's subject. The body <strong>will not</strong> be copied.
+     * See {@link Connection#publish(String, String, byte[]) Connection.publish()} for more details on
+     * publish during reconnect.
+     *
+     * @param body the message body
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publish(byte[] body);
+}
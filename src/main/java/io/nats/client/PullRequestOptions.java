@@ -16,6 +16,7 @@ package io.nats.client;
 import io.nats.client.support.JsonSerializable;
 import io.nats.client.support.JsonUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 
 import static io.nats.client.support.ApiConstants.*;
@@ -35,6 +36,10 @@ public class PullRequestOptions implements JsonSerializable {
     private final long minPending;
     private final long minAckPending;
 
+    // the options never change, so a pull that repeats them reuses the encoded form
+    private String json;
+    private byte[] serialized;
+
     public PullRequestOptions(Builder b) {
         this.batchSize = b.batchSize;
         this.maxBytes = b.maxBytes;
@@ -48,6 +53,25 @@ public class PullRequestOptions implements JsonSerializable {
 
     @Override
     public String toJson() {
+        String j = json;
+        if (j == null) {
+            j = buildJson();
+            json = j;
+        }
+        return j;
+    }
+
+    @Override
+    public byte[] serialize() {
+        byte[] s = serialized;
+        if (s == null) {
+            s = toJson().getBytes(StandardCharsets.UTF_8);
+            serialized = s;
+        }
+        return s.clone();
+    }
+
+    private String buildJson() {
         StringBuilder sb = JsonUtils.beginJson();
         JsonUtils.addField(sb, BATCH, batchSize);
         JsonUtils.addField(sb, MAX_BYTES, maxBytes);
@@ -0,0 +1,294 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import io.nats.client.impl.Headers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A ShardedConnection spreads publish, request and subscribe work over several {@link Connection Connections}
+ * to the same servers, and is created with {@link Nats#connectSharded(Options, int) Nats.connectSharded()}.
+ *
+ * <p>A single connection has one socket and one writer thread. When that is the limit, a sharded connection
+ * lets one application use several of each without striping connections by hand.
+ *
+ * <ul>
+ * <li> Publishes go to the member chosen by a hash of the subject, so messages to one subject are
+ * sent in order by one connection, the same as they would be with a single connection.
+ * <li> Subscriptions are placed the same way, so the reading is spread out too.
+ * <li> Requests are balanced across the members, preferring members that are connected.
+ * </ul>
+ *
+ * <p>Every member is created from the same {@link Options Options} and reconnects on its own. While a member
+ * is reconnecting, publishes for its subjects are buffered by that member as they would be by any connection,
+ * and requests go to the other members. Anything not covered here, like dispatchers or JetStream,
+ * can be used directly on a member from {@link #getConnection(String) getConnection} or {@link #getConnections()}.
+ */
+public interface ShardedConnection extends AutoCloseable {
+
+    /**
+     * @return the member connections, in shard order
+     */
+    List<Connection> getConnections();
+
+    /**
+     * Get the member connection that publishes and subscribes for a subject.
+     *
+     * @param subject the subject
+     * @return the connection
+     */
+    Connection getConnection(String subject);
+
+    /**
+     * Send a message to the specified subject. See {@link Connection#publish(String, byte[]) Connection.publish()}.
+     *
+     * @param subject the subject to send the message to
+     * @param body the message body
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publish(String subject, byte[] body);
+
+    /**
+     * Send a message to the specified subject.
+     * See {@link Connection#publish(String, Headers, byte[]) Connection.publish()}.
+     *
+     * @param subject the subject to send the message to
+     * @param headers Optional headers to publish with the message.
+     * @param body the message body
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publish(String subject, Headers headers, byte[] body);
+
+    /**
+     * Send a request to the specified subject, providing a replyTo subject.
+     * See {@link Connection#publish(String, String, byte[]) Connection.publish()}.
+     *
+     * @param subject the subject to send the message to
+     * @param replyTo the subject the receiver should send any response to
+     * @param body the message body
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publish(String subject, String replyTo, byte[] body);
+
+    /**
+     * Send a request to the specified subject, providing a replyTo subject.
+     * See {@link Connection#publish(String, String, Headers, byte[]) Connection.publish()}.
+     *
+     * @param subject the subject to send the message to
+     * @param replyTo the subject the receiver should send any response to
+     * @param headers Optional headers to publish with the message.
+     * @param body the message body
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publish(String subject, String replyTo, Headers headers, byte[] body);
+
+    /**
+     * Send a message. See {@link Connection#publish(Message) Connection.publish()}.
+     *
+     * @param message the message
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publish(Message message);
+
+    /**
+     * Create a {@link Publisher Publisher} on the member connection for the subject.
+     *
+     * @param subject the subject to send messages to
+     * @return the publisher
+     * @throws IllegalArgumentException if the subject is not valid
+     */
+    Publisher publisher(String subject);
+
+    /**
+     * Create a {@link Publisher Publisher} on the member connection for the subject.
+     *
+     * @param subject the subject to send messages to
+     * @param replyTo the subject the receiver should send any response to, or null
+     * @param headers the headers to send with every message, or null
+     * @return the publisher
+     * @throws IllegalArgumentException if the subject or reply to is not valid
+     */
+    Publisher publisher(String subject, String replyTo, Headers headers);
+
+    /**
+     * Send a list of messages. Each member gets its messages as one batch, in list order.
+     * See {@link Connection#publishBatch(List) Connection.publishBatch()}.
+     *
+     * @param messages the messages
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publishBatch(List<Message> messages);
+
+    /**
+     * Send a list of messages. Each member gets its messages as one batch, in list order.
+     * See {@link Connection#publishBatch(List, boolean) Connection.publishBatch()}.
+     *
+     * @param messages the messages
+     * @param flush whether each member's writer should flush as soon as its batch is written
+     * @throws IllegalStateException if the reconnect buffer is exceeded
+     */
+    void publishBatch(List<Message> messages, boolean flush);
+
+    /**
+     * Send a request on the next member connection. See {@link Connection#request(String, byte[]) Connection.request()}.
+     *
+     * @param subject the subject for the service that will handle the request
+     * @param body the content of the message
+     * @return a Future for the response, which may be cancelled on error or timed out
+     */
+    CompletableFuture<Message> request(String subject, byte[] body);
+
+    /**
+     * Send a request on the next member connection.
+     * See {@link Connection#request(String, Headers, byte[]) Connection.request()}.
+     *
+     * @param subject the subject for the service that will handle the request
+     * @param headers Optional headers to publish with the message.
+     * @param body the content of the message
+     * @return a Future for the response, which may be cancelled on error or timed out
+     */
+    CompletableFuture<Message> request(String subject, Headers headers, byte[] body);
+
+    /**
+     * Send a request on the next member connection.
+     * See {@link Connection#requestWithTimeout(String, byte[], Duration) Connection.requestWithTimeout()}.
+     *
+     * @param subject the subject for the service that will handle the request
+     * @param body the content of the message
+     * @param timeout the time to wait for a response
+     * @return a Future for the response, which may be cancelled on error or timed out
+     */
+    CompletableFuture<Message> requestWithTimeout(String subject, byte[] body, Duration timeout);
+
+    /**
+     * Send a request on the next member connection.
+     * See {@link Connection#requestWithTimeout(String, Headers, byte[], Duration) Connection.requestWithTimeout()}.
+     *
+     * @param subject the subject for the service that will handle the request
+     * @param headers Optional headers to publish with the message.
+     * @param body the content of the message
+     * @param timeout the time to wait for a response
+     * @return a Future for the response, which may be cancelled on error or timed out
+     */
+    CompletableFuture<Message> requestWithTimeout(String subject, Headers headers, byte[] body, Duration timeout);
+
+    /**
+     * Send a request on the next member connection. See {@link Connection#request(Message) Connection.request()}.
+     *
+     * @param message the message
+     * @return a Future for the response, which may be cancelled on error or timed out
+     */
+    CompletableFuture<Message> request(Message message);
+
+    /**
+     * Send a request on the next member connection.
+     * See {@link Connection#requestWithTimeout(Message, Duration) Connection.requestWithTimeout()}.
+     *
+     * @param message the message
+     * @param timeout the time to wait for a response
+     * @return a Future for the response, which may be cancelled on error or timed out
+     */
+    CompletableFuture<Message> requestWithTimeout(Message message, Duration timeout);
+
+    /**
+     * Send a request on the next member connection and wait for the response.
+     * See {@link Connection#request(String, byte[], Duration) Connection.request()}.
+     *
+     * @param subject the subject for the service that will handle the request
+     * @param body the content of the message
+     * @param timeout the time to wait for a response
+     * @return the reply message or null if the timeout is reached
+     * @throws InterruptedException if one is thrown while waiting, in order to propagate it up
+     */
+    Message request(String subject, byte[] body, Duration timeout) throws InterruptedException;
+
+    /**
+     * Send a request on the next member connection and wait for the response.
+     * See {@link Connection#request(String, Headers, byte[], Duration) Connection.request()}.
+     *
+     * @param subject the subject for the service that will handle the request
+     * @param headers Optional headers to publish with the message.
+     * @param body the content of the message
+     * @param timeout the time to wait for a response
+     * @return the reply message or null if the timeout is reached
+     * @throws InterruptedException if one is thrown while waiting, in order to propagate it up
+     */
+    Message request(String subject, Headers headers, byte[] body, Duration timeout) throws InterruptedException;
+
+    /**
+     * Send a request on the next member connection and wait for the response.
+     * See {@link Connection#request(Message, Duration) Connection.request()}.
+     *
+     * @param message the message
+     * @param timeout the time to wait for a response
+     * @return the reply message or null if the timeout is reached
+     * @throws InterruptedException if one is thrown while waiting, in order to propagate it up
+     */
+    Message request(Message message, Duration timeout) throws InterruptedException;
+
+    /**
+     * Create a synchronous subscription on the member connection for the subject.
+     * See {@link Connection#subscribe(String) Connection.subscribe()}.
+     *
+     * @param subject the subject to subscribe to
+     * @return an object representing the subscription
+     */
+    Subscription subscribe(String subject);
+
+    /**
+     * Create a synchronous subscription with a queue group on the member connection for the subject.
+     * See {@link Connection#subscribe(String, String) Connection.subscribe()}.
+     *
+     * @param subject the subject to subscribe to
+     * @param queueName the queue group to join
+     * @return an object representing the subscription
+     */
+    Subscription subscribe(String subject, String queueName);
+
+    /**
+     * Flush every member connection. The timeout covers all the members together.
+     * See {@link Connection#flush(Duration) Connection.flush()}.
+     *
+     * @param timeout The time to wait for the flush to succeed, pass 0 to wait forever.
+     * @throws TimeoutException if the timeout is exceeded
+     * @throws InterruptedException if the underlying thread is interrupted
+     */
+    void flush(Duration timeout) throws TimeoutException, InterruptedException;
+
+    /**
+     * Drain every member connection. See {@link Connection#drain(Duration) Connection.drain()}.
+     *
+     * @param timeout The time to wait for each member to drain, pass 0 to wait forever.
+     * @return A future that completes when every member has drained, with true if all of them drained in the timeout
+     * @throws InterruptedException if the thread is interrupted
+     * @throws TimeoutException if the initial flush of a member times out
+     */
+    CompletableFuture<Boolean> drain(Duration timeout) throws TimeoutException, InterruptedException;
+
+    /**
+     * @return the smallest max payload of the member connections
+     */
+    long getMaxPayload();
+
+    /**
+     * Close every member connection.
+     *
+     * @throws InterruptedException if the thread is interrupted during a close
+     */
+    void close() throws InterruptedException;
+}
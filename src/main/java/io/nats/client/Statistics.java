@@ -104,4 +104,26 @@ public interface Statistics {
      * @return the count of outstanding of requests from this connection.
      */
     long getOutstandingRequests();
+
+    /**
+     * @return the number of socket writes that waited for more messages because of flush coalescing,
+     * see {@link Options.Builder#flushCoalescingWindow(java.time.Duration) flushCoalescingWindow}.
+     */
+    default long getCoalescedWrites() {
+        return 0;
+    }
+
+    /**
+     * @return the number of messages that joined a write while it waited because of flush coalescing.
+     */
+    default long getCoalescedMessages() {
+        return 0;
+    }
+
+    /**
+     * @return the total time writes waited because of flush coalescing, in nanoseconds.
+     */
+    default long getCoalescingNanos() {
+        return 0;
+    }
 }
@@ -131,4 +131,11 @@ public interface StatisticsCollector extends Statistics {
      * @param bytes the number of bytes being written
      */
     void registerWrite(long bytes);
+
+    /**
+     * Registers a socket write that waited for more messages because of flush coalescing.
+     * @param messages the number of messages that joined the write while it waited
+     * @param nanos how long the write waited
+     */
+    default void registerCoalescedWrite(long messages, long nanos) {}
 }
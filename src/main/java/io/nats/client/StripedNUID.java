@@ -0,0 +1,187 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import io.nats.client.support.ByteArrayBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.nats.client.NUID.*;
+import static io.nats.client.support.RandomUtils.*;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * A {@link NUID} generator for many threads. It generates the same 22 character
+ * identifiers as NUID, but instead of one prefix and sequence behind a lock, it keeps
+ * several stripes, each with its own random prefix and sequence, and a thread
+ * takes the next value from its stripe with a single atomic add.
+ * <p>Values are unique for the same reason NUIDs from separate NUID instances are unique:
+ * every stripe has its own crypto random prefix, and a new one when its sequence runs out.
+ * <p>Besides returning a String, the next value can be written straight into a byte array
+ * or a {@link ByteArrayBuilder}, which does not allocate anything.
+ */
+public final class StripedNUID {
+    /**
+     * The length of a NUID.
+     */
+    public static final int LENGTH = totalLen;
+
+    static final int MAX_STRIPES = 64;
+    private static final byte[] DIGIT_BYTES = new String(digits).getBytes(US_ASCII);
+    private static final byte[] RESERVE = new byte[totalLen];
+
+    private static final StripedNUID globalStripedNUID;
+
+    static {
+        globalStripedNUID = new StripedNUID();
+    }
+
+    // One prefix and its sequence. Replaced as a whole when the sequence runs out.
+    static final class Block {
+        final byte[] pre;
+        final long inc;
+        final AtomicLong seq;
+
+        Block() {
+            byte[] cb = new byte[preLen];
+            SRAND.nextBytes(cb);
+            pre = new byte[preLen];
+            for (int i = 0; i < preLen; i++) {
+                pre[i] = DIGIT_BYTES[(cb[i] & 0xFF) % base];
+            }
+            inc = minInc + nextLong(PRAND, maxInc - minInc);
+            seq = new AtomicLong(nextLong(PRAND, maxSeq));
+        }
+    }
+
+    private final AtomicReferenceArray<Block> stripes;
+    private final int mask;
+
+    /**
+     * Construct a StripedNUID with a stripe count based on the number of available processors.
+     */
+    public StripedNUID() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * Construct a StripedNUID with at least the given number of stripes. The count is rounded
+     * up to a power of 2 and capped at {@value #MAX_STRIPES}.
+     * @param stripes the number of stripes
+     */
+    public StripedNUID(int stripes) {
+        int count = 1;
+        while (count < stripes && count < MAX_STRIPES) {
+            count <<= 1;
+        }
+        this.stripes = new AtomicReferenceArray<>(count);
+        for (int i = 0; i < count; i++) {
+            this.stripes.set(i, new Block());
+        }
+        mask = count - 1;
+    }
+
+    /**
+     * @return the next NUID string from a shared global StripedNUID instance
+     */
+    public static String nextGlobal() {
+        return globalStripedNUID.next();
+    }
+
+    /**
+     * @return the shared global StripedNUID instance
+     */
+    public static StripedNUID global() {
+        return globalStripedNUID;
+    }
+
+    /**
+     * @return the number of stripes
+     */
+    public int getStripeCount() {
+        return mask + 1;
+    }
+
+    /**
+     * Generate the next NUID string from this instance.
+     * @return the next NUID string
+     */
+    public String next() {
+        byte[] b = new byte[totalLen];
+        next(b, 0);
+        return new String(b, US_ASCII);
+    }
+
+    /**
+     * Write the next NUID into the byte array at the position supplied.
+     * Assumes the array has {@value #LENGTH} bytes available from that position.
+     * @param dest the destination byte array
+     * @param destPos the starting position in the destination byte array
+     * @return the number of bytes written, always {@value #LENGTH}
+     */
+    public int next(byte[] dest, int destPos) {
+        int stripe = stripeIndex();
+        Block block = stripes.get(stripe);
+        long seq = block.seq.addAndGet(block.inc);
+        while (seq >= maxSeq) {
+            block = rollover(stripe, block);
+            seq = block.seq.addAndGet(block.inc);
+        }
+        System.arraycopy(block.pre, 0, dest, destPos, preLen);
+        for (int i = destPos + totalLen - 1; i >= destPos + preLen; i--) {
+            dest[i] = DIGIT_BYTES[(int) (seq % base)];
+            seq /= base;
+        }
+        return totalLen;
+    }
+
+    /**
+     * Append the next NUID to the builder.
+     * @param bab the builder
+     * @return the builder
+     */
+    public ByteArrayBuilder next(ByteArrayBuilder bab) {
+        bab.ensureCapacity(totalLen);
+        int start = bab.length();
+        // reserve the space, then write the digits straight into the builder's array
+        bab.appendUnchecked(RESERVE, 0, totalLen);
+        next(bab.internalArray(), start);
+        return bab;
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) & mask;
+    }
+
+    // Only one of the threads that ran out of sequence gets its block in,
+    // everyone else picks up the winner's block.
+    private Block rollover(int stripe, Block exhausted) {
+        Block current = stripes.get(stripe);
+        if (current == exhausted) {
+            Block fresh = new Block();
+            if (stripes.compareAndSet(stripe, exhausted, fresh)) {
+                return fresh;
+            }
+            current = stripes.get(stripe);
+        }
+        return current;
+    }
+
+    // for testing
+    Block getBlock(int stripe) {
+        return stripes.get(stripe);
+    }
+}
@@ -118,4 +118,18 @@ public interface Subscription extends Consumer {
      * @throws IllegalStateException if the subscription belongs to a dispatcher, or is not active
      */
     Subscription unsubscribe(int after);
+
+    /**
+     * Set the codec that decodes messages delivered to this subscription, in place of the connection's
+     * {@link Options.Builder#payloadCodec(PayloadCodec) payloadCodec}. Messages marked with the codec's
+     * encoding are decoded before they are delivered, other messages are delivered as they are.
+     *
+     * @param codec the codec, or null to deliver every message as it is
+     */
+    void setPayloadCodec(PayloadCodec codec);
+
+    /**
+     * @return the codec that decodes messages delivered to this subscription, or null
+     */
+    PayloadCodec getPayloadCodec();
 }
@@ -0,0 +1,78 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+/**
+ * A live view of the numbers for one subscription, from {@link Connection#getSubscriptionMetrics()
+ * getSubscriptionMetrics()}. The sid, subject, queue name and dispatcher id are meant to be used as
+ * the tags or dimensions of gauges in a metrics system, the counts are read each time they are called.
+ *
+ * <p>Messages wait, and are dropped, in the queue of the subscription, or of its dispatcher
+ * if it has one. The pending and dropped numbers are for that queue, so they are shared
+ * by all the subscriptions of a dispatcher.
+ */
+public interface SubscriptionMetrics {
+
+    /**
+     * @return the subscription id
+     */
+    String getSid();
+
+    /**
+     * @return the subject of the subscription
+     */
+    String getSubject();
+
+    /**
+     * @return the queue group name, or null if the subscription is not in a queue group
+     */
+    String getQueueName();
+
+    /**
+     * @return the id of the subscription's dispatcher, or null if it is a synchronous subscription
+     */
+    String getDispatcherId();
+
+    /**
+     * @return the number of messages waiting in the subscription's queue
+     */
+    long getPendingMessageCount();
+
+    /**
+     * @return the number of bytes waiting in the subscription's queue
+     */
+    long getPendingByteCount();
+
+    /**
+     * @return the number of messages dropped from the subscription's queue
+     */
+    long getDroppedCount();
+
+    /**
+     * @return the number of messages delivered to the subscription
+     */
+    long getDeliveredCount();
+
+    /**
+     * @return the number of times a handler was called for the subscription. This is only counted
+     * when a {@link MetricsListener MetricsListener} is set in the options.
+     */
+    long getHandlerCount();
+
+    /**
+     * @return the total time spent in the subscription's handlers, in nanoseconds. This is only
+     * counted when a {@link MetricsListener MetricsListener} is set in the options.
+     */
+    long getHandlerNanos();
+}
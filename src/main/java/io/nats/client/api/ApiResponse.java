@@ -44,13 +44,17 @@ public abstract class ApiResponse<T> {
             return JsonParser.parse(msg.getData());
         }
         catch (JsonParseException e) {
-            return JsonValueUtils.mapBuilder()
-                .put(ERROR, new Error(500, "Error parsing: " + e.getMessage()))
-                .put(TYPE, PARSE_ERROR_TYPE)
-                .toJsonValue();
+            return parseErrorValue(e);
         }
     }
 
+    protected static JsonValue parseErrorValue(JsonParseException e) {
+        return JsonValueUtils.mapBuilder()
+            .put(ERROR, new Error(500, "Error parsing: " + e.getMessage()))
+            .put(TYPE, PARSE_ERROR_TYPE)
+            .toJsonValue();
+    }
+
     public ApiResponse(JsonValue jsonValue) {
         jv = jsonValue;
         if (jv == null) {
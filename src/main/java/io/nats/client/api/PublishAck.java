@@ -14,21 +14,29 @@ package io.nats.client.api;
 
 import io.nats.client.JetStreamApiException;
 import io.nats.client.Message;
+import io.nats.client.support.JsonValue;
 import io.nats.client.support.JsonValueUtils;
 
 import java.io.IOException;
 
 import static io.nats.client.support.ApiConstants.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * PublishAck objects represent a JetStream enabled server acknowledgment from a publish call.
  */
 public class PublishAck extends ApiResponse<PublishAck> {
 
+    private static final byte[] STREAM_KEY = STREAM.getBytes(UTF_8);
+    private static final byte[] SEQ_KEY = SEQ.getBytes(UTF_8);
+    private static final byte[] DOMAIN_KEY = DOMAIN.getBytes(UTF_8);
+    private static final byte[] DUPLICATE_KEY = DUPLICATE.getBytes(UTF_8);
+
     private final String stream;
     private final long seq;
     private final String domain;
     private final boolean duplicate;
+    private JsonValue scannedJv;
 
     /**
      *
@@ -52,6 +60,161 @@ public class PublishAck extends ApiResponse<PublishAck> {
         duplicate = JsonValueUtils.readBoolean(jv, DUPLICATE);
     }
 
+    private PublishAck(String stream, long seq, String domain, boolean duplicate) {
+        super();
+        this.stream = stream;
+        this.seq = seq;
+        this.domain = domain;
+        this.duplicate = duplicate;
+    }
+
+    /**
+     * Create a PublishAck from a publish response. The usual ack,
+     * <code>{"stream":"name","seq":1,"domain":"d","duplicate":true}</code>, is read directly from the bytes.
+     * Anything else, including errors, goes through the full json parse like {@link #PublishAck(Message)}.
+     * This signature is public for internal use and is not intended to be used externally
+     * @param msg the message containing the Pub Ack Json
+     * @return the PublishAck
+     * @throws IOException if the response is not a valid ack
+     * @throws JetStreamApiException the request had an error related to the request
+     */
+    public static PublishAck fromMessage(Message msg) throws IOException, JetStreamApiException {
+        PublishAck ack = msg == null ? null : scan(msg.getData());
+        return ack == null ? new PublishAck(msg) : ack;
+    }
+
+    /**
+     * Read an ack that is a flat object of only the known fields, with no whitespace or escapes,
+     * which is what the server sends.
+     * @return the ack, or null if the data is anything else
+     */
+    static PublishAck scan(byte[] data) {
+        int end = data == null ? 0 : data.length - 1;
+        if (end < 1 || data[0] != '{' || data[end] != '}') {
+            return null;
+        }
+
+        String stream = null;
+        long seq = -1;
+        String domain = null;
+        boolean duplicate = false;
+
+        int x = 1;
+        while (true) {
+            // "key":
+            if (data[x] != '"') {
+                return null;
+            }
+            int keyStart = ++x;
+            while (x < end && data[x] != '"') {
+                x++;
+            }
+            int keyLen = x - keyStart;
+            if (x + 2 >= end || data[x + 1] != ':') {
+                return null;
+            }
+            x += 2;
+
+            boolean isStream = matches(data, keyStart, keyLen, STREAM_KEY);
+            if (isStream || matches(data, keyStart, keyLen, DOMAIN_KEY)) {
+                if (data[x] != '"') {
+                    return null;
+                }
+                int valueStart = ++x;
+                while (x < end && data[x] != '"') {
+                    if (data[x] == '\\') {
+                        return null;
+                    }
+                    x++;
+                }
+                if (x == end) {
+                    return null;
+                }
+                String value = new String(data, valueStart, x - valueStart, UTF_8);
+                x++;
+                if (isStream) {
+                    stream = value;
+                }
+                else {
+                    domain = value;
+                }
+            }
+            else if (matches(data, keyStart, keyLen, SEQ_KEY)) {
+                int valueStart = x;
+                long value = 0;
+                while (x < end && data[x] >= '0' && data[x] <= '9' && x - valueStart < 18) {
+                    value = value * 10 + (data[x] - '0');
+                    x++;
+                }
+                if (x == valueStart) {
+                    return null;
+                }
+                seq = value;
+            }
+            else if (matches(data, keyStart, keyLen, DUPLICATE_KEY)) {
+                if (data[x] == 't' && x + 4 <= end && data[x + 1] == 'r' && data[x + 2] == 'u' && data[x + 3] == 'e') {
+                    duplicate = true;
+                    x += 4;
+                }
+                else if (data[x] == 'f' && x + 5 <= end && data[x + 1] == 'a' && data[x + 2] == 'l' && data[x + 3] == 's' && data[x + 4] == 'e') {
+                    duplicate = false;
+                    x += 5;
+                }
+                else {
+                    return null;
+                }
+            }
+            else {
+                return null; // an error, or a field this does not know
+            }
+
+            if (x == end) {
+                break;
+            }
+            if (data[x] != ',' || x + 1 == end) {
+                return null;
+            }
+            x++;
+        }
+
+        // missing fields get the full parse, so they fail the same way
+        return stream == null || seq < 0 ? null : new PublishAck(stream, seq, domain, duplicate);
+    }
+
+    private static boolean matches(byte[] data, int start, int len, byte[] key) {
+        if (len != key.length) {
+            return false;
+        }
+        for (int x = 0; x < len; x++) {
+            if (data[start + x] != key[x]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public JsonValue getJv() {
+        if (jv != null) {
+            return jv;
+        }
+        // only built if asked for, a scanned ack has no tree
+        if (scannedJv == null) {
+            scannedJv = JsonValueUtils.mapBuilder()
+                .put(STREAM, stream)
+                .put(SEQ, seq)
+                .put(DOMAIN, domain)
+                .put(DUPLICATE, duplicate ? Boolean.TRUE : null)
+                .toJsonValue();
+        }
+        return scannedJv;
+    }
+
+    @Override
+    public String toString() {
+        return getJv().toString(getClass());
+    }
+
     /**
      * Get the stream sequence number for the corresponding published message.
      * @return the sequence number for the stored message.
@@ -15,11 +15,8 @@ package io.nats.client.impl;
 
 import io.nats.client.JetStreamApiException;
 import io.nats.client.Message;
-import io.nats.client.support.JsonValue;
-
-import java.util.List;
-
-import static io.nats.client.support.JsonValueUtils.readArray;
+import io.nats.client.support.JsonParseException;
+import io.nats.client.support.JsonReader;
 
 abstract class AbstractListReader {
 
@@ -28,11 +25,11 @@ abstract class AbstractListReader {
     protected ListRequestEngine engine;
 
     void process(Message msg) throws JetStreamApiException {
-        engine = new ListRequestEngine(msg);
-        processItems(readArray(engine.getJv(), objectName));
+        engine = new ListRequestEngine(msg, objectName, this::processItem);
     }
 
-    abstract void processItems(List<JsonValue> items);
+    // items are read as the page is, the page is never built as a whole
+    abstract void processItem(JsonReader reader) throws JsonParseException;
 
     AbstractListReader(String objectName) {
         this(objectName, null);
@@ -14,7 +14,8 @@
 package io.nats.client.impl;
 
 import io.nats.client.api.ConsumerInfo;
-import io.nats.client.support.JsonValue;
+import io.nats.client.support.JsonParseException;
+import io.nats.client.support.JsonReader;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,10 +32,8 @@ class ConsumerListReader extends AbstractListReader {
     }
 
     @Override
-    protected void processItems(List<JsonValue> items) {
-        for (JsonValue v : items) {
-            consumers.add(new ConsumerInfo(v));
-        }
+    protected void processItem(JsonReader reader) throws JsonParseException {
+        consumers.add(new ConsumerInfo(reader.readValue(false)));
     }
 
     public List<ConsumerInfo> getConsumers() {
@@ -17,6 +17,7 @@ import io.nats.client.Options;
 import io.nats.client.support.NatsUri;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * A data port represents the connection to the network. This could have been called
@@ -52,6 +53,41 @@ public interface DataPort {
      */
     void write(byte[] src, int toWrite) throws IOException;
 
+    /**
+     * Write the remaining bytes of a sequence of buffers, in order, as one write if possible.
+     * The bytes in the buffers must not be modified, they may belong to the user's message.
+     * The default implementation copies the buffers into one array and writes that.
+     *
+     * @param srcs the buffers
+     * @param offset the index of the first buffer to write
+     * @param length the number of buffers to write
+     * @throws IOException any IO error on the underlaying connection
+     */
+    default void write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        int total = 0;
+        for (int x = offset; x < offset + length; x++) {
+            total += srcs[x].remaining();
+        }
+        byte[] bytes = new byte[total];
+        int pos = 0;
+        for (int x = offset; x < offset + length; x++) {
+            int len = srcs[x].remaining();
+            srcs[x].get(bytes, pos, len);
+            pos += len;
+        }
+        write(bytes, total);
+    }
+
+    /**
+     * Whether {@link #write(ByteBuffer[], int, int)} writes the buffers without copying them.
+     * The connection writer only passes large payloads as their own buffers to a port that does.
+     *
+     * @return true if the port does gathering writes
+     */
+    default boolean supportsGatheringWrites() {
+        return false;
+    }
+
     void shutdownInput() throws IOException;
 
     void close() throws IOException;
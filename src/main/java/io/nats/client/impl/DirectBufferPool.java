@@ -0,0 +1,74 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small pool of direct byte buffers, shared by the data ports of the JVM.
+ * Direct buffers are expensive to allocate and are only freed by the garbage collector,
+ * so the buffers of a closed data port are kept for the next connection or reconnect.
+ */
+class DirectBufferPool {
+    static final DirectBufferPool SHARED = new DirectBufferPool(64);
+
+    private final int maxPooled;
+    private final AtomicInteger pooled;
+    private final Map<Integer, Queue<ByteBuffer>> buffersByCapacity;
+
+    DirectBufferPool(int maxPooled) {
+        this.maxPooled = maxPooled;
+        pooled = new AtomicInteger();
+        buffersByCapacity = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param capacity the exact capacity
+     * @return a cleared direct buffer
+     */
+    ByteBuffer acquire(int capacity) {
+        Queue<ByteBuffer> q = buffersByCapacity.get(capacity);
+        ByteBuffer bb = q == null ? null : q.poll();
+        if (bb == null) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        pooled.decrementAndGet();
+        bb.clear();
+        return bb;
+    }
+
+    /**
+     * The caller must not use the buffer after releasing it.
+     * @param bb the buffer, null is ignored
+     */
+    void release(ByteBuffer bb) {
+        if (bb == null || !bb.isDirect()) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return; // let the garbage collector have it
+        }
+        buffersByCapacity.computeIfAbsent(bb.capacity(), c -> new ConcurrentLinkedQueue<>()).offer(bb);
+    }
+
+    int pooled() {
+        return pooled.get();
+    }
+}
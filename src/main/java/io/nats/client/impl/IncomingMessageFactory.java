@@ -17,14 +17,20 @@ import io.nats.client.support.IncomingHeadersProcessor;
 import io.nats.client.support.Status;
 
 import static io.nats.client.support.NatsJetStreamConstants.JS_ACK_SUBJECT_PREFIX;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 
 // ----------------------------------------------------------------------------------------------------
 // Incoming Message Factory - internal use only
 // ----------------------------------------------------------------------------------------------------
 class IncomingMessageFactory {
+    private static final byte[] JS_ACK_SUBJECT_PREFIX_BYTES = JS_ACK_SUBJECT_PREFIX.getBytes(US_ASCII);
+
     private final String sid;
     private final String subject;
     private final String replyTo;
+    private final byte[] rawSubjectReply;
+    private final int rawSubjectLen;
+    private final long rawSid;
     private final int protocolLineLength;
     private final boolean utf8mode;
 
@@ -32,6 +38,7 @@ class IncomingMessageFactory {
     private Headers headers;
     private Status status;
     private int headerLen;
+    private MessagePool pool;
 
     // Create an incoming message for a subscriber
     // Doesn't check control line size, since the server sent us the message
@@ -39,6 +46,23 @@ class IncomingMessageFactory {
         this.sid = sid;
         this.subject = subject;
         this.replyTo = replyTo;
+        this.rawSubjectReply = null;
+        this.rawSubjectLen = 0;
+        this.rawSid = NatsConnection.sidNumber(sid);
+        this.protocolLineLength = protocolLength;
+        this.utf8mode = utf8mode;
+    }
+
+    // Create an incoming message for a subscriber from the byte parser.
+    // The subject bytes are followed directly by the reply to bytes, if there is a reply to.
+    // Strings are only made when the message subject, reply to or sid are accessed.
+    IncomingMessageFactory(byte[] rawSubjectReply, int rawSubjectLen, long sid, int protocolLength, boolean utf8mode) {
+        this.sid = null;
+        this.subject = null;
+        this.replyTo = null;
+        this.rawSubjectReply = rawSubjectReply;
+        this.rawSubjectLen = rawSubjectLen;
+        this.rawSid = sid;
         this.protocolLineLength = protocolLength;
         this.utf8mode = utf8mode;
     }
@@ -53,23 +77,50 @@ class IncomingMessageFactory {
         this.data = data;
     }
 
+    // The data for a message to a pooled subscription comes from its pool, a plain message goes back to it
+    byte[] newData(NatsConnection connection, int length) {
+        pool = connection.getMessagePool(rawSid);
+        return pool == null ? new byte[length] : pool.acquireData(length);
+    }
+
     NatsMessage getMessage() {
         NatsMessage message;
         if (status != null) {
             message = new StatusMessage(status);
         }
-        else if (replyTo != null && replyTo.startsWith(JS_ACK_SUBJECT_PREFIX)) {
+        else if (isJetStreamReplyTo()) {
             message = new NatsJetStreamMessage(data);
         }
+        else if (pool != null) {
+            message = pool.acquireMessage(data);
+        }
         else {
             message = new IncomingMessage(data);
         }
         message.sid = sid;
         message.subject = subject;
         message.replyTo = replyTo;
+        message.rawSubjectReply = rawSubjectReply;
+        message.rawSubjectLen = rawSubjectLen;
+        message.rawSid = rawSid;
         message.headers = headers;
         message.headerLen = headerLen;
         message.sizeInBytes = protocolLineLength + headerLen + message.dataLen + 4; // Two CRLFs
         return message;
     }
+
+    private boolean isJetStreamReplyTo() {
+        if (rawSubjectReply == null) {
+            return replyTo != null && replyTo.startsWith(JS_ACK_SUBJECT_PREFIX);
+        }
+        if (rawSubjectReply.length - rawSubjectLen < JS_ACK_SUBJECT_PREFIX_BYTES.length) {
+            return false;
+        }
+        for (int x = 0; x < JS_ACK_SUBJECT_PREFIX_BYTES.length; x++) {
+            if (rawSubjectReply[rawSubjectLen + x] != JS_ACK_SUBJECT_PREFIX_BYTES[x]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -16,14 +16,26 @@ package io.nats.client.impl;
 import io.nats.client.JetStreamApiException;
 import io.nats.client.Message;
 import io.nats.client.api.ApiResponse;
+import io.nats.client.support.JsonParseException;
+import io.nats.client.support.JsonReader;
+import io.nats.client.support.JsonValue;
 
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
 import static io.nats.client.support.ApiConstants.*;
 import static io.nats.client.support.JsonValueUtils.readInteger;
 
 class ListRequestEngine extends ApiResponse<ListRequestEngine> {
 
+    /**
+     * Reads one item of a page. The reader is at the first token of the item, and the item must be read or skipped whole.
+     */
+    interface ItemReader {
+        void read(JsonReader reader) throws JsonParseException;
+    }
+
     private static final String OFFSET_JSON_START = "{\"offset\":";
 
     protected int total = Integer.MAX_VALUE; // so always has the first "at least one more"
@@ -35,7 +47,11 @@ class ListRequestEngine extends ApiResponse<ListRequestEngine> {
     }
 
     ListRequestEngine(Message msg) throws JetStreamApiException {
-        super(msg);
+        this(msg, null, null);
+    }
+
+    ListRequestEngine(Message msg, String objectName, ItemReader itemReader) throws JetStreamApiException {
+        super(readPage(msg, objectName, itemReader));
         if (hasError()) {
             throw new JetStreamApiException(this);
         }
@@ -44,6 +60,43 @@ class ListRequestEngine extends ApiResponse<ListRequestEngine> {
         lastOffset = readInteger(jv, OFFSET, 0);
     }
 
+    // The page is read without building its tree. The items go to the item reader one at a time,
+    // the paging fields, type and error are kept, and anything else is skipped.
+    private static JsonValue readPage(Message msg, String objectName, ItemReader itemReader) {
+        if (msg == null) {
+            return null;
+        }
+        Map<String, JsonValue> map = new HashMap<>();
+        try {
+            JsonReader reader = new JsonReader(msg.getData());
+            if (reader.next() != JsonReader.Token.START_OBJECT) {
+                return new JsonValue(map);
+            }
+            while (reader.next() == JsonReader.Token.FIELD_NAME) {
+                String name = reader.getString();
+                JsonReader.Token token = reader.next();
+                if (token == JsonReader.Token.START_ARRAY && itemReader != null && name.equals(objectName)) {
+                    while (reader.next() != JsonReader.Token.END_ARRAY) {
+                        itemReader.read(reader);
+                    }
+                }
+                else if ((token == JsonReader.Token.START_OBJECT || token == JsonReader.Token.START_ARRAY) && !name.equals(ERROR)) {
+                    reader.skipValue();
+                }
+                else {
+                    JsonValue value = reader.readValue(false);
+                    if (value != JsonValue.NULL) {
+                        map.put(name, value);
+                    }
+                }
+            }
+        }
+        catch (JsonParseException e) {
+            return parseErrorValue(e);
+        }
+        return new JsonValue(map);
+    }
+
     boolean hasMore() {
         return total > nextOffset();
     }
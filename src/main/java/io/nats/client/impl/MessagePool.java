@@ -0,0 +1,225 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.nats.client.support.NatsConstants.EMPTY_BODY;
+
+/**
+ * The messages and payload buffers of a subscription made with
+ * {@link io.nats.client.Dispatcher#subscribePooled(String, io.nats.client.MessageHandler) subscribePooled}.
+ * <p>Payload buffers are kept by exact length, so {@link NatsMessage#getData()} still returns an array the size
+ * of the payload. Fixed size messages end up cycling through the same few buffers and message objects.</p>
+ * <p>With leak detection, which is on when the {@value #LEAK_DETECTION_PROPERTY} system property is true, every acquire remembers where it happened, a message
+ * that is garbage collected without being released is reported to the connection's error listener, and reading
+ * the data of a released message throws.</p>
+ */
+class MessagePool {
+    static final String LEAK_DETECTION_PROPERTY = "io.nats.client.pool.leakDetection";
+    static final boolean LEAK_DETECTION = Boolean.getBoolean(LEAK_DETECTION_PROPERTY);
+
+    static final int MAX_POOLED = 256;
+    static final int MAX_SIZE_CLASSES = 16;
+
+    private final NatsConnection connection;
+    private final boolean leakDetection;
+    private final ArrayBlockingQueue<PooledMessage> messages;
+    private final ConcurrentHashMap<Integer, SizeClass> sizeClasses;
+    private volatile SizeClass lastSizeClass;
+
+    private final ReferenceQueue<PooledMessage> collected;
+    private final Set<Tracker> trackers;
+    private final AtomicLong leaks;
+
+    MessagePool(NatsConnection connection) {
+        this(connection, LEAK_DETECTION);
+    }
+
+    MessagePool(NatsConnection connection, boolean leakDetection) {
+        this.connection = connection;
+        this.leakDetection = leakDetection;
+        this.messages = new ArrayBlockingQueue<>(MAX_POOLED);
+        this.sizeClasses = new ConcurrentHashMap<>();
+        this.lastSizeClass = new SizeClass(0);
+        this.collected = leakDetection ? new ReferenceQueue<>() : null;
+        this.trackers = leakDetection ? ConcurrentHashMap.newKeySet() : null;
+        this.leaks = new AtomicLong();
+    }
+
+    private static class SizeClass {
+        final int length;
+        final ArrayBlockingQueue<byte[]> buffers;
+
+        SizeClass(int length) {
+            this.length = length;
+            this.buffers = new ArrayBlockingQueue<>(MAX_POOLED);
+        }
+    }
+
+    private static class Tracker extends WeakReference<PooledMessage> {
+        final Throwable acquiredAt;
+
+        Tracker(PooledMessage message, ReferenceQueue<PooledMessage> queue) {
+            super(message, queue);
+            acquiredAt = new Throwable("Pooled message acquired here");
+        }
+    }
+
+    static final class PooledMessage extends IncomingMessage {
+        private final MessagePool pool;
+        private final AtomicLong currentLease; // the current lease, 0 while in the pool
+        private long leaseCount;
+        private Tracker tracker;
+
+        PooledMessage(MessagePool pool) {
+            this.pool = pool;
+            this.currentLease = new AtomicLong();
+        }
+
+        @Override
+        public byte[] getData() {
+            if (pool.leakDetection && currentLease.get() == 0) {
+                throw new IllegalStateException("The message was released back to the pool.");
+            }
+            return data;
+        }
+
+        @Override
+        public void release() {
+            releaseLease(currentLease.get());
+        }
+
+        @Override
+        long poolLease() {
+            return currentLease.get();
+        }
+
+        @Override
+        void releaseLease(long lease) {
+            // only the current lease can be ended, the message may have been released and leased again already
+            if (lease != 0 && currentLease.compareAndSet(lease, 0)) {
+                pool.release(this);
+            }
+        }
+
+        boolean isLeased() {
+            return currentLease.get() != 0;
+        }
+    }
+
+    /**
+     * @param length the exact length of the payload
+     * @return a buffer of that length, from the pool if there is one
+     */
+    byte[] acquireData(int length) {
+        if (length == 0) {
+            return EMPTY_BODY;
+        }
+        SizeClass sc = sizeClass(length, false);
+        byte[] data = sc == null ? null : sc.buffers.poll();
+        return data == null ? new byte[length] : data;
+    }
+
+    void releaseData(byte[] data) {
+        if (data.length > 0) {
+            SizeClass sc = sizeClass(data.length, true);
+            if (sc != null) {
+                sc.buffers.offer(data);
+            }
+        }
+    }
+
+    private SizeClass sizeClass(int length, boolean create) {
+        SizeClass sc = lastSizeClass;
+        if (sc.length == length) {
+            return sc;
+        }
+        sc = sizeClasses.get(length);
+        if (sc == null && create && sizeClasses.size() < MAX_SIZE_CLASSES) {
+            sc = sizeClasses.computeIfAbsent(length, SizeClass::new);
+        }
+        if (sc != null) {
+            lastSizeClass = sc;
+        }
+        return sc;
+    }
+
+    /**
+     * @param data the payload, normally from {@link #acquireData(int)}
+     * @return a message holding the payload, leased until it is released
+     */
+    PooledMessage acquireMessage(byte[] data) {
+        PooledMessage m = messages.poll();
+        if (m == null) {
+            m = new PooledMessage(this);
+        }
+        m.data = data;
+        m.dataLen = data.length;
+        m.currentLease.set(++m.leaseCount);
+        if (leakDetection) {
+            reportLeaks();
+            m.tracker = new Tracker(m, collected);
+            trackers.add(m.tracker);
+        }
+        return m;
+    }
+
+    private void release(PooledMessage m) {
+        if (m.tracker != null) {
+            trackers.remove(m.tracker);
+            m.tracker.clear();
+            m.tracker = null;
+        }
+        releaseData(m.data);
+        m.data = EMPTY_BODY;
+        m.dataLen = 0;
+        m.subject = null;
+        m.replyTo = null;
+        m.sid = null;
+        m.rawSubjectReply = null;
+        m.rawSid = -1;
+        m.headers = null;
+        m.subscription = null;
+        m.next = null;
+        m.lastAck = null;
+        messages.offer(m);
+    }
+
+    private void reportLeaks() {
+        Reference<? extends PooledMessage> ref;
+        while ((ref = collected.poll()) != null) {
+            //noinspection SuspiciousMethodCalls
+            if (trackers.remove(ref)) {
+                leaks.incrementAndGet();
+                connection.processException(
+                    new IllegalStateException("A pooled message was garbage collected without being released.", ((Tracker) ref).acquiredAt));
+            }
+        }
+    }
+
+    /**
+     * @return the number of messages found to have been garbage collected without being released,
+     * always 0 without leak detection
+     */
+    long getLeakCount() {
+        return leaks.get();
+    }
+}
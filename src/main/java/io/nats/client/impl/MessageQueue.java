@@ -193,6 +193,74 @@ class MessageQueue {
         }
     }
 
+    /**
+     * Push a batch of messages, linked by their next field, as a single operation: one lock and one decision
+     * about room. The links are cleared as the messages go into the queue.
+     * When the queue discards when full, the whole batch is discarded unless there is room for all of it.
+     * Otherwise, if the queue stays full past the offer timeout, or the thread is interrupted, the messages
+     * already pushed stay queued and the rest are returned.
+     * @param first the first message of the batch
+     * @param count the number of messages in the batch
+     * @param bytes the total size in bytes of the messages in the batch
+     * @return null if the whole batch was queued, otherwise the first message that was not, still linked to the rest
+     * @throws IllegalStateException if the queue stays full and none of the batch could be queued
+     */
+    NatsMessage pushBatch(NatsMessage first, int count, long bytes) {
+        long start = System.currentTimeMillis();
+        boolean lockWasSuccessful = false;
+        try {
+            // see push for why the lock is only tried for a limited time
+            if (!editLock.tryLock(offerLockMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException(OUTPUT_QUEUE_IS_FULL + queue.size());
+            }
+
+            lockWasSuccessful = true;
+
+            if (this.discardWhenFull && this.queue.remainingCapacity() < count) {
+                return first;
+            }
+
+            long deadline = start + Math.max(100, offerTimeoutMillis - (System.currentTimeMillis() - start));
+            NatsMessage msg = first;
+            while (msg != null) {
+                NatsMessage next = msg.next;
+                msg.next = null; // accumulate builds its own chain
+                // counted before the offer, the writer may take the message and subtract it right away
+                long size = msg.getSizeInBytes();
+                this.sizeInBytes.getAndAdd(size);
+                this.length.incrementAndGet();
+                boolean queued;
+                try {
+                    queued = this.queue.offer(msg, Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    queued = false;
+                }
+                if (!queued) {
+                    this.sizeInBytes.getAndAdd(-size);
+                    this.length.decrementAndGet();
+                    msg.next = next;
+                    if (msg == first && !Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException(OUTPUT_QUEUE_IS_FULL + queue.size());
+                    }
+                    return msg;
+                }
+                msg = next;
+            }
+            return null;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return first;
+        }
+        finally {
+            if (lockWasSuccessful) {
+                editLock.unlock();
+            }
+        }
+    }
+
     /**
      * poisoning the queue puts the known poison pill into the queue, forcing any waiting code to stop
      * waiting and return.
@@ -334,6 +402,17 @@ class MessageQueue {
         return this.sizeInBytes.get();
     }
 
+    // Gives the pooled messages still in a paused queue back to their pool
+    void releasePooled() {
+        filter(msg -> {
+            if (msg.poolLease() == 0) {
+                return false;
+            }
+            msg.release();
+            return true;
+        });
+    }
+
     void filter(Predicate<NatsMessage> p) {
         editLock.lock();
         try {
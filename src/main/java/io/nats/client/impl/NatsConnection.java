@@ -50,6 +50,8 @@ class NatsConnection implements Connection {
     final boolean forceFlushOnRequest;
 
     private final StatisticsCollector statistics;
+    private final NatsLatencyStatistics latencyStatistics; // null unless tracking latency
+    private final MetricsListener metricsListener; // null unless set in the options
 
     private boolean connecting; // you can only connect in one thread
     private boolean disconnecting; // you can only disconnect in one thread
@@ -72,7 +74,8 @@ class NatsConnection implements Connection {
 
     private final AtomicReference<ServerInfo> serverInfo;
 
-    private final Map<String, NatsSubscription> subscribers;
+    private final SidSubscriptionTable subscribers;
+    private volatile boolean pooledSubscriptions;
     private final Map<String, NatsDispatcher> dispatchers; // use a concurrent map so we get more consistent iteration behavior
     private final Collection<ConnectionListener> connectionListeners;
     private final Map<String, NatsRequestCompletableFuture> responsesAwaiting;
@@ -83,11 +86,12 @@ class NatsConnection implements Connection {
     private final AtomicReference<NatsDispatcher> inboxDispatcher;
     private final ReentrantLock inboxDispatcherLock;
     private Timer timer;
+    private final Set<TimerTask> delayedTasks;
 
     private final AtomicBoolean needPing;
 
     private final AtomicLong nextSid;
-    private final NUID nuid;
+    private final StripedNUID nuid;
 
     private final AtomicReference<String> connectError;
     private final AtomicReference<String> lastError;
@@ -99,6 +103,9 @@ class NatsConnection implements Connection {
     private final ExecutorService executor;
     private final ExecutorService connectExecutor;
     private final boolean advancedTracking;
+    private final PayloadCodec payloadCodec;
+    private final int payloadCodecThreshold;
+    private final int payloadCodecMaxDecodedSize;
 
     private final ServerPool serverPool;
     private final DispatcherFactory dispatcherFactory;
@@ -114,10 +121,15 @@ class NatsConnection implements Connection {
 
         this.options = options;
         forceFlushOnRequest = options.forceFlushOnRequest();
+        payloadCodec = options.getPayloadCodec();
+        payloadCodecThreshold = options.getPayloadCodecThreshold();
+        payloadCodecMaxDecodedSize = options.getPayloadCodecMaxDecodedSize();
 
         advancedTracking = options.isTrackAdvancedStats();
         this.statistics = options.getStatisticsCollector() == null ? new NatsStatistics() : options.getStatisticsCollector();
         this.statistics.setAdvancedTracking(advancedTracking);
+        this.latencyStatistics = options.isTrackLatency() ? new NatsLatencyStatistics() : null;
+        this.metricsListener = options.getMetricsListener();
 
         this.closeSocketLock = new ReentrantLock();
 
@@ -133,7 +145,7 @@ class NatsConnection implements Connection {
         }
 
         this.dispatchers = new ConcurrentHashMap<>();
-        this.subscribers = new ConcurrentHashMap<>();
+        this.subscribers = new SidSubscriptionTable();
         this.responsesAwaiting = new ConcurrentHashMap<>();
         this.responsesRespondedTo = new ConcurrentHashMap<>();
 
@@ -141,7 +153,7 @@ class NatsConnection implements Connection {
 
         this.nextSid = new AtomicLong(1);
         timeTraceLogger.trace("creating NUID");
-        this.nuid = new NUID();
+        this.nuid = StripedNUID.global();
         this.mainInbox = createInbox() + ".*";
 
         this.lastError = new AtomicReference<>();
@@ -151,6 +163,7 @@ class NatsConnection implements Connection {
         this.inboxDispatcher = new AtomicReference<>();
         this.inboxDispatcherLock = new ReentrantLock();
         this.pongQueue = new ConcurrentLinkedDeque<>();
+        this.delayedTasks = ConcurrentHashMap.newKeySet();
         this.draining = new AtomicReference<>();
         this.blockPublishForDrain = new AtomicBoolean();
         this.tryingToConnect = new AtomicBoolean();
@@ -381,6 +394,8 @@ class NatsConnection implements Connection {
         writer.setReconnectMode(true);
 
         if (!isConnected() && !isClosed() && !this.isClosing()) {
+            long reconnectStart = System.nanoTime();
+            int attempts = 0;
             boolean keepGoing = true;
             int totalRounds = 0;
             NatsUri first = null;
@@ -410,11 +425,19 @@ class NatsConnection implements Connection {
                     updateStatus(Status.RECONNECTING);
 
                     timeTraceLogger.trace("reconnecting to server %s", cur);
+                    attempts++;
                     tryToConnect(cur, resolved, System.nanoTime());
 
                     if (isConnected()) {
                         serverPool.connectSucceeded(cur);
                         statistics.incrementReconnects();
+                        if (metricsListener != null) {
+                            try {
+                                metricsListener.reconnected(this, attempts, System.nanoTime() - reconnectStart);
+                            } catch (Exception ex) {
+                                statistics.incrementExceptionCount();
+                            }
+                        }
                         keepGoing = false;
                         break;
                     }
@@ -437,7 +460,7 @@ class NatsConnection implements Connection {
             return;
         }
 
-        this.subscribers.forEach((sid, sub) -> {
+        this.subscribers.forEach(sub -> {
             if (sub.getDispatcher() == null && !sub.isDraining()) {
                 sendSubscriptionMessage(sub.getSID(), sub.getSubject(), sub.getQueueName(), true);
             }
@@ -821,7 +844,7 @@ class NatsConnection implements Connection {
 
         this.dispatchers.forEach((nuid, d) -> d.stop(false));
 
-        this.subscribers.forEach((sid, sub) -> sub.invalidate());
+        this.subscribers.forEach(NatsSubscription::invalidate);
 
         this.dispatchers.clear();
         this.subscribers.clear();
@@ -830,6 +853,7 @@ class NatsConnection implements Connection {
             timer.cancel();
             timer = null;
         }
+        delayedTasks.forEach(TimerTask::run); // what they wait to do will fail now
 
         cleanResponses(true);
 
@@ -934,7 +958,7 @@ class NatsConnection implements Connection {
      */
     @Override
     public void publish(String subject, byte[] body) {
-        publishInternal(subject, null, null, body, true, false);
+        publishEncoded(subject, null, null, body, true);
     }
 
     /**
@@ -942,7 +966,7 @@ class NatsConnection implements Connection {
      */
     @Override
     public void publish(String subject, Headers headers, byte[] body) {
-        publishInternal(subject, null, headers, body, true, false);
+        publishEncoded(subject, null, headers, body, true);
     }
 
     /**
@@ -950,7 +974,7 @@ class NatsConnection implements Connection {
      */
     @Override
     public void publish(String subject, String replyTo, byte[] body) {
-        publishInternal(subject, replyTo, null, body, true, false);
+        publishEncoded(subject, replyTo, null, body, true);
     }
 
     /**
@@ -958,7 +982,7 @@ class NatsConnection implements Connection {
      */
     @Override
     public void publish(String subject, String replyTo, Headers headers, byte[] body) {
-        publishInternal(subject, replyTo, headers, body, true, false);
+        publishEncoded(subject, replyTo, headers, body, true);
     }
 
     /**
@@ -967,16 +991,122 @@ class NatsConnection implements Connection {
     @Override
     public void publish(Message message) {
         validateNotNull(message, "Message");
-        publishInternal(message.getSubject(), message.getReplyTo(), message.getHeaders(), message.getData(), false, false);
+        publishEncoded(message.getSubject(), message.getReplyTo(), message.getHeaders(), message.getData(), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Publisher publisher(String subject) {
+        return new NatsPublisher(this, subject, null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Publisher publisher(String subject, String replyTo, Headers headers) {
+        return new NatsPublisher(this, subject, replyTo, headers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publishBatch(List<Message> messages) {
+        publishBatch(messages, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publishBatch(List<Message> messages, boolean flush) {
+        validateNotNull(messages, "Messages");
+        int count = messages.size();
+        if (count == 0) {
+            return;
+        }
+
+        // build and check the whole chain before anything is queued
+        NatsMessage first = null;
+        NatsMessage last = null;
+        long bytes = 0;
+        for (int x = 0; x < count; x++) {
+            Message message = messages.get(x);
+            validateNotNull(message, "Message");
+            Headers headers = message.getHeaders();
+            byte[] data = message.getData();
+            if (shouldEncode(data)) {
+                headers = encodingHeaders(headers);
+                data = encode(data);
+            }
+            checkPayloadSize(data);
+            NatsPublishableMessage npm = new NatsPublishableMessage(message.getSubject(), message.getReplyTo(),
+                headers, data, false, flush && x == count - 1);
+            checkHeadersSupported(npm);
+            checkControlLine(npm);
+            bytes += npm.getSizeInBytes();
+            if (first == null) {
+                first = npm;
+            }
+            else {
+                last.next = npm;
+            }
+            last = npm;
+        }
+
+        checkCanQueue(bytes);
+        // the messages that were not queued are still linked, exactly those are reported
+        for (NatsMessage msg = writer.queueBatch(first, count, bytes); msg != null; msg = msg.next) {
+            options.getErrorListener().messageDiscarded(this, msg);
+        }
+    }
+
+    // the application's publishes, which are encoded by the payload codec, unlike the client's own
+    void publishEncoded(String subject, String replyTo, Headers headers, byte[] data, boolean validateSubjectAndReplyTo) {
+        if (shouldEncode(data)) {
+            publishInternal(subject, replyTo, encodingHeaders(headers), encode(data), validateSubjectAndReplyTo, false);
+        }
+        else {
+            publishInternal(subject, replyTo, headers, data, validateSubjectAndReplyTo, false);
+        }
+    }
+
+    boolean shouldEncode(byte[] data) {
+        return payloadCodec != null && data != null && data.length > 0 && data.length >= payloadCodecThreshold;
+    }
+
+    byte[] encode(byte[] data) {
+        return payloadCodec.encode(data);
+    }
+
+    Headers encodingHeaders(Headers headers) {
+        // never touch the user's original headers
+        Headers h = headers == null ? new Headers() : new Headers(headers);
+        return h.put(PayloadCodec.ENCODING_HEADER, payloadCodec.getEncoding());
     }
 
     void publishInternal(String subject, String replyTo, Headers headers, byte[] data, boolean validateSubjectAndReplyTo, boolean flushImmediatelyAfterPublish) {
         checkPayloadSize(data);
-        NatsPublishableMessage npm = new NatsPublishableMessage(subject, replyTo, headers, data, validateSubjectAndReplyTo, flushImmediatelyAfterPublish);
+        publishInternal(new NatsPublishableMessage(subject, replyTo, headers, data, validateSubjectAndReplyTo, flushImmediatelyAfterPublish));
+    }
+
+    void publishInternal(NatsPublishableMessage npm) {
+        checkHeadersSupported(npm);
+        checkCanQueue(npm.getSizeInBytes());
+        queueOutgoing(npm);
+    }
+
+    private void checkHeadersSupported(NatsPublishableMessage npm) {
         if (npm.hasHeaders && !serverInfo.get().isHeadersSupported()) {
             throw new IllegalArgumentException("Headers are not supported by the server, version: " + serverInfo.get().getVersion());
         }
+    }
 
+    // whether the connection can take this many more bytes of publishes right now
+    private void checkCanQueue(long bytes) {
         if (isClosed()) {
             throw new IllegalStateException("Connection is Closed");
         } else if (blockPublishForDrain.get()) {
@@ -984,15 +1114,13 @@ class NatsConnection implements Connection {
         }
 
         if ((status == Status.RECONNECTING || status == Status.DISCONNECTED)
-                && !this.writer.canQueueDuringReconnect(npm)) {
+                && !this.writer.canQueueDuringReconnect(bytes)) {
             throw new IllegalStateException(
                     "Unable to queue any more messages during reconnect, max buffer is " + options.getReconnectBufferSize());
         }
-
-        queueOutgoing(npm);
     }
 
-    private void checkPayloadSize(byte[] body) {
+    void checkPayloadSize(byte[] body) {
         if (options.clientSideLimitChecks() && body != null && body.length > this.getMaxPayload() && this.getMaxPayload() > 0) {
             throw new IllegalArgumentException(
                 "Message payload size exceed server configuration " + body.length + " vs " + this.getMaxPayload());
@@ -1023,8 +1151,7 @@ class NatsConnection implements Connection {
     }
 
     void remove(NatsSubscription sub) {
-        CharSequence sid = sub.getSID();
-        subscribers.remove(sid);
+        subscribers.remove(sidNumber(sub.getSID()));
 
         if (sub.getNatsDispatcher() != null) {
             sub.getNatsDispatcher().remove(sub);
@@ -1079,7 +1206,7 @@ class NatsConnection implements Connection {
         else {
             sub = factory.createNatsSubscription(sid, subject, queueName, this, dispatcher);
         }
-        subscribers.put(sid, sub);
+        subscribers.put(sidNumber(sid), sub);
 
         sendSubscriptionMessage(sid, subject, queueName, false);
         return sub;
@@ -1089,10 +1216,26 @@ class NatsConnection implements Connection {
         return Long.toString(nextSid.getAndIncrement());
     }
 
+    // sids are made by getNextSid, anything that is not a valid number never matches a subscription
+    static long sidNumber(String sid) {
+        if (sid == null || sid.isEmpty() || sid.length() > 18) {
+            return -1;
+        }
+        long n = 0;
+        for (int x = 0; x < sid.length(); x++) {
+            int d = sid.charAt(x) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            n = n * 10 + d;
+        }
+        return n;
+    }
+
     String reSubscribe(NatsSubscription sub, String subject, String queueName) {
         String sid = getNextSid();
         sendSubscriptionMessage(sid, subject, queueName, false);
-        subscribers.put(sid, sub);
+        subscribers.put(sidNumber(sid), sub);
         return sid;
     }
 
@@ -1125,7 +1268,7 @@ class NatsConnection implements Connection {
     }
 
     int getRespInboxLength() {
-        return options.getInboxPrefix().length() + 22 + 1; // 22 for nuid, 1 for .
+        return options.getInboxPrefix().length() + StripedNUID.LENGTH + 1; // 1 for .
     }
 
     String createResponseInbox(String inbox) {
@@ -1326,6 +1469,9 @@ class NatsConnection implements Connection {
             responsesAwaiting.put(responseToken, future);
         }
         statistics.incrementOutstandingRequests();
+        if (latencyStatistics != null) {
+            future.markStart();
+        }
 
         if (oldStyle) {
             NatsDispatcher dispatcher = this.inboxDispatcher.get();
@@ -1357,6 +1503,9 @@ class NatsConnection implements Connection {
                 responsesRespondedTo.put(key, f);
             }
             statistics.decrementOutstandingRequests();
+            if (latencyStatistics != null) {
+                NatsLatencyStatistics.recordSince(latencyStatistics.getRequestLatency(), f.getStartNanos());
+            }
             if (msg.isStatusMessage() && msg.getStatus().getCode() == 503) {
                 switch (f.getCancelAction()) {
                     case COMPLETE:
@@ -1462,6 +1611,7 @@ class NatsConnection implements Connection {
         }
 
         try {
+            long flushStart = System.nanoTime();
             Future<Boolean> waitForIt = sendPing();
 
             if (waitForIt == null) { // error in the send ping code
@@ -1484,6 +1634,13 @@ class NatsConnection implements Connection {
             }
 
             this.statistics.incrementFlushCounter();
+            if (metricsListener != null) {
+                try {
+                    metricsListener.flushed(this, System.nanoTime() - flushStart);
+                } catch (Exception ex) {
+                    statistics.incrementExceptionCount();
+                }
+            }
         } catch (ExecutionException | CancellationException e) {
             throw new TimeoutException(e.toString());
         }
@@ -1590,10 +1747,56 @@ class NatsConnection implements Connection {
     private static final ProtocolMessage PING_PROTO = new ProtocolMessage(OP_PING_BYTES);
     private static final ProtocolMessage PONG_PROTO = new ProtocolMessage(OP_PONG_BYTES);
 
+    // Runs the task once, after the delay, on the connection's timer. A task that is still waiting when the
+    // connection closes is run by the close, so whatever it waits to do fails instead of never happening.
+    void schedule(Runnable task, long delayMillis) {
+        TimerTask tt = new TimerTask() {
+            public void run() {
+                if (delayedTasks.remove(this)) {
+                    try {
+                        task.run();
+                    }
+                    catch (RuntimeException e) {
+                        processException(e); // must not stop the timer
+                    }
+                }
+            }
+        };
+        delayedTasks.add(tt);
+        Timer t = timer;
+        if (t != null) {
+            try {
+                t.schedule(tt, delayMillis);
+                return;
+            }
+            catch (IllegalStateException e) {
+                // the timer was cancelled, the connection is closing
+            }
+        }
+        tt.run();
+    }
+
     void sendPong() {
         queueInternalOutgoing(new ProtocolMessage(PONG_PROTO));
     }
 
+    // Called by a reader on a shared io thread, which can't wait for room in the outgoing queue
+    void sendPongLater() {
+        try {
+            executor.execute(() -> {
+                try {
+                    sendPong();
+                }
+                catch (RuntimeException e) {
+                    processException(e);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            // Timing with shutdown, let it go
+        }
+    }
+
     // Called by the reader
     void handlePong() {
         CompletableFuture<Boolean> pongFuture = pongQueue.pollFirst();
@@ -1676,19 +1879,35 @@ class NatsConnection implements Connection {
     }
 
     void queueOutgoing(NatsMessage msg) {
-        if (msg.getControlLineLength() > this.options.getMaxControlLine()) {
-            throw new IllegalArgumentException("Control line is too long");
-        }
+        checkControlLine(msg);
         if (!writer.queue(msg)) {
             options.getErrorListener().messageDiscarded(this, msg);
         }
     }
 
     void queueInternalOutgoing(NatsMessage msg) {
+        checkControlLine(msg);
+        this.writer.queueInternalMessage(msg);
+    }
+
+    private void checkControlLine(NatsMessage msg) {
         if (msg.getControlLineLength() > this.options.getMaxControlLine()) {
             throw new IllegalArgumentException("Control line is too long");
         }
-        this.writer.queueInternalMessage(msg);
+    }
+
+    // Received messages for the subscription are pooled from now on
+    void usePool(NatsSubscription sub) {
+        sub.setMessagePool(new MessagePool(this));
+        pooledSubscriptions = true;
+    }
+
+    MessagePool getMessagePool(long sid) {
+        if (!pooledSubscriptions) {
+            return null;
+        }
+        NatsSubscription sub = subscribers.get(sid);
+        return sub == null ? null : sub.getMessagePool();
     }
 
     void deliverMessage(NatsMessage msg) {
@@ -1696,7 +1915,7 @@ class NatsConnection implements Connection {
         this.statistics.incrementInMsgs();
         this.statistics.incrementInBytes(msg.getSizeInBytes());
 
-        NatsSubscription sub = subscribers.get(msg.getSID());
+        NatsSubscription sub = subscribers.get(msg.rawSid);
 
         if (sub != null) {
             msg.setSubscription(sub);
@@ -1709,6 +1928,7 @@ class NatsConnection implements Connection {
                 // Drop the message and count it
                 this.statistics.incrementDroppedCount();
                 c.incrementDroppedCount();
+                msg.release();
 
                 // Notify the first time
                 if (!c.isMarkedSlow()) {
@@ -1722,13 +1942,20 @@ class NatsConnection implements Connection {
                 if (sub.getBeforeQueueProcessor().apply(msg)) {
                     q.push(msg);
                 }
+                else {
+                    msg.release();
+                }
+            }
+            else {
+                msg.release();
             }
 
         }
-//        else {
-//            // Drop messages we don't have a subscriber for (could be extras on an
-//            // auto-unsub for example)
-//        }
+        else {
+            // Drop messages we don't have a subscriber for (could be extras on an
+            // auto-unsub for example)
+            msg.release();
+        }
     }
 
     void processOK() {
@@ -1736,6 +1963,14 @@ class NatsConnection implements Connection {
     }
 
     void processSlowConsumer(Consumer consumer) {
+        if (metricsListener != null) {
+            try {
+                metricsListener.slowConsumer(this, consumer);
+            } catch (Exception ex) {
+                statistics.incrementExceptionCount();
+            }
+        }
+
         if (!this.callbackRunner.isShutdown()) {
             try {
                 this.callbackRunner.execute(() -> {
@@ -1751,6 +1986,23 @@ class NatsConnection implements Connection {
         }
     }
 
+    // called by the consumer, as the message is delivered, so decoding never holds up the reader
+    void decodePayload(NatsSubscription sub, NatsMessage msg) {
+        PayloadCodec codec = sub.getPayloadCodec();
+        if (codec != null && msg.headers != null && msg.data != null
+                && codec.getEncoding().equals(msg.headers.getFirst(PayloadCodec.ENCODING_HEADER))) {
+            try {
+                msg.data = codec.decode(msg.data, payloadCodecMaxDecodedSize);
+                msg.dataLen = msg.data.length;
+                msg.headers.remove(PayloadCodec.ENCODING_HEADER);
+            }
+            catch (RuntimeException e) {
+                // delivered as it arrived, still marked as encoded
+                processException(e);
+            }
+        }
+    }
+
     void processException(Exception exp) {
         this.statistics.incrementExceptionCount();
 
@@ -1868,6 +2120,24 @@ class NatsConnection implements Connection {
         return this.statistics;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencyStatistics getLatencyStatistics() {
+        return this.latencyStatistics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SubscriptionMetrics> getSubscriptionMetrics() {
+        List<SubscriptionMetrics> list = new ArrayList<>();
+        subscribers.forEach(sub -> list.add(new NatsSubscriptionMetrics(sub)));
+        return list;
+    }
+
     StatisticsCollector getNatsStatistics() {
         return this.statistics;
     }
@@ -19,6 +19,7 @@ import io.nats.client.support.IncomingHeadersProcessor;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
@@ -29,6 +30,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static io.nats.client.support.NatsConstants.*;
 
 class NatsConnectionReader implements Runnable {
+    private static final int MAX_SHARED_READS_PER_TURN = 16;
 
     enum Mode {
         GATHER_OP,
@@ -52,6 +54,14 @@ class NatsConnectionReader implements Runnable {
     private final char[] msgLineChars;
     private int msgLinePosition;
 
+    // byte parser : the message line is either in place in the read buffer or gathered into msgLineBytes
+    private final byte[] msgLineBytes;
+    private byte[] msgLineSource;
+    private int msgLineStart;
+    private int msgLineEnd;
+    private final int[] msgLineTokenStarts;
+    private final int[] msgLineTokenEnds;
+
     private Mode mode;
 
     private IncomingMessageFactory incoming;
@@ -67,8 +77,13 @@ class NatsConnectionReader implements Runnable {
     private Future<DataPort> dataPortFuture;
     private DataPort dataPort;
     private final AtomicBoolean running;
+    private SharedIoLoop.IoThread ioThread; // not null when reading on the shared io loop
+    private SelectionKey ioKey;
 
     private final boolean utf8Mode;
+    private final boolean byteParser;
+    private final boolean trackLatency;
+    private long readNanos; // when the bytes being processed were read, if tracking latency
     private final ReadListener readListener;
 
     NatsConnectionReader(NatsConnection connection) {
@@ -85,6 +100,18 @@ class NatsConnectionReader implements Runnable {
         this.bufferPosition = 0;
 
         this.utf8Mode = connection.getOptions().supportUTF8Subjects();
+        this.byteParser = connection.getOptions().useMessageByteParser();
+        this.trackLatency = connection.getLatencyStatistics() != null;
+        if (this.byteParser) {
+            this.msgLineBytes = new byte[this.connection.getOptions().getMaxControlLine()];
+            this.msgLineTokenStarts = new int[MAX_MSG_LINE_TOKENS];
+            this.msgLineTokenEnds = new int[MAX_MSG_LINE_TOKENS];
+        }
+        else {
+            this.msgLineBytes = null;
+            this.msgLineTokenStarts = null;
+            this.msgLineTokenEnds = null;
+        }
         readListener = connection.getOptions().getReadListener();
     }
 
@@ -94,7 +121,100 @@ class NatsConnectionReader implements Runnable {
     void start(Future<DataPort> dataPortFuture) {
         this.dataPortFuture = dataPortFuture;
         this.running.set(true);
-        this.stopped = connection.getExecutor().submit(this, Boolean.TRUE);
+        SocketChannelDataPort sharedPort = SharedIoLoop.sharedPort(connection.getOptions(), dataPortFuture);
+        if (sharedPort == null) {
+            this.ioThread = null;
+            this.stopped = connection.getExecutor().submit(this, Boolean.TRUE);
+        }
+        else {
+            startShared(sharedPort);
+        }
+    }
+
+    // Instead of a thread of its own, the reader is called by a shared io thread when there is something to read.
+    private void startShared(SocketChannelDataPort port) {
+        this.stopped = new CompletableFuture<>();
+        this.dataPort = port;
+        this.mode = Mode.GATHER_OP;
+        this.gotCR = false;
+        this.opPos = 0;
+        this.msgLinePosition = 0;
+        this.msgLineSource = null;
+
+        SharedIoLoop.IoThread t = SharedIoLoop.shared().nextIoThread();
+        this.ioThread = t;
+        t.execute(() -> {
+            if (running.get()) {
+                try {
+                    ioKey = port.configureNonBlocking().register(t.selector(), SelectionKey.OP_READ, this);
+                }
+                catch (IOException | RuntimeException e) {
+                    failShared(e);
+                    return;
+                }
+                readAvailable(); // anything that arrived before the registration
+            }
+            else {
+                finishShared();
+            }
+        });
+    }
+
+    // Called on the io thread. Reads and processes until there is nothing left to read, but gives the other
+    // connections on the thread a turn after a while. The selector is level triggered, so it comes back.
+    void readAvailable() {
+        try {
+            for (int reads = 0; running.get(); reads++) {
+                if (reads == MAX_SHARED_READS_PER_TURN) {
+                    // the data port may have bytes that the selector can't see
+                    SelectionKey key = ioKey;
+                    ioThread.execute(() -> {
+                        if (key.isValid()) {
+                            readAvailable();
+                        }
+                    });
+                    return;
+                }
+                this.bufferPosition = 0;
+                int bytesRead = dataPort.read(this.buffer, 0, this.buffer.length);
+                if (bytesRead == 0) {
+                    return;
+                }
+                if (bytesRead < 0) {
+                    throw new IOException("Read channel closed.");
+                }
+                processBytes(bytesRead);
+            }
+        }
+        catch (Throwable t) {
+            failShared(t);
+            return;
+        }
+        finishShared();
+    }
+
+    // Called on the io thread when this connection failed, which must not stop the thread for the other connections.
+    void failShared(Throwable t) {
+        try {
+            // if already not running, an IOE is not unreasonable in a transition state
+            if (running.get()) {
+                this.connection.handleCommunicationIssue(t instanceof Exception ? (Exception) t : new IOException(t));
+            }
+        }
+        finally {
+            finishShared();
+        }
+    }
+
+    // Called on the io thread when done.
+    private void finishShared() {
+        this.running.set(false);
+        if (ioKey != null) {
+            ioKey.cancel();
+            ioKey = null;
+        }
+        this.protocolBuffer.clear();
+        ((CompletableFuture<Boolean>) this.stopped).complete(Boolean.TRUE);
     }
 
     Future<Boolean> stop() {
@@ -115,6 +235,15 @@ class NatsConnectionReader implements Runnable {
                     // we don't care, we are shutting down anyway
                 }
             }
+            SharedIoLoop.IoThread t = ioThread;
+            if (t != null) {
+                if (Thread.currentThread() == t) {
+                    finishShared();
+                }
+                else {
+                    t.execute(this::finishShared);
+                }
+            }
         }
         return stopped;
     }
@@ -130,45 +259,11 @@ class NatsConnectionReader implements Runnable {
             this.mode = Mode.GATHER_OP;
             this.gotCR = false;
             this.opPos = 0;
+            this.msgLinePosition = 0;
+            this.msgLineSource = null;
 
             while (running.get() && !Thread.interrupted()) {
-                this.bufferPosition = 0;
-                int bytesRead = dataPort.read(this.buffer, 0, this.buffer.length);
-
-                if (bytesRead > 0) {
-                    connection.getNatsStatistics().registerRead(bytesRead);
-
-                    while (this.bufferPosition < bytesRead) {
-                        if (this.mode == Mode.GATHER_OP) {
-                            this.gatherOp(bytesRead);
-                        }
-                        else if (this.mode == Mode.GATHER_MSG_HMSG_PROTO) {
-                            if (this.utf8Mode) {
-                                this.gatherProtocol(bytesRead);
-                            } else {
-                                this.gatherMessageProtocol(bytesRead);
-                            }
-                        }
-                        else if (this.mode == Mode.GATHER_PROTO) {
-                            this.gatherProtocol(bytesRead);
-                        }
-                        else if (this.mode == Mode.GATHER_HEADERS) {
-                            this.gatherHeaders(bytesRead);
-                        }
-                        else {  // Mode.GATHER_DATA
-                            this.gatherMessageData(bytesRead);
-                        }
-
-                        if (this.mode == Mode.PARSE_PROTO) { // Could be the end of the read
-                            this.parseProtocolMessage();
-                            this.protocolBuffer.clear();
-                        }
-                    }
-                } else if (bytesRead < 0) {
-                    throw new IOException("Read channel closed.");
-                } else {
-                    this.connection.getNatsStatistics().registerRead(bytesRead); // track the 0
-                }
+                readOnce();
             }
         } catch (IOException io) {
             // if already not running, an IOE is not unreasonable in a transition state
@@ -188,6 +283,57 @@ class NatsConnectionReader implements Runnable {
         }
     }
 
+    // Reads once from the data port and runs what was read through the state machine
+    private void readOnce() throws IOException {
+        this.bufferPosition = 0;
+        int bytesRead = dataPort.read(this.buffer, 0, this.buffer.length);
+
+        if (bytesRead > 0) {
+            processBytes(bytesRead);
+        } else if (bytesRead < 0) {
+            throw new IOException("Read channel closed.");
+        } else {
+            this.connection.getNatsStatistics().registerRead(bytesRead); // track the 0
+        }
+    }
+
+    // Runs the bytes that were just read into the buffer through the state machine
+    void processBytes(int bytesRead) throws IOException {
+        connection.getNatsStatistics().registerRead(bytesRead);
+        if (trackLatency) {
+            readNanos = System.nanoTime();
+        }
+
+        while (this.bufferPosition < bytesRead) {
+            if (this.mode == Mode.GATHER_OP) {
+                this.gatherOp(bytesRead);
+            }
+            else if (this.mode == Mode.GATHER_MSG_HMSG_PROTO) {
+                if (this.byteParser) {
+                    this.gatherMessageProtocolBytes(bytesRead);
+                } else if (this.utf8Mode) {
+                    this.gatherProtocol(bytesRead);
+                } else {
+                    this.gatherMessageProtocol(bytesRead);
+                }
+            }
+            else if (this.mode == Mode.GATHER_PROTO) {
+                this.gatherProtocol(bytesRead);
+            }
+            else if (this.mode == Mode.GATHER_HEADERS) {
+                this.gatherHeaders(bytesRead);
+            }
+            else {  // Mode.GATHER_DATA
+                this.gatherMessageData(bytesRead);
+            }
+
+            if (this.mode == Mode.PARSE_PROTO) { // Could be the end of the read
+                this.parseProtocolMessage();
+                this.protocolBuffer.clear();
+            }
+        }
+    }
+
     // Gather the op, either up to the first space or the first carriage return.
     void gatherOp(int maxPos) throws IOException {
         try {
@@ -257,6 +403,58 @@ class NatsConnectionReader implements Runnable {
         }
     }
 
+    // Locates the message protocol line for the byte parser. When the entire line is already
+    // in the read buffer it is used in place, otherwise it is gathered into the line bytes
+    void gatherMessageProtocolBytes(int maxPos) throws IOException {
+        try {
+            if (this.msgLinePosition == 0 && !gotCR) {
+                int max = Math.min(maxPos - 1, this.bufferPosition + this.msgLineBytes.length);
+                for (int x = this.bufferPosition; x < max; x++) {
+                    if (this.buffer[x] == CR) {
+                        if (this.buffer[x + 1] != LF) {
+                            throw new IllegalStateException("Bad socket data, no LF after CR");
+                        }
+                        this.msgLineSource = this.buffer;
+                        this.msgLineStart = this.bufferPosition;
+                        this.msgLineEnd = x;
+                        this.bufferPosition = x + 2;
+                        this.mode = Mode.PARSE_PROTO;
+                        return;
+                    }
+                }
+            }
+
+            // the line continues into the next read
+            while(this.bufferPosition < maxPos) {
+                byte b = this.buffer[this.bufferPosition];
+                this.bufferPosition++;
+
+                if (gotCR) {
+                    if (b == LF) {
+                        this.msgLineSource = this.msgLineBytes;
+                        this.msgLineStart = 0;
+                        this.msgLineEnd = this.msgLinePosition;
+                        this.mode = Mode.PARSE_PROTO;
+                        this.gotCR = false;
+                        break;
+                    } else {
+                        throw new IllegalStateException("Bad socket data, no LF after CR");
+                    }
+                } else if (b == CR) {
+                    this.gotCR = true;
+                } else {
+                    if (this.msgLinePosition >= this.msgLineBytes.length) {
+                        throw new IllegalStateException("Protocol line is too long");
+                    }
+                    this.msgLineBytes[this.msgLinePosition] = b;
+                    this.msgLinePosition++;
+                }
+            }
+        } catch (IllegalStateException | NumberFormatException | NullPointerException ex) {
+            this.encounteredProtocolError(ex);
+        }
+    }
+
     // Gather bytes for a protocol line
     void gatherProtocol(int maxPos) throws IOException {
         // protocol buffer has max capacity, shouldn't need resizing
@@ -350,6 +548,9 @@ class NatsConnectionReader implements Runnable {
                     if (b == LF) {
                         incoming.setData(msgData);
                         NatsMessage m = incoming.getMessage();
+                        if (trackLatency) {
+                            m.timestampNanos = readNanos;
+                        }
                         this.connection.deliverMessage(m);
                         if (readListener != null) {
                             readListener.message(op, m);
@@ -465,8 +666,122 @@ class NatsConnectionReader implements Runnable {
         return retVal;
     }
 
+    private static final int MAX_MSG_LINE_TOKENS = 5; // subject sid [reply-to] [#header bytes] #total bytes
+
+    // Parse a number directly from protocol bytes. Only digits are allowed.
+    static long parseNumber(byte[] bytes, int start, int end, long max) throws NumberFormatException {
+        if (start >= end) {
+            throw new NumberFormatException("Missing number in message protocol line");
+        }
+
+        long retVal = 0;
+        for (int x = start; x < end; x++) {
+            int d = bytes[x] - '0';
+            if (d < 0 || d > 9) {
+                throw new NumberFormatException("Invalid char in message protocol number '" + (char) bytes[x] + "'");
+            }
+            if (retVal > (max - d) / 10) {
+                throw new NumberFormatException("Number in message protocol line exceeds " + max);
+            }
+            retVal = retVal * 10 + d;
+        }
+        return retVal;
+    }
+
+    // Splits the message line on spaces and tabs, recording where each token is.
+    // Returns the number of tokens, which will be more than the max if there are too many.
+    private int tokenizeMessageLine() {
+        int count = 0;
+        int x = msgLineStart;
+        while (x < msgLineEnd) {
+            byte b = msgLineSource[x];
+            if (b == SP || b == TAB) {
+                x++;
+                continue;
+            }
+            if (count == MAX_MSG_LINE_TOKENS) {
+                return count + 1;
+            }
+            msgLineTokenStarts[count] = x;
+            while (x < msgLineEnd && msgLineSource[x] != SP && msgLineSource[x] != TAB) {
+                x++;
+            }
+            msgLineTokenEnds[count++] = x;
+        }
+        return count;
+    }
+
+    private int parseMessageLineLength(int token) {
+        return (int)parseNumber(msgLineSource, msgLineTokenStarts[token], msgLineTokenEnds[token], Integer.MAX_VALUE);
+    }
+
+    // MSG <subject> <sid> [reply-to] <#bytes>
+    // HMSG <subject> <sid> [reply-to] <#header bytes> <#total bytes>
+    private void parseMessageLineBytes(boolean hmsg) {
+        try {
+            parseMessageLineSource(hmsg);
+        }
+        finally {
+            // the source may be the read buffer, never let a later line see it
+            this.msgLinePosition = 0;
+            this.msgLineSource = null;
+        }
+    }
+
+    private void parseMessageLineSource(boolean hmsg) {
+        if (msgLineSource == null) { // the op was not followed by a line, i.e. "MSG\r\n"
+            throw new IllegalStateException("Bad " + (hmsg ? OP_HMSG : OP_MSG) + " control line, missing required fields");
+        }
+        int lengthTokens = hmsg ? 2 : 1;
+        int tokens = tokenizeMessageLine();
+        if (tokens != 2 + lengthTokens && tokens != 3 + lengthTokens) {
+            throw new IllegalStateException("Bad " + (hmsg ? OP_HMSG : OP_MSG) + " control line, missing required fields");
+        }
+
+        long sid = parseNumber(msgLineSource, msgLineTokenStarts[1], msgLineTokenEnds[1], Long.MAX_VALUE);
+
+        int subjectLen = msgLineTokenEnds[0] - msgLineTokenStarts[0];
+        int replyToLen = 0;
+        int lengthToken = 2;
+        if (tokens == 3 + lengthTokens) {
+            replyToLen = msgLineTokenEnds[2] - msgLineTokenStarts[2];
+            lengthToken = 3;
+        }
+
+        // the only copy, since the read buffer is reused
+        byte[] rawSubjectReply = new byte[subjectLen + replyToLen];
+        System.arraycopy(msgLineSource, msgLineTokenStarts[0], rawSubjectReply, 0, subjectLen);
+        if (replyToLen > 0) {
+            System.arraycopy(msgLineSource, msgLineTokenStarts[2], rawSubjectReply, subjectLen, replyToLen);
+        }
+
+        int protocolLineLength = msgLineEnd - msgLineStart + (hmsg ? 5 : 4); // 5 for the "HMSG ", 4 for the "MSG "
+        this.incoming = new IncomingMessageFactory(rawSubjectReply, subjectLen, sid, protocolLineLength, utf8Mode);
+
+        if (hmsg) {
+            int hdrLen = parseMessageLineLength(lengthToken);
+            int totLen = parseMessageLineLength(lengthToken + 1);
+            if (hdrLen > totLen) {
+                throw new IllegalStateException("Bad HMSG control line, header length exceeds total length");
+            }
+            this.msgHeaders = new byte[hdrLen];
+            this.msgData = incoming.newData(connection, totLen - hdrLen);
+            this.mode = Mode.GATHER_HEADERS;
+            this.msgHeadersPosition = 0;
+        }
+        else {
+            this.msgData = incoming.newData(connection, parseMessageLineLength(lengthToken));
+            this.mode = Mode.GATHER_DATA;
+        }
+        this.msgDataPosition = 0;
+    }
+
     void parseProtocolMessage() throws IOException {
         try {
+            if (this.byteParser && (this.op.equals(OP_MSG) || this.op.equals(OP_HMSG))) {
+                parseMessageLineBytes(this.op.equals(OP_HMSG));
+                return;
+            }
             switch (this.op) {
                 case OP_MSG:
                     int protocolLength = this.msgLinePosition; //This is just after the last character
@@ -501,7 +816,7 @@ class NatsConnectionReader implements Runnable {
 
                     this.incoming = new IncomingMessageFactory(sid, subject, replyTo, protocolLineLength, utf8Mode);
                     this.mode = Mode.GATHER_DATA;
-                    this.msgData = new byte[incomingLength];
+                    this.msgData = incoming.newData(connection, incomingLength);
                     this.msgDataPosition = 0;
                     this.msgLinePosition = 0;
                     break;
@@ -543,7 +858,7 @@ class NatsConnectionReader implements Runnable {
 
                     this.incoming = new IncomingMessageFactory(hSid, hSubject, hReplyTo, hProtocolLineLength, utf8Mode);
                     this.msgHeaders = new byte[hdrLen];
-                    this.msgData = new byte[totLen - hdrLen];
+                    this.msgData = incoming.newData(connection, totLen - hdrLen);
                     this.mode = Mode.GATHER_HEADERS;
                     this.msgHeadersPosition = 0;
                     this.msgDataPosition = 0;
@@ -567,7 +882,12 @@ class NatsConnectionReader implements Runnable {
                     this.mode = Mode.GATHER_OP;
                     break;
                 case OP_PING:
-                    this.connection.sendPong();
+                    if (this.ioThread != null) {
+                        this.connection.sendPongLater(); // a shared io thread must not wait on a full outgoing queue
+                    }
+                    else {
+                        this.connection.sendPong();
+                    }
                     if (readListener != null) {
                         readListener.protocol(op, null);
                     }
@@ -615,4 +935,4 @@ class NatsConnectionReader implements Runnable {
     String currentOp() {
         return this.op;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -14,16 +14,20 @@
 
 package io.nats.client.impl;
 
+import io.nats.client.MetricsListener;
 import io.nats.client.Options;
 import io.nats.client.StatisticsCollector;
-import io.nats.client.support.ByteArrayBuilder;
+import io.nats.client.support.LatencyHistogram;
 
 import java.io.IOException;
 import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -34,6 +38,8 @@ import static io.nats.client.support.NatsConstants.*;
 
 class NatsConnectionWriter implements Runnable {
     private static final int BUFFER_BLOCK_SIZE = 256;
+    private static final int GATHER_MIN_PAYLOAD = 8 * 1024;
+    private static final int MAX_GATHER_SEGMENTS = 64;
 
     private final NatsConnection connection;
 
@@ -48,9 +54,24 @@ class NatsConnectionWriter implements Runnable {
     private byte[] sendBuffer;
     private final AtomicInteger sendBufferLength;
 
+    private final ByteBuffer[] gatherSegments; // null unless gathering writes
+    private int gatherCount;
+    private int gatherStart;
+
+    private volatile ExecutorService sharedWriters; // not null when writing on the shared io loop
+    private final AtomicBoolean drainScheduled;
+
     private final MessageQueue outgoing;
     private final MessageQueue reconnectOutgoing;
     private final long reconnectBufferSize;
+    private final LatencyHistogram queueLatency; // null unless tracking latency
+    private final MetricsListener metricsListener; // null unless set in the options
+
+    // flush coalescing, only touched by the writer thread
+    private final long coalescingWindowNanos; // 0 if off
+    private final int coalescingBytes;
+    private long lastBatchNanos;
+    private long avgBatchGapNanos;
 
     NatsConnectionWriter(NatsConnection connection, NatsConnectionWriter sourceWriter) {
         this.connection = connection;
@@ -59,6 +80,7 @@ class NatsConnectionWriter implements Runnable {
         this.running = new AtomicBoolean(false);
         this.reconnectMode = new AtomicBoolean(sourceWriter != null);
         this.startStopLock = new ReentrantLock();
+        this.drainScheduled = new AtomicBoolean(false);
         this.stopped = new CompletableFuture<>();
         ((CompletableFuture<Boolean>)this.stopped).complete(Boolean.TRUE); // we are stopped on creation
 
@@ -66,17 +88,33 @@ class NatsConnectionWriter implements Runnable {
         int sbl = bufferAllocSize(options.getBufferSize(), BUFFER_BLOCK_SIZE);
         sendBufferLength = new AtomicInteger(sbl);
         sendBuffer = new byte[sbl];
-
-        outgoing = new MessageQueue(true,
-            options.getMaxMessagesInOutgoingQueue(),
-            options.isDiscardMessagesWhenOutgoingQueueFull(),
-            options.getRequestCleanupInterval(),
-            sourceWriter == null ? null : sourceWriter.outgoing);
+        gatherSegments = options.useGatheringWrites() ? new ByteBuffer[MAX_GATHER_SEGMENTS] : null;
+
+        if (options.useRingBufferOutgoingQueue() && options.getMaxMessagesInOutgoingQueue() > 0) {
+            outgoing = new RingBufferMessageQueue(
+                options.getMaxMessagesInOutgoingQueue(),
+                options.isDiscardMessagesWhenOutgoingQueueFull(),
+                options.getRequestCleanupInterval(),
+                sourceWriter == null ? null : sourceWriter.outgoing);
+        }
+        else {
+            outgoing = new MessageQueue(true,
+                options.getMaxMessagesInOutgoingQueue(),
+                options.isDiscardMessagesWhenOutgoingQueueFull(),
+                options.getRequestCleanupInterval(),
+                sourceWriter == null ? null : sourceWriter.outgoing);
+        }
 
         // The "reconnect" buffer contains internal messages, and we will keep it unlimited in size
         reconnectOutgoing = new MessageQueue(true, options.getRequestCleanupInterval(),
             sourceWriter == null ? null : sourceWriter.reconnectOutgoing);
         reconnectBufferSize = options.getReconnectBufferSize();
+        queueLatency = connection.getLatencyStatistics() == null ? null : connection.getLatencyStatistics().getOutgoingQueueLatency();
+        metricsListener = options.getMetricsListener();
+        coalescingWindowNanos = options.getFlushCoalescingWindow().toNanos();
+        coalescingBytes = options.getFlushCoalescingBytes();
+        lastBatchNanos = System.nanoTime();
+        avgBatchGapNanos = coalescingWindowNanos;
     }
 
     // Should only be called if the current thread has exited.
@@ -89,7 +127,19 @@ class NatsConnectionWriter implements Runnable {
             this.running.set(true);
             this.outgoing.resume();
             this.reconnectOutgoing.resume();
-            this.stopped = connection.getExecutor().submit(this, Boolean.TRUE);
+            SocketChannelDataPort sharedPort = SharedIoLoop.sharedPort(connection.getOptions(), dataPortFuture);
+            if (sharedPort == null) {
+                this.sharedWriters = null;
+                this.stopped = connection.getExecutor().submit(this, Boolean.TRUE);
+            }
+            else {
+                // Instead of a thread of its own, the writer borrows a shared writer thread while there is something to write
+                this.dataPort = sharedPort;
+                this.stopped = new CompletableFuture<>();
+                this.drainScheduled.set(false);
+                this.sharedWriters = SharedIoLoop.shared().writers();
+                signalSharedWriter(); // there may be messages from before a reconnect
+            }
         } finally {
             this.startStopLock.unlock();
         }
@@ -113,6 +163,10 @@ class NatsConnectionWriter implements Runnable {
             finally {
                 this.startStopLock.unlock();
             }
+            if (sharedWriters != null && drainScheduled.compareAndSet(false, true)) {
+                // not draining, and now never will, otherwise the drain completes this when it ends
+                ((CompletableFuture<Boolean>) this.stopped).complete(Boolean.TRUE);
+            }
         }
         return this.stopped;
     }
@@ -124,8 +178,18 @@ class NatsConnectionWriter implements Runnable {
     void sendMessageBatch(NatsMessage msg, DataPort dataPort, StatisticsCollector stats) throws IOException {
         writerLock.lock();
         try {
+            if (queueLatency != null) {
+                recordQueueLatency(msg);
+            }
+            if (gatherSegments != null && dataPort.supportsGatheringWrites()) {
+                sendMessageBatchGathering(msg, dataPort, stats);
+                return;
+            }
+
             int sendPosition = 0;
             int sbl = sendBufferLength.get();
+            int batchMessages = 0;
+            long batchBytes = 0;
 
             while (msg != null) {
                 long size = msg.getSizeInBytes();
@@ -143,10 +207,7 @@ class NatsConnectionWriter implements Runnable {
                     }
                 }
 
-                ByteArrayBuilder bab = msg.getProtocolBab();
-                int babLen = bab.length();
-                System.arraycopy(bab.internalArray(), 0, sendBuffer, sendPosition, babLen);
-                sendPosition += babLen;
+                sendPosition += msg.copyProtocolLine(sendPosition, sendBuffer);
 
                 sendBuffer[sendPosition++] = CR;
                 sendBuffer[sendPosition++] = LF;
@@ -166,6 +227,8 @@ class NatsConnectionWriter implements Runnable {
 
                 stats.incrementOutMsgs();
                 stats.incrementOutBytes(size);
+                batchMessages++;
+                batchBytes += size;
 
                 if (msg.flushImmediatelyAfterPublish) {
                     dataPort.flush();
@@ -178,12 +241,128 @@ class NatsConnectionWriter implements Runnable {
                 dataPort.write(sendBuffer, sendPosition);
                 connection.getNatsStatistics().registerWrite(sendPosition);
             }
+            batchWritten(batchMessages, batchBytes);
         }
         finally {
             writerLock.unlock();
         }
     }
 
+    private void batchWritten(int messages, long bytes) {
+        if (metricsListener != null && messages > 0) {
+            try {
+                metricsListener.batchWritten(connection, messages, bytes);
+            } catch (Exception e) {
+                connection.getNatsStatistics().incrementExceptionCount();
+            }
+        }
+    }
+
+    // how long each message in the batch waited in the outgoing queue
+    private void recordQueueLatency(NatsMessage msg) {
+        long now = System.nanoTime();
+        while (msg != null) {
+            if (msg.timestampNanos != 0) {
+                queueLatency.record(now - msg.timestampNanos);
+            }
+            msg = msg.next;
+        }
+    }
+
+    // Like the copying batch, except a large payload is not copied into the send buffer. The bytes
+    // before it are wrapped as one segment, the payload is its own segment, and the whole batch
+    // goes to the data port in one gathering write. Must hold the writer lock.
+    private void sendMessageBatchGathering(NatsMessage msg, DataPort dataPort, StatisticsCollector stats) throws IOException {
+        int sendPosition = 0;
+        int sbl = sendBufferLength.get();
+        gatherCount = 0;
+        gatherStart = 0;
+        int batchMessages = 0;
+        long batchBytes = 0;
+
+        while (msg != null) {
+            long size = msg.getSizeInBytes();
+            byte[] bytes = msg.isProtocol() ? null : msg.getData(); // guaranteed to not be null if not protocol
+            boolean gather = bytes != null && bytes.length >= GATHER_MIN_PAYLOAD;
+            long toCopy = gather ? size - bytes.length : size;
+
+            if (sendPosition + toCopy > sbl || (gather && gatherCount + 3 > MAX_GATHER_SEGMENTS)) {
+                if (sendPosition > 0) {
+                    writeGathered(dataPort, sendPosition);
+                    sendPosition = 0;
+                }
+                if (toCopy > sbl) { // have to resize b/c can't fit 1 message
+                    sbl = bufferAllocSize((int) toCopy, BUFFER_BLOCK_SIZE);
+                    sendBufferLength.set(sbl);
+                    sendBuffer = new byte[sbl];
+                }
+            }
+
+            sendPosition += msg.copyProtocolLine(sendPosition, sendBuffer);
+
+            sendBuffer[sendPosition++] = CR;
+            sendBuffer[sendPosition++] = LF;
+
+            if (bytes != null) {
+                sendPosition += msg.copyNotEmptyHeaders(sendPosition, sendBuffer);
+
+                if (gather) {
+                    gatherSegments[gatherCount++] = ByteBuffer.wrap(sendBuffer, gatherStart, sendPosition - gatherStart);
+                    gatherSegments[gatherCount++] = ByteBuffer.wrap(bytes);
+                    gatherStart = sendPosition;
+                }
+                else if (bytes.length > 0) {
+                    System.arraycopy(bytes, 0, sendBuffer, sendPosition, bytes.length);
+                    sendPosition += bytes.length;
+                }
+
+                sendBuffer[sendPosition++] = CR;
+                sendBuffer[sendPosition++] = LF;
+            }
+
+            stats.incrementOutMsgs();
+            stats.incrementOutBytes(size);
+            batchMessages++;
+            batchBytes += size;
+
+            if (msg.flushImmediatelyAfterPublish) {
+                dataPort.flush();
+            }
+            msg = msg.next;
+        }
+
+        // there is always at least the CRLF after a gathered payload in the send buffer
+        if (sendPosition > 0) {
+            writeGathered(dataPort, sendPosition);
+        }
+        batchWritten(batchMessages, batchBytes);
+    }
+
+    private void writeGathered(DataPort dataPort, int sendPosition) throws IOException {
+        if (gatherCount == 0) {
+            dataPort.write(sendBuffer, sendPosition);
+            connection.getNatsStatistics().registerWrite(sendPosition);
+            return;
+        }
+
+        if (sendPosition > gatherStart) {
+            gatherSegments[gatherCount++] = ByteBuffer.wrap(sendBuffer, gatherStart, sendPosition - gatherStart);
+        }
+        long written = 0;
+        for (int x = 0; x < gatherCount; x++) {
+            written += gatherSegments[x].remaining();
+        }
+        try {
+            dataPort.write(gatherSegments, 0, gatherCount);
+        }
+        finally {
+            Arrays.fill(gatherSegments, 0, gatherCount, null); // don't hold on to the payloads
+            gatherCount = 0;
+            gatherStart = 0;
+        }
+        connection.getNatsStatistics().registerWrite(written);
+    }
+
     @Override
     public void run() {
         Duration outgoingTimeout = Duration.ofMinutes(2); // This can be long since no one is sending
@@ -200,6 +379,9 @@ class NatsConnectionWriter implements Runnable {
                 }
                 else {
                     msg = this.outgoing.accumulate(sendBufferLength.get(), Options.MAX_MESSAGES_IN_NETWORK_BUFFER, outgoingTimeout);
+                    if (msg != null && coalescingWindowNanos > 0) {
+                        msg = coalesce(msg, stats);
+                    }
                 }
                 if (msg != null) {
                     sendMessageBatch(msg, dataPort, stats);
@@ -220,25 +402,142 @@ class NatsConnectionWriter implements Runnable {
         }
     }
 
+    // Adaptive flush coalescing. The average time between batches tells whether the writer is busy.
+    // When it is, and the batch is small, wait up to the window for more messages to join it,
+    // including past messages that asked to be flushed, which otherwise end a batch.
+    // When it is quiet, write at once, so a lone message is not delayed.
+    NatsMessage coalesce(NatsMessage msg, StatisticsCollector stats) throws InterruptedException {
+        long start = System.nanoTime();
+        avgBatchGapNanos += (start - lastBatchNanos - avgBatchGapNanos) >> 3;
+        lastBatchNanos = start;
+        if (avgBatchGapNanos > coalescingWindowNanos) {
+            return msg;
+        }
+
+        NatsMessage tail = msg;
+        long bytes = msg.getSizeInBytes();
+        int count = 1;
+        while (tail.next != null) {
+            tail = tail.next;
+            bytes += tail.getSizeInBytes();
+            count++;
+        }
+
+        int sbl = sendBufferLength.get();
+        long limit = Math.min(coalescingBytes, sbl);
+        if (bytes >= limit) {
+            return msg;
+        }
+
+        long deadline = start + coalescingWindowNanos;
+        long joined = 0;
+        while (bytes < limit && count < Options.MAX_MESSAGES_IN_NETWORK_BUFFER) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                break;
+            }
+            tail.next = this.outgoing.accumulate(sbl - bytes, Options.MAX_MESSAGES_IN_NETWORK_BUFFER - count, Duration.ofNanos(left));
+            if (tail.next == null) {
+                break; // timed out, paused or stopped
+            }
+            while (tail.next != null) {
+                tail = tail.next;
+                bytes += tail.getSizeInBytes();
+                count++;
+                joined++;
+            }
+        }
+        stats.registerCoalescedWrite(joined, System.nanoTime() - start);
+        return msg;
+    }
+
+    private void signalSharedWriter() {
+        if (sharedWriters != null && running.get() && drainScheduled.compareAndSet(false, true)) {
+            sharedWriters.execute(this::drainShared);
+        }
+    }
+
+    // Runs on a shared writer thread. Writes until the queue is empty, then gives the thread back.
+    private void drainShared() {
+        boolean scheduled = true;
+        try {
+            StatisticsCollector stats = this.connection.getNatsStatistics();
+            while (running.get()) {
+                MessageQueue queue = this.reconnectMode.get() ? this.reconnectOutgoing : this.outgoing;
+                NatsMessage msg = queue.accumulate(sendBufferLength.get(), Options.MAX_MESSAGES_IN_NETWORK_BUFFER, null);
+                if (msg != null) {
+                    sendMessageBatch(msg, dataPort, stats);
+                    continue;
+                }
+                drainScheduled.set(false);
+                scheduled = false;
+                // a message queued after the accumulate but before the flag was cleared did not get a drain
+                if (queue.length() == 0 || !drainScheduled.compareAndSet(false, true)) {
+                    break;
+                }
+                scheduled = true;
+            }
+        } catch (IOException | BufferOverflowException io) {
+            // if already not running, an IOE is not unreasonable in a transition state
+            if (running.get()) {
+                this.connection.handleCommunicationIssue(io);
+            }
+            this.running.set(false);
+        } catch (InterruptedException ex) {
+            this.running.set(false);
+            Thread.currentThread().interrupt();
+        } finally {
+            if (scheduled) {
+                drainScheduled.set(false);
+            }
+            if (!running.get() && drainScheduled.compareAndSet(false, true)) {
+                ((CompletableFuture<Boolean>) this.stopped).complete(Boolean.TRUE);
+            }
+        }
+    }
+
     void setReconnectMode(boolean tf) {
         reconnectMode.set(tf);
+        signalSharedWriter();
     }
 
-    boolean canQueueDuringReconnect(NatsMessage msg) {
+    boolean canQueueDuringReconnect(long bytes) {
         // don't over fill the "send" buffer while waiting to reconnect
-        return (reconnectBufferSize < 0 || (outgoing.sizeInBytes() + msg.getSizeInBytes()) < reconnectBufferSize);
+        return (reconnectBufferSize < 0 || (outgoing.sizeInBytes() + bytes) < reconnectBufferSize);
     }
 
     boolean queue(NatsMessage msg) {
-        return this.outgoing.push(msg);
+        if (queueLatency != null) {
+            msg.timestampNanos = System.nanoTime();
+        }
+        boolean queued = this.outgoing.push(msg);
+        signalSharedWriter();
+        return queued;
+    }
+
+    // queue a batch of messages linked by their next field, returns the part of the batch that was not queued
+    NatsMessage queueBatch(NatsMessage first, int count, long bytes) {
+        if (queueLatency != null) {
+            long now = System.nanoTime();
+            for (NatsMessage msg = first; msg != null; msg = msg.next) {
+                msg.timestampNanos = now;
+            }
+        }
+        NatsMessage notQueued = this.outgoing.pushBatch(first, count, bytes);
+        signalSharedWriter();
+        return notQueued;
     }
 
     void queueInternalMessage(NatsMessage msg) {
+        if (queueLatency != null) {
+            msg.timestampNanos = System.nanoTime();
+        }
         if (this.reconnectMode.get()) {
             this.reconnectOutgoing.push(msg);
         } else {
             this.outgoing.push(msg, true);
         }
+        signalSharedWriter();
     }
 
     void flushBuffer() {
@@ -16,6 +16,7 @@ package io.nats.client.impl;
 import io.nats.client.Dispatcher;
 import io.nats.client.MessageHandler;
 import io.nats.client.Subscription;
+import io.nats.client.support.LatencyHistogram;
 
 import java.time.Duration;
 import java.util.Map;
@@ -49,6 +50,8 @@ class NatsDispatcher extends NatsConsumer implements Dispatcher, Runnable {
     protected final Map<String, MessageHandler> subscriptionHandlers;
 
     protected final Duration waitForMessage;
+    protected final LatencyHistogram deliveryLatency; // null unless tracking latency
+    protected final boolean timeHandlers;
 
     NatsDispatcher(NatsConnection conn, MessageHandler handler) {
         super(conn);
@@ -60,6 +63,8 @@ class NatsDispatcher extends NatsConsumer implements Dispatcher, Runnable {
         this.running = new AtomicBoolean(false);
         this.started = new AtomicBoolean(false);
         this.waitForMessage = Duration.ofMinutes(5); // This can be long since we aren't doing anything
+        this.deliveryLatency = conn.getLatencyStatistics() == null ? null : conn.getLatencyStatistics().getDeliveryLatency();
+        this.timeHandlers = conn.getOptions().getMetricsListener() != null;
     }
 
     @Override
@@ -87,6 +92,7 @@ class NatsDispatcher extends NatsConsumer implements Dispatcher, Runnable {
             while (running.get() && !Thread.interrupted()) {
                 NatsMessage msg = this.incoming.pop(this.waitForMessage);
                 if (msg != null) {
+                    long lease = msg.poolLease(); // the handler may release the message itself
                     NatsSubscription sub = msg.getNatsSubscription();
                     if (sub != null && sub.isActive()) {
                         MessageHandler handler = subscriptionHandlers.get(sub.getSID());
@@ -99,7 +105,12 @@ class NatsDispatcher extends NatsConsumer implements Dispatcher, Runnable {
                         if (handler != null) {
                             sub.incrementDeliveredCount();
                             this.incrementDeliveredCount();
+                            if (deliveryLatency != null) {
+                                NatsLatencyStatistics.recordSince(deliveryLatency, msg.timestampNanos);
+                            }
 
+                            connection.decodePayload(sub, msg);
+                            long handlerStart = timeHandlers ? System.nanoTime() : 0;
                             try {
                                 handler.onMessage(msg);
                             } catch (Exception exp) {
@@ -107,12 +118,16 @@ class NatsDispatcher extends NatsConsumer implements Dispatcher, Runnable {
                             } catch (Error err) {
                                 connection.processException(new Exception(err));
                             }
+                            if (timeHandlers) {
+                                sub.recordHandlerTime(System.nanoTime() - handlerStart);
+                            }
 
                             if (sub.reachedUnsubLimit()) {
                                 connection.invalidate(sub);
                             }
                         }
                     }
+                    msg.releaseLease(lease);
                 }
 
                 if (breakRunLoop()) {
@@ -140,6 +155,7 @@ class NatsDispatcher extends NatsConsumer implements Dispatcher, Runnable {
     void stop(boolean unsubscribeAll) {
         this.running.set(false);
         this.incoming.pause();
+        this.incoming.releasePooled(); // nothing will handle them now
 
         if (this.thread != null) {
             try {
@@ -240,6 +256,22 @@ class NatsDispatcher extends NatsConsumer implements Dispatcher, Runnable {
         return this.subscribeImplCore(subject, queueName, handler);
     }
 
+    @Override
+    public Subscription subscribePooled(String subject, MessageHandler handler) {
+        return subscribePooled(subject, null, handler);
+    }
+
+    @Override
+    public Subscription subscribePooled(String subject, String queueName, MessageHandler handler) {
+        validateSubject(subject, true);
+        validateQueueName(queueName, false);
+        required(handler, "Handler");
+        checkBeforeSubImpl();
+        NatsSubscription sub = _subscribeImplHandlerProvided(subject, queueName, handler, null);
+        connection.usePool(sub);
+        return sub;
+    }
+
     // Assumes the subj/queuename checks are done, does check for closed status
     NatsSubscription subscribeImplCore(String subject, String queueName, MessageHandler handler) {
         checkBeforeSubImpl();
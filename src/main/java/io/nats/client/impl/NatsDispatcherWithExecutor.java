@@ -15,36 +15,22 @@ package io.nats.client.impl;
 
 import io.nats.client.MessageHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 class NatsDispatcherWithExecutor extends NatsDispatcher {
 
     NatsDispatcherWithExecutor(NatsConnection conn, MessageHandler handler) {
         super(conn, handler);
     }
 
-    @Override
-    protected void handleMessage(NatsSubscription sub, NatsMessage msg, MessageHandler handler) {
-        MessageHandler finalHandler = handler;
-        connection.getExecutor().execute(() -> {
-            try {
-                finalHandler.onMessage(msg);
-            } catch (Exception exp) {
-                connection.processException(exp);
-            } catch (Error err) {
-                connection.processException(new Exception(err));
-            }
-
-            if (sub.reachedUnsubLimit()) {
-                connection.invalidate(sub);
-            }
-        });
-    }
-
     @Override
     public void run() {
         try {
             while (running.get() && !Thread.interrupted()) {
                 NatsMessage msg = this.incoming.pop(this.waitForMessage);
                 if (msg != null) {
+                    long lease = msg.poolLease(); // the handler may release the message itself
+                    boolean handedOff = false;
                     NatsSubscription sub = msg.getNatsSubscription();
                     if (sub != null && sub.isActive()) {
                         MessageHandler handler = subscriptionHandlers.get(sub.getSID());
@@ -59,21 +45,39 @@ class NatsDispatcherWithExecutor extends NatsDispatcher {
                             this.incrementDeliveredCount();
 
                             MessageHandler finalHandler = handler;
-                            connection.getExecutor().execute(() -> {
-                                try {
-                                    finalHandler.onMessage(msg);
-                                } catch (Exception exp) {
-                                    connection.processException(exp);
-                                } catch (Error err) {
-                                    connection.processException(new Exception(err));
-                                }
+                            try {
+                                connection.getExecutor().execute(() -> {
+                                    if (deliveryLatency != null) {
+                                        NatsLatencyStatistics.recordSince(deliveryLatency, msg.timestampNanos);
+                                    }
+                                    connection.decodePayload(sub, msg);
+                                    long handlerStart = timeHandlers ? System.nanoTime() : 0;
+                                    try {
+                                        finalHandler.onMessage(msg);
+                                    } catch (Exception exp) {
+                                        connection.processException(exp);
+                                    } catch (Error err) {
+                                        connection.processException(new Exception(err));
+                                    }
+                                    if (timeHandlers) {
+                                        sub.recordHandlerTime(System.nanoTime() - handlerStart);
+                                    }
 
-                                if (sub.reachedUnsubLimit()) {
-                                    connection.invalidate(sub);
-                                }
-                            });
+                                    if (sub.reachedUnsubLimit()) {
+                                        connection.invalidate(sub);
+                                    }
+                                    msg.releaseLease(lease);
+                                });
+                                handedOff = true; // the task releases it
+                            }
+                            catch (RejectedExecutionException e) {
+                                // the executor is shutting down with the connection
+                            }
                         }
                     }
+                    if (!handedOff) {
+                        msg.releaseLease(lease);
+                    }
                 }
 
                 if (breakRunLoop()) {
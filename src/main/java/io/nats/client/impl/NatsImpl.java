@@ -16,6 +16,7 @@ package io.nats.client.impl;
 import io.nats.client.AuthHandler;
 import io.nats.client.Connection;
 import io.nats.client.Options;
+import io.nats.client.ShardedConnection;
 import io.nats.client.Statistics;
 
 import java.io.IOException;
@@ -30,6 +31,27 @@ public class NatsImpl {
         return conn;
     }
 
+    public static ShardedConnection createShardedConnection(Options options, int connections, boolean reconnectOnConnect) throws IOException, InterruptedException {
+        if (connections < 1) {
+            throw new IllegalArgumentException("Sharded connection requires at least one connection");
+        }
+        Connection[] members = new Connection[connections];
+        try {
+            for (int x = 0; x < connections; x++) {
+                members[x] = createConnection(options, reconnectOnConnect);
+            }
+        }
+        catch (IOException | InterruptedException | RuntimeException e) {
+            for (Connection member : members) {
+                if (member != null) {
+                    member.close();
+                }
+            }
+            throw e;
+        }
+        return new NatsShardedConnection(members);
+    }
+
     public static Statistics createEmptyStats() {
         return new NatsStatistics();
     }
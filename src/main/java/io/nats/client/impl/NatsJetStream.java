@@ -141,8 +141,28 @@ public class NatsJetStream extends NatsJetStreamImpl implements JetStream {
         return publishAsyncInternal(message.getSubject(), message.getHeaders(), message.getData(), options, false);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JetStreamPublisher publisher(JetStreamPublisherOptions options) {
+        return new NatsJetStreamPublisher(this, options == null ? JetStreamPublisherOptions.builder().build() : options);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PublishAckTracker publishAckTracker(int capacity, PublishAckListener listener) {
+        return new NatsPublishAckTracker(this, capacity, listener);
+    }
+
     private PublishAck publishSyncInternal(String subject, Headers headers, byte[] data, PublishOptions options, boolean validateSubjectAndReplyTo) throws IOException, JetStreamApiException {
         Headers merged = mergePublishOptions(headers, options);
+        if (conn.shouldEncode(data)) {
+            merged = conn.encodingHeaders(merged);
+            data = conn.encode(data);
+        }
 
         if (jso.isPublishNoAck()) {
             conn.publishInternal(subject, null, merged, data, validateSubjectAndReplyTo, false);
@@ -155,32 +175,45 @@ public class NatsJetStream extends NatsJetStreamImpl implements JetStream {
 
     private CompletableFuture<PublishAck> publishAsyncInternal(String subject, Headers headers, byte[] data, PublishOptions options, boolean validateSubjectAndReplyTo) {
         Headers merged = mergePublishOptions(headers, options);
+        if (conn.shouldEncode(data)) {
+            merged = conn.encodingHeaders(merged);
+            data = conn.encode(data);
+        }
 
         if (jso.isPublishNoAck()) {
             conn.publishInternal(subject, null, merged, data, validateSubjectAndReplyTo, false);
             return null;
         }
 
+        LatencyStatistics latency = conn.getLatencyStatistics();
+        long start = latency == null ? 0 : System.nanoTime();
         CompletableFuture<Message> future = conn.requestFutureInternal(subject, merged, data, null, CancelAction.COMPLETE, validateSubjectAndReplyTo, conn.forceFlushOnRequest);
 
         return future.thenCompose(resp -> {
             try {
                 responseRequired(resp);
-                return CompletableFuture.completedFuture(processPublishResponse(resp, options));
+                PublishAck ack = processPublishResponse(resp, options);
+                if (latency != null) {
+                    NatsLatencyStatistics.recordSince(latency.getPublishAckLatency(), start);
+                }
+                return CompletableFuture.completedFuture(ack);
             } catch (IOException | JetStreamApiException e) {
                 throw new RuntimeException(e);
             }
         });
     }
 
-    private PublishAck processPublishResponse(Message resp, PublishOptions options) throws IOException, JetStreamApiException {
+    PublishAck processPublishResponse(Message resp, PublishOptions options) throws IOException, JetStreamApiException {
+        return processPublishResponse(resp, options == null ? null : options.getStream());
+    }
+
+    PublishAck processPublishResponse(Message resp, String pubStream) throws IOException, JetStreamApiException {
         if (resp.isStatusMessage()) {
             throw new IOException("Error Publishing: " + resp.getStatus().getMessageWithCode());
         }
 
-        PublishAck ack = new PublishAck(resp);
+        PublishAck ack = PublishAck.fromMessage(resp);
         String ackStream = ack.getStream();
-        String pubStream = options == null ? null : options.getStream();
         // stream specified in options but different from ack should not happen but...
         if (pubStream != null && !pubStream.equals(ackStream)) {
             throw new IOException("Expected ack from stream " + pubStream + ", received from: " + ackStream);
@@ -188,7 +221,7 @@ public class NatsJetStream extends NatsJetStreamImpl implements JetStream {
         return ack;
     }
 
-    private Headers mergePublishOptions(Headers headers, PublishOptions opts) {
+    Headers mergePublishOptions(Headers headers, PublishOptions opts) {
         // never touch the user's original headers
         Headers merged = headers == null ? null : new Headers(headers);
 
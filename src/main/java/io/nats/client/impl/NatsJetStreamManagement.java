@@ -16,6 +16,7 @@ package io.nats.client.impl;
 import io.nats.client.*;
 import io.nats.client.api.Error;
 import io.nats.client.api.*;
+import io.nats.client.support.DateTimeUtils;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -341,10 +342,40 @@ public class NatsJetStreamManagement extends NatsJetStreamImpl implements JetStr
         else {
             String getSubject = String.format(JSAPI_MSG_GET, streamName);
             Message resp = makeRequestResponseRequired(getSubject, messageGetRequest.serialize(), getTimeout());
-            return new MessageInfo(resp, streamName, false).throwOnHasError();
+            return decodePayload(new MessageInfo(resp, streamName, false).throwOnHasError());
         }
     }
 
+    // A direct get response is decoded as it is delivered, like any other message, but here the
+    // stored body comes back base64 inside the json, so it is decoded once the json is parsed.
+    private MessageInfo decodePayload(MessageInfo mi) {
+        PayloadCodec codec = conn.getOptions().getPayloadCodec();
+        Headers h = mi.getHeaders();
+        if (codec == null || h == null || mi.getData() == null
+                || !codec.getEncoding().equals(h.getFirst(PayloadCodec.ENCODING_HEADER))) {
+            return mi;
+        }
+
+        byte[] data;
+        try {
+            data = codec.decode(mi.getData(), conn.getOptions().getPayloadCodecMaxDecodedSize());
+        }
+        catch (RuntimeException e) {
+            // returned as it was stored, still marked as encoded
+            conn.processException(e);
+            return mi;
+        }
+
+        // MessageInfo is immutable, so rebuild it the way a direct get response carries it
+        Headers direct = new Headers(h);
+        direct.remove(PayloadCodec.ENCODING_HEADER);
+        direct.put(NATS_SUBJECT, mi.getSubject());
+        direct.put(NATS_SEQUENCE, Long.toString(mi.getSeq()));
+        direct.put(NATS_TIMESTAMP, DateTimeUtils.toRfc3339(mi.getTime()));
+        direct.put(NATS_STREAM, mi.getStream());
+        return new MessageInfo(new NatsMessage(mi.getSubject(), null, direct, data), mi.getStream(), true);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -46,7 +46,7 @@ class NatsJetStreamMessage extends IncomingMessage {
         if (ackHasntBeenTermed()) {
             validateDurationRequired(d);
             Connection nc = getJetStreamValidatedConnection();
-            if (nc.request(replyTo, AckAck.bytes, d) == null) {
+            if (nc.request(getReplyTo(), AckAck.bytes, d) == null) {
                 throw new TimeoutException("Ack response timed out.");
             }
             lastAck = AckAck;
@@ -115,7 +115,7 @@ class NatsJetStreamMessage extends IncomingMessage {
     private void ackReply(AckType ackType, long delayNanos) {
         if (ackHasntBeenTermed()) {
             Connection nc = getJetStreamValidatedConnection();
-            nc.publish(replyTo, ackType.bodyBytes(delayNanos));
+            nc.publish(getReplyTo(), ackType.bodyBytes(delayNanos));
             lastAck = ackType;
         }
     }
@@ -15,34 +15,57 @@ package io.nats.client.impl;
 
 import io.nats.client.support.DateTimeUtils;
 
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Jetstream Metadata about a message, when applicable.
  */
 public class NatsJetStreamMetaData {
+    private static final long MAX_BEFORE_DIGIT = Long.MAX_VALUE / 10;
+    private static final int MAX_LAST_DIGIT = (int) (Long.MAX_VALUE % 10);
+    // the reply to is scanned in place, from the bytes the message was read into when they are still there
+    private final String replyString;
+    private final byte[] replyBytes;
+
+    // token positions, the strings are only made when asked for
+    private final int prefixStart;
+    private final int prefixEnd;
+    private final int domainStart;
+    private final int domainEnd;
+    private final int accountHashStart;
+    private final int accountHashEnd;
+    private final int streamStart;
+    private final int streamEnd;
+    private final int consumerStart;
+    private final int consumerEnd;
 
-    private final String prefix;
-    private final String domain;
-    private final String accountHash;
-    private final String stream;
-    private final String consumer;
     private final long delivered;
     private final long streamSeq;
     private final long consumerSeq;
-    private final ZonedDateTime timestamp;
+    private final long timestampNanos;
     private final long pending;
+
+    private String prefix;
+    private String domain;
+    private String accountHash;
+    private String stream;
+    private String consumer;
+    private ZonedDateTime timestamp;
+
     @Override
     public String toString() {
         return "NatsJetStreamMetaData{" +
-            "prefix='" + prefix + '\'' +
-            ", domain='" + domain + '\'' +
-            ", stream='" + stream + '\'' +
-            ", consumer='" + consumer + '\'' +
+            "prefix='" + getPrefix() + '\'' +
+            ", domain='" + getDomain() + '\'' +
+            ", stream='" + getStream() + '\'' +
+            ", consumer='" + getConsumer() + '\'' +
             ", delivered=" + delivered +
             ", streamSeq=" + streamSeq +
             ", consumerSeq=" + consumerSeq +
-            ", timestamp=" + timestamp +
+            ", timestamp=" + timestamp() +
             ", pending=" + pending +
             '}';
     }
@@ -59,25 +82,47 @@ public class NatsJetStreamMetaData {
             throw new IllegalArgumentException(notAJetStreamMessage(natsMessage.getReplyTo()));
         }
 
-        String[] parts = natsMessage.getReplyTo().split("\\.");
-        if (parts.length < 8 || !"ACK".equals(parts[1])) {
-            throw new IllegalArgumentException(notAJetStreamMessage(natsMessage.getReplyTo()));
+        int start;
+        int end;
+        if (natsMessage.replyTo == null && natsMessage.rawSubjectReply != null) {
+            replyString = null;
+            replyBytes = natsMessage.rawSubjectReply;
+            start = natsMessage.rawSubjectLen;
+            end = replyBytes.length;
+        }
+        else {
+            replyString = natsMessage.getReplyTo();
+            replyBytes = null;
+            start = 0;
+            end = replyString == null ? 0 : replyString.length();
+        }
+
+        // like split, trailing empty tokens don't count
+        while (end > start && charAt(end - 1) == '.') {
+            end--;
+        }
+
+        int tokens = end > start ? 1 : 0;
+        for (int x = start; x < end; x++) {
+            if (charAt(x) == '.') {
+                tokens++;
+            }
         }
 
         int streamIndex;
         boolean hasPending;
         boolean hasDomainAndHash;
-        if (parts.length == 8) {
+        if (tokens == 8) {
             streamIndex = 2;
             hasPending = false;
             hasDomainAndHash = false;
         }
-        else if (parts.length == 9) {
+        else if (tokens == 9) {
             streamIndex = 2;
             hasPending = true;
             hasDomainAndHash = false;
         }
-        else if (parts.length >= 11) {
+        else if (tokens >= 11) {
             streamIndex = 4;
             hasPending = true;
             hasDomainAndHash = true;
@@ -86,29 +131,119 @@ public class NatsJetStreamMetaData {
             throw new IllegalArgumentException(notAJetStreamMessage(natsMessage.getReplyTo()));
         }
 
+        int x = start;
+        int e = tokenEnd(x, end);
+        prefixStart = x;
+        prefixEnd = e;
+
+        x = e + 1;
+        e = tokenEnd(x, end);
+        if (e - x != 3 || charAt(x) != 'A' || charAt(x + 1) != 'C' || charAt(x + 2) != 'K') {
+            throw new IllegalArgumentException(notAJetStreamMessage(natsMessage.getReplyTo()));
+        }
+
+        if (hasDomainAndHash) {
+            x = e + 1;
+            e = tokenEnd(x, end);
+            domainStart = x;
+            domainEnd = e;
+            x = e + 1;
+            e = tokenEnd(x, end);
+            accountHashStart = x;
+            accountHashEnd = e;
+        }
+        else {
+            domainStart = -1;
+            domainEnd = -1;
+            accountHashStart = -1;
+            accountHashEnd = -1;
+        }
+
+        x = e + 1;
+        e = tokenEnd(x, end);
+        streamStart = x;
+        streamEnd = e;
+        x = e + 1;
+        e = tokenEnd(x, end);
+        consumerStart = x;
+        consumerEnd = e;
+
         try {
-            prefix = parts[0];
-            // "ack" = parts[1]
-            domain = hasDomainAndHash ? parts[2] : null;
-            accountHash = hasDomainAndHash ? parts[3] : null;
-            stream = parts[streamIndex];
-            consumer = parts[streamIndex + 1];
-            delivered = Long.parseLong(parts[streamIndex + 2]);
-            streamSeq = Long.parseLong(parts[streamIndex + 3]);
-            consumerSeq = Long.parseLong(parts[streamIndex + 4]);
-            timestamp = DateTimeUtils.parseDateTimeNanos(parts[streamIndex + 5]);
-            pending = hasPending ? Long.parseLong(parts[streamIndex + 6]) : -1L;
-        }
-        catch (Exception e) {
+            x = e + 1;
+            e = tokenEnd(x, end);
+            delivered = parseLong(x, e);
+            x = e + 1;
+            e = tokenEnd(x, end);
+            streamSeq = parseLong(x, e);
+            x = e + 1;
+            e = tokenEnd(x, end);
+            consumerSeq = parseLong(x, e);
+            x = e + 1;
+            e = tokenEnd(x, end);
+            timestampNanos = parseLong(x, e);
+            if (hasPending) {
+                x = e + 1;
+                pending = parseLong(x, tokenEnd(x, end));
+            }
+            else {
+                pending = -1L;
+            }
+        }
+        catch (NumberFormatException ex) {
             throw new IllegalArgumentException(notAJetStreamMessage(natsMessage.getReplyTo()));
         }
     }
 
+    private char charAt(int index) {
+        return replyBytes == null ? replyString.charAt(index) : (char) replyBytes[index];
+    }
+
+    // the end of the token that starts at pos, the index of the next dot or the end
+    private int tokenEnd(int pos, int end) {
+        while (pos < end && charAt(pos) != '.') {
+            pos++;
+        }
+        return pos;
+    }
+
+    // digits only, the fields are never negative
+    private long parseLong(int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException();
+        }
+        long value = 0;
+        for (int x = start; x < end; x++) {
+            int d = charAt(x) - '0';
+            if (d < 0 || d > 9 || value > MAX_BEFORE_DIGIT || (value == MAX_BEFORE_DIGIT && d > MAX_LAST_DIGIT)) {
+                throw new NumberFormatException();
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private String token(int start, int end) {
+        if (start < 0) {
+            return null;
+        }
+        return replyBytes == null ? replyString.substring(start, end) : new String(replyBytes, start, end - start, UTF_8);
+    }
+
+    String getPrefix() {
+        if (prefix == null) {
+            prefix = token(prefixStart, prefixEnd);
+        }
+        return prefix;
+    }
+
     /**
      * Get the domain for the message. Might be null
      * @return the domain
      */
     public String getDomain() {
+        if (domain == null) {
+            domain = token(domainStart, domainEnd);
+        }
         return domain;
     }
 
@@ -118,6 +253,9 @@ public class NatsJetStreamMetaData {
      * @return the stream.
      */
     public String getStream() {
+        if (stream == null) {
+            stream = token(streamStart, streamEnd);
+        }
         return stream;
     }
 
@@ -127,6 +265,9 @@ public class NatsJetStreamMetaData {
      * @return the consumer.
      */
     public String getConsumer() {
+        if (consumer == null) {
+            consumer = token(consumerStart, consumerEnd);
+        }
         return consumer;
     }
 
@@ -172,10 +313,25 @@ public class NatsJetStreamMetaData {
      * @return the timestamp
      */
     public ZonedDateTime timestamp() {
+        if (timestamp == null) {
+            timestamp = DateTimeUtils.fromNanos(timestampNanos, ZoneId.systemDefault());
+        }
         return timestamp;
     }
 
+    /**
+     * Gets the timestamp of the message as nanoseconds since the epoch, without making a {@link ZonedDateTime}.
+     *
+     * @return the timestamp in nanoseconds
+     */
+    public long timestampNanos() {
+        return timestampNanos;
+    }
+
     String getAccountHash() {
+        if (accountHash == null) {
+            accountHash = token(accountHashStart, accountHashEnd);
+        }
         return accountHash;
     }
 
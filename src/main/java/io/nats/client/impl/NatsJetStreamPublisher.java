@@ -0,0 +1,328 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import io.nats.client.api.PublishAck;
+import io.nats.client.support.NatsRequestCompletableFuture;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.nats.client.support.NatsRequestCompletableFuture.CancelAction;
+import static io.nats.client.support.Validator.validateNotNull;
+
+class NatsJetStreamPublisher implements JetStreamPublisher {
+    private final NatsJetStream js;
+    private final NatsConnection conn;
+    private final int maxInFlight;
+    private final long maxInFlightBytes;
+    private final boolean block;
+    private final long maxBlockNanos; // 0 is forever
+    private final int maxRetries;
+    private final long retryWaitMillis;
+    private final long maxRetryWaitMillis;
+    private final WindowListener windowListener;
+
+    private final ReentrantLock lock;
+    private final Condition released;
+    private volatile int inFlight;
+    private volatile long inFlightBytes;
+    private volatile int peakInFlight;
+    private final AtomicBoolean full;
+    private final LongAdder windowFullCount;
+    private final LongAdder retryCount;
+
+    NatsJetStreamPublisher(NatsJetStream js, JetStreamPublisherOptions options) {
+        this.js = js;
+        this.conn = js.conn;
+        maxInFlight = options.getMaxInFlight();
+        maxInFlightBytes = options.getMaxInFlightBytes();
+        block = options.getFullWindowAction() == JetStreamPublisherOptions.FullWindowAction.BLOCK;
+        Duration maxBlock = options.getMaxBlock() == null ? js.getTimeout() : options.getMaxBlock();
+        maxBlockNanos = maxBlock.isNegative() ? 0 : maxBlock.toNanos();
+        maxRetries = options.getMaxRetries();
+        retryWaitMillis = options.getRetryWait().toMillis();
+        maxRetryWaitMillis = Math.max(retryWaitMillis, js.getTimeout().toMillis());
+        windowListener = options.getWindowListener();
+
+        lock = new ReentrantLock();
+        released = lock.newCondition();
+        full = new AtomicBoolean();
+        windowFullCount = new LongAdder();
+        retryCount = new LongAdder();
+    }
+
+    @Override
+    public CompletableFuture<PublishAck> publishAsync(String subject, byte[] body) {
+        return publishAsyncInternal(subject, null, body, null, true);
+    }
+
+    @Override
+    public CompletableFuture<PublishAck> publishAsync(String subject, Headers headers, byte[] body) {
+        return publishAsyncInternal(subject, headers, body, null, true);
+    }
+
+    @Override
+    public CompletableFuture<PublishAck> publishAsync(String subject, Headers headers, byte[] body, PublishOptions options) {
+        return publishAsyncInternal(subject, headers, body, options, true);
+    }
+
+    @Override
+    public CompletableFuture<PublishAck> publishAsync(Message message) {
+        validateNotNull(message, "Message");
+        return publishAsyncInternal(message.getSubject(), message.getHeaders(), message.getData(), null, false);
+    }
+
+    @Override
+    public CompletableFuture<PublishAck> publishAsync(Message message, PublishOptions options) {
+        validateNotNull(message, "Message");
+        return publishAsyncInternal(message.getSubject(), message.getHeaders(), message.getData(), options, false);
+    }
+
+    private CompletableFuture<PublishAck> publishAsyncInternal(String subject, Headers headers, byte[] data, PublishOptions options, boolean validateSubjectAndReplyTo) {
+        if (js.jso.isPublishNoAck()) {
+            // nothing to wait for, so nothing is ever in flight
+            return js.publishAsync(subject, headers, data, options);
+        }
+
+        // merged and encoded once, a retry sends the same thing
+        Headers merged = js.mergePublishOptions(headers, options);
+        if (conn.shouldEncode(data)) {
+            merged = conn.encodingHeaders(merged);
+            data = conn.encode(data);
+        }
+
+        InFlightPublish p = new InFlightPublish(subject, merged, data, options, validateSubjectAndReplyTo);
+        acquire(p.bytes);
+        send(p, true);
+        return p.result;
+    }
+
+    private void send(InFlightPublish p, boolean first) {
+        CompletableFuture<Message> future;
+        try {
+            future = conn.requestFutureInternal(p.subject, p.headers, p.data, js.getTimeout(),
+                CancelAction.COMPLETE, p.validateSubjectAndReplyTo, conn.forceFlushOnRequest);
+        }
+        catch (RuntimeException e) {
+            release(p.bytes);
+            if (first) {
+                throw e; // the same as a publishAsync that could not be sent
+            }
+            p.result.completeExceptionally(e);
+            return;
+        }
+
+        future.whenComplete((resp, t) -> {
+            if (p.attempts < maxRetries && isRetryable(future, resp, t) && !conn.isClosing() && !conn.isClosed()) {
+                p.attempts++;
+                retryCount.increment();
+                scheduleRetry(p);
+                return;
+            }
+
+            // room is made before the caller hears about it
+            release(p.bytes);
+            if (t != null) {
+                // wrapped like a dependent stage, so a timed out publish is not a cancelled result
+                p.result.completeExceptionally(t instanceof CompletionException ? t : new CompletionException(t));
+                return;
+            }
+            try {
+                PublishAck ack = js.processPublishResponse(js.responseRequired(resp), p.options);
+                LatencyStatistics latency = conn.getLatencyStatistics();
+                if (latency != null) {
+                    NatsLatencyStatistics.recordSince(latency.getPublishAckLatency(), p.start);
+                }
+                p.result.complete(ack);
+            }
+            catch (IOException | JetStreamApiException e) {
+                p.result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private void scheduleRetry(InFlightPublish p) {
+        long wait = Math.min(maxRetryWaitMillis, retryWaitMillis << Math.min(p.attempts - 1, 20));
+        // fails the publish, rather than sending it, if the connection closed while waiting
+        conn.schedule(() -> send(p, false), wait);
+    }
+
+    static boolean isRetryable(CompletableFuture<Message> future, Message resp, Throwable t) {
+        if (t != null) {
+            // unless the connection uses timeout exceptions, a timed out request is cancelled,
+            // any other cancellation, like the connection closing, is final
+            Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            return cause instanceof TimeoutException
+                || (future instanceof NatsRequestCompletableFuture && ((NatsRequestCompletableFuture) future).wasCancelledTimedOut());
+        }
+        return resp != null && resp.isStatusMessage() && resp.getStatus().getCode() == 503;
+    }
+
+    private boolean fits(long bytes) {
+        return inFlight < maxInFlight
+            && (maxInFlightBytes == 0 || inFlight == 0 || inFlightBytes + bytes <= maxInFlightBytes);
+    }
+
+    private void take(long bytes) {
+        int n = ++inFlight;
+        inFlightBytes += bytes;
+        if (n > peakInFlight) {
+            peakInFlight = n;
+        }
+    }
+
+    private void acquire(long bytes) {
+        lock.lock();
+        try {
+            if (fits(bytes)) {
+                take(bytes);
+                return;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        // the listener is never called while holding the lock
+        windowFullCount.increment();
+        if (full.compareAndSet(false, true) && windowListener != null) {
+            windowListener.windowFull(this);
+        }
+        if (!block) {
+            throw new IllegalStateException("JetStream publisher window is full");
+        }
+
+        long deadline = System.nanoTime() + maxBlockNanos;
+        lock.lock();
+        try {
+            while (!fits(bytes)) {
+                if (maxBlockNanos == 0) {
+                    released.await();
+                }
+                else {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        throw new IllegalStateException("Timed out waiting for room in the JetStream publisher window");
+                    }
+                    released.awaitNanos(left);
+                }
+            }
+            take(bytes);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for room in the JetStream publisher window", e);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long bytes) {
+        lock.lock();
+        try {
+            inFlight--;
+            inFlightBytes -= bytes;
+            released.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+        if (full.get() && full.compareAndSet(true, false) && windowListener != null) {
+            windowListener.windowAvailable(this);
+        }
+    }
+
+    @Override
+    public boolean waitForAcks(Duration timeout) throws InterruptedException {
+        long timeoutNanos = timeout == null ? 0 : timeout.toNanos();
+        long deadline = System.nanoTime() + timeoutNanos;
+        lock.lock();
+        try {
+            while (inFlight > 0) {
+                if (timeoutNanos <= 0) {
+                    released.await();
+                }
+                else {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return false;
+                    }
+                    released.awaitNanos(left);
+                }
+            }
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public long getInFlightBytes() {
+        return inFlightBytes;
+    }
+
+    @Override
+    public int getPeakInFlight() {
+        return peakInFlight;
+    }
+
+    @Override
+    public long getWindowFullCount() {
+        return windowFullCount.sum();
+    }
+
+    @Override
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    static class InFlightPublish {
+        final String subject;
+        final Headers headers;
+        final byte[] data;
+        final PublishOptions options;
+        final boolean validateSubjectAndReplyTo;
+        final long bytes;
+        final long start;
+        final CompletableFuture<PublishAck> result;
+        int attempts;
+
+        InFlightPublish(String subject, Headers headers, byte[] data, PublishOptions options, boolean validateSubjectAndReplyTo) {
+            this.subject = subject;
+            this.headers = headers;
+            this.data = data;
+            this.options = options;
+            this.validateSubjectAndReplyTo = validateSubjectAndReplyTo;
+            bytes = (data == null ? 0 : data.length) + (headers == null || headers.isEmpty() ? 0 : headers.serializedLength());
+            start = System.nanoTime();
+            result = new CompletableFuture<>();
+        }
+    }
+}
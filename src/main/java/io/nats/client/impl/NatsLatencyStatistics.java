@@ -0,0 +1,75 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.LatencyStatistics;
+import io.nats.client.support.LatencyHistogram;
+
+class NatsLatencyStatistics implements LatencyStatistics {
+    private final LatencyHistogram request;
+    private final LatencyHistogram delivery;
+    private final LatencyHistogram publishAck;
+    private final LatencyHistogram outgoingQueue;
+
+    NatsLatencyStatistics() {
+        request = new LatencyHistogram();
+        delivery = new LatencyHistogram();
+        publishAck = new LatencyHistogram();
+        outgoingQueue = new LatencyHistogram();
+    }
+
+    @Override
+    public LatencyHistogram getRequestLatency() {
+        return request;
+    }
+
+    @Override
+    public LatencyHistogram getDeliveryLatency() {
+        return delivery;
+    }
+
+    @Override
+    public LatencyHistogram getPublishAckLatency() {
+        return publishAck;
+    }
+
+    @Override
+    public LatencyHistogram getOutgoingQueueLatency() {
+        return outgoingQueue;
+    }
+
+    @Override
+    public void reset() {
+        request.reset();
+        delivery.reset();
+        publishAck.reset();
+        outgoingQueue.reset();
+    }
+
+    // records the time since the start, if there is one
+    static void recordSince(LatencyHistogram histogram, long startNanos) {
+        if (startNanos != 0) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "### Latency (nanoseconds) ###\n" +
+            "Request:        " + request + "\n" +
+            "Delivery:       " + delivery + "\n" +
+            "Publish Ack:    " + publishAck + "\n" +
+            "Outgoing Queue: " + outgoingQueue + "\n";
+    }
+}
@@ -43,6 +43,12 @@ public class NatsMessage implements Message {
     protected String sid;
     protected int controlLineLength;
 
+    // incoming from the byte parser : subject, replyTo and sid are decoded from these on first access
+    // the numeric sid is always set for incoming messages, it's what the connection routes on
+    protected byte[] rawSubjectReply;
+    protected int rawSubjectLen;
+    protected long rawSid = -1;
+
     // protocol specific : just this field
     ByteArrayBuilder protocolBab;
 
@@ -60,6 +66,9 @@ public class NatsMessage implements Message {
     // ack tracking
     protected AckType lastAck;
 
+    // latency tracking : the nanoTime an incoming message was read or an outgoing message was queued, 0 if not tracked
+    long timestampNanos;
+
     // ----------------------------------------------------------------------------------------------------
     // Constructors - Prefer to use Builder
     // ----------------------------------------------------------------------------------------------------
@@ -103,6 +112,15 @@ public class NatsMessage implements Message {
     // ----------------------------------------------------------------------------------------------------
     // Client and Message Internal Methods
     // ----------------------------------------------------------------------------------------------------
+    // Pooled messages are leased to one consumer at a time, see MessagePool. 0 means not pooled.
+    long poolLease() {
+        return 0;
+    }
+
+    void releaseLease(long lease) {
+        // only pooled messages have leases
+    }
+
     boolean isProtocol() {
         return false; // overridden in NatsMessage.ProtocolMessage
     }
@@ -171,8 +189,19 @@ public class NatsMessage implements Message {
     }
 
     byte[] getProtocolBytes() {
-        calculate();
-        return protocolBab.toByteArray();
+        return getProtocolBab().toByteArray();
+    }
+
+    /**
+     * @param destPosition the position index in destination byte array to start
+     * @param dest is the byte array to write to
+     * @return the length of the protocol line, which does not include the CRLF
+     */
+    int copyProtocolLine(int destPosition, byte[] dest) {
+        ByteArrayBuilder bab = getProtocolBab();
+        int len = bab.length();
+        System.arraycopy(bab.internalArray(), 0, dest, destPosition, len);
+        return len;
     }
 
     int getControlLineLength() {
@@ -209,6 +238,9 @@ public class NatsMessage implements Message {
      */
     @Override
     public String getSID() {
+        if (sid == null && rawSubjectReply != null) {
+            sid = Long.toString(rawSid);
+        }
         return sid;
     }
 
@@ -225,6 +257,9 @@ public class NatsMessage implements Message {
      */
     @Override
     public String getSubject() {
+        if (subject == null && rawSubjectReply != null) {
+            subject = new String(rawSubjectReply, 0, rawSubjectLen, UTF_8);
+        }
         return subject;
     }
 
@@ -233,6 +268,9 @@ public class NatsMessage implements Message {
      */
     @Override
     public String getReplyTo() {
+        if (replyTo == null && rawSubjectReply != null && rawSubjectReply.length > rawSubjectLen) {
+            replyTo = new String(rawSubjectReply, rawSubjectLen, rawSubjectReply.length - rawSubjectLen, UTF_8);
+        }
         return replyTo;
     }
 
@@ -374,6 +412,9 @@ public class NatsMessage implements Message {
      */
     @Override
     public long consumeByteCount() {
+        if (rawSubjectReply != null) {
+            return rawSubjectReply.length + headerLen + dataLen;
+        }
         return subject == null ? 0 : subject.length()
             + headerLen
             + dataLen
@@ -382,19 +423,19 @@ public class NatsMessage implements Message {
 
     @Override
     public String toString() {
-        if (subject == null) {
+        if (getSubject() == null) {
             return getClass().getSimpleName() + " | " + protocolBytesToString();
         }
-        return getClass().getSimpleName() + " |" + subject + "|" + replyToString() + "|" + dataToString() + "|";
+        return getClass().getSimpleName() + " |" + getSubject() + "|" + replyToString() + "|" + dataToString() + "|";
     }
 
     String toDetailString() {
         return "NatsMessage:" +
-                "\n  subject='" + subject + '\'' +
+                "\n  subject='" + getSubject() + '\'' +
                 "\n  replyTo='" + replyToString() + '\'' +
                 "\n  data=" + dataToString() +
                 "\n  headers=" + headersToString() +
-                "\n  sid='" + sid + '\'' +
+                "\n  sid='" + getSID() + '\'' +
                 "\n  protocolBytes=" + protocolBytesToString() +
                 "\n  sizeInBytes=" + sizeInBytes +
                 "\n  headerLen=" + headerLen +
@@ -422,7 +463,7 @@ public class NatsMessage implements Message {
     }
 
     private String replyToString() {
-        return replyTo == null ? "<no reply>" : replyTo;
+        return getReplyTo() == null ? "<no reply>" : getReplyTo();
     }
 
     private String protocolBytesToString() {
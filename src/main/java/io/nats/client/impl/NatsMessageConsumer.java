@@ -25,6 +25,7 @@ class NatsMessageConsumer extends NatsMessageConsumerBase implements PullManager
     protected final SimplifiedSubscriptionMaker subscriptionMaker;
     protected final Dispatcher userDispatcher;
     protected final MessageHandler userMessageHandler;
+    private PullRequestOptions lastPro;
 
     NatsMessageConsumer(SimplifiedSubscriptionMaker subscriptionMaker,
                         ConsumerInfo cachedConsumerInfo,
@@ -87,14 +88,21 @@ class NatsMessageConsumer extends NatsMessageConsumerBase implements PullManager
     private void repull() {
         int rePullMessages = Math.max(1, consumeOpts.getBatchSize() - pmm.pendingMessages);
         long rePullBytes = consumeOpts.getBatchBytes() == 0 ? 0 : consumeOpts.getBatchBytes() - pmm.pendingBytes;
-        PullRequestOptions pro = PullRequestOptions.builder(rePullMessages)
-            .maxBytes(rePullBytes)
-            .expiresIn(consumeOpts.getExpiresInMillis())
-            .idleHeartbeat(consumeOpts.getIdleHeartbeat())
-            .group(consumeOpts.getGroup())
-            .minPending(consumeOpts.getMinPending())
-            .minAckPending(consumeOpts.getMinAckPending())
-            .build();
+
+        // everything but the sizes comes from the consume options,
+        // so when the sizes repeat, the last request (and its json) can be sent again
+        PullRequestOptions pro = lastPro;
+        if (pro == null || pro.getBatchSize() != rePullMessages || pro.getMaxBytes() != rePullBytes) {
+            pro = PullRequestOptions.builder(rePullMessages)
+                .maxBytes(rePullBytes)
+                .expiresIn(consumeOpts.getExpiresInMillis())
+                .idleHeartbeat(consumeOpts.getIdleHeartbeat())
+                .group(consumeOpts.getGroup())
+                .minPending(consumeOpts.getMinPending())
+                .minAckPending(consumeOpts.getMinAckPending())
+                .build();
+            lastPro = pro;
+        }
         sub._pull(pro, consumeOpts.raiseStatusWarnings(), this);
     }
 }
@@ -0,0 +1,255 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import io.nats.client.api.PublishAck;
+
+import java.io.IOException;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static io.nats.client.support.Validator.validateNotNull;
+
+class NatsPublishAckTracker implements PublishAckTracker {
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private final NatsJetStream js;
+    private final NatsConnection conn;
+    private final PublishAckListener listener;
+    private final String prefix;
+    private final int prefixLen;
+    private final long timeoutNanos;
+    private final int mask;
+
+    // slot is id & mask, holding the id while it waits, 0 when free, or -id while it is being filled
+    private final AtomicLongArray slots;
+    private final long[] sentNanos;
+    private final String[] expectedStreams;
+    private final AtomicLong nextId;
+    private final AtomicInteger pending;
+    private final Dispatcher dispatcher;
+    private final Timer timer;
+    private volatile boolean closed;
+
+    NatsPublishAckTracker(NatsJetStream js, int capacity, PublishAckListener listener) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        validateNotNull(listener, "Publish Ack Listener");
+        this.js = js;
+        this.conn = js.conn;
+        this.listener = listener;
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        slots = new AtomicLongArray(size);
+        sentNanos = new long[size];
+        expectedStreams = new String[size];
+        nextId = new AtomicLong(1);
+        pending = new AtomicInteger();
+
+        timeoutNanos = js.getTimeout().toNanos();
+        prefix = conn.createInbox() + ".";
+        prefixLen = prefix.length();
+        dispatcher = conn.createDispatcher(this::deliverAck);
+        dispatcher.subscribe(prefix + "*");
+
+        long sweepMillis = Math.max(10, js.getTimeout().toMillis() / 4);
+        timer = new Timer("Nats Publish Ack Tracker", true);
+        timer.schedule(new TimerTask() {
+            public void run() {
+                sweep();
+            }
+        }, sweepMillis, sweepMillis);
+    }
+
+    @Override
+    public long publish(String subject, byte[] body) {
+        return publishInternal(subject, null, body, null, true);
+    }
+
+    @Override
+    public long publish(String subject, Headers headers, byte[] body) {
+        return publishInternal(subject, headers, body, null, true);
+    }
+
+    @Override
+    public long publish(String subject, Headers headers, byte[] body, PublishOptions options) {
+        return publishInternal(subject, headers, body, options, true);
+    }
+
+    @Override
+    public long publish(Message message) {
+        validateNotNull(message, "Message");
+        return publishInternal(message.getSubject(), message.getHeaders(), message.getData(), null, false);
+    }
+
+    @Override
+    public long publish(Message message, PublishOptions options) {
+        validateNotNull(message, "Message");
+        return publishInternal(message.getSubject(), message.getHeaders(), message.getData(), options, false);
+    }
+
+    private long publishInternal(String subject, Headers headers, byte[] data, PublishOptions options, boolean validateSubjectAndReplyTo) {
+        if (closed) {
+            throw new IllegalStateException("Publish ack tracker is closed.");
+        }
+
+        Headers merged = js.mergePublishOptions(headers, options);
+        if (conn.shouldEncode(data)) {
+            merged = conn.encodingHeaders(merged);
+            data = conn.encode(data);
+        }
+
+        long id = nextId.getAndIncrement();
+        int slot = (int) (id & mask);
+        if (!slots.compareAndSet(slot, 0, -id)) {
+            throw new IllegalStateException("Publish ack tracker is full.");
+        }
+        sentNanos[slot] = System.nanoTime();
+        expectedStreams[slot] = options == null ? null : options.getStream();
+        slots.set(slot, id); // publishes the sent time and stream along with the id
+        pending.incrementAndGet();
+
+        try {
+            conn.publishInternal(subject, prefix + id, merged, data, validateSubjectAndReplyTo, conn.forceFlushOnRequest);
+        }
+        catch (RuntimeException e) {
+            if (slots.compareAndSet(slot, id, 0)) {
+                pending.decrementAndGet();
+            }
+            throw e;
+        }
+        if (closed && slots.compareAndSet(slot, id, 0)) {
+            // closed while this was being sent, so close did not see it
+            pending.decrementAndGet();
+            fail(id, new IllegalStateException("Publish ack tracker is closed."));
+        }
+        return id;
+    }
+
+    void deliverAck(Message msg) {
+        long id = parseId(msg.getSubject());
+        if (id < 1) {
+            return;
+        }
+        int slot = (int) (id & mask);
+        if (slots.get(slot) != id) {
+            return; // it already timed out or the tracker was closed
+        }
+        // the same order as sweep, the volatile read of the slot makes what was stored before it visible
+        long sent = sentNanos[slot];
+        String expectedStream = expectedStreams[slot];
+        if (!slots.compareAndSet(slot, id, 0)) {
+            return;
+        }
+        pending.decrementAndGet();
+
+        if (msg.isStatusMessage()) {
+            listener.failed(id, new IOException("Error Publishing: " + msg.getStatus().getMessageWithCode()));
+            return;
+        }
+
+        LatencyStatistics latency = conn.getLatencyStatistics();
+        if (latency != null) {
+            NatsLatencyStatistics.recordSince(latency.getPublishAckLatency(), sent);
+        }
+
+        PublishAck ack;
+        try {
+            ack = js.processPublishResponse(msg, expectedStream);
+        }
+        catch (IOException | JetStreamApiException e) {
+            listener.failed(id, e);
+            return;
+        }
+        listener.acked(id, ack.getSeqno(), ack.isDuplicate());
+    }
+
+    long parseId(String subject) {
+        int len = subject.length();
+        if (len <= prefixLen || len - prefixLen > 18) {
+            return 0;
+        }
+        long id = 0;
+        for (int x = prefixLen; x < len; x++) {
+            char c = subject.charAt(x);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    void sweep() {
+        long now = System.nanoTime();
+        for (int slot = 0; slot <= mask; slot++) {
+            long id = slots.get(slot);
+            if (id > 0 && now - sentNanos[slot] > timeoutNanos && slots.compareAndSet(slot, id, 0)) {
+                pending.decrementAndGet();
+                fail(id, new TimeoutException("Timed out waiting for publish ack."));
+            }
+        }
+    }
+
+    private void fail(long id, Exception e) {
+        try {
+            listener.failed(id, e);
+        }
+        catch (RuntimeException re) {
+            conn.processException(re);
+        }
+    }
+
+    @Override
+    public int getPending() {
+        return pending.get();
+    }
+
+    @Override
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        timer.cancel();
+        try {
+            conn.closeDispatcher(dispatcher);
+        }
+        catch (IllegalStateException e) {
+            // the connection is already closed
+        }
+        for (int slot = 0; slot <= mask; slot++) {
+            long id = slots.get(slot);
+            if (id > 0 && slots.compareAndSet(slot, id, 0)) {
+                pending.decrementAndGet();
+                fail(id, new IllegalStateException("Publish ack tracker is closed."));
+            }
+        }
+    }
+}
@@ -24,6 +24,12 @@ class NatsPublishableMessage extends NatsMessage {
         flushImmediatelyAfterPublish = false;
     }
 
+    protected NatsPublishableMessage(byte[] data, boolean hasHeaders) {
+        super(data);
+        this.hasHeaders = hasHeaders;
+        flushImmediatelyAfterPublish = false;
+    }
+
     public NatsPublishableMessage(String subject, String replyTo, Headers headers, byte[] data, boolean validateSubjectAndReplyTo, boolean flushImmediatelyAfterPublish) {
         super(data);
         this.flushImmediatelyAfterPublish = flushImmediatelyAfterPublish;
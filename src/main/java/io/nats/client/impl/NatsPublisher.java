@@ -0,0 +1,144 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Publisher;
+import io.nats.client.support.ByteArrayBuilder;
+
+import static io.nats.client.support.NatsConstants.*;
+import static io.nats.client.support.Validator.validateReplyTo;
+import static io.nats.client.support.Validator.validateSubject;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+class NatsPublisher implements Publisher {
+    private final NatsConnection connection;
+    private final String subject;
+    private final String replyTo;
+    private final Headers headers; // read only, null if there are none
+    private final int headerLen;
+
+    // the protocol line up to the total length, "PUB subject [reply] " or "HPUB subject [reply] hdrLen "
+    private final byte[] prefix;
+
+    NatsPublisher(NatsConnection connection, String subject, String replyTo, Headers headers) {
+        this.connection = connection;
+        this.subject = validateSubject(subject, true);
+        this.replyTo = validateReplyTo(replyTo, false);
+        if (headers == null || headers.isEmpty()) {
+            this.headers = null;
+            headerLen = 0;
+        }
+        else {
+            this.headers = headers.isReadOnly() ? headers : new Headers(headers, true, null);
+            headerLen = this.headers.serializedLength();
+        }
+
+        ByteArrayBuilder bab = new ByteArrayBuilder(32 + (this.subject.length() * 2) + (replyTo == null ? 0 : replyTo.length()), UTF_8);
+        if (headerLen > 0) {
+            bab.append(HPUB_SP_BYTES, 0, HPUB_SP_BYTES_LEN);
+        }
+        else {
+            bab.append(PUB_SP_BYTES, 0, PUB_SP_BYTES_LEN);
+        }
+        bab.append(this.subject.getBytes(UTF_8)).append(SP);
+        if (this.replyTo != null && !this.replyTo.isEmpty()) {
+            bab.append(this.replyTo.getBytes(UTF_8)).append(SP);
+        }
+        if (headerLen > 0) {
+            bab.append(Integer.toString(headerLen).getBytes(US_ASCII)).append(SP);
+        }
+        prefix = bab.toByteArray();
+    }
+
+    @Override
+    public String getSubject() {
+        return subject;
+    }
+
+    @Override
+    public String getReplyTo() {
+        return replyTo;
+    }
+
+    @Override
+    public Headers getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public void publish(byte[] body) {
+        if (connection.shouldEncode(body)) {
+            // the encoding header is not part of the prefix, so encoded bodies take the regular path
+            connection.publishInternal(subject, replyTo, connection.encodingHeaders(headers), connection.encode(body), false, false);
+            return;
+        }
+        connection.checkPayloadSize(body);
+        connection.publishInternal(new PublisherMessage(this, body));
+    }
+
+    static int digits(int n) {
+        int d = 1;
+        while (n >= 10) {
+            n /= 10;
+            d++;
+        }
+        return d;
+    }
+
+    /**
+     * A message that shares its publisher's subject, reply to, headers and protocol prefix.
+     * Only the total length is added when the protocol line is written, so there is nothing to calculate.
+     */
+    static class PublisherMessage extends NatsPublishableMessage {
+        private final byte[] prefix;
+        private final int totalLen;
+
+        PublisherMessage(NatsPublisher publisher, byte[] data) {
+            super(data, publisher.headerLen > 0);
+            subject = publisher.subject;
+            replyTo = publisher.replyTo;
+            headers = publisher.headers;
+            headerLen = publisher.headerLen;
+            prefix = publisher.prefix;
+            totalLen = headerLen + dataLen;
+            controlLineLength = prefix.length + digits(totalLen) + 2; // One CRLF
+            sizeInBytes = controlLineLength + totalLen + 2; // The 2nd CRLFs
+        }
+
+        @Override
+        int copyProtocolLine(int destPosition, byte[] dest) {
+            System.arraycopy(prefix, 0, dest, destPosition, prefix.length);
+            int end = destPosition + controlLineLength - 2;
+            int n = totalLen;
+            int pos = end;
+            do {
+                dest[--pos] = (byte) ('0' + (n % 10));
+                n /= 10;
+            } while (n > 0);
+            return end - destPosition;
+        }
+
+        @Override
+        ByteArrayBuilder getProtocolBab() {
+            // only built if something other than the writer asks for it
+            if (protocolBab == null) {
+                byte[] line = new byte[controlLineLength - 2];
+                copyProtocolLine(0, line);
+                protocolBab = new ByteArrayBuilder(line);
+            }
+            return protocolBab;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.nats.client.support.Validator.validateNotNull;
+
+class NatsShardedConnection implements ShardedConnection {
+    private final Connection[] connections;
+    private final List<Connection> connectionList;
+    private final AtomicInteger nextRequest;
+
+    NatsShardedConnection(Connection[] connections) {
+        this.connections = connections;
+        connectionList = Collections.unmodifiableList(Arrays.asList(connections));
+        nextRequest = new AtomicInteger();
+    }
+
+    int shard(String subject) {
+        if (subject == null || connections.length == 1) {
+            return 0; // a null subject is rejected by the member
+        }
+        int h = subject.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), connections.length);
+    }
+
+    Connection forRequest() {
+        int n = connections.length;
+        int start = Math.floorMod(nextRequest.getAndIncrement(), n);
+        for (int x = 0; x < n; x++) {
+            Connection c = connections[(start + x) % n];
+            if (c.getStatus() == Connection.Status.CONNECTED) {
+                return c;
+            }
+        }
+        return connections[start]; // nothing is connected, let the member decide what happens
+    }
+
+    @Override
+    public List<Connection> getConnections() {
+        return connectionList;
+    }
+
+    @Override
+    public Connection getConnection(String subject) {
+        return connections[shard(subject)];
+    }
+
+    @Override
+    public void publish(String subject, byte[] body) {
+        getConnection(subject).publish(subject, body);
+    }
+
+    @Override
+    public void publish(String subject, Headers headers, byte[] body) {
+        getConnection(subject).publish(subject, headers, body);
+    }
+
+    @Override
+    public void publish(String subject, String replyTo, byte[] body) {
+        getConnection(subject).publish(subject, replyTo, body);
+    }
+
+    @Override
+    public void publish(String subject, String replyTo, Headers headers, byte[] body) {
+        getConnection(subject).publish(subject, replyTo, headers, body);
+    }
+
+    @Override
+    public void publish(Message message) {
+        validateNotNull(message, "Message");
+        getConnection(message.getSubject()).publish(message);
+    }
+
+    @Override
+    public Publisher publisher(String subject) {
+        return getConnection(subject).publisher(subject);
+    }
+
+    @Override
+    public Publisher publisher(String subject, String replyTo, Headers headers) {
+        return getConnection(subject).publisher(subject, replyTo, headers);
+    }
+
+    @Override
+    public void publishBatch(List<Message> messages) {
+        publishBatch(messages, false);
+    }
+
+    @Override
+    public void publishBatch(List<Message> messages, boolean flush) {
+        validateNotNull(messages, "Messages");
+        if (connections.length == 1) {
+            connections[0].publishBatch(messages, flush);
+            return;
+        }
+
+        List<List<Message>> shards = new ArrayList<>(connections.length);
+        for (int x = 0; x < connections.length; x++) {
+            shards.add(null);
+        }
+        for (Message message : messages) {
+            validateNotNull(message, "Message");
+            int shard = shard(message.getSubject());
+            List<Message> list = shards.get(shard);
+            if (list == null) {
+                list = new ArrayList<>();
+                shards.set(shard, list);
+            }
+            list.add(message);
+        }
+        for (int x = 0; x < connections.length; x++) {
+            List<Message> list = shards.get(x);
+            if (list != null) {
+                connections[x].publishBatch(list, flush);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Message> request(String subject, byte[] body) {
+        return forRequest().request(subject, body);
+    }
+
+    @Override
+    public CompletableFuture<Message> request(String subject, Headers headers, byte[] body) {
+        return forRequest().request(subject, headers, body);
+    }
+
+    @Override
+    public CompletableFuture<Message> requestWithTimeout(String subject, byte[] body, Duration timeout) {
+        return forRequest().requestWithTimeout(subject, body, timeout);
+    }
+
+    @Override
+    public CompletableFuture<Message> requestWithTimeout(String subject, Headers headers, byte[] body, Duration timeout) {
+        return forRequest().requestWithTimeout(subject, headers, body, timeout);
+    }
+
+    @Override
+    public CompletableFuture<Message> request(Message message) {
+        return forRequest().request(message);
+    }
+
+    @Override
+    public CompletableFuture<Message> requestWithTimeout(Message message, Duration timeout) {
+        return forRequest().requestWithTimeout(message, timeout);
+    }
+
+    @Override
+    public Message request(String subject, byte[] body, Duration timeout) throws InterruptedException {
+        return forRequest().request(subject, body, timeout);
+    }
+
+    @Override
+    public Message request(String subject, Headers headers, byte[] body, Duration timeout) throws InterruptedException {
+        return forRequest().request(subject, headers, body, timeout);
+    }
+
+    @Override
+    public Message request(Message message, Duration timeout) throws InterruptedException {
+        return forRequest().request(message, timeout);
+    }
+
+    @Override
+    public Subscription subscribe(String subject) {
+        return getConnection(subject).subscribe(subject);
+    }
+
+    @Override
+    public Subscription subscribe(String subject, String queueName) {
+        return getConnection(subject).subscribe(subject, queueName);
+    }
+
+    @Override
+    public void flush(Duration timeout) throws TimeoutException, InterruptedException {
+        if (timeout == null || timeout.isZero()) {
+            for (Connection c : connections) {
+                c.flush(timeout);
+            }
+            return;
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Connection c : connections) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                throw new TimeoutException("Timeout out waiting for flush.");
+            }
+            c.flush(Duration.ofNanos(left));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> drain(Duration timeout) throws TimeoutException, InterruptedException {
+        List<CompletableFuture<Boolean>> drains = new ArrayList<>(connections.length);
+        for (Connection c : connections) {
+            drains.add(c.drain(timeout));
+        }
+        return CompletableFuture.allOf(drains.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            for (CompletableFuture<Boolean> drain : drains) {
+                if (!drain.join()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public long getMaxPayload() {
+        long max = Long.MAX_VALUE;
+        for (Connection c : connections) {
+            max = Math.min(max, c.getMaxPayload());
+        }
+        return max;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (Connection c : connections) {
+            c.close();
+        }
+    }
+}
@@ -17,59 +17,64 @@ import io.nats.client.Statistics;
 import io.nats.client.StatisticsCollector;
 
 import java.text.NumberFormat;
-import java.util.LongSummaryStatistics;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReentrantLock;
-
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters are {@link LongAdder}s, so threads updating the same counter at the same time
+ * each add into their own padded cell instead of all contending for one value.
+ * The advanced read and write size statistics are kept the same way, without a lock,
+ * and are summed when read.
+ */
 class NatsStatistics implements Statistics, StatisticsCollector {
-    private final ReentrantLock readStatsLock;
-    private final ReentrantLock writeStatsLock;
-
-    private LongSummaryStatistics readStats;
-    private LongSummaryStatistics writeStats;
-
-    private AtomicLong flushCounter;
-    private AtomicLong outstandingRequests;
-    private AtomicLong requestsSent;
-    private AtomicLong repliesReceived;
-    private AtomicLong duplicateRepliesReceived;
-    private AtomicLong orphanRepliesReceived;
-    private AtomicLong reconnects;
-    private AtomicLong inMsgs;
-    private AtomicLong outMsgs;
-    private AtomicLong inBytes;
-    private AtomicLong outBytes;
-    private AtomicLong pingCount;
-    private AtomicLong okCount;
-    private AtomicLong errCount;
-    private AtomicLong exceptionCount;
-    private AtomicLong droppedCount;
+    private final SizeSummary readStats;
+    private final SizeSummary writeStats;
+
+    private final LongAdder flushCounter;
+    private final LongAdder outstandingRequests;
+    private final LongAdder requestsSent;
+    private final LongAdder repliesReceived;
+    private final LongAdder duplicateRepliesReceived;
+    private final LongAdder orphanRepliesReceived;
+    private final LongAdder reconnects;
+    private final LongAdder inMsgs;
+    private final LongAdder outMsgs;
+    private final LongAdder inBytes;
+    private final LongAdder outBytes;
+    private final LongAdder pingCount;
+    private final LongAdder okCount;
+    private final LongAdder errCount;
+    private final LongAdder exceptionCount;
+    private final LongAdder droppedCount;
+    private final LongAdder coalescedWrites;
+    private final LongAdder coalescedMessages;
+    private final LongAdder coalescingNanos;
 
     private boolean trackAdvanced;
 
     public NatsStatistics() {
-        this.readStatsLock = new ReentrantLock();
-        this.writeStatsLock = new ReentrantLock();
-
-        this.readStats = new LongSummaryStatistics();
-        this.writeStats = new LongSummaryStatistics();
-
-        this.flushCounter = new AtomicLong();
-        this.outstandingRequests = new AtomicLong();
-        this.requestsSent = new AtomicLong();
-        this.repliesReceived = new AtomicLong();
-        this.duplicateRepliesReceived = new AtomicLong();
-        this.orphanRepliesReceived = new AtomicLong();
-        this.reconnects = new AtomicLong();
-        this.inMsgs = new AtomicLong();
-        this.outMsgs = new AtomicLong();
-        this.inBytes = new AtomicLong();
-        this.outBytes = new AtomicLong();
-        this.pingCount = new AtomicLong();
-        this.okCount = new AtomicLong();
-        this.errCount = new AtomicLong();
-        this.exceptionCount = new AtomicLong();
-        this.droppedCount = new AtomicLong();
+        this.readStats = new SizeSummary();
+        this.writeStats = new SizeSummary();
+
+        this.flushCounter = new LongAdder();
+        this.outstandingRequests = new LongAdder();
+        this.requestsSent = new LongAdder();
+        this.repliesReceived = new LongAdder();
+        this.duplicateRepliesReceived = new LongAdder();
+        this.orphanRepliesReceived = new LongAdder();
+        this.reconnects = new LongAdder();
+        this.inMsgs = new LongAdder();
+        this.outMsgs = new LongAdder();
+        this.inBytes = new LongAdder();
+        this.outBytes = new LongAdder();
+        this.pingCount = new LongAdder();
+        this.okCount = new LongAdder();
+        this.errCount = new LongAdder();
+        this.exceptionCount = new LongAdder();
+        this.droppedCount = new LongAdder();
+        this.coalescedWrites = new LongAdder();
+        this.coalescedMessages = new LongAdder();
+        this.coalescingNanos = new LongAdder();
     }
 
     @Override
@@ -79,87 +84,87 @@ class NatsStatistics implements Statistics, StatisticsCollector {
 
     @Override
     public void incrementPingCount() {
-        this.pingCount.incrementAndGet();
+        this.pingCount.increment();
     }
 
     @Override
     public void incrementDroppedCount() {
-        this.droppedCount.incrementAndGet();
+        this.droppedCount.increment();
     }
 
     @Override
     public void incrementOkCount() {
-        this.okCount.incrementAndGet();
+        this.okCount.increment();
     }
 
     @Override
     public void incrementErrCount() {
-        this.errCount.incrementAndGet();
+        this.errCount.increment();
     }
 
     @Override
     public void incrementExceptionCount() {
-        this.exceptionCount.incrementAndGet();
+        this.exceptionCount.increment();
     }
 
     @Override
     public void incrementRequestsSent() {
-        this.requestsSent.incrementAndGet();
+        this.requestsSent.increment();
     }
 
     @Override
     public void incrementRepliesReceived() {
-        this.repliesReceived.incrementAndGet();
+        this.repliesReceived.increment();
     }
 
     @Override
     public void incrementDuplicateRepliesReceived() {
-        this.duplicateRepliesReceived.incrementAndGet();
+        this.duplicateRepliesReceived.increment();
     }
 
     @Override
     public void incrementOrphanRepliesReceived() {
-        this.orphanRepliesReceived.incrementAndGet();
+        this.orphanRepliesReceived.increment();
     }
 
     @Override
     public void incrementReconnects() {
-        this.reconnects.incrementAndGet();
+        this.reconnects.increment();
     }
 
     @Override
     public void incrementInMsgs() {
-        this.inMsgs.incrementAndGet();
+        this.inMsgs.increment();
     }
 
     @Override
     public void incrementOutMsgs() {
-        this.outMsgs.incrementAndGet();
+        this.outMsgs.increment();
     }
 
     @Override
     public void incrementInBytes(long bytes) {
-        this.inBytes.addAndGet(bytes);
+        this.inBytes.add(bytes);
     }
 
     @Override
     public void incrementOutBytes(long bytes) {
-        this.outBytes.addAndGet(bytes);
+        this.outBytes.add(bytes);
     }
 
     @Override
     public void incrementFlushCounter() {
-        this.flushCounter.incrementAndGet();
+        this.flushCounter.increment();
     }
 
     @Override
     public void incrementOutstandingRequests() {
-        this.outstandingRequests.incrementAndGet();
+        this.outstandingRequests.increment();
     }
 
     @Override
     public void decrementOutstandingRequests() {
-        this.outstandingRequests.decrementAndGet();
+        this.outstandingRequests.decrement();
     }
 
     @Override
@@ -168,12 +173,7 @@ class NatsStatistics implements Statistics, StatisticsCollector {
             return;
         }
 
-        readStatsLock.lock();
-        try {
-            readStats.accept(bytes);
-        } finally {
-            readStatsLock.unlock();
-        }
+        readStats.accept(bytes);
     }
 
     @Override
@@ -182,89 +182,106 @@ class NatsStatistics implements Statistics, StatisticsCollector {
             return;
         }
 
-        writeStatsLock.lock();
-        try {
-            writeStats.accept(bytes);
-        } finally {
-            writeStatsLock.unlock();
-        }
+        writeStats.accept(bytes);
+    }
+
+    @Override
+    public void registerCoalescedWrite(long messages, long nanos) {
+        coalescedWrites.increment();
+        coalescedMessages.add(messages);
+        coalescingNanos.add(nanos);
     }
 
     @Override
     public long getPings() {
-        return this.pingCount.get();
+        return this.pingCount.sum();
     }
 
     @Override
     public long getDroppedCount() {
-        return this.droppedCount.get();
+        return this.droppedCount.sum();
     }
 
     @Override
     public long getOKs() {
-        return this.okCount.get();
+        return this.okCount.sum();
     }
 
     @Override
     public long getErrs() {
-        return this.errCount.get();
+        return this.errCount.sum();
     }
 
     @Override
     public long getExceptions() {
-        return this.exceptionCount.get();
+        return this.exceptionCount.sum();
     }
 
     @Override
     public long getRequestsSent() {
-        return this.requestsSent.get();
+        return this.requestsSent.sum();
     }
 
     @Override
     public long getReconnects() {
-        return this.reconnects.get();
+        return this.reconnects.sum();
     }
 
     @Override
     public long getInMsgs() {
-        return this.inMsgs.get();
+        return this.inMsgs.sum();
     }
 
     @Override
     public long getOutMsgs() {
-        return this.outMsgs.get();
+        return this.outMsgs.sum();
     }
 
     @Override
     public long getInBytes() {
-        return this.inBytes.get();
+        return this.inBytes.sum();
     }
 
     @Override
     public long getOutBytes() {
-        return this.outBytes.get();
+        return this.outBytes.sum();
     }
 
     @Override
     public long getFlushCounter() {
-        return flushCounter.get();
+        return flushCounter.sum();
     }
 
     @Override
     public long getOutstandingRequests() {
-        return outstandingRequests.get();
+        return outstandingRequests.sum();
+    }
+
+    @Override
+    public long getCoalescedWrites() {
+        return coalescedWrites.sum();
     }
 
     @Override
-    public long getRepliesReceived() { return repliesReceived.get(); }
+    public long getCoalescedMessages() {
+        return coalescedMessages.sum();
+    }
+
+    @Override
+    public long getCoalescingNanos() {
+        return coalescingNanos.sum();
+    }
+
+    @Override
+    public long getRepliesReceived() { return repliesReceived.sum(); }
 
     @Override
     public long getDuplicateRepliesReceived() {
-        return duplicateRepliesReceived.get();
+        return duplicateRepliesReceived.sum();
     }
 
     @Override
-    public long getOrphanRepliesReceived() { return orphanRepliesReceived.get(); }
+    public long getOrphanRepliesReceived() { return orphanRepliesReceived.sum(); }
 
     void appendNumberStat(StringBuilder builder, String name, long value) {
         builder.append(name);
@@ -282,53 +299,83 @@ class NatsStatistics implements Statistics, StatisticsCollector {
         StringBuilder builder = new StringBuilder();
 
         builder.append("### Connection ###\n");
-        appendNumberStat(builder, "Reconnects:                      ", this.reconnects.get());
-        appendNumberStat(builder, "Requests Sent:                   ", this.requestsSent.get());
-        appendNumberStat(builder, "Replies Received:                ", this.repliesReceived.get());
+        appendNumberStat(builder, "Reconnects:                      ", this.reconnects.sum());
+        appendNumberStat(builder, "Requests Sent:                   ", this.requestsSent.sum());
+        appendNumberStat(builder, "Replies Received:                ", this.repliesReceived.sum());
         if (this.trackAdvanced) {
-            appendNumberStat(builder, "Duplicate Replies Received:      ", this.duplicateRepliesReceived.get());
-            appendNumberStat(builder, "Orphan Replies Received:         ", this.orphanRepliesReceived.get());
+            appendNumberStat(builder, "Duplicate Replies Received:      ", this.duplicateRepliesReceived.sum());
+            appendNumberStat(builder, "Orphan Replies Received:         ", this.orphanRepliesReceived.sum());
         }
-        appendNumberStat(builder, "Pings Sent:                      ", this.pingCount.get());
-        appendNumberStat(builder, "+OKs Received:                   ", this.okCount.get());
-        appendNumberStat(builder, "-Errs Received:                  ", this.errCount.get());
-        appendNumberStat(builder, "Handled Exceptions:              ", this.exceptionCount.get());
-        appendNumberStat(builder, "Successful Flush Calls:          ", this.flushCounter.get());
-        appendNumberStat(builder, "Outstanding Request Futures:     ", this.outstandingRequests.get());
-        appendNumberStat(builder, "Dropped Messages:                ", this.droppedCount.get());
+        appendNumberStat(builder, "Pings Sent:                      ", this.pingCount.sum());
+        appendNumberStat(builder, "+OKs Received:                   ", this.okCount.sum());
+        appendNumberStat(builder, "-Errs Received:                  ", this.errCount.sum());
+        appendNumberStat(builder, "Handled Exceptions:              ", this.exceptionCount.sum());
+        appendNumberStat(builder, "Successful Flush Calls:          ", this.flushCounter.sum());
+        appendNumberStat(builder, "Outstanding Request Futures:     ", this.outstandingRequests.sum());
+        appendNumberStat(builder, "Dropped Messages:                ", this.droppedCount.sum());
         builder.append("\n");
         builder.append("### Reader ###\n");
-        appendNumberStat(builder, "Messages in:                     ", this.inMsgs.get());
-        appendNumberStat(builder, "Bytes in:                        ", this.inBytes.get());
+        appendNumberStat(builder, "Messages in:                     ", this.inMsgs.sum());
+        appendNumberStat(builder, "Bytes in:                        ", this.inBytes.sum());
         builder.append("\n");
         if (this.trackAdvanced) {
-            readStatsLock.lock();
-            try {
-                appendNumberStat(builder, "Socket Reads:                    ", readStats.getCount());
-                appendNumberStat(builder, "Average Bytes Per Read:          ", readStats.getAverage());
-                appendNumberStat(builder, "Min Bytes Per Read:              ", readStats.getMin());
-                appendNumberStat(builder, "Max Bytes Per Read:              ", readStats.getMax());
-            } finally {
-                readStatsLock.unlock();
-            }
+            appendNumberStat(builder, "Socket Reads:                    ", readStats.getCount());
+            appendNumberStat(builder, "Average Bytes Per Read:          ", readStats.getAverage());
+            appendNumberStat(builder, "Min Bytes Per Read:              ", readStats.getMin());
+            appendNumberStat(builder, "Max Bytes Per Read:              ", readStats.getMax());
         }
         builder.append("\n");
         builder.append("### Writer ###\n");
-        appendNumberStat(builder, "Messages out:                    ", this.outMsgs.get());
-        appendNumberStat(builder, "Bytes out:                       ", this.outBytes.get());
+        appendNumberStat(builder, "Messages out:                    ", this.outMsgs.sum());
+        appendNumberStat(builder, "Bytes out:                       ", this.outBytes.sum());
+        if (this.coalescedWrites.sum() > 0) {
+            appendNumberStat(builder, "Coalesced Writes:                ", this.coalescedWrites.sum());
+            appendNumberStat(builder, "Coalesced Messages:              ", this.coalescedMessages.sum());
+            appendNumberStat(builder, "Coalescing Nanos:                ", this.coalescingNanos.sum());
+        }
         builder.append("\n");
         if (this.trackAdvanced) {
-            writeStatsLock.lock();
-            try {
-                appendNumberStat(builder, "Socket Writes:                   ", writeStats.getCount());
-                appendNumberStat(builder, "Average Bytes Per Write:         ", writeStats.getAverage());
-                appendNumberStat(builder, "Min Bytes Per Write:             ", writeStats.getMin());
-                appendNumberStat(builder, "Max Bytes Per Write:             ", writeStats.getMax());
-            } finally {
-                writeStatsLock.unlock();
-            }
+            appendNumberStat(builder, "Socket Writes:                   ", writeStats.getCount());
+            appendNumberStat(builder, "Average Bytes Per Write:         ", writeStats.getAverage());
+            appendNumberStat(builder, "Min Bytes Per Write:             ", writeStats.getMin());
+            appendNumberStat(builder, "Max Bytes Per Write:             ", writeStats.getMax());
         }
 
         return builder.toString();
     }
+
+    /**
+     * The count, total, min and max of a series of sizes, like {@link java.util.LongSummaryStatistics}
+     * but safe to update from many threads without a lock.
+     */
+    static final class SizeSummary {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        void accept(long value) {
+            count.increment();
+            sum.add(value);
+            min.accumulate(value);
+            max.accumulate(value);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        long getMin() {
+            return min.get();
+        }
+
+        long getMax() {
+            return max.get();
+        }
+
+        double getAverage() {
+            long c = count.sum();
+            return c > 0 ? (double) sum.sum() / c : 0.0d;
+        }
+    }
 }
@@ -16,10 +16,12 @@ package io.nats.client.impl;
 import io.nats.client.Dispatcher;
 import io.nats.client.Message;
 import io.nats.client.MessageHandler;
+import io.nats.client.PayloadCodec;
 import io.nats.client.Subscription;
 
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 class NatsSubscription extends NatsConsumer implements Subscription {
@@ -35,6 +37,13 @@ class NatsSubscription extends NatsConsumer implements Subscription {
 
     private Function<NatsMessage, Boolean> beforeQueueProcessor;
 
+    private volatile MessagePool messagePool;
+    private volatile PayloadCodec payloadCodec;
+
+    // null unless handlers are timed, which is when there is a metrics listener
+    private final LongAdder handlerCount;
+    private final LongAdder handlerNanos;
+
     NatsSubscription(String sid, String subject, String queueName, NatsConnection connection, NatsDispatcher dispatcher) {
         super(connection);
         this.subject = subject;
@@ -42,6 +51,16 @@ class NatsSubscription extends NatsConsumer implements Subscription {
         this.sid = sid;
         this.dispatcher = dispatcher;
         this.unSubMessageLimit = new AtomicLong(-1);
+        this.payloadCodec = connection.getOptions().getPayloadCodec();
+
+        if (connection.getOptions().getMetricsListener() == null) {
+            handlerCount = null;
+            handlerNanos = null;
+        }
+        else {
+            handlerCount = new LongAdder();
+            handlerNanos = new LongAdder();
+        }
 
         if (this.dispatcher == null) {
             this.incoming = new MessageQueue(false, connection.getOptions().getRequestCleanupInterval());
@@ -79,6 +98,9 @@ class NatsSubscription extends NatsConsumer implements Subscription {
     void invalidate() {
         if (this.incoming != null) {
             this.incoming.pause();
+            if (this.messagePool != null) {
+                this.incoming.releasePooled();
+            }
         }
         this.dispatcher = null;
         this.incoming = null;
@@ -94,6 +116,43 @@ class NatsSubscription extends NatsConsumer implements Subscription {
         return (max > 0) && (max <= recv);
     }
 
+    void setMessagePool(MessagePool messagePool) {
+        this.messagePool = messagePool;
+    }
+
+    MessagePool getMessagePool() {
+        return messagePool;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setPayloadCodec(PayloadCodec codec) {
+        this.payloadCodec = codec;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PayloadCodec getPayloadCodec() {
+        return payloadCodec;
+    }
+
+    void recordHandlerTime(long nanos) {
+        handlerCount.increment();
+        handlerNanos.add(nanos);
+    }
+
+    long getHandlerCount() {
+        return handlerCount == null ? 0 : handlerCount.sum();
+    }
+
+    long getHandlerNanos() {
+        return handlerNanos == null ? 0 : handlerNanos.sum();
+    }
+
     String getSID() {
         return this.sid;
     }
@@ -161,6 +220,7 @@ class NatsSubscription extends NatsConsumer implements Subscription {
         }
 
         if (msg != null) {
+            connection.decodePayload(this, msg);
             this.incrementDeliveredCount();
         }
 
@@ -0,0 +1,96 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.SubscriptionMetrics;
+
+class NatsSubscriptionMetrics implements SubscriptionMetrics {
+    private final NatsSubscription sub;
+
+    NatsSubscriptionMetrics(NatsSubscription sub) {
+        this.sub = sub;
+    }
+
+    // the consumer whose queue the subscription's messages wait in
+    private NatsConsumer queueHolder() {
+        NatsDispatcher d = sub.getNatsDispatcher();
+        return d == null ? sub : d;
+    }
+
+    @Override
+    public String getSid() {
+        return sub.getSID();
+    }
+
+    @Override
+    public String getSubject() {
+        return sub.getSubject();
+    }
+
+    @Override
+    public String getQueueName() {
+        return sub.getQueueName();
+    }
+
+    @Override
+    public String getDispatcherId() {
+        NatsDispatcher d = sub.getNatsDispatcher();
+        return d == null ? null : d.getId();
+    }
+
+    @Override
+    public long getPendingMessageCount() {
+        return queueHolder().getPendingMessageCount();
+    }
+
+    @Override
+    public long getPendingByteCount() {
+        return queueHolder().getPendingByteCount();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return queueHolder().getDroppedCount();
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        return sub.getDeliveredCount();
+    }
+
+    @Override
+    public long getHandlerCount() {
+        return sub.getHandlerCount();
+    }
+
+    @Override
+    public long getHandlerNanos() {
+        return sub.getHandlerNanos();
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriptionMetrics{" +
+            "sid='" + getSid() + '\'' +
+            ", subject='" + getSubject() + '\'' +
+            ", queueName='" + getQueueName() + '\'' +
+            ", dispatcherId='" + getDispatcherId() + '\'' +
+            ", pending=" + getPendingMessageCount() +
+            ", dropped=" + getDroppedCount() +
+            ", delivered=" + getDeliveredCount() +
+            ", handlerCount=" + getHandlerCount() +
+            ", handlerNanos=" + getHandlerNanos() +
+            '}';
+    }
+}
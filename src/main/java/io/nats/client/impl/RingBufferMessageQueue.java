@@ -0,0 +1,375 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import static io.nats.client.support.NatsConstants.OUTPUT_QUEUE_IS_FULL;
+
+/**
+ * A bounded, multi producer / single consumer message queue backed by a ring buffer.
+ * <p>Publishing threads claim a slot with a single compare and set, there is no lock and no node allocation
+ * per message. The limit of messages is enforced exactly by reserving against the length before claiming a slot,
+ * so the ring, which is sized to the next power of two, can never be over filled.</p>
+ * <p>The single consumer is the connection writer. Instead of a poison pill, pausing or draining the queue
+ * wakes the consumer, which always checks the running state before waiting again.</p>
+ */
+class RingBufferMessageQueue extends MessageQueue {
+    private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<NatsMessage> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail;
+    private long head; // only changed holding the consumer lock
+    private final ReentrantLock consumerLock;
+
+    private volatile Thread consumer;
+    private volatile boolean consumerWaiting;
+
+    RingBufferMessageQueue(int maxMessagesInOutgoingQueue, boolean discardWhenFull, Duration requestCleanupInterval, MessageQueue source) {
+        super(true, maxMessagesInOutgoingQueue, discardWhenFull, requestCleanupInterval, null);
+        if (maxMessagesInOutgoingQueue < 1) {
+            throw new IllegalArgumentException("Ring buffer queue must be bounded.");
+        }
+
+        int cap = 1;
+        while (cap < maxMessagesInOutgoingQueue) {
+            cap <<= 1;
+        }
+        capacity = cap;
+        mask = cap - 1;
+        slots = new AtomicReferenceArray<>(cap);
+        sequences = new AtomicLongArray(cap);
+        for (int x = 0; x < cap; x++) {
+            sequences.set(x, x);
+        }
+        tail = new AtomicLong(0);
+        head = 0;
+        consumerLock = new ReentrantLock();
+
+        if (source != null) {
+            source.drainTo(this);
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @Override
+    void drainTo(MessageQueue target) {
+        consumerLock.lock();
+        try {
+            NatsMessage msg = take();
+            while (msg != null) {
+                length.decrementAndGet();
+                sizeInBytes.addAndGet(-msg.getSizeInBytes());
+                target.push(msg, true);
+                msg = take();
+            }
+        }
+        finally {
+            consumerLock.unlock();
+        }
+    }
+
+    @Override
+    boolean push(NatsMessage msg, boolean internal) {
+        if (!reserve(1, !internal && discardWhenFull)) {
+            return false;
+        }
+
+        long pos = tail.get();
+        while (true) {
+            int idx = (int) pos & mask;
+            long dif = sequences.get(idx) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            }
+            else if (dif < 0) {
+                // the reservation means the slot has been consumed, this is only defensive
+                Thread.yield();
+                pos = tail.get();
+            }
+            else {
+                pos = tail.get();
+            }
+        }
+
+        int idx = (int) pos & mask;
+        sizeInBytes.getAndAdd(msg.getSizeInBytes());
+        slots.set(idx, msg);
+        sequences.set(idx, pos + 1); // a full volatile write, so it is ordered before reading consumerWaiting
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    // A batch reserves all its slots at once and claims them with a single add to the tail.
+    // A batch bigger than the queue can never be reserved at once, so it goes in pieces the size of the queue,
+    // unless the queue discards when full, in which case it is discarded.
+    // When a later piece can't be reserved, the pieces already placed stay queued and the rest is returned.
+    @Override
+    NatsMessage pushBatch(NatsMessage first, int count, long bytes) {
+        if (discardWhenFull && count > maxMessagesInOutgoingQueue) {
+            return first;
+        }
+
+        NatsMessage msg = first;
+        int left = count;
+        while (left > 0) {
+            int n = Math.min(left, maxMessagesInOutgoingQueue);
+            try {
+                if (!reserve(n, discardWhenFull)) {
+                    return msg;
+                }
+            }
+            catch (IllegalStateException e) {
+                if (msg == first) {
+                    throw e;
+                }
+                return msg;
+            }
+            if (n == count) {
+                sizeInBytes.getAndAdd(bytes);
+            }
+            msg = place(msg, n, n != count);
+            left -= n;
+            if (consumerWaiting) {
+                LockSupport.unpark(consumer);
+            }
+        }
+        return null;
+    }
+
+    // Fill n reserved slots from the chain, clearing the links. Returns the rest of the chain.
+    private NatsMessage place(NatsMessage msg, int n, boolean addSizes) {
+        long pos = tail.getAndAdd(n);
+        for (int x = 0; x < n; x++, pos++) {
+            int idx = (int) pos & mask;
+            while (sequences.get(idx) != pos) {
+                // the reservation means the slot has been consumed, this is only defensive
+                Thread.yield();
+            }
+            NatsMessage next = msg.next;
+            msg.next = null;
+            if (addSizes) {
+                sizeInBytes.getAndAdd(msg.getSizeInBytes());
+            }
+            slots.set(idx, msg);
+            sequences.set(idx, pos + 1);
+            msg = next;
+        }
+        return msg;
+    }
+
+    // Reserve room for some messages against the limit. Waits for room unless discarding.
+    private boolean reserve(int n, boolean discard) {
+        long start = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        while (true) {
+            long len = length.get();
+            if (len + n <= maxMessagesInOutgoingQueue) {
+                if (length.compareAndSet(len, len + n)) {
+                    return true;
+                }
+                continue;
+            }
+            if (discard) {
+                return false;
+            }
+            if (System.nanoTime() - start > timeoutNanos) {
+                throw new IllegalStateException(OUTPUT_QUEUE_IS_FULL + len);
+            }
+            LockSupport.parkNanos(this, FULL_BACKOFF_NANOS);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+    }
+
+    // Removes the message at the head. Must hold the consumer lock. Counters are the caller's job.
+    private NatsMessage take() {
+        int idx = (int) head & mask;
+        if (sequences.get(idx) != head + 1) {
+            return null;
+        }
+        NatsMessage msg = slots.get(idx);
+        slots.lazySet(idx, null);
+        sequences.set(idx, head + capacity);
+        head++;
+        return msg;
+    }
+
+    // Looks at the message at the head without removing it. Must hold the consumer lock.
+    private NatsMessage peek() {
+        int idx = (int) head & mask;
+        return sequences.get(idx) == head + 1 ? slots.get(idx) : null;
+    }
+
+    private NatsMessage takeLocked() {
+        consumerLock.lock();
+        try {
+            return take();
+        }
+        finally {
+            consumerLock.unlock();
+        }
+    }
+
+    @Override
+    void poisonTheQueue() {
+        // there is no poison pill, just wake the consumer so it re-checks the running state
+        Thread t = consumer;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    @Override
+    NatsMessage poll(Duration timeout) throws InterruptedException {
+        NatsMessage msg = takeLocked();
+        if (msg != null || timeout == null || isDraining()) {
+            return msg;
+        }
+
+        long nanos = timeout.toNanos(); // 0 means wait until stopped or drained
+        long deadline = System.nanoTime() + nanos;
+        consumer = Thread.currentThread();
+        try {
+            while (true) {
+                if (running.get() != RUNNING) {
+                    return null;
+                }
+                long parkNanos = MAX_PARK_NANOS;
+                if (nanos != 0) {
+                    parkNanos = deadline - System.nanoTime();
+                    if (parkNanos <= 0) {
+                        return null;
+                    }
+                }
+
+                consumerWaiting = true;
+                msg = takeLocked(); // check again now that producers will see we are waiting
+                if (msg != null) {
+                    return msg;
+                }
+                LockSupport.parkNanos(this, Math.min(parkNanos, MAX_PARK_NANOS));
+                consumerWaiting = false;
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                msg = takeLocked();
+                if (msg != null) {
+                    return msg;
+                }
+            }
+        }
+        finally {
+            consumerWaiting = false;
+        }
+    }
+
+    @Override
+    NatsMessage accumulate(long maxBytesToAccumulate, long maxMessagesToAccumulate, Duration timeout)
+        throws InterruptedException {
+
+        if (!this.isRunning()) {
+            return null;
+        }
+
+        NatsMessage msg = this.poll(timeout);
+        if (msg == null) {
+            return null;
+        }
+
+        long size = msg.getSizeInBytes();
+        long count = 1;
+
+        if (maxMessagesToAccumulate > 1 && size < maxBytesToAccumulate) {
+            consumerLock.lock();
+            try {
+                NatsMessage cursor = msg;
+                while (true) {
+                    NatsMessage next = peek();
+                    if (next == null) {
+                        break;
+                    }
+                    long s = next.getSizeInBytes();
+                    if (maxBytesToAccumulate >= 0 && (size + s) >= maxBytesToAccumulate) {
+                        break; // One more is too far
+                    }
+                    size += s;
+                    count++;
+                    take();
+                    cursor.next = next;
+                    if (next.flushImmediatelyAfterPublish || count == maxMessagesToAccumulate) {
+                        break;
+                    }
+                    cursor = next;
+                }
+            }
+            finally {
+                consumerLock.unlock();
+            }
+        }
+
+        this.sizeInBytes.addAndGet(-size);
+        this.length.addAndGet(-count);
+        return msg;
+    }
+
+    @Override
+    void filter(Predicate<NatsMessage> p) {
+        consumerLock.lock();
+        try {
+            if (this.isRunning()) {
+                throw new IllegalStateException("Filter is only supported when the queue is paused");
+            }
+            List<NatsMessage> keep = new ArrayList<>();
+            NatsMessage cursor = take();
+            while (cursor != null) {
+                length.decrementAndGet();
+                sizeInBytes.addAndGet(-cursor.getSizeInBytes());
+                if (!p.test(cursor)) {
+                    keep.add(cursor);
+                }
+                cursor = take();
+            }
+            for (NatsMessage m : keep) {
+                push(m, true);
+            }
+        }
+        finally {
+            consumerLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Options;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small, fixed set of threads shared by every connection in the JVM that uses the shared io loop.
+ * <p>Each io thread owns a selector. A connection's channel is registered with one of them and the io thread
+ * reads and parses whatever has arrived when the channel is readable, instead of the connection having a reader
+ * thread that sits blocked in a read. Writes are drained by a fixed pool of writer threads of the same size, and a
+ * connection only holds one of them while it has something to write.</p>
+ */
+class SharedIoLoop {
+    static final int THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private static SharedIoLoop shared;
+
+    private final IoThread[] ioThreads;
+    private final AtomicInteger nextIoThread;
+    private final ExecutorService writers;
+
+    static synchronized SharedIoLoop shared() {
+        if (shared == null) {
+            shared = new SharedIoLoop(THREADS);
+        }
+        return shared;
+    }
+
+    /**
+     * @param options the connection's options
+     * @param dataPortFuture the connection's data port, which is completed before the reader and writer start
+     * @return the data port if the connection should use the shared io loop, otherwise null
+     */
+    static SocketChannelDataPort sharedPort(Options options, Future<DataPort> dataPortFuture) {
+        if (options.useSharedIoLoop() && dataPortFuture != null && dataPortFuture.isDone()) {
+            try {
+                DataPort dp = dataPortFuture.get();
+                if (dp instanceof SocketChannelDataPort) {
+                    return (SocketChannelDataPort) dp;
+                }
+            }
+            catch (Exception e) {
+                // not usable, the caller falls back to its own thread
+            }
+        }
+        return null;
+    }
+
+    SharedIoLoop(int threads) {
+        ioThreads = new IoThread[threads];
+        nextIoThread = new AtomicInteger();
+        AtomicInteger writerId = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "nats-io-writer-" + writerId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int x = 0; x < threads; x++) {
+            try {
+                ioThreads[x] = new IoThread("nats-io-loop-" + (x + 1), Selector.open());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ioThreads[x].start();
+        }
+    }
+
+    IoThread nextIoThread() {
+        return ioThreads[Math.abs(nextIoThread.getAndIncrement() % ioThreads.length)];
+    }
+
+    ExecutorService writers() {
+        return writers;
+    }
+
+    static class IoThread extends Thread {
+        private final Selector selector;
+        private final Queue<Runnable> tasks;
+
+        IoThread(String name, Selector selector) {
+            super(name);
+            setDaemon(true);
+            this.selector = selector;
+            this.tasks = new ConcurrentLinkedQueue<>();
+        }
+
+        Selector selector() {
+            return selector;
+        }
+
+        /**
+         * Runs the task on this thread, between selects. Registration and cancellation of keys
+         * has to happen here since the selector is almost always blocked in a select.
+         * @param task the task
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                try {
+                    selector.select();
+                }
+                catch (IOException e) {
+                    continue; // nothing better to do than try again
+                }
+
+                // a problem with one connection must not stop the loop for all the others
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    }
+                    catch (Throwable ignore) {}
+                }
+                Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+                while (iter.hasNext()) {
+                    SelectionKey key = iter.next();
+                    iter.remove();
+                    NatsConnectionReader reader = (NatsConnectionReader) key.attachment();
+                    try {
+                        if (key.isValid() && key.isReadable()) {
+                            reader.readAvailable();
+                        }
+                    }
+                    catch (Throwable t) {
+                        // the reader is stopped and the connection told, so it can reconnect
+                        try {
+                            reader.failShared(t);
+                        }
+                        catch (Throwable ignore) {
+                            key.cancel();
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
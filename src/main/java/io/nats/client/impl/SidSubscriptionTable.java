@@ -0,0 +1,186 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Maps numeric sids to subscriptions for the connection.
+ * <p>Lookups, which the reader thread does for every message, take no lock and don't box or hash a string.
+ * The table is open addressing with linear probing. Sids are handed out sequentially so they spread
+ * perfectly over the slots. Changes (subscribe, unsubscribe) are rare compared to lookups and are serialized.
+ * Removal leaves the key in place with a null value, that slot is reused if the same sid is put again
+ * and is dropped the next time the table is rebuilt.</p>
+ */
+class SidSubscriptionTable {
+    private static final long EMPTY = 0; // sids start at 1
+    private static final int MIN_CAPACITY = 64;
+
+    private static class Table {
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<NatsSubscription> values;
+        final int mask;
+        int used; // slots with a key, live or removed, only touched under the write lock
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+    }
+
+    private final Object writeLock;
+    private volatile Table table;
+    private int size;
+
+    SidSubscriptionTable() {
+        writeLock = new Object();
+        table = new Table(MIN_CAPACITY);
+    }
+
+    private static int slot(long sid, int mask) {
+        return (int)(sid ^ (sid >>> 32)) & mask;
+    }
+
+    NatsSubscription get(long sid) {
+        if (sid <= EMPTY) {
+            return null;
+        }
+        Table t = table;
+        int idx = slot(sid, t.mask);
+        while (true) {
+            long key = t.keys.get(idx);
+            if (key == sid) {
+                return t.values.get(idx);
+            }
+            if (key == EMPTY) {
+                return null;
+            }
+            idx = (idx + 1) & t.mask;
+        }
+    }
+
+    void put(long sid, NatsSubscription sub) {
+        if (sid <= EMPTY) {
+            throw new IllegalArgumentException("Invalid sid " + sid);
+        }
+        synchronized (writeLock) {
+            Table t = table;
+            if ((t.used + 1) * 2 > t.keys.length()) {
+                t = rebuild(t, size + 1);
+            }
+            int idx = slot(sid, t.mask);
+            while (true) {
+                long key = t.keys.get(idx);
+                if (key == sid) {
+                    if (t.values.getAndSet(idx, sub) == null) {
+                        size++;
+                    }
+                    return;
+                }
+                if (key == EMPTY) {
+                    // value first so any reader that sees the key also sees the value
+                    t.values.set(idx, sub);
+                    t.keys.set(idx, sid);
+                    t.used++;
+                    size++;
+                    return;
+                }
+                idx = (idx + 1) & t.mask;
+            }
+        }
+    }
+
+    NatsSubscription remove(long sid) {
+        if (sid <= EMPTY) {
+            return null;
+        }
+        synchronized (writeLock) {
+            Table t = table;
+            int idx = slot(sid, t.mask);
+            while (true) {
+                long key = t.keys.get(idx);
+                if (key == sid) {
+                    NatsSubscription removed = t.values.getAndSet(idx, null);
+                    if (removed != null) {
+                        size--;
+                    }
+                    return removed;
+                }
+                if (key == EMPTY) {
+                    return null;
+                }
+                idx = (idx + 1) & t.mask;
+            }
+        }
+    }
+
+    // Copies the live entries into a table sized so the live entries take at most a quarter of it.
+    // Readers keep using the old table until the new one is published.
+    private Table rebuild(Table old, int live) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < live * 4) {
+            capacity <<= 1;
+        }
+        Table t = new Table(capacity);
+        for (int x = 0; x < old.keys.length(); x++) {
+            NatsSubscription sub = old.values.get(x);
+            if (sub != null) {
+                long sid = old.keys.get(x);
+                int idx = slot(sid, t.mask);
+                while (t.keys.get(idx) != EMPTY) {
+                    idx = (idx + 1) & t.mask;
+                }
+                t.values.set(idx, sub);
+                t.keys.set(idx, sid);
+                t.used++;
+            }
+        }
+        table = t;
+        return t;
+    }
+
+    void forEach(Consumer<NatsSubscription> consumer) {
+        Table t = table;
+        for (int x = 0; x < t.values.length(); x++) {
+            NatsSubscription sub = t.values.get(x);
+            if (sub != null) {
+                consumer.accept(sub);
+            }
+        }
+    }
+
+    List<NatsSubscription> values() {
+        List<NatsSubscription> list = new ArrayList<>();
+        forEach(list::add);
+        return list;
+    }
+
+    int size() {
+        synchronized (writeLock) {
+            return size;
+        }
+    }
+
+    void clear() {
+        synchronized (writeLock) {
+            table = new Table(MIN_CAPACITY);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Options;
+import io.nats.client.support.NatsUri;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A data port built on a blocking {@link SocketChannel} that does its network io through direct buffers,
+ * so the JDK doesn't have to copy through a temporary native buffer on every read and write.
+ * The direct buffers come from a pool and are reused across connections and reconnects.
+ * <p>Plain connections give the buffers passed to {@link #write(ByteBuffer[], int, int)} to the channel in one
+ * gathering write, so large payloads are not copied into the write buffer. Secure connections use an
+ * {@link SSLEngine}, which encrypts straight out of those buffers.</p>
+ * <p>Select it with {@link Options.Builder#dataPortType(String) dataPortType}. Proxies and websockets are not
+ * supported, use the default data port for those. The socket read timeout option does not apply to channels.</p>
+ * <p>One thread may read while another writes. Caller must ensure that reads, and writes, are not concurrent.</p>
+ */
+public class SocketChannelDataPort implements DataPort {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    protected NatsConnection connection;
+    protected String host;
+    protected int port;
+    protected SocketChannel channel;
+    protected int soLinger;
+    protected int bufferSize;
+
+    // the buffers are only touched holding the matching lock, so close can give them back to the pool safely
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean closed;
+    private volatile boolean nonBlocking;
+    private Selector writeSelector;
+
+    private ByteBuffer readBuffer;  // plain bytes not yet given to the reader, always left flipped for reading
+    private ByteBuffer writeBuffer; // plain bytes staged for a write
+
+    private SSLEngine engine;
+    private ByteBuffer netIn;       // encrypted bytes read but not unwrapped, always left in fill mode
+    private ByteBuffer netOut;      // encrypted bytes to write
+
+    @Override
+    public void afterConstruct(Options options) {
+        soLinger = options.getSocketSoLinger();
+        bufferSize = options.getBufferSize();
+    }
+
+    @Override
+    public void connect(String serverURI, NatsConnection conn, long timeoutNanos) throws IOException {
+        try {
+            connect(conn, new NatsUri(serverURI), timeoutNanos);
+        }
+        catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void connect(NatsConnection conn, NatsUri nuri, long timeoutNanos) throws IOException {
+        connection = conn;
+        Options options = connection.getOptions();
+        long timeout = timeoutNanos / 1_000_000; // convert to millis
+        host = nuri.getHost();
+        port = nuri.getPort();
+
+        if (options.getProxy() != null || SocketDataPort.isWebsocketScheme(nuri.getScheme())) {
+            throw new IOException("Proxies and websockets are not supported by " + getClass().getSimpleName());
+        }
+
+        try {
+            channel = SocketChannel.open();
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 2 * 1024 * 1024);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, 2 * 1024 * 1024);
+            channel.socket().connect(new InetSocketAddress(host, port), (int) timeout);
+            if (soLinger > -1) {
+                channel.setOption(StandardSocketOptions.SO_LINGER, soLinger);
+            }
+
+            readBuffer = DirectBufferPool.SHARED.acquire(bufferSize);
+            readBuffer.flip(); // nothing to read yet
+            writeBuffer = DirectBufferPool.SHARED.acquire(bufferSize);
+        }
+        catch (Exception e) {
+            try { channel.close(); } catch (Exception ignore) {}
+            channel = null;
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Upgrade the port to SSL. If it is already secured, this is a no-op.
+     */
+    @Override
+    public void upgradeToSecure() throws IOException {
+        readLock.lock();
+        writeLock.lock();
+        try {
+            if (engine != null) {
+                return;
+            }
+            SSLContext context = connection.getOptions().getSslContext();
+            SSLEngine sslEngine = context.createSSLEngine(host, port);
+            sslEngine.setUseClientMode(true);
+
+            int packetSize = sslEngine.getSession().getPacketBufferSize();
+            int appSize = sslEngine.getSession().getApplicationBufferSize();
+            netIn = DirectBufferPool.SHARED.acquire(packetSize);
+            netOut = DirectBufferPool.SHARED.acquire(packetSize);
+            if (readBuffer.capacity() < appSize) {
+                ByteBuffer bigger = DirectBufferPool.SHARED.acquire(appSize);
+                bigger.put(readBuffer).flip();
+                DirectBufferPool.SHARED.release(readBuffer);
+                readBuffer = bigger;
+            }
+
+            engine = sslEngine;
+            engine.beginHandshake();
+            handshake();
+        }
+        finally {
+            writeLock.unlock();
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public int read(byte[] dst, int off, int len) throws IOException {
+        readLock.lock();
+        try {
+            checkOpen();
+            while (!readBuffer.hasRemaining()) {
+                int n;
+                if (engine == null) {
+                    readBuffer.clear();
+                    try {
+                        n = channel.read(readBuffer);
+                    }
+                    finally {
+                        readBuffer.flip();
+                    }
+                }
+                else {
+                    n = unwrap();
+                }
+                if (n < 0) {
+                    return -1;
+                }
+                if (n == 0 && nonBlocking) {
+                    return 0;
+                }
+            }
+            int n = Math.min(len, readBuffer.remaining());
+            readBuffer.get(dst, off, n);
+            return n;
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] src, int toWrite) throws IOException {
+        ByteBuffer[] srcs = { ByteBuffer.wrap(src, 0, toWrite) };
+        writeLock.lock();
+        try {
+            checkOpen();
+            if (engine == null) {
+                writeStaged(srcs[0]);
+            }
+            else {
+                writeSecure(srcs, 0, 1);
+            }
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Plain connections hand the buffers given to {@link #write(ByteBuffer[], int, int)} straight to the channel.
+     * @return true unless the connection was upgraded to TLS
+     */
+    @Override
+    public boolean supportsGatheringWrites() {
+        return engine == null;
+    }
+
+    @Override
+    public void write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        writeLock.lock();
+        try {
+            checkOpen();
+            if (engine == null) {
+                writeGathering(srcs, offset, length);
+            }
+            else {
+                writeSecure(srcs, offset, length);
+            }
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Heap bytes are staged through the direct write buffer.
+    private void writeStaged(ByteBuffer src) throws IOException {
+        writeBuffer.clear();
+        while (src.hasRemaining()) {
+            if (!writeBuffer.hasRemaining()) {
+                writeFully(writeBuffer);
+            }
+            int n = Math.min(src.remaining(), writeBuffer.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + n);
+            writeBuffer.put(src);
+            src.limit(limit);
+        }
+        writeFully(writeBuffer);
+    }
+
+    // The buffers go to the channel as they are, one gathering write until the channel has taken them all.
+    private void writeGathering(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        int end = offset + length;
+        while (offset < end) {
+            if (!srcs[offset].hasRemaining()) {
+                offset++;
+            }
+            else if (channel.write(srcs, offset, end - offset) == 0 && nonBlocking) {
+                awaitWritable();
+            }
+        }
+    }
+
+    // bb is in fill mode and is left cleared
+    private void writeFully(ByteBuffer bb) throws IOException {
+        if (bb == writeBuffer || bb == netOut) {
+            bb.flip();
+        }
+        while (bb.hasRemaining()) {
+            if (channel.write(bb) == 0 && nonBlocking) {
+                awaitWritable();
+            }
+        }
+        if (bb == writeBuffer || bb == netOut) {
+            bb.clear();
+        }
+    }
+
+    private void writeSecure(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        int last = offset + length - 1;
+        do {
+            netOut.clear();
+            SSLEngineResult result = engine.wrap(srcs, offset, length, netOut);
+            switch (result.getStatus()) {
+                case OK:
+                    writeFully(netOut);
+                    runDelegatedTasks(result.getHandshakeStatus());
+                    break;
+                case BUFFER_OVERFLOW:
+                    netOut = grow(netOut, engine.getSession().getPacketBufferSize());
+                    break;
+                default:
+                    throw new SSLException("Engine closed during write: " + result.getStatus());
+            }
+            while (offset < last && !srcs[offset].hasRemaining()) {
+                offset++;
+                length--;
+            }
+        } while (srcs[offset].hasRemaining());
+    }
+
+    // Unwraps the encrypted bytes into the read buffer, reading from the channel as the engine needs more.
+    // Must hold the read lock. Returns the number of plain bytes produced, or -1 at the end of the stream.
+    private int unwrap() throws IOException {
+        readBuffer.compact();
+        try {
+            while (true) {
+                netIn.flip();
+                SSLEngineResult result;
+                try {
+                    result = engine.unwrap(netIn, readBuffer);
+                }
+                finally {
+                    netIn.compact();
+                }
+                switch (result.getStatus()) {
+                    case OK:
+                        HandshakeStatus hs = result.getHandshakeStatus();
+                        if (hs == HandshakeStatus.NEED_TASK || hs == HandshakeStatus.NEED_WRAP) {
+                            // the server started a handshake after the connection was secured
+                            writeLock.lock();
+                            try {
+                                runDelegatedTasks(hs);
+                                if (engine.getHandshakeStatus() == HandshakeStatus.NEED_WRAP) {
+                                    wrapHandshake();
+                                }
+                            }
+                            finally {
+                                writeLock.unlock();
+                            }
+                        }
+                        if (result.bytesProduced() > 0 || hs != HandshakeStatus.NOT_HANDSHAKING) {
+                            return result.bytesProduced();
+                        }
+                        break; // a record without application data, keep going
+                    case BUFFER_UNDERFLOW:
+                        if (!netIn.hasRemaining()) {
+                            netIn = grow(netIn, engine.getSession().getPacketBufferSize());
+                        }
+                        int n = channel.read(netIn);
+                        if (n < 1) {
+                            return n; // end of stream, or nothing to read if not blocking
+                        }
+                        break;
+                    case BUFFER_OVERFLOW:
+                        if (readBuffer.position() > 0) {
+                            return 0; // let the caller take what is there first
+                        }
+                        readBuffer = grow(readBuffer, engine.getSession().getApplicationBufferSize());
+                        break;
+                    default:
+                        return -1;
+                }
+            }
+        }
+        finally {
+            readBuffer.flip();
+        }
+    }
+
+    private void handshake() throws IOException {
+        HandshakeStatus hs = engine.getHandshakeStatus();
+        while (hs != HandshakeStatus.FINISHED && hs != HandshakeStatus.NOT_HANDSHAKING) {
+            switch (hs) {
+                case NEED_WRAP:
+                    hs = wrapHandshake();
+                    break;
+                case NEED_UNWRAP:
+                    if (unwrap() < 0) {
+                        throw new EOFException("Connection closed during the TLS handshake");
+                    }
+                    hs = engine.getHandshakeStatus();
+                    break;
+                case NEED_TASK:
+                    runDelegatedTasks(hs);
+                    hs = engine.getHandshakeStatus();
+                    break;
+                default:
+                    throw new SSLException("Unexpected TLS handshake status " + hs);
+            }
+        }
+    }
+
+    // Must hold the write lock
+    private HandshakeStatus wrapHandshake() throws IOException {
+        while (true) {
+            netOut.clear();
+            SSLEngineResult result = engine.wrap(EMPTY, netOut);
+            switch (result.getStatus()) {
+                case OK:
+                    writeFully(netOut);
+                    return result.getHandshakeStatus();
+                case BUFFER_OVERFLOW:
+                    netOut = grow(netOut, engine.getSession().getPacketBufferSize());
+                    break;
+                default:
+                    throw new SSLException("Engine closed during the TLS handshake");
+            }
+        }
+    }
+
+    private void runDelegatedTasks(HandshakeStatus hs) {
+        if (hs == HandshakeStatus.NEED_TASK) {
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    // Replaces a buffer with a bigger one holding the same content, the buffer is expected to be in fill mode.
+    private static ByteBuffer grow(ByteBuffer bb, int atLeast) {
+        ByteBuffer bigger = DirectBufferPool.SHARED.acquire(Math.max(atLeast, bb.capacity() * 2));
+        bb.flip();
+        bigger.put(bb);
+        DirectBufferPool.SHARED.release(bb);
+        return bigger;
+    }
+
+    // The socket send buffer is full. Must hold the write lock.
+    private void awaitWritable() throws IOException {
+        writeSelector.select(1000);
+        writeSelector.selectedKeys().clear();
+        checkOpen();
+    }
+
+    /**
+     * Switches the channel to non blocking so it can be registered with a selector.
+     * Reads then return 0 when there is nothing to read. Writes still write everything,
+     * waiting on a private selector when the socket can't take more.
+     * @return the channel
+     * @throws IOException if the channel could not be changed
+     */
+    SocketChannel configureNonBlocking() throws IOException {
+        readLock.lock();
+        writeLock.lock();
+        try {
+            checkOpen();
+            if (!nonBlocking) {
+                channel.configureBlocking(false);
+                writeSelector = Selector.open();
+                channel.register(writeSelector, SelectionKey.OP_WRITE);
+                nonBlocking = true;
+            }
+            return channel;
+        }
+        finally {
+            writeLock.unlock();
+            readLock.unlock();
+        }
+    }
+
+    boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public void shutdownInput() throws IOException {
+        // there is no half close with TLS
+        if (engine == null) {
+            channel.shutdownInput();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            if (engine != null) {
+                engine.closeOutbound();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+            Selector ws = writeSelector;
+            if (ws != null) {
+                ws.wakeup();
+            }
+        }
+        finally {
+            // closing the channel wakes any blocked read or write, after that the buffers are free
+            readLock.lock();
+            try {
+                DirectBufferPool.SHARED.release(readBuffer);
+                DirectBufferPool.SHARED.release(netIn);
+                readBuffer = null;
+                netIn = null;
+            }
+            finally {
+                readLock.unlock();
+            }
+            writeLock.lock();
+            try {
+                DirectBufferPool.SHARED.release(writeBuffer);
+                DirectBufferPool.SHARED.release(netOut);
+                writeBuffer = null;
+                netOut = null;
+                if (writeSelector != null) {
+                    writeSelector.close();
+                }
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void forceClose() throws IOException {
+        try {
+            // If we are being asked to force close, there is no need to linger.
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+        }
+        catch (IOException e) {
+            // don't want to fail if I couldn't set linger
+        }
+        close();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // writes go straight to the channel
+    }
+}
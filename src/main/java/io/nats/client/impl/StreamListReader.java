@@ -14,7 +14,8 @@
 package io.nats.client.impl;
 
 import io.nats.client.api.StreamInfo;
-import io.nats.client.support.JsonValue;
+import io.nats.client.support.JsonParseException;
+import io.nats.client.support.JsonReader;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,10 +33,8 @@ class StreamListReader extends AbstractListReader {
     }
 
     @Override
-    void processItems(List<JsonValue> items) {
-        for (JsonValue v : items) {
-            streams.add(new StreamInfo(v));
-        }
+    void processItem(JsonReader reader) throws JsonParseException {
+        streams.add(new StreamInfo(reader.readValue(false)));
     }
 
     List<StreamInfo> getStreams() {
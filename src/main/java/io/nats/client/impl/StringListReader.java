@@ -13,7 +13,8 @@
 
 package io.nats.client.impl;
 
-import io.nats.client.support.JsonValue;
+import io.nats.client.support.JsonParseException;
+import io.nats.client.support.JsonReader;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,11 +33,12 @@ abstract class StringListReader extends AbstractListReader {
     }
 
     @Override
-    void processItems(List<JsonValue> items) {
-        for (JsonValue v : items) {
-            if (v.string != null) {
-                strings.add(v.string);
-            }
+    void processItem(JsonReader reader) throws JsonParseException {
+        if (reader.getToken() == JsonReader.Token.STRING) {
+            strings.add(reader.getString());
+        }
+        else {
+            reader.skipValue();
         }
     }
 
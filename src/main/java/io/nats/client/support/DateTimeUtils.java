@@ -93,7 +93,18 @@ public abstract class DateTimeUtils {
      * @return a Zoned Date time.
      */
     public static ZonedDateTime parseDateTimeNanos(String timestampNanos, ZoneId zoneId) {
-        long ts = Long.parseLong(timestampNanos);
+        return fromNanos(Long.parseLong(timestampNanos), zoneId);
+    }
+
+    /**
+     * Converts a long timestamp with nano precision in epoch UTC to a Zoned date
+     * time
+     *
+     * @param ts timestamp in nanos
+     * @param zoneId ZoneId
+     * @return a Zoned Date time.
+     */
+    public static ZonedDateTime fromNanos(long ts, ZoneId zoneId) {
         long seconds = ts / NANO_FACTOR;
         long nanos = ts % NANO_FACTOR;
         Instant utcInstant = Instant.ofEpochSecond(seconds, nanos);
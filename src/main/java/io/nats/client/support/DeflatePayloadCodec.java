@@ -0,0 +1,111 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.support;
+
+import io.nats.client.PayloadCodec;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link PayloadCodec} that compresses with the deflate format of {@link Deflater java.util.zip.Deflater},
+ * so it needs nothing outside the JDK. Text and JSON bodies typically shrink several times over.
+ */
+public class DeflatePayloadCodec implements PayloadCodec {
+    /**
+     * The encoding name, {@value}
+     */
+    public static final String ENCODING = "deflate";
+
+    private final int level;
+
+    /**
+     * Create a codec that uses {@link Deflater#BEST_SPEED BEST_SPEED}
+     */
+    public DeflatePayloadCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Create a codec that uses a compression level
+     * @param level the level, 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION DEFAULT_COMPRESSION}
+     */
+    public DeflatePayloadCodec(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+    }
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public byte[] encode(byte[] data) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, data.length / 2)];
+            int len = 0;
+            while (!deflater.finished()) {
+                if (len == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                len += deflater.deflate(out, len, out.length - len);
+            }
+            return Arrays.copyOf(out, len);
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decode(byte[] data, int maxSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] out = new byte[(int) Math.min(maxSize, Math.max(64, data.length * 4L))];
+            int len = 0;
+            while (!inflater.finished()) {
+                if (len == out.length) {
+                    if (len == maxSize) {
+                        if (inflater.inflate(new byte[1]) > 0 || !inflater.finished()) {
+                            throw new IllegalArgumentException("Decoded data is larger than " + maxSize + " bytes");
+                        }
+                        break;
+                    }
+                    out = Arrays.copyOf(out, (int) Math.min(maxSize, out.length * 2L));
+                }
+                int n = inflater.inflate(out, len, out.length - len);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Incomplete deflate data");
+                }
+                len += n;
+            }
+            return Arrays.copyOf(out, len);
+        }
+        catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid deflate data", e);
+        }
+        finally {
+            inflater.end();
+        }
+    }
+}
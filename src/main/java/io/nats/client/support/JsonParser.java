@@ -15,7 +15,6 @@ package io.nats.client.support;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -60,11 +59,19 @@ public class JsonParser {
     }
 
     public static JsonValue parse(byte[] json) throws JsonParseException {
-        return new JsonParser(new String(json, StandardCharsets.UTF_8).toCharArray(), 0).parse();
+        return parse(new JsonReader(json), false);
     }
 
     public static JsonValue parse(byte[] json, Option... options) throws JsonParseException {
-        return new JsonParser(new String(json, StandardCharsets.UTF_8).toCharArray(), 0, options).parse();
+        return parse(new JsonReader(json), keepNulls(options));
+    }
+
+    // bytes are read as UTF-8 as they are, without a char[] copy
+    private static JsonValue parse(JsonReader reader, boolean keepNulls) throws JsonParseException {
+        if (reader.next() == JsonReader.Token.END) {
+            return NULL;
+        }
+        return reader.readValue(keepNulls);
     }
 
     public static JsonValue parseUnchecked(char[] json) {
@@ -137,14 +144,7 @@ public class JsonParser {
     public JsonParser(char[] json, int startIndex, Option... options) {
         this.json = json;
 
-        boolean kn = false;
-        for (Option o : options) {
-            if (o == Option.KEEP_NULLS) {
-                kn = true;
-                break; // b/c only option currently
-            }
-        }
-        keepNulls = kn;
+        keepNulls = keepNulls(options);
 
         len = json == null ? 0 : json.length;
         idx = startIndex;
@@ -157,6 +157,15 @@ public class JsonParser {
         next = 0;
     }
 
+    private static boolean keepNulls(Option... options) {
+        for (Option o : options) {
+            if (o == Option.KEEP_NULLS) {
+                return true; // b/c only option currently
+            }
+        }
+        return false;
+    }
+
     public JsonValue parse() throws JsonParseException {
         char c = peekToken();
         if (c == 0) {
@@ -380,7 +389,7 @@ public class JsonParser {
         }
     }
 
-    private JsonValue asNumber(String val) throws JsonParseException {
+    static JsonValue asNumber(String val) throws JsonParseException {
         char initial = val.charAt(0);
         if ((initial >= '0' && initial <= '9') || initial == '-') {
             // decimal representation
@@ -432,7 +441,7 @@ public class JsonParser {
         throw new JsonParseException("val ["+val+"] is not a valid number.");
     }
 
-    private boolean isDecimalNotation(final String val) {
+    private static boolean isDecimalNotation(final String val) {
         return val.indexOf('.') > -1 || val.indexOf('e') > -1
             || val.indexOf('E') > -1 || "-0".equals(val);
     }
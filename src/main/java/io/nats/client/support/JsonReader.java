@@ -0,0 +1,498 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.nats.client.support.JsonValue.NULL;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A pull parser that reads json as UTF-8 bytes, one token at a time, without converting it to chars first
+ * or building a {@link JsonValue JsonValue} tree, so a reader can take the fields it wants and skip the rest.
+ * It reads json the same way {@link JsonParser JsonParser} does and fails with the same messages.
+ *
+ * <pre>
+ * JsonReader reader = new JsonReader(bytes);
+ * if (reader.next() == Token.START_OBJECT) {
+ *     while (reader.next() == Token.FIELD_NAME) {
+ *         String name = reader.getString();
+ *         reader.next();
+ *         if (name.equals("total")) {
+ *             total = reader.getInt(0);
+ *         }
+ *         else {
+ *             reader.skipValue();
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+public class JsonReader {
+
+    public enum Token {START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME, STRING, NUMBER, TRUE, FALSE, NULL, END}
+
+    // where the reader is in each open object or array
+    private static final byte OBJECT_FIRST = 0; // after the {
+    private static final byte OBJECT_KEY = 1;   // after a ,
+    private static final byte OBJECT_COLON = 2; // after a key
+    private static final byte OBJECT_NEXT = 3;  // after a value
+    private static final byte ARRAY = 4;
+
+    private static final String PRIMITIVE_STOP = ",:]}/\\\"[{;=#";
+
+    private final byte[] json;
+    private final int len;
+    private int idx;
+
+    private byte[] stack;
+    private int depth;
+    private boolean started;
+    private boolean skipping;
+
+    private Token token;
+    private String string;
+    private JsonValue number;
+    private StringBuilder sb;
+
+    public JsonReader(byte[] json) {
+        this.json = json;
+        len = json == null ? 0 : json.length;
+        stack = new byte[8];
+    }
+
+    /**
+     * Read the next token. After a {@link Token#FIELD_NAME FIELD_NAME}, the next token is its value.
+     * @return the token, {@link Token#END END} when the top level value has been read
+     * @throws JsonParseException if the json is not valid
+     */
+    public Token next() throws JsonParseException {
+        string = null;
+        number = null;
+        if (depth == 0) {
+            if (started) {
+                return token = Token.END;
+            }
+            started = true;
+            if (peekToken() == 0) {
+                return token = Token.END;
+            }
+            return token = nextValue();
+        }
+
+        switch (stack[depth - 1]) {
+            case OBJECT_FIRST:
+            case OBJECT_KEY:
+                return token = nextKey(stack[depth - 1] == OBJECT_FIRST);
+
+            case OBJECT_COLON:
+                if (nextToken() != ':') {
+                    throw new JsonParseException("Expected a ':' after a key.");
+                }
+                stack[depth - 1] = OBJECT_NEXT;
+                return token = nextValue();
+
+            case OBJECT_NEXT:
+                switch (nextToken()) {
+                    case ',':
+                        if (peekToken() == '}') {
+                            depth--; // a dangling comma, the } is left for whatever holds this object
+                            return token = Token.END_OBJECT;
+                        }
+                        stack[depth - 1] = OBJECT_KEY;
+                        return token = nextKey(false);
+                    case '}':
+                        depth--;
+                        return token = Token.END_OBJECT;
+                    default:
+                        throw new JsonParseException("Expected a ',' or '}'.");
+                }
+
+            default: // ARRAY
+                while (true) {
+                    int p = peekToken();
+                    if (p == ']') {
+                        nextToken();
+                        depth--;
+                        return token = Token.END_ARRAY;
+                    }
+                    if (p != ',') {
+                        return token = nextValue();
+                    }
+                    nextToken();
+                }
+        }
+    }
+
+    /**
+     * @return the token last returned by {@link #next()}
+     */
+    public Token getToken() {
+        return token;
+    }
+
+    /**
+     * @return the name for a {@link Token#FIELD_NAME FIELD_NAME}, the value for a {@link Token#STRING STRING}
+     * or the text for a {@link Token#NUMBER NUMBER}, otherwise null
+     */
+    public String getString() {
+        return string;
+    }
+
+    /**
+     * @param dflt the value if the token is not a number that fits in an int
+     * @return the value of a {@link Token#NUMBER NUMBER}
+     */
+    public int getInt(int dflt) {
+        JsonValue v = getNumber();
+        return v != null && v.i != null ? v.i : dflt;
+    }
+
+    /**
+     * @param dflt the value if the token is not a number that fits in a long
+     * @return the value of a {@link Token#NUMBER NUMBER}
+     */
+    public long getLong(long dflt) {
+        JsonValue v = getNumber();
+        if (v == null) {
+            return dflt;
+        }
+        return v.i != null ? v.i : v.l != null ? v.l : dflt;
+    }
+
+    /**
+     * @return the value of a {@link Token#NUMBER NUMBER} with the same type {@link JsonParser JsonParser} gives it,
+     * otherwise null
+     */
+    public JsonValue getNumber() {
+        if (token != Token.NUMBER) {
+            return null;
+        }
+        if (number == null) {
+            try {
+                number = JsonParser.asNumber(string);
+            }
+            catch (JsonParseException e) {
+                // cannot happen, the text was checked when it was read
+                throw new IllegalStateException(e);
+            }
+        }
+        return number;
+    }
+
+    /**
+     * Build the value the current token starts, the same as {@link JsonParser#parse(byte[]) JsonParser.parse()} would.
+     * After this, the reader is past the end of the value.
+     * @param keepNulls whether fields with null values are kept in objects
+     * @return the value
+     * @throws JsonParseException if the json is not valid
+     */
+    public JsonValue readValue(boolean keepNulls) throws JsonParseException {
+        switch (token) {
+            case STRING:
+                return new JsonValue(string);
+            case NUMBER:
+                return getNumber();
+            case TRUE:
+                return new JsonValue(Boolean.TRUE);
+            case FALSE:
+                return new JsonValue(Boolean.FALSE);
+            case NULL:
+                return NULL;
+            case START_OBJECT:
+                Map<String, JsonValue> map = new HashMap<>();
+                while (next() == Token.FIELD_NAME) {
+                    String key = string;
+                    next();
+                    JsonValue value = readValue(keepNulls);
+                    if (value != NULL || keepNulls) {
+                        map.put(key, value);
+                    }
+                }
+                return new JsonValue(map);
+            case START_ARRAY:
+                List<JsonValue> list = new ArrayList<>();
+                while (next() != Token.END_ARRAY) {
+                    list.add(readValue(keepNulls));
+                }
+                return new JsonValue(list);
+            default:
+                throw new IllegalStateException("Not at the start of a value.");
+        }
+    }
+
+    /**
+     * Skip the value the current token starts. Strings inside it are checked but not built.
+     * @throws JsonParseException if the json is not valid
+     */
+    public void skipValue() throws JsonParseException {
+        if (token != Token.START_OBJECT && token != Token.START_ARRAY) {
+            return;
+        }
+        int target = depth - 1;
+        skipping = true;
+        try {
+            while (depth > target) {
+                next();
+            }
+        }
+        finally {
+            skipping = false;
+        }
+    }
+
+    private Token nextKey(boolean first) throws JsonParseException {
+        int c = nextToken();
+        switch (c) {
+            case 0:
+                throw new JsonParseException("Text must end with '}'");
+            case '}':
+                depth--;
+                return Token.END_OBJECT;
+            case '{':
+            case '[':
+                if (first) {
+                    throw new JsonParseException("Cannot directly nest another Object or Array.");
+                }
+                // fall through
+            default:
+                // whatever starts the key is taken to be its quote, all of it if it is multibyte
+                while (c > 127 && idx < len && (json[idx] & 0xC0) == 0x80) {
+                    idx++;
+                }
+                string = nextString();
+                stack[depth - 1] = OBJECT_COLON;
+                return Token.FIELD_NAME;
+        }
+    }
+
+    private Token nextValue() throws JsonParseException {
+        int c = peekToken();
+        if (c == 0) {
+            throw new JsonParseException("Unexpected end of data.");
+        }
+        if (c == '"') {
+            nextToken();
+            string = nextString();
+            return Token.STRING;
+        }
+        if (c == '{') {
+            nextToken();
+            push(OBJECT_FIRST);
+            return Token.START_OBJECT;
+        }
+        if (c == '[') {
+            nextToken();
+            push(ARRAY);
+            return Token.START_ARRAY;
+        }
+        return nextPrimitiveValue();
+    }
+
+    private void push(byte state) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = state;
+    }
+
+    private Token nextPrimitiveValue() throws JsonParseException {
+        // like the char parser, whitespace inside the value is dropped
+        int start = peekIndex();
+        int end = start;
+        StringBuilder spaced = null;
+        while (true) {
+            int at = peekIndex();
+            int c = at == len ? 0 : json[at] & 0xFF;
+            if (c < ' ' || PRIMITIVE_STOP.indexOf(c) >= 0) {
+                break;
+            }
+            if (at != end) {
+                if (spaced == null) {
+                    spaced = new StringBuilder();
+                }
+                spaced.append(new String(json, start, end - start, UTF_8));
+                start = at;
+            }
+            idx = at + 1;
+            end = idx;
+        }
+        String text = new String(json, start, end - start, UTF_8);
+        if (spaced != null) {
+            text = spaced.append(text).toString();
+        }
+
+        if ("true".equalsIgnoreCase(text)) {
+            return Token.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text)) {
+            return Token.FALSE;
+        }
+        if ("null".equalsIgnoreCase(text)) {
+            return Token.NULL;
+        }
+        if (!isPlainInteger(text)) {
+            // anything but a plain integer is checked now, the same as the char parser
+            try {
+                number = JsonParser.asNumber(text);
+            }
+            catch (Exception e) {
+                throw new JsonParseException("Invalid value.");
+            }
+        }
+        string = text;
+        return Token.NUMBER;
+    }
+
+    private static boolean isPlainInteger(String text) {
+        int n = text.length();
+        int x = n > 0 && text.charAt(0) == '-' ? 1 : 0;
+        if (x == n || n - x > 18 || (text.charAt(x) == '0' && n - x > 1)) {
+            return false;
+        }
+        for (; x < n; x++) {
+            char c = text.charAt(x);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return !text.equals("-0");
+    }
+
+    // index of the next byte that is not whitespace
+    private int peekIndex() {
+        int at = idx;
+        while (at < len) {
+            switch (json[at]) {
+                case ' ':
+                case '\r':
+                case '\n':
+                case '\t':
+                    at++;
+                    continue;
+            }
+            break;
+        }
+        return at;
+    }
+
+    private int peekToken() {
+        int at = peekIndex();
+        return at == len ? 0 : json[at] & 0xFF;
+    }
+
+    private int nextToken() {
+        int at = peekIndex();
+        if (at == len) {
+            idx = len;
+            return 0;
+        }
+        idx = at + 1;
+        return json[at] & 0xFF;
+    }
+
+    private int nextChar() {
+        return idx == len ? 0 : json[idx++] & 0xFF;
+    }
+
+    // next string assumes you have already seen the starting quote
+    private String nextString() throws JsonParseException {
+        // runs between escapes are decoded whole, the bytes of a multibyte character are never ascii
+        int start = idx;
+        boolean escaped = false;
+        if (sb != null) {
+            sb.setLength(0);
+        }
+        while (true) {
+            int c = nextChar();
+            switch (c) {
+                case 0:
+                case '\n':
+                case '\r':
+                    throw new JsonParseException("Unterminated string.");
+                case '"':
+                    if (skipping) {
+                        return null;
+                    }
+                    String run = new String(json, start, idx - 1 - start, UTF_8);
+                    return escaped ? sb.append(run).toString() : run;
+                case '\\':
+                    if (!skipping) {
+                        if (sb == null) {
+                            sb = new StringBuilder();
+                        }
+                        sb.append(new String(json, start, idx - 1 - start, UTF_8));
+                    }
+                    escaped = true;
+                    appendEscape(nextChar());
+                    start = idx;
+            }
+        }
+    }
+
+    private void appendEscape(int c) throws JsonParseException {
+        char ch;
+        switch (c) {
+            case 'b': ch = '\b'; break;
+            case 't': ch = '\t'; break;
+            case 'n': ch = '\n'; break;
+            case 'f': ch = '\f'; break;
+            case 'r': ch = '\r'; break;
+            case 'u':
+                char[] chars = parseU();
+                if (!skipping) {
+                    sb.append(chars);
+                }
+                return;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                ch = (char) c;
+                break;
+            default:
+                throw new JsonParseException("Illegal escape.");
+        }
+        if (!skipping) {
+            sb.append(ch);
+        }
+    }
+
+    private char[] parseU() throws JsonParseException {
+        // like the char parser, whitespace between the hex digits is skipped
+        // and the four characters are read like Integer.parseInt(s, 16) would
+        int code = 0;
+        boolean negative = false;
+        for (int x = 0; x < 4; x++) {
+            int c = nextToken();
+            if (x == 0 && (c == '+' || c == '-')) {
+                negative = c == '-';
+                continue;
+            }
+            int digit = c > 127 ? -1 : Character.digit(c, 16);
+            if (digit < 0) {
+                throw new JsonParseException("Illegal escape.");
+            }
+            code = code * 16 + digit;
+        }
+        if (negative && code != 0) {
+            throw new JsonParseException("Illegal escape.");
+        }
+        return Character.toChars(code);
+    }
+}
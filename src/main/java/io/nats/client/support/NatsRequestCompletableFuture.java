@@ -24,6 +24,7 @@ public class NatsRequestCompletableFuture extends CompletableFuture<Message> {
     private boolean wasCancelledClosing;
     private boolean wasCancelledTimedOut;
     private final boolean useTimeoutException;
+    private long startNanos;
 
     public NatsRequestCompletableFuture(CancelAction cancelAction, Duration timeout, boolean useTimeoutException) {
         this.cancelAction = cancelAction;
@@ -45,6 +46,20 @@ public class NatsRequestCompletableFuture extends CompletableFuture<Message> {
                 : new CancellationException(CANCEL_MESSAGE));
     }
 
+    /**
+     * Mark the time the request was sent, for latency tracking
+     */
+    public void markStart() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the request was sent, or 0 if it was not marked
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
     public CancelAction getCancelAction() {
         return cancelAction;
     }
@@ -15,8 +15,10 @@ package io.nats.client;
 
 import io.nats.client.ConnectionListener.Events;
 import io.nats.client.impl.*;
+import io.nats.client.support.DeflatePayloadCodec;
 import io.nats.client.support.HttpRequest;
 import io.nats.client.support.NatsUri;
+import io.nats.client.support.VirtualThreads;
 import io.nats.client.utils.CloseOnUpgradeAttempt;
 import io.nats.client.utils.CoverageServerPool;
 import io.nats.client.utils.ResourceUtils;
@@ -72,6 +74,17 @@ public class OptionsTests {
         assertFalse(o.isNoEcho(), "default noEcho");
         assertFalse(o.isNoHeaders(), "default header support");
         assertFalse(o.isNoNoResponders(), "default no responders support");
+        assertFalse(o.useMessageByteParser(), "default message byte parser");
+        assertFalse(o.useRingBufferOutgoingQueue(), "default ring buffer outgoing queue");
+        assertFalse(o.useGatheringWrites(), "default gathering writes");
+        assertFalse(o.useSharedIoLoop(), "default shared io loop");
+        assertFalse(o.useVirtualThreads(), "default virtual threads");
+        assertFalse(o.isTrackLatency(), "default track latency");
+        assertEquals(Duration.ZERO, o.getFlushCoalescingWindow(), "default flush coalescing window");
+        assertEquals(Options.DEFAULT_FLUSH_COALESCING_BYTES, o.getFlushCoalescingBytes(), "default flush coalescing bytes");
+        assertNull(o.getPayloadCodec(), "default payload codec");
+        assertEquals(Options.DEFAULT_PAYLOAD_CODEC_THRESHOLD, o.getPayloadCodecThreshold(), "default payload codec threshold");
+        assertEquals(Options.DEFAULT_PAYLOAD_CODEC_MAX_DECODED_SIZE, o.getPayloadCodecMaxDecodedSize(), "default payload codec max decoded size");
         assertEquals(Options.DEFAULT_DISCARD_MESSAGES_WHEN_OUTGOING_QUEUE_FULL, o.isDiscardMessagesWhenOutgoingQueueFull(),
             "default discard messages when outgoing queue full");
 
@@ -97,6 +110,7 @@ public class OptionsTests {
         assertInstanceOf(ErrorListenerLoggerImpl.class, o.getErrorListener(), "error listener");
         assertNull(o.getConnectionListener(), "disconnect listener");
         assertNull(o.getStatisticsCollector(), "statistics collector");
+        assertNull(o.getMetricsListener(), "metrics listener");
         assertFalse(o.isOldRequestStyle(), "default oldstyle");
     }
 
@@ -200,6 +214,7 @@ public class OptionsTests {
             .requestCleanupInterval(Duration.ofMillis(404))
             .reconnectJitter(Duration.ofMillis(505))
             .reconnectJitterTls(Duration.ofMillis(606))
+            .flushCoalescingWindow(Duration.ofMillis(1))
             .build();
         _testChainedDurationOptions(o);
         _testChainedDurationOptions(new Options.Builder(o).build());
@@ -213,6 +228,7 @@ public class OptionsTests {
         assertEquals(Duration.ofMillis(404), o.getRequestCleanupInterval(), "chained cleanup interval");
         assertEquals(Duration.ofMillis(505), o.getReconnectJitter(), "chained reconnect jitter");
         assertEquals(Duration.ofMillis(606), o.getReconnectJitterTls(), "chained cleanup jitter tls");
+        assertEquals(Duration.ofMillis(1), o.getFlushCoalescingWindow(), "chained flush coalescing window");
     }
 
     @Test
@@ -276,6 +292,29 @@ public class OptionsTests {
         assertSame(cHandler, o.getStatisticsCollector(), "chained statistics collector");
     }
 
+    @Test
+    public void testChainedMetricsListener() {
+        MetricsListener listener = new TestMetricsListener();
+        Options o = new Options.Builder().metricsListener(listener).build();
+        assertSame(listener, o.getMetricsListener(), "chained metrics listener");
+        assertSame(listener, new Options.Builder(o).build().getMetricsListener(), "copied metrics listener");
+    }
+
+    @Test
+    public void testChainedPayloadCodec() {
+        PayloadCodec codec = new DeflatePayloadCodec();
+        Options o = new Options.Builder().payloadCodec(codec).payloadCodecThreshold(64).payloadCodecMaxDecodedSize(1024).build();
+        assertSame(codec, o.getPayloadCodec(), "chained payload codec");
+        assertEquals(64, o.getPayloadCodecThreshold(), "chained payload codec threshold");
+        assertEquals(1024, o.getPayloadCodecMaxDecodedSize(), "chained payload codec max decoded size");
+        o = new Options.Builder(o).build();
+        assertSame(codec, o.getPayloadCodec(), "copied payload codec");
+        assertEquals(64, o.getPayloadCodecThreshold(), "copied payload codec threshold");
+        assertEquals(1024, o.getPayloadCodecMaxDecodedSize(), "copied payload codec max decoded size");
+        assertEquals(0, new Options.Builder().payloadCodecThreshold(-1).build().getPayloadCodecThreshold());
+        assertEquals(Options.DEFAULT_PAYLOAD_CODEC_MAX_DECODED_SIZE, new Options.Builder().payloadCodecMaxDecodedSize(0).build().getPayloadCodecMaxDecodedSize());
+    }
+
     @Test
     public void testDurationProperties() {
         // test millis
@@ -538,6 +577,14 @@ public class OptionsTests {
         props.setProperty(Options.PROP_IGNORE_DISCOVERED_SERVERS, "true");
         props.setProperty(Options.PROP_NO_RESOLVE_HOSTNAMES, "true");
         props.setProperty(PROP_FORCE_FLUSH_ON_REQUEST, "false");
+        props.setProperty(Options.PROP_USE_MESSAGE_BYTE_PARSER, "true");
+        props.setProperty(Options.PROP_USE_RING_BUFFER_OUTGOING_QUEUE, "true");
+        props.setProperty(Options.PROP_USE_GATHERING_WRITES, "true");
+        props.setProperty(Options.PROP_USE_SHARED_IO_LOOP, "true");
+        props.setProperty(Options.PROP_USE_VIRTUAL_THREADS, "true");
+        props.setProperty(Options.PROP_TRACK_LATENCY, "true");
+        props.setProperty(Options.PROP_FLUSH_COALESCING_WINDOW, "PT0.0002S");
+        props.setProperty(Options.PROP_FLUSH_COALESCING_BYTES, "4096");
 
         Options o = new Options.Builder(props).build();
         _testPropertiesCoverageOptions(o);
@@ -552,6 +599,14 @@ public class OptionsTests {
         assertTrue(o.isIgnoreDiscoveredServers());
         assertTrue(o.isNoResolveHostnames());
         assertFalse(o.forceFlushOnRequest());
+        assertTrue(o.useMessageByteParser());
+        assertTrue(o.useRingBufferOutgoingQueue());
+        assertTrue(o.useGatheringWrites());
+        assertTrue(o.useSharedIoLoop());
+        assertTrue(o.useVirtualThreads());
+        assertTrue(o.isTrackLatency());
+        assertEquals(Duration.ofNanos(200_000), o.getFlushCoalescingWindow());
+        assertEquals(4096, o.getFlushCoalescingBytes());
     }
 
     @Test
@@ -672,6 +727,28 @@ public class OptionsTests {
         assertEquals(o.getStatisticsCollector().getOutMsgs(), 1, "property statistics collector class");
     }
 
+    @Test
+    public void testPropertyMetricsListener() {
+        Properties props = new Properties();
+        props.setProperty(Options.PROP_METRICS_LISTENER, TestMetricsListener.class.getCanonicalName());
+
+        Options o = new Options.Builder(props).build();
+        assertInstanceOf(TestMetricsListener.class, o.getMetricsListener(), "property metrics listener");
+    }
+
+    @Test
+    public void testPropertyPayloadCodec() {
+        Properties props = new Properties();
+        props.setProperty(Options.PROP_PAYLOAD_CODEC, DeflatePayloadCodec.class.getCanonicalName());
+        props.setProperty(Options.PROP_PAYLOAD_CODEC_THRESHOLD, "256");
+        props.setProperty(Options.PROP_PAYLOAD_CODEC_MAX_DECODED_SIZE, "65536");
+
+        Options o = new Options.Builder(props).build();
+        assertInstanceOf(DeflatePayloadCodec.class, o.getPayloadCodec(), "property payload codec");
+        assertEquals(256, o.getPayloadCodecThreshold(), "property payload codec threshold");
+        assertEquals(65536, o.getPayloadCodecMaxDecodedSize(), "property payload codec max decoded size");
+    }
+
     @Test
     public void testChainOverridesProperties() {
         Properties props = new Properties();
@@ -937,6 +1014,15 @@ public class OptionsTests {
         });
     }
 
+    @Test
+    public void testBadClassInPropertyMetricsListener() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            Properties props = new Properties();
+            props.setProperty(Options.PROP_METRICS_LISTENER, "foo");
+            new Options.Builder(props);
+        });
+    }
+
     @Test
     public void testTokenAndUserThrows() {
         assertThrows(IllegalStateException.class,
@@ -1001,6 +1087,27 @@ public class OptionsTests {
         connectFuture.get(5, TimeUnit.SECONDS);
     }
 
+    @Test
+    public void testVirtualThreadExecutors() throws Exception {
+        Options options = new Options.Builder().connectionName("vt").useVirtualThreads().build();
+        Future<Thread> future = options.getExecutor().submit(Thread::currentThread);
+        Thread t = future.get(5, TimeUnit.SECONDS);
+        assertTrue(t.getName().startsWith("vt"));
+        assertEquals(VirtualThreads.isAvailable(), VirtualThreads.isVirtual(t));
+
+        future = options.getCallbackExecutor().submit(Thread::currentThread);
+        assertEquals(VirtualThreads.isAvailable(), VirtualThreads.isVirtual(future.get(5, TimeUnit.SECONDS)));
+
+        future = options.getConnectExecutor().submit(Thread::currentThread);
+        assertEquals(VirtualThreads.isAvailable(), VirtualThreads.isVirtual(future.get(5, TimeUnit.SECONDS)));
+
+        // a factory from the application always wins
+        ThreadFactory threadFactory = r -> new Thread(r, "test");
+        options = new Options.Builder().useVirtualThreads().callbackThreadFactory(threadFactory).build();
+        future = options.getCallbackExecutor().submit(Thread::currentThread);
+        assertFalse(VirtualThreads.isVirtual(future.get(5, TimeUnit.SECONDS)));
+    }
+
     String[] schemes = new String[]   { "NATS", "unk",  "tls",  "opentls",  "ws",   "wss", "nats"};
     boolean[] secures = new boolean[] { false,  false,  true,   true,       false,  true,  false};
     boolean[] wses = new boolean[]    { false,  false,  false,  false,      true,   true,  false};
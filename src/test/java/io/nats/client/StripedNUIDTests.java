@@ -0,0 +1,154 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client;
+
+import io.nats.client.support.ByteArrayBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedNUIDTests {
+    @Test
+    public void testStripeCount() {
+        assertEquals(1, new StripedNUID(0).getStripeCount());
+        assertEquals(1, new StripedNUID(1).getStripeCount());
+        assertEquals(4, new StripedNUID(3).getStripeCount());
+        assertEquals(16, new StripedNUID(16).getStripeCount());
+        assertEquals(StripedNUID.MAX_STRIPES, new StripedNUID(1000).getStripeCount());
+    }
+
+    @Test
+    public void testFormat() {
+        StripedNUID nuid = new StripedNUID();
+        String s = nuid.next();
+        assertEquals(StripedNUID.LENGTH, s.length());
+        assertEquals(NUID.totalLen, s.length());
+        for (char c : s.toCharArray()) {
+            assertTrue(new String(NUID.digits).indexOf(c) >= 0, s);
+        }
+        assertEquals(StripedNUID.LENGTH, StripedNUID.nextGlobal().length());
+    }
+
+    @Test
+    public void testWriteIntoBytes() {
+        StripedNUID nuid = new StripedNUID(1);
+        byte[] dest = new byte[StripedNUID.LENGTH + 10];
+        dest[4] = 'x';
+        dest[dest.length - 1] = 'y';
+        assertEquals(StripedNUID.LENGTH, nuid.next(dest, 5));
+        assertEquals('x', dest[4]);
+        assertEquals('y', dest[dest.length - 1]);
+        String first = new String(dest, 5, StripedNUID.LENGTH, US_ASCII);
+
+        // same stripe, same prefix, next sequence
+        String second = nuid.next();
+        assertEquals(first.substring(0, NUID.preLen), second.substring(0, NUID.preLen));
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void testAppendToBuilder() {
+        StripedNUID nuid = new StripedNUID(1);
+        ByteArrayBuilder bab = new ByteArrayBuilder(4).append("_INBOX.");
+        nuid.next(bab);
+        assertEquals(7 + StripedNUID.LENGTH, bab.length());
+        String s = bab.toString();
+        assertTrue(s.startsWith("_INBOX."));
+        assertEquals(s.substring(7, 7 + NUID.preLen), nuid.next().substring(0, NUID.preLen));
+    }
+
+    @Test
+    public void testSequenceMatchesNuidEncoding() {
+        StripedNUID nuid = new StripedNUID(1);
+        StripedNUID.Block block = nuid.getBlock(0);
+        long seq = 1234567890123L;
+        block.seq.set(seq - block.inc);
+
+        // the same encoding NUID uses for its sequence
+        char[] b = new char[NUID.seqLen];
+        int ix = NUID.seqLen;
+        for (long l = seq; ix > 0; l /= NUID.base) {
+            b[--ix] = NUID.digits[(int) (l % NUID.base)];
+        }
+        assertEquals(new String(b), nuid.next().substring(NUID.preLen));
+    }
+
+    @Test
+    public void testRollover() {
+        StripedNUID nuid = new StripedNUID(1);
+        StripedNUID.Block block = nuid.getBlock(0);
+        block.seq.set(NUID.maxSeq);
+        String s = nuid.next();
+        StripedNUID.Block fresh = nuid.getBlock(0);
+        assertNotSame(block, fresh);
+        assertTrue(fresh.seq.get() < NUID.maxSeq);
+        assertEquals(new String(fresh.pre, US_ASCII), s.substring(0, NUID.preLen));
+    }
+
+    @Test
+    public void testNoCollisionsAcrossThreads() throws InterruptedException {
+        StripedNUID nuid = new StripedNUID(4);
+        int threads = 64;
+        int perThread = 2000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            service.submit(() -> {
+                byte[] dest = new byte[StripedNUID.LENGTH];
+                for (int i = 0; i < perThread; i++) {
+                    if (i % 2 == 0) {
+                        ids.add(nuid.next());
+                    }
+                    else {
+                        nuid.next(dest, 0);
+                        ids.add(new String(dest, US_ASCII));
+                    }
+                }
+            });
+        }
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    public void testNoCollisionsDuringRollover() throws InterruptedException {
+        StripedNUID nuid = new StripedNUID(1);
+        StripedNUID.Block block = nuid.getBlock(0);
+        // put the sequence a few increments short of running out, so the threads race the rollover
+        block.seq.set(NUID.maxSeq - (block.inc * 50));
+        int threads = 16;
+        int perThread = 200;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            service.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(nuid.next());
+                }
+            });
+        }
+        service.shutdown();
+        assertTrue(service.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(threads * perThread, ids.size());
+        assertNotSame(block, nuid.getBlock(0));
+    }
+}
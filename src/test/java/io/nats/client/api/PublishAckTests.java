@@ -17,6 +17,7 @@ import io.nats.client.JetStreamApiException;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import static io.nats.client.utils.TestBase.getDataMessage;
 import static org.junit.jupiter.api.Assertions.*;
@@ -86,4 +87,58 @@ public class PublishAckTests {
             () -> new PublishAck(getDataMessage("{\"seq\":1}")));
         assertEquals("Invalid JetStream ack.", ioe.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testScannedAckMatchesParsedAck() throws Exception {
+        String[] jsons = {
+            "{\"stream\":\"test-stream\",\"seq\":42}",
+            "{\"stream\":\"test-stream\",\"seq\":42,\"domain\":\"test-domain\",\"duplicate\":true}",
+            "{\"seq\":0,\"duplicate\":false,\"stream\":\"test-stream\"}",
+            "{\"stream\":\"test-stream\",\"seq\":9007199254740993}",
+        };
+        for (String json : jsons) {
+            PublishAck scanned = PublishAck.scan(json.getBytes(StandardCharsets.UTF_8));
+            assertNotNull(scanned, json);
+            PublishAck parsed = new PublishAck(getDataMessage(json));
+            assertEquals(parsed.getStream(), scanned.getStream());
+            assertEquals(parsed.getSeqno(), scanned.getSeqno());
+            assertEquals(parsed.getDomain(), scanned.getDomain());
+            assertEquals(parsed.isDuplicate(), scanned.isDuplicate());
+            assertFalse(scanned.hasError());
+            assertEquals(ApiResponse.NO_TYPE, scanned.getType());
+            if (!json.contains("false")) { // the scanned tree only has what the server would send
+                assertEquals(parsed.getJv().map.keySet(), scanned.getJv().map.keySet());
+                assertEquals(parsed.toString().length(), scanned.toString().length());
+            }
+        }
+    }
+
+    @Test
+    public void testUnusualAcksAreParsed() throws Exception {
+        String[] jsons = {
+            "{\"stream\":\"test-stream\",\"seq\":42,\"domain\":\"test-domain\", \"duplicate\" : true }",
+            "{\"stream\":\"test\\\"stream\",\"seq\":42}",
+            "{\"stream\":\"test-stream\",\"seq\":42,\"other\":1}",
+            "{\"stream\":\"test-stream\",\"seq\":42,}",
+            "{\"stream\":\"test-stream\",\"seq\":-1}",
+            "{\"stream\":\"test-stream\",\"seq\":1,\"duplicate\":yes}",
+            "{\"stream\":\"no sequence\"}",
+            "{\"stream\":\"test-stream\"",
+            "{}",
+            "notjson",
+            "",
+        };
+        for (String json : jsons) {
+            assertNull(PublishAck.scan(json.getBytes(StandardCharsets.UTF_8)), json);
+        }
+        assertNull(PublishAck.scan(null));
+
+        PublishAck ack = PublishAck.fromMessage(getDataMessage(jsons[1]));
+        assertEquals("test\"stream", ack.getStream());
+
+        assertThrows(JetStreamApiException.class, () -> PublishAck.fromMessage(getDataMessage(
+            "{\"error\":{\"code\":400,\"err_code\":10060,\"description\":\"expected stream does not match\"}}")));
+        IOException ioe = assertThrows(IOException.class, () -> PublishAck.fromMessage(getDataMessage("{\"seq\":1}")));
+        assertEquals("Invalid JetStream ack.", ioe.getMessage());
+    }
+}
@@ -16,6 +16,7 @@ package io.nats.client.impl;
 import io.nats.client.*;
 import io.nats.client.api.*;
 import io.nats.client.support.DateTimeUtils;
+import io.nats.client.support.DeflatePayloadCodec;
 import io.nats.client.utils.TestBase;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
@@ -1634,4 +1635,32 @@ public class JetStreamManagementTests extends JetStreamTestBase {
             .build());
         return consumer;
     }
+
+    @Test
+    public void testGetMessagePayloadCodec() throws Exception {
+        Options.Builder builder = Options.builder().payloadCodec(new DeflatePayloadCodec()).payloadCodecThreshold(100);
+        jsServer.run(builder, null, nc -> {
+            // without direct get, the stored body comes back inside the json
+            JetStreamManagement jsm = nc.jetStreamManagement();
+            TestingStreamContainer tsc = new TestingStreamContainer(jsm);
+            byte[] big = PayloadCodecTests.payload(5000);
+            PublishAck pa = nc.jetStream().publish(tsc.subject(), new Headers().add("key", "value"), big);
+
+            MessageInfo mi = jsm.getMessage(tsc.stream, pa.getSeqno());
+            assertArrayEquals(big, mi.getData());
+            assertEquals(tsc.subject(), mi.getSubject());
+            assertEquals(pa.getSeqno(), mi.getSeq());
+            assertEquals(tsc.stream, mi.getStream());
+            assertNotNull(mi.getTime());
+            assertEquals("value", mi.getHeaders().getFirst("key"));
+            assertFalse(mi.getHeaders().containsKey(PayloadCodec.ENCODING_HEADER));
+
+            // what the server stores
+            try (Connection raw = Nats.connect(Options.builder().server(nc.getConnectedUrl()).build())) {
+                mi = raw.jetStreamManagement().getMessage(tsc.stream, pa.getSeqno());
+                assertEquals("deflate", mi.getHeaders().getFirst(PayloadCodec.ENCODING_HEADER));
+                assertTrue(mi.getData().length < big.length / 10);
+            }
+        });
+    }
 }
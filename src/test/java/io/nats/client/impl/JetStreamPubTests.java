@@ -24,6 +24,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -433,4 +434,125 @@ public class JetStreamPubTests extends JetStreamTestBase {
             }
         }
     }
+
+    @Test
+    public void testPublisher() throws Exception {
+        jsServer.run(nc -> {
+            TestingStreamContainer tsc = new TestingStreamContainer(nc);
+            JetStream js = nc.jetStream();
+
+            // acks
+            JetStreamPublisher publisher = js.publisher(JetStreamPublisherOptions.builder().maxInFlight(10).build());
+            List<CompletableFuture<PublishAck>> futures = new ArrayList<>();
+            for (int x = 1; x <= 100; x++) {
+                futures.add(publisher.publishAsync(tsc.subject(), dataBytes(x)));
+            }
+            assertTrue(publisher.waitForAcks(Duration.ofSeconds(10)));
+            for (int x = 0; x < futures.size(); x++) {
+                assertPublishAck(futures.get(x).get(1, TimeUnit.SECONDS), tsc.stream, x + 1);
+            }
+            assertTrue(publisher.getPeakInFlight() <= 10);
+            assertEquals(0, publisher.getInFlight());
+
+            // errors are not retried
+            JetStreamPublisher retrying = js.publisher(JetStreamPublisherOptions.builder()
+                .maxRetries(2).retryWait(Duration.ofMillis(10)).build());
+            PublishOptions po = PublishOptions.builder().expectedStream(stream(999)).build();
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> retrying.publishAsync(tsc.subject(), null, dataBytes(999), po).get(5, TimeUnit.SECONDS));
+            assertEquals(10060, ((JetStreamApiException) e.getCause()).getApiErrorCode());
+
+            PublishOptions poStream = PublishOptions.builder().stream(stream(999)).build();
+            e = assertThrows(ExecutionException.class,
+                () -> retrying.publishAsync(tsc.subject(), null, dataBytes(999), poStream).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, e.getCause());
+            assertEquals(0, retrying.getRetryCount());
+
+            // no stream, 503 no responders, retried then failed
+            String noStream = subject(999);
+            e = assertThrows(ExecutionException.class,
+                () -> retrying.publishAsync(noStream, dataBytes(999)).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, e.getCause());
+            assertTrue(e.getCause().getMessage().contains("503"));
+            assertEquals(2, retrying.getRetryCount());
+            assertEquals(0, retrying.getInFlight());
+        });
+    }
+
+    @Test
+    public void testPublisherRetries() throws Exception {
+        jsServer.run(nc -> {
+            // the stream is created while the publish waits to retry
+            String stream = stream();
+            String subject = subject();
+            JetStreamPublisher publisher = nc.jetStream().publisher(JetStreamPublisherOptions.builder()
+                .maxRetries(1).retryWait(Duration.ofMillis(500)).build());
+            CompletableFuture<PublishAck> future = publisher.publishAsync(subject, dataBytes(1));
+            createMemoryStream(nc, stream, subject);
+            assertPublishAck(future.get(5, TimeUnit.SECONDS), stream, 1);
+            assertEquals(1, publisher.getRetryCount());
+
+            // something gets the publish but never acks, so each attempt times out
+            String silent = subject();
+            AtomicInteger attempts = new AtomicInteger();
+            nc.createDispatcher(m -> attempts.incrementAndGet()).subscribe(silent);
+            JetStream js = nc.jetStream(JetStreamOptions.builder().requestTimeout(Duration.ofMillis(200)).build());
+            JetStreamPublisher timingOut = js.publisher(JetStreamPublisherOptions.builder()
+                .maxRetries(1).retryWait(Duration.ofMillis(10)).build());
+            CompletableFuture<PublishAck> timesOut = timingOut.publishAsync(silent, dataBytes(2));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> timesOut.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof CancellationException || e.getCause() instanceof TimeoutException);
+            assertEquals(2, attempts.get());
+            assertEquals(1, timingOut.getRetryCount());
+            assertEquals(0, timingOut.getInFlight());
+        });
+    }
+
+    @Test
+    public void testPublishAckTracker() throws Exception {
+        jsServer.run(nc -> {
+            TestingStreamContainer tsc = new TestingStreamContainer(nc);
+            PublishAckTrackerTests.CollectingListener listener = new PublishAckTrackerTests.CollectingListener();
+            JetStream js = nc.jetStream(JetStreamOptions.builder().requestTimeout(Duration.ofMillis(500)).build());
+            try (PublishAckTracker tracker = js.publishAckTracker(128, listener)) {
+                // acks
+                List<Long> ids = new ArrayList<>();
+                for (int x = 1; x <= 100; x++) {
+                    ids.add(tracker.publish(tsc.subject(), dataBytes(x)));
+                }
+                listener.await(100);
+                for (int x = 0; x < ids.size(); x++) {
+                    assertEquals(Long.valueOf(x + 1), listener.acked.get(ids.get(x)));
+                }
+
+                // duplicate
+                PublishOptions msgId = PublishOptions.builder().messageId(messageId(1)).build();
+                long first = tracker.publish(tsc.subject(), null, dataBytes(1), msgId);
+                listener.await(1);
+                long dupe = tracker.publish(tsc.subject(), null, dataBytes(1), msgId);
+                listener.await(1);
+                assertEquals(listener.acked.get(first), listener.acked.get(dupe));
+                assertTrue(listener.duplicates.contains(dupe));
+
+                // errors
+                long expected = tracker.publish(tsc.subject(), null, dataBytes(999),
+                    PublishOptions.builder().expectedStream(stream(999)).build());
+                long mismatch = tracker.publish(tsc.subject(), null, dataBytes(999),
+                    PublishOptions.builder().stream(stream(999)).build());
+                long noStream = tracker.publish(subject(999), dataBytes(999));
+                listener.await(3);
+                assertEquals(10060, ((JetStreamApiException) listener.failed.get(expected)).getApiErrorCode());
+                assertInstanceOf(IOException.class, listener.failed.get(mismatch));
+                assertTrue(listener.failed.get(noStream).getMessage().contains("503"));
+
+                // something gets the publish but never acks
+                String silent = subject();
+                nc.subscribe(silent);
+                long timesOut = tracker.publish(silent, dataBytes(999));
+                listener.await(1);
+                assertInstanceOf(TimeoutException.class, listener.failed.get(timesOut));
+                assertEquals(0, tracker.getPending());
+            }
+        });
+    }
 }
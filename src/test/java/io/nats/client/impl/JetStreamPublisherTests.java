@@ -0,0 +1,278 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import io.nats.client.api.PublishAck;
+import io.nats.client.support.NatsRequestCompletableFuture;
+import io.nats.client.support.Status;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.nats.client.support.NatsRequestCompletableFuture.CancelAction;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JetStreamPublisherTests {
+
+    /**
+     * Stands in for a stream on a plain server. Publishes are acked when the test says so,
+     * which lets a test hold acks back, lose them or let them time out.
+     */
+    static class FakeStream implements AutoCloseable {
+        final Connection nc;
+        final BlockingQueue<Message> held = new LinkedBlockingQueue<>();
+        final AtomicInteger received = new AtomicInteger();
+        final AtomicInteger seq = new AtomicInteger();
+        volatile boolean autoAck;
+        volatile boolean dropFirstAttempts;
+
+        FakeStream(NatsTestServer ts, String subject) throws Exception {
+            nc = Nats.connect(Options.builder().server(ts.getURI())
+                .requestCleanupInterval(Duration.ofMillis(50)).build());
+            nc.createDispatcher(m -> {
+                int count = received.incrementAndGet();
+                if (dropFirstAttempts && count % 2 == 1) {
+                    return; // every other publish is lost, so the retry is acked
+                }
+                if (autoAck) {
+                    ack(m);
+                }
+                else {
+                    held.add(m);
+                }
+            }).subscribe(subject);
+            nc.flush(Duration.ofSeconds(5));
+        }
+
+        void ack(Message m) {
+            nc.publish(m.getReplyTo(), ("{\"stream\":\"fake\",\"seq\":" + seq.incrementAndGet() + "}").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        void ackHeld(int count) throws InterruptedException {
+            for (int x = 0; x < count; x++) {
+                ack(held.poll(5, TimeUnit.SECONDS));
+            }
+        }
+
+        JetStream jetStream(Duration timeout) throws Exception {
+            return nc.jetStream(JetStreamOptions.builder().requestTimeout(timeout).build());
+        }
+
+        @Override
+        public void close() throws Exception {
+            nc.close();
+        }
+    }
+
+    static class CountingListener implements JetStreamPublisher.WindowListener {
+        final AtomicInteger full = new AtomicInteger();
+        final AtomicInteger available = new AtomicInteger();
+
+        @Override
+        public void windowFull(JetStreamPublisher publisher) {
+            full.incrementAndGet();
+        }
+
+        @Override
+        public void windowAvailable(JetStreamPublisher publisher) {
+            available.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testFullWindowFails() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             FakeStream stream = new FakeStream(ts, "window")) {
+            CountingListener listener = new CountingListener();
+            JetStreamPublisher p = stream.jetStream(Duration.ofSeconds(5)).publisher(JetStreamPublisherOptions.builder()
+                .maxInFlight(5).fullWindowAction(JetStreamPublisherOptions.FullWindowAction.FAIL)
+                .windowListener(listener).build());
+
+            List<CompletableFuture<PublishAck>> futures = new ArrayList<>();
+            for (int x = 0; x < 5; x++) {
+                futures.add(p.publishAsync("window", new byte[10]));
+            }
+            assertEquals(5, p.getInFlight());
+            assertEquals(50, p.getInFlightBytes());
+            assertThrows(IllegalStateException.class, () -> p.publishAsync("window", new byte[10]));
+            assertEquals(1, p.getWindowFullCount());
+            assertEquals(1, listener.full.get());
+            assertFalse(p.waitForAcks(Duration.ofMillis(50)));
+
+            stream.ackHeld(5);
+            for (int x = 0; x < 5; x++) {
+                assertEquals(x + 1, futures.get(x).get(5, TimeUnit.SECONDS).getSeqno());
+            }
+            assertTrue(p.waitForAcks(Duration.ofSeconds(5)));
+            assertEquals(0, p.getInFlight());
+            assertEquals(0, p.getInFlightBytes());
+            assertEquals(5, p.getPeakInFlight());
+            assertEquals(1, listener.available.get());
+        }
+    }
+
+    @Test
+    public void testFullWindowBlocks() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             FakeStream stream = new FakeStream(ts, "window")) {
+            JetStream js = stream.jetStream(Duration.ofSeconds(5));
+            JetStreamPublisher p = js.publisher(JetStreamPublisherOptions.builder().maxInFlight(2).build());
+
+            p.publishAsync("window", null);
+            p.publishAsync("window", null);
+            CompletableFuture<CompletableFuture<PublishAck>> third = CompletableFuture.supplyAsync(() -> p.publishAsync("window", null));
+            assertThrows(TimeoutException.class, () -> third.get(100, TimeUnit.MILLISECONDS));
+
+            stream.ackHeld(1);
+            CompletableFuture<PublishAck> thirdAck = third.get(5, TimeUnit.SECONDS);
+            stream.ackHeld(2);
+            assertNotNull(thirdAck.get(5, TimeUnit.SECONDS));
+            assertTrue(p.waitForAcks(Duration.ofSeconds(5)));
+
+            JetStreamPublisher quick = js.publisher(JetStreamPublisherOptions.builder()
+                .maxInFlight(1).maxBlock(Duration.ofMillis(50)).build());
+            quick.publishAsync("window", null);
+            assertThrows(IllegalStateException.class, () -> quick.publishAsync("window", null));
+            stream.ackHeld(1);
+            assertTrue(quick.waitForAcks(Duration.ofSeconds(5)));
+        }
+    }
+
+    @Test
+    public void testByteWindow() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             FakeStream stream = new FakeStream(ts, "window")) {
+            JetStreamPublisher p = stream.jetStream(Duration.ofSeconds(5)).publisher(JetStreamPublisherOptions.builder()
+                .maxInFlightBytes(100).fullWindowAction(JetStreamPublisherOptions.FullWindowAction.FAIL).build());
+
+            // bigger than the window, but nothing else is waiting
+            p.publishAsync("window", new byte[500]);
+            assertThrows(IllegalStateException.class, () -> p.publishAsync("window", new byte[1]));
+            stream.ackHeld(1);
+            assertTrue(p.waitForAcks(Duration.ofSeconds(5)));
+
+            p.publishAsync("window", new byte[60]);
+            assertThrows(IllegalStateException.class, () -> p.publishAsync("window", new byte[60]));
+            p.publishAsync("window", new byte[40]);
+            assertEquals(100, p.getInFlightBytes());
+            stream.ackHeld(2);
+            assertTrue(p.waitForAcks(Duration.ofSeconds(5)));
+        }
+    }
+
+    @Test
+    public void testRetryAfterTimeout() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             FakeStream stream = new FakeStream(ts, "retry")) {
+            stream.autoAck = true;
+            stream.dropFirstAttempts = true;
+            JetStream js = stream.jetStream(Duration.ofMillis(200));
+
+            JetStreamPublisher retrying = js.publisher(JetStreamPublisherOptions.builder().maxRetries(1).build());
+            PublishAck ack = retrying.publishAsync("retry", null).get(5, TimeUnit.SECONDS);
+            assertEquals(1, ack.getSeqno());
+            assertEquals(1, retrying.getRetryCount());
+            assertEquals(0, retrying.getInFlight());
+
+            JetStreamPublisher notRetrying = js.publisher(null);
+            CompletableFuture<PublishAck> lost = notRetrying.publishAsync("retry", null);
+            assertThrows(ExecutionException.class, () -> lost.get(5, TimeUnit.SECONDS));
+            assertEquals(0, notRetrying.getRetryCount());
+            assertEquals(0, notRetrying.getInFlight());
+        }
+    }
+
+    @Test
+    public void testRetryWaits() throws Exception {
+        assertEquals(JetStreamPublisherOptions.DEFAULT_RETRY_WAIT, JetStreamPublisherOptions.builder().build().getRetryWait());
+        assertEquals(JetStreamPublisherOptions.DEFAULT_RETRY_WAIT, JetStreamPublisherOptions.builder().retryWait(Duration.ofMillis(-1)).build().getRetryWait());
+        assertEquals(Duration.ZERO, JetStreamPublisherOptions.builder().retryWait(Duration.ZERO).build().getRetryWait());
+
+        try (NatsTestServer ts = new NatsTestServer(false);
+             FakeStream stream = new FakeStream(ts, "retry")) {
+            stream.autoAck = true;
+            stream.dropFirstAttempts = true;
+            JetStreamPublisher p = stream.jetStream(Duration.ofMillis(200)).publisher(JetStreamPublisherOptions.builder()
+                .maxRetries(1).retryWait(Duration.ofMillis(500)).build());
+
+            long start = System.nanoTime();
+            assertEquals(1, p.publishAsync("retry", null).get(5, TimeUnit.SECONDS).getSeqno());
+            // the request timeout, then the retry wait
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(700));
+            assertEquals(2, stream.received.get());
+        }
+    }
+
+    @Test
+    public void testNoRetryOnceClosed() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             FakeStream stream = new FakeStream(ts, "retry")) {
+            JetStream js = stream.jetStream(Duration.ofMillis(200));
+            JetStreamPublisher p = js.publisher(JetStreamPublisherOptions.builder()
+                .maxRetries(5).retryWait(Duration.ofMillis(500)).build());
+
+            // closed while the request is waiting
+            CompletableFuture<PublishAck> waiting = p.publishAsync("retry", null);
+            assertNotNull(stream.held.poll(5, TimeUnit.SECONDS));
+            stream.nc.close();
+            ExecutionException e = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof CancellationException, e.getCause().toString());
+            assertEquals(0, p.getRetryCount());
+            assertEquals(0, p.getInFlight());
+        }
+
+        try (NatsTestServer ts = new NatsTestServer(false);
+             FakeStream stream = new FakeStream(ts, "retry")) {
+            JetStream js = stream.jetStream(Duration.ofMillis(200));
+            JetStreamPublisher p = js.publisher(JetStreamPublisherOptions.builder()
+                .maxRetries(5).retryWait(Duration.ofMillis(500)).build());
+
+            // closed while the retry is waiting
+            CompletableFuture<PublishAck> retrying = p.publishAsync("retry", null);
+            assertNotNull(stream.held.poll(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (p.getRetryCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, p.getRetryCount());
+            stream.nc.close();
+            assertThrows(ExecutionException.class, () -> retrying.get(5, TimeUnit.SECONDS));
+            assertEquals(1, p.getRetryCount());
+            assertEquals(1, stream.received.get());
+            assertEquals(0, p.getInFlight());
+        }
+    }
+
+    @Test
+    public void testIsRetryable() {
+        NatsRequestCompletableFuture timedOut = new NatsRequestCompletableFuture(CancelAction.COMPLETE, Duration.ZERO, false);
+        timedOut.cancelTimedOut();
+        NatsRequestCompletableFuture closing = new NatsRequestCompletableFuture(CancelAction.COMPLETE, Duration.ZERO, false);
+        closing.cancelClosing();
+        assertTrue(NatsJetStreamPublisher.isRetryable(timedOut, null, new CancellationException()));
+        assertFalse(NatsJetStreamPublisher.isRetryable(closing, null, new CancellationException()));
+        assertFalse(NatsJetStreamPublisher.isRetryable(null, null, new CancellationException()));
+        assertTrue(NatsJetStreamPublisher.isRetryable(null, null, new CompletionException(new TimeoutException())));
+        assertFalse(NatsJetStreamPublisher.isRetryable(null, null, new CompletionException(new IllegalStateException())));
+        assertTrue(NatsJetStreamPublisher.isRetryable(null, new StatusMessage(new Status(503, "No Responders")), null));
+        assertFalse(NatsJetStreamPublisher.isRetryable(null, new StatusMessage(new Status(408, "Request Timeout")), null));
+        assertFalse(NatsJetStreamPublisher.isRetryable(null, NatsMessage.builder().subject("ack").build(), null));
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Iterator;
 import java.util.List;
@@ -767,6 +768,12 @@ public class JetStreamPullTests extends JetStreamTestBase {
         assertEquals("g", pro.getGroup());
         assertEquals(1, pro.getMinPending());
         assertEquals(2, pro.getMinAckPending());
+
+        // the json is built once, each serialize gets its own copy of the bytes
+        assertSame(pro.toJson(), pro.toJson());
+        byte[] serialized = pro.serialize();
+        assertNotSame(serialized, pro.serialize());
+        assertArrayEquals(pro.toJson().getBytes(StandardCharsets.UTF_8), serialized);
     }
 
     interface ConflictSetup {
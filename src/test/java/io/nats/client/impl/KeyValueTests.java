@@ -14,6 +14,7 @@ package io.nats.client.impl;
 
 import io.nats.client.*;
 import io.nats.client.api.*;
+import io.nats.client.support.DeflatePayloadCodec;
 import io.nats.client.support.NatsKeyValueUtil;
 import io.nats.client.utils.TestBase;
 import org.junit.jupiter.api.Test;
@@ -1709,5 +1710,30 @@ public class KeyValueTests extends JetStreamTestBase {
             assertKeys(kv.keys(Arrays.asList("one", "two")), "one", "two");
         });
     }
-}
 
+    @Test
+    public void testPayloadCodec() throws Exception {
+        Options.Builder builder = Options.builder().payloadCodec(new DeflatePayloadCodec()).payloadCodecThreshold(100);
+        jsServer.run(builder, null, nc -> {
+            String bucket = bucket();
+            nc.keyValueManagement().create(KeyValueConfiguration.builder()
+                .name(bucket)
+                .storageType(StorageType.Memory)
+                .build());
+
+            KeyValue kv = nc.keyValue(bucket);
+            byte[] big = PayloadCodecTests.payload(5000);
+            kv.put("big", big);
+            kv.put("small", "small");
+            assertArrayEquals(big, kv.get("big").getValue());
+            assertEquals("small", kv.get("small").getValueAsString());
+
+            // what the server stores
+            try (Connection raw = Nats.connect(Options.builder().server(nc.getConnectedUrl()).build())) {
+                KeyValue rawKv = raw.keyValue(bucket);
+                assertTrue(rawKv.get("big").getValue().length < big.length / 10);
+                assertEquals("small", rawKv.get("small").getValueAsString());
+            }
+        });
+    }
+}
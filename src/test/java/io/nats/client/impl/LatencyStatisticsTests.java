@@ -0,0 +1,79 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyStatisticsTests {
+
+    @Test
+    public void testNotTrackedByDefault() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).build());
+            try {
+                assertNull(nc.getLatencyStatistics());
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testRequestDeliveryAndQueueLatency() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Options options = Options.builder().server(ts.getURI()).turnOnLatencyTracking().build();
+            Connection nc = Nats.connect(options);
+            try {
+                LatencyStatistics latency = nc.getLatencyStatistics();
+                assertNotNull(latency);
+
+                Dispatcher d = nc.createDispatcher(m -> nc.publish(m.getReplyTo(), m.getData()));
+                d.subscribe("service");
+                nc.flush(Duration.ofSeconds(5));
+
+                int count = 50;
+                for (int x = 0; x < count; x++) {
+                    Message reply = nc.request("service", new byte[] {(byte) x}).get(5, TimeUnit.SECONDS);
+                    assertEquals((byte) x, reply.getData()[0]);
+                }
+
+                assertEquals(count, latency.getRequestLatency().getCount());
+                assertTrue(latency.getRequestLatency().getMin() > 0);
+                assertTrue(latency.getRequestLatency().getValueAtPercentile(99) >= latency.getRequestLatency().getValueAtPercentile(50));
+
+                // the request and the reply both go through a dispatcher
+                assertTrue(latency.getDeliveryLatency().getCount() >= count * 2, latency.toString());
+
+                // publishes, subs, unsubs and pings all wait in the outgoing queue
+                assertTrue(latency.getOutgoingQueueLatency().getCount() >= count * 2, latency.toString());
+                assertEquals(0, latency.getPublishAckLatency().getCount());
+
+                assertTrue(latency.toString().contains("Request:"));
+                latency.reset();
+                assertEquals(0, latency.getRequestLatency().getCount());
+                assertEquals(0, latency.getDeliveryLatency().getCount());
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+}
@@ -88,6 +88,20 @@ public class ListRequestsTests extends JetStreamTestBase {
         assertEquals("stream-1", slr.getStreams().get(1).getConfiguration().getName());
     }
 
+    @Test
+    public void testNamesAreReadWithoutTheTree() throws Exception {
+        String json = "{\"type\":\"io.nats.jetstream.api.v1.stream_names_response\",\"total\":5,\"offset\":0,\"limit\":1024," +
+            "\"other\":{\"streams\":[\"nope\"]},\"streams\":[\"s1\",null,{\"not\":\"a name\"},\"s\\u0032\",[\"s3\"]]}";
+        StreamNamesReader snr = new StreamNamesReader();
+        snr.process(getDataMessage(json));
+        assertEquals(2, snr.getStrings().size());
+        assertEquals("s1", snr.getStrings().get(0));
+        assertEquals("s2", snr.getStrings().get(1));
+        assertFalse(snr.hasMore());
+
+        assertThrows(JetStreamApiException.class, () -> new StreamNamesReader().process(getDataMessage("{\"streams\":[\"s1\"")));
+    }
+
     static class TestListRequestEngine extends ListRequestEngine {
         public int getTotal() { return total; }
         public int getLimit() { return limit; }
@@ -0,0 +1,162 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Connection;
+import io.nats.client.Dispatcher;
+import io.nats.client.Nats;
+import io.nats.client.NatsTestServer;
+import io.nats.client.Options;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.nats.client.support.NatsConstants.EMPTY_BODY;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessagePoolTests {
+
+    @Test
+    public void testReuse() throws Exception {
+        MessagePool pool = new MessagePool(new MockNatsConnection(Options.builder().build()), false);
+
+        byte[] data = pool.acquireData(100);
+        assertEquals(100, data.length);
+        assertSame(EMPTY_BODY, pool.acquireData(0));
+
+        MessagePool.PooledMessage m = pool.acquireMessage(data);
+        assertTrue(m.isLeased());
+        assertSame(data, m.getData());
+        m.subject = "subject";
+        long lease = m.poolLease();
+        assertNotEquals(0, lease);
+
+        m.release();
+        assertFalse(m.isLeased());
+        assertNull(m.subject);
+        m.release(); // twice is fine
+
+        // exact size buffers come back, other sizes are new
+        assertNotSame(data, pool.acquireData(101));
+        byte[] again = pool.acquireData(100);
+        assertSame(data, again);
+
+        MessagePool.PooledMessage m2 = pool.acquireMessage(again);
+        assertSame(m, m2);
+
+        // the old lease can't release the message now that it's leased again
+        m2.releaseLease(lease);
+        assertTrue(m2.isLeased());
+        m2.releaseLease(m2.poolLease());
+        assertFalse(m2.isLeased());
+
+        // not pooled messages have no lease
+        NatsMessage plain = new IncomingMessage(new byte[1]);
+        assertEquals(0, plain.poolLease());
+        plain.release();
+    }
+
+    @Test
+    public void testLeakDetection() throws Exception {
+        MessagePool pool = new MessagePool(new MockNatsConnection(Options.builder().build()), true);
+
+        MessagePool.PooledMessage m = pool.acquireMessage(pool.acquireData(10));
+        m.release();
+        assertThrows(IllegalStateException.class, m::getData);
+
+        //noinspection UnusedAssignment
+        m = pool.acquireMessage(pool.acquireData(10));
+        m = null; // dropped without a release
+
+        for (int x = 0; x < 50 && pool.getLeakCount() == 0; x++) {
+            System.gc();
+            Thread.sleep(20);
+            pool.acquireMessage(pool.acquireData(10)).release();
+        }
+        assertEquals(1, pool.getLeakCount());
+    }
+
+    @Test
+    public void testDroppedMessagesAreReleased() throws Exception {
+        NatsConnection nc = new MockNatsConnection(Options.builder().build());
+        MessagePool pool = new MessagePool(nc, false);
+
+        // nobody is subscribed to the sid
+        MessagePool.PooledMessage noSub = pool.acquireMessage(pool.acquireData(10));
+        noSub.rawSid = 99;
+        nc.deliverMessage(noSub);
+        assertFalse(noSub.isLeased());
+
+        // still queued in a dispatcher when it stops
+        NatsDispatcher d = new NatsDispatcher(nc, m -> {});
+        MessagePool.PooledMessage queued = pool.acquireMessage(pool.acquireData(10));
+        NatsMessage plain = new IncomingMessage(new byte[10]);
+        d.getMessageQueue().push(queued);
+        d.getMessageQueue().push(plain);
+        d.stop(false);
+        assertFalse(queued.isLeased());
+        assertEquals(1, d.getMessageQueue().length());
+    }
+
+    @Test
+    public void testPooledSubscription() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).build());
+            try {
+                int count = 1000;
+                CountDownLatch latch = new CountDownLatch(count);
+                AtomicInteger bad = new AtomicInteger();
+                Set<byte[]> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+                Dispatcher d = nc.createDispatcher();
+                d.subscribePooled("frames", m -> {
+                    byte[] data = m.getData();
+                    if (data.length != 64 || data[0] != data[63]) {
+                        bad.incrementAndGet();
+                    }
+                    buffers.add(data);
+                    latch.countDown();
+                });
+                nc.flush(Duration.ofSeconds(5));
+
+                // in batches, so no more than a batch is ever in flight
+                int batch = 20;
+                for (int x = 0; x < count; x++) {
+                    byte[] frame = new byte[64];
+                    frame[0] = (byte) x;
+                    frame[63] = (byte) x;
+                    nc.publish("frames", frame);
+                    if ((x + 1) % batch == 0) {
+                        long expected = count - x - 1;
+                        for (int w = 0; w < 500 && latch.getCount() > expected; w++) {
+                            Thread.sleep(10);
+                        }
+                    }
+                }
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+                assertEquals(0, bad.get());
+                // the same few buffers are used over and over
+                assertTrue(buffers.size() <= batch * 2, "buffers " + buffers.size());
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+}
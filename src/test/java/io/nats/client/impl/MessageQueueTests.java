@@ -600,4 +600,335 @@ public class MessageQueueTests {
         assertTrue(q.push(msg2));
         assertFalse(q.push(msg3));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRingBufferRequiresBound() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferMessageQueue(0, false, REQUEST_CLEANUP_INTERVAL, null));
+        assertEquals(8, new RingBufferMessageQueue(5, false, REQUEST_CLEANUP_INTERVAL, null).capacity());
+    }
+
+    @Test
+    public void testRingBufferExceptionWhenQueueIsFull() {
+        MessageQueue q  = new RingBufferMessageQueue(2, false, Duration.ofMillis(100), null);
+        assertTrue(q.push(new ProtocolMessage(ONE)));
+        assertTrue(q.push(new ProtocolMessage(TWO)));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> q.push(new ProtocolMessage(THREE)));
+        assertEquals(OUTPUT_QUEUE_IS_FULL + "2", e.getMessage());
+
+        // internal messages also respect the limit
+        assertThrows(IllegalStateException.class, () -> q.push(new ProtocolMessage(THREE), true));
+    }
+
+    @Test
+    public void testRingBufferDiscardMessageWhenQueueFull() throws InterruptedException {
+        MessageQueue q  = new RingBufferMessageQueue(2, true, REQUEST_CLEANUP_INTERVAL, null);
+        assertTrue(q.push(new ProtocolMessage(ONE)));
+        assertTrue(q.push(new ProtocolMessage(TWO)));
+        assertFalse(q.push(new ProtocolMessage(THREE)));
+        assertEquals(2, q.length());
+
+        assertNotNull(q.popNow());
+        assertTrue(q.push(new ProtocolMessage(THREE)));
+        assertEquals(2, q.length());
+    }
+
+    @Test
+    public void testRingBufferAccumulateAndCounts() throws InterruptedException {
+        MessageQueue q = new RingBufferMessageQueue(16, false, REQUEST_CLEANUP_INTERVAL, null);
+        for (int x = 0; x < 10; x++) {
+            q.push(new ProtocolMessage(PING));
+        }
+        assertEquals(10, q.length());
+        assertEquals(60, q.sizeInBytes()); // PING + CRLF
+
+        NatsMessage msg = q.accumulate(1000, 4, null);
+        checkCount(msg, 4);
+        assertEquals(6, q.length());
+
+        msg = q.accumulate(19, 100, null); // 3 * 6 = 18 is the most that fits under 19
+        checkCount(msg, 3);
+
+        msg = q.accumulate(1000, 100, null);
+        checkCount(msg, 3);
+        assertEquals(0, q.length());
+        assertEquals(0, q.sizeInBytes());
+        assertNull(q.popNow());
+    }
+
+    @Test
+    public void testRingBufferPauseWakesAccumulate() throws InterruptedException {
+        MessageQueue q = new RingBufferMessageQueue(16, false, REQUEST_CLEANUP_INTERVAL, null);
+        Thread t = new Thread(() -> {try {Thread.sleep(100);}catch(Exception e){/**/} q.pause();});
+        t.start();
+        assertNull(q.accumulate(100, 100, Duration.ZERO));
+
+        q.push(new ProtocolMessage(PING));
+        assertNull(q.pop(Duration.ZERO)); // Haven't resumed yet
+        q.resume();
+        assertNotNull(q.popNow());
+    }
+
+    @Test
+    public void testRingBufferFilterAndDrainTo() throws InterruptedException {
+        MessageQueue q = new RingBufferMessageQueue(16, false, REQUEST_CLEANUP_INTERVAL, null);
+        q.push(new ProtocolMessage(ONE));
+        q.push(new ProtocolMessage(TWO));
+        q.push(new ProtocolMessage(THREE));
+        q.pause();
+        q.filter(m -> Arrays.equals(m.getProtocolBab().toByteArray(), TWO));
+        assertEquals(2, q.length());
+
+        MessageQueue target = new RingBufferMessageQueue(16, false, REQUEST_CLEANUP_INTERVAL, q);
+        assertEquals(0, q.length());
+        assertEquals(2, target.length());
+        assertArrayEquals(ONE, target.popNow().getProtocolBab().toByteArray());
+        assertArrayEquals(THREE, target.popNow().getProtocolBab().toByteArray());
+    }
+
+    @Test
+    public void testRingBufferMultipleWritersOneAccumulator() throws InterruptedException {
+        MessageQueue q = new RingBufferMessageQueue(64, false, REQUEST_CLEANUP_INTERVAL, null);
+        int threads = 8;
+        int msgPerThread = 5000;
+        int msgCount = threads * msgPerThread;
+        int[] lastSeen = new int[threads];
+        Arrays.fill(lastSeen, -1);
+
+        for (int i = 0; i < threads; i++) {
+            int id = i;
+            new Thread(() -> {
+                for (int j = 0; j < msgPerThread; j++) {
+                    q.push(new ProtocolMessage((id + " " + j).getBytes(StandardCharsets.US_ASCII)));
+                }
+            }).start();
+        }
+
+        int count = 0;
+        while (count < msgCount) {
+            NatsMessage msg = q.accumulate(5000, 100, Duration.ofSeconds(5));
+            assertNotNull(msg);
+            while (msg != null) {
+                String[] parts = new String(msg.getProtocolBab().toByteArray(), StandardCharsets.US_ASCII).split(" ");
+                int id = Integer.parseInt(parts[0]);
+                int seq = Integer.parseInt(parts[1]);
+                assertEquals(lastSeen[id] + 1, seq); // order per publisher is kept
+                lastSeen[id] = seq;
+                count++;
+                msg = msg.next;
+            }
+        }
+        assertEquals(0, q.length());
+        assertNull(q.popNow());
+    }
+
+    private static NatsMessage chain(int start, int count) {
+        NatsMessage first = null;
+        NatsMessage last = null;
+        for (int i = start; i < start + count; i++) {
+            NatsMessage msg = new ProtocolMessage(("" + i).getBytes(StandardCharsets.US_ASCII));
+            if (first == null) {
+                first = msg;
+            }
+            else {
+                last.next = msg;
+            }
+            last = msg;
+        }
+        return first;
+    }
+
+    private static long chainBytes(NatsMessage msg) {
+        long bytes = 0;
+        for (; msg != null; msg = msg.next) {
+            bytes += msg.getSizeInBytes();
+        }
+        return bytes;
+    }
+
+    private static int number(NatsMessage msg) {
+        return Integer.parseInt(new String(msg.getProtocolBab().toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testPushBatch() throws InterruptedException {
+        _testPushBatch(new MessageQueue(true, 16, false, REQUEST_CLEANUP_INTERVAL));
+        _testPushBatch(new RingBufferMessageQueue(16, false, REQUEST_CLEANUP_INTERVAL, null));
+    }
+
+    private static void _testPushBatch(MessageQueue q) throws InterruptedException {
+        q.push(new ProtocolMessage(ONE));
+        NatsMessage first = chain(0, 5);
+        long bytes = chainBytes(first);
+        assertNull(q.pushBatch(first, 5, bytes));
+        assertEquals(6, q.length());
+        assertEquals(bytes + ONE.length + 2, q.sizeInBytes());
+
+        assertArrayEquals(ONE, q.popNow().getProtocolBab().toByteArray());
+
+        // the batch links are cleared, so accumulate only returns what it asks for
+        NatsMessage msg = q.accumulate(1000, 3, null);
+        assertEquals(0, number(msg));
+        assertEquals(1, number(msg.next));
+        assertEquals(2, number(msg.next.next));
+        assertNull(msg.next.next.next);
+
+        msg = q.accumulate(1000, 10, null);
+        assertEquals(3, number(msg));
+        assertEquals(4, number(msg.next));
+        assertNull(msg.next.next);
+        assertEquals(0, q.length());
+        assertEquals(0, q.sizeInBytes());
+    }
+
+    @Test
+    public void testPushBatchDiscardWhenFull() {
+        _testPushBatchDiscardWhenFull(new MessageQueue(true, 4, true, REQUEST_CLEANUP_INTERVAL));
+        _testPushBatchDiscardWhenFull(new RingBufferMessageQueue(4, true, REQUEST_CLEANUP_INTERVAL, null));
+    }
+
+    private static void _testPushBatchDiscardWhenFull(MessageQueue q) {
+        NatsMessage half = chain(10, 2);
+        assertNull(q.pushBatch(half, 2, chainBytes(half)));
+
+        // there isn't room for all of it, so none of it goes in
+        NatsMessage first = chain(0, 3);
+        assertSame(first, q.pushBatch(first, 3, chainBytes(first)));
+        assertEquals(2, q.length());
+        assertEquals(2, number(first.next.next)); // still linked
+
+        first = chain(0, 2);
+        assertNull(q.pushBatch(first, 2, chainBytes(first)));
+        assertEquals(4, q.length());
+
+        // bigger than the queue can ever be
+        NatsMessage tooBig = chain(0, 5);
+        assertSame(tooBig, new RingBufferMessageQueue(4, true, REQUEST_CLEANUP_INTERVAL, null).pushBatch(tooBig, 5, chainBytes(tooBig)));
+    }
+
+    @Test
+    public void testPushBatchPartlyQueued() throws InterruptedException {
+        Duration shortTimeout = Duration.ofMillis(200);
+
+        // room for two, the rest of the batch is returned, still linked
+        MessageQueue q = new MessageQueue(true, 4, false, shortTimeout);
+        q.push(new ProtocolMessage(ONE));
+        q.push(new ProtocolMessage(ONE));
+        NatsMessage first = chain(0, 5);
+        long queuedBytes = chainBytes(first) - chainBytes(first.next.next);
+        NatsMessage rest = q.pushBatch(first, 5, chainBytes(first));
+        assertEquals(2, number(rest));
+        assertEquals(4, number(rest.next.next));
+        assertNull(rest.next.next.next);
+        assertEquals(4, q.length());
+        assertEquals(2 * (ONE.length + 2) + queuedBytes, q.sizeInBytes());
+
+        // none of it fits, which is the same as a single push
+        NatsMessage none = chain(0, 2);
+        assertThrows(IllegalStateException.class, () -> q.pushBatch(none, 2, chainBytes(none)));
+        assertEquals(4, q.length());
+
+        // the ring goes in pieces the size of the queue, the first piece stays queued
+        MessageQueue ring = new RingBufferMessageQueue(4, false, shortTimeout, null);
+        first = chain(0, 6);
+        queuedBytes = chainBytes(first) - chainBytes(first.next.next.next.next);
+        rest = ring.pushBatch(first, 6, chainBytes(first));
+        assertEquals(4, number(rest));
+        assertEquals(5, number(rest.next));
+        assertEquals(4, ring.length());
+        assertEquals(queuedBytes, ring.sizeInBytes());
+        NatsMessage ringNone = chain(0, 1);
+        assertThrows(IllegalStateException.class, () -> ring.pushBatch(ringNone, 1, chainBytes(ringNone)));
+
+        // interrupted before anything is queued
+        MessageQueue interrupted = new MessageQueue(true, 4, false, REQUEST_CLEANUP_INTERVAL);
+        first = chain(0, 2);
+        Thread.currentThread().interrupt();
+        assertSame(first, interrupted.pushBatch(first, 2, chainBytes(first)));
+        assertTrue(Thread.interrupted());
+        assertEquals(0, interrupted.length());
+    }
+
+    @Test
+    public void testPushBatchBiggerThanQueue() throws InterruptedException {
+        _testPushBatchBiggerThanQueue(new MessageQueue(true, 8, false, REQUEST_CLEANUP_INTERVAL));
+        _testPushBatchBiggerThanQueue(new RingBufferMessageQueue(8, false, REQUEST_CLEANUP_INTERVAL, null));
+    }
+
+    private static void _testPushBatchBiggerThanQueue(MessageQueue q) throws InterruptedException {
+        int count = 100;
+        NatsMessage first = chain(0, count);
+        long bytes = chainBytes(first);
+        Thread t = new Thread(() -> q.pushBatch(first, count, bytes));
+        t.start();
+
+        int expected = 0;
+        while (expected < count) {
+            NatsMessage msg = q.accumulate(1000, 5, Duration.ofSeconds(5));
+            assertNotNull(msg);
+            for (; msg != null; msg = msg.next) {
+                assertEquals(expected++, number(msg));
+            }
+            // the batch is counted as it goes in, so taking from it never goes below zero
+            assertTrue(q.length() >= 0);
+            assertTrue(q.sizeInBytes() >= 0);
+        }
+        t.join();
+        assertEquals(0, q.length());
+        assertEquals(0, q.sizeInBytes());
+    }
+
+    @Test
+    public void testRingBufferBatchAndSingleWritersOneAccumulator() throws InterruptedException {
+        MessageQueue q = new RingBufferMessageQueue(64, false, REQUEST_CLEANUP_INTERVAL, null);
+        int threads = 4;
+        int batches = 500;
+        int batchSize = 10;
+        int msgCount = threads * batches * batchSize * 2;
+        int[] lastSeen = new int[threads * 2];
+        Arrays.fill(lastSeen, -1);
+
+        for (int i = 0; i < threads; i++) {
+            int batchId = i;
+            int singleId = threads + i;
+            new Thread(() -> {
+                for (int j = 0; j < batches; j++) {
+                    NatsMessage first = null;
+                    NatsMessage last = null;
+                    for (int k = 0; k < batchSize; k++) {
+                        NatsMessage msg = new ProtocolMessage((batchId + " " + (j * batchSize + k)).getBytes(StandardCharsets.US_ASCII));
+                        if (first == null) {
+                            first = msg;
+                        }
+                        else {
+                            last.next = msg;
+                        }
+                        last = msg;
+                    }
+                    q.pushBatch(first, batchSize, chainBytes(first));
+                }
+            }).start();
+            new Thread(() -> {
+                for (int j = 0; j < batches * batchSize; j++) {
+                    q.push(new ProtocolMessage((singleId + " " + j).getBytes(StandardCharsets.US_ASCII)));
+                }
+            }).start();
+        }
+
+        int count = 0;
+        while (count < msgCount) {
+            NatsMessage msg = q.accumulate(5000, 100, Duration.ofSeconds(5));
+            assertNotNull(msg);
+            while (msg != null) {
+                String[] parts = new String(msg.getProtocolBab().toByteArray(), StandardCharsets.US_ASCII).split(" ");
+                int id = Integer.parseInt(parts[0]);
+                int seq = Integer.parseInt(parts[1]);
+                assertEquals(lastSeen[id] + 1, seq); // order per publisher is kept
+                lastSeen[id] = seq;
+                count++;
+                msg = msg.next;
+            }
+        }
+        assertEquals(0, q.length());
+        assertEquals(0, q.sizeInBytes());
+    }
+}
@@ -0,0 +1,185 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsListenerTests {
+
+    @Test
+    public void testFlushAndBatchEvents() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            TestMetricsListener listener = new TestMetricsListener();
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).metricsListener(listener).build());
+            try {
+                for (int x = 0; x < 20; x++) {
+                    nc.publish("metrics", new byte[100]);
+                }
+                nc.flush(Duration.ofSeconds(5));
+                nc.flush(Duration.ofSeconds(5));
+
+                assertEquals(2, listener.flushes.get());
+                assertTrue(listener.flushNanos.get() > 0);
+
+                // 20 publishes and 2 pings, at least, plus the connect time pings
+                assertTrue(listener.batches.get() > 0);
+                assertTrue(listener.batchMessages.get() >= 22);
+                assertTrue(listener.batchBytes.get() >= 20 * 100);
+                assertEquals(0, listener.reconnects.get());
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testListenerExceptionIsCounted() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            MetricsListener listener = new MetricsListener() {
+                @Override
+                public void flushed(Connection conn, long nanos) {
+                    throw new IllegalStateException("flushed");
+                }
+            };
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).metricsListener(listener).build());
+            try {
+                long before = nc.getStatistics().getExceptions();
+                nc.flush(Duration.ofSeconds(5));
+                assertEquals(before + 1, nc.getStatistics().getExceptions());
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testSubscriptionMetrics() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            TestMetricsListener listener = new TestMetricsListener();
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).metricsListener(listener).build());
+            try {
+                int count = 10;
+                CountDownLatch latch = new CountDownLatch(count);
+                Dispatcher d = nc.createDispatcher(m -> latch.countDown());
+                d.subscribe("async", "group");
+                Subscription sync = nc.subscribe("sync");
+                nc.flush(Duration.ofSeconds(5));
+
+                for (int x = 0; x < count; x++) {
+                    nc.publish("async", null);
+                    nc.publish("sync", new byte[10]);
+                }
+                nc.flush(Duration.ofSeconds(5));
+                assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+                List<SubscriptionMetrics> metrics = nc.getSubscriptionMetrics();
+                assertEquals(2, metrics.size());
+
+                SubscriptionMetrics async = find(metrics, "async");
+                assertEquals("group", async.getQueueName());
+                assertEquals(((NatsDispatcher) d).getId(), async.getDispatcherId());
+                assertNotNull(async.getSid());
+                assertEquals(count, async.getDeliveredCount());
+                assertEquals(count, async.getHandlerCount());
+                assertTrue(async.getHandlerNanos() > 0);
+                assertEquals(0, async.getDroppedCount());
+                assertTrue(async.toString().contains("async"));
+
+                SubscriptionMetrics syncMetrics = find(metrics, "sync");
+                assertNull(syncMetrics.getQueueName());
+                assertNull(syncMetrics.getDispatcherId());
+                assertEquals(count, syncMetrics.getPendingMessageCount());
+                assertTrue(syncMetrics.getPendingByteCount() >= count * 10);
+                assertEquals(0, syncMetrics.getHandlerCount());
+
+                // the view is live
+                assertNotNull(sync.nextMessage(Duration.ofSeconds(1)));
+                assertEquals(count - 1, syncMetrics.getPendingMessageCount());
+                assertEquals(1, syncMetrics.getDeliveredCount());
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testHandlersNotTimedWithoutListener() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).build());
+            try {
+                CountDownLatch latch = new CountDownLatch(1);
+                Dispatcher d = nc.createDispatcher(m -> latch.countDown());
+                d.subscribe("async");
+                nc.flush(Duration.ofSeconds(5));
+                nc.publish("async", null);
+                assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+                SubscriptionMetrics metrics = find(nc.getSubscriptionMetrics(), "async");
+                assertEquals(1, metrics.getDeliveredCount());
+                assertEquals(0, metrics.getHandlerCount());
+                assertEquals(0, metrics.getHandlerNanos());
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testSlowConsumer() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            TestMetricsListener listener = new TestMetricsListener();
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).metricsListener(listener).build());
+            try {
+                Subscription sub = nc.subscribe("slow");
+                sub.setPendingLimits(1, -1);
+                nc.flush(Duration.ofSeconds(5));
+
+                nc.publish("slow", null);
+                nc.publish("slow", null);
+                nc.publish("slow", null);
+                nc.flush(Duration.ofSeconds(5));
+
+                assertEquals(1, listener.slowConsumers.get());
+                SubscriptionMetrics metrics = find(nc.getSubscriptionMetrics(), "slow");
+                assertEquals(2, metrics.getDroppedCount());
+                assertEquals(1, metrics.getPendingMessageCount());
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    private static SubscriptionMetrics find(List<SubscriptionMetrics> metrics, String subject) {
+        for (SubscriptionMetrics m : metrics) {
+            if (subject.equals(m.getSubject())) {
+                return m;
+            }
+        }
+        fail("no metrics for " + subject);
+        return null;
+    }
+}
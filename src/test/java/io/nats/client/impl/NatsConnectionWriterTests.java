@@ -0,0 +1,232 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Options;
+import io.nats.client.support.NatsUri;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static io.nats.client.support.NatsConstants.OP_PING_BYTES;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NatsConnectionWriterTests {
+
+    static class CapturingDataPort implements DataPort {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final boolean canGather;
+        int arrayWrites;
+        int gatheringWrites;
+
+        CapturingDataPort(boolean canGather) {
+            this.canGather = canGather;
+        }
+
+        @Override
+        public void connect(String serverURI, NatsConnection conn, long timeoutNanos) {}
+
+        @Override
+        public void connect(NatsConnection conn, NatsUri uri, long timeoutNanos) {}
+
+        @Override
+        public void upgradeToSecure() {}
+
+        @Override
+        public int read(byte[] dst, int off, int len) {
+            return -1;
+        }
+
+        @Override
+        public void write(byte[] src, int toWrite) {
+            arrayWrites++;
+            out.write(src, 0, toWrite);
+        }
+
+        @Override
+        public boolean supportsGatheringWrites() {
+            return canGather;
+        }
+
+        @Override
+        public void write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            if (!canGather) {
+                DataPort.super.write(srcs, offset, length);
+                return;
+            }
+            gatheringWrites++;
+            for (int x = offset; x < offset + length; x++) {
+                ByteBuffer src = srcs[x];
+                out.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+                src.position(src.limit());
+            }
+        }
+
+        @Override
+        public void shutdownInput() {}
+
+        @Override
+        public void close() {}
+
+        @Override
+        public void flush() {}
+    }
+
+    private static byte[] payload(int len) {
+        byte[] data = new byte[len];
+        for (int x = 0; x < len; x++) {
+            data[x] = (byte)('a' + (x % 26));
+        }
+        return data;
+    }
+
+    private static NatsMessage batch() {
+        Headers h = new Headers().add("key", "value");
+        NatsMessage[] msgs = new NatsMessage[] {
+            new NatsMessage("small", null, null, payload(10)),
+            new NatsMessage("large", "reply", null, payload(100_000)),
+            new ProtocolMessage(OP_PING_BYTES),
+            new NatsMessage("largeh", null, h, payload(20_000)),
+            new NatsMessage("empty", null, h, null),
+            new NatsMessage("small2", null, null, payload(1000)),
+        };
+        for (int x = 1; x < msgs.length; x++) {
+            msgs[x - 1].next = msgs[x];
+        }
+        return msgs[0];
+    }
+
+    private static CapturingDataPort send(Options options) throws IOException {
+        return send(options, true);
+    }
+
+    private static CapturingDataPort send(Options options, boolean canGather) throws IOException {
+        NatsConnection nc = new MockNatsConnection(options);
+        NatsConnectionWriter writer = new NatsConnectionWriter(nc, null);
+        CapturingDataPort port = new CapturingDataPort(canGather);
+        writer.sendMessageBatch(batch(), port, nc.getNatsStatistics());
+        return port;
+    }
+
+    @Test
+    public void testGatheringWritesSameBytes() throws IOException {
+        CapturingDataPort copying = send(Options.builder().build());
+        CapturingDataPort gathering = send(Options.builder().useGatheringWrites().build());
+        assertEquals(0, copying.gatheringWrites);
+        assertEquals(1, gathering.gatheringWrites);
+        assertEquals(0, gathering.arrayWrites);
+        assertArrayEquals(copying.out.toByteArray(), gathering.out.toByteArray());
+    }
+
+    @Test
+    public void testGatheringWritesNeedAGatheringPort() throws IOException {
+        CapturingDataPort copying = send(Options.builder().build());
+        CapturingDataPort port = send(Options.builder().useGatheringWrites().build(), false);
+        assertEquals(0, port.gatheringWrites);
+        assertEquals(copying.arrayWrites, port.arrayWrites);
+        assertArrayEquals(copying.out.toByteArray(), port.out.toByteArray());
+    }
+
+    @Test
+    public void testGatheringWritesSmallMessagesAreCopied() throws IOException {
+        NatsConnection nc = new MockNatsConnection(Options.builder().useGatheringWrites().build());
+        NatsConnectionWriter writer = new NatsConnectionWriter(nc, null);
+        CapturingDataPort port = new CapturingDataPort(true);
+        NatsMessage msg = new NatsMessage("small", null, null, payload(100));
+        msg.next = new NatsMessage("small", null, null, payload(100));
+        writer.sendMessageBatch(msg, port, nc.getNatsStatistics());
+        assertEquals(1, port.arrayWrites);
+        assertEquals(0, port.gatheringWrites);
+    }
+
+    @Test
+    public void testDefaultGatheringWriteCopies() throws IOException {
+        CapturingDataPort port = new CapturingDataPort(false);
+        byte[] a = payload(5);
+        byte[] b = payload(7);
+        ByteBuffer[] srcs = new ByteBuffer[] { ByteBuffer.wrap(a, 1, 3), ByteBuffer.wrap(b) };
+        port.write(srcs, 0, 2);
+        assertEquals(1, port.arrayWrites);
+        assertArrayEquals(new byte[] {'b', 'c', 'd', 'a', 'b', 'c', 'd', 'e', 'f', 'g'}, port.out.toByteArray());
+        assertFalse(srcs[0].hasRemaining());
+        assertFalse(srcs[1].hasRemaining());
+        assertArrayEquals(payload(5), a);
+        assertArrayEquals(payload(7), b);
+    }
+
+    @Test
+    public void testCoalescingJoinsQueuedMessages() throws Exception {
+        NatsConnection nc = new MockNatsConnection(Options.builder()
+            .flushCoalescingWindow(Duration.ofSeconds(10)).flushCoalescingBytes(100).build());
+        NatsConnectionWriter writer = new NatsConnectionWriter(nc, null);
+        NatsMessage first = new NatsMessage("first", null, null, payload(10));
+        NatsMessage second = new NatsMessage("second", null, null, payload(40));
+        NatsMessage third = new NatsMessage("third", null, null, payload(40));
+        writer.queue(second);
+        writer.queue(third);
+
+        // writes have been frequent, since the writer was just made, and the first message is small
+        assertSame(first, writer.coalesce(first, nc.getNatsStatistics()));
+        assertSame(second, first.next);
+        assertSame(third, second.next);
+        assertNull(third.next);
+        assertEquals(1, nc.getStatistics().getCoalescedWrites());
+        assertEquals(2, nc.getStatistics().getCoalescedMessages());
+        assertTrue(nc.getStatistics().toString().contains("Coalesced Writes"));
+    }
+
+    @Test
+    public void testCoalescingWaitsNoLongerThanTheWindow() throws Exception {
+        NatsConnection nc = new MockNatsConnection(Options.builder().flushCoalescingWindow(Duration.ofMillis(20)).build());
+        NatsConnectionWriter writer = new NatsConnectionWriter(nc, null);
+        NatsMessage first = new NatsMessage("first", null, null, payload(10));
+
+        long start = System.nanoTime();
+        assertSame(first, writer.coalesce(first, nc.getNatsStatistics()));
+        long elapsed = System.nanoTime() - start;
+        assertNull(first.next);
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(1, nc.getStatistics().getCoalescedWrites());
+        assertEquals(0, nc.getStatistics().getCoalescedMessages());
+        assertTrue(nc.getStatistics().getCoalescingNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void testNoCoalescingWhenQuietOrBig() throws Exception {
+        NatsConnection nc = new MockNatsConnection(Options.builder()
+            .flushCoalescingWindow(Duration.ofMillis(1)).flushCoalescingBytes(100).build());
+        NatsConnectionWriter writer = new NatsConnectionWriter(nc, null);
+        writer.queue(new NatsMessage("waiting", null, null, payload(10)));
+
+        // nothing has been written for a while
+        Thread.sleep(50);
+        NatsMessage quiet = new NatsMessage("quiet", null, null, payload(10));
+        assertSame(quiet, writer.coalesce(quiet, nc.getNatsStatistics()));
+        assertNull(quiet.next);
+
+        // already more than the byte threshold
+        writer = new NatsConnectionWriter(nc, null);
+        NatsMessage big = new NatsMessage("big", null, null, payload(200));
+        assertSame(big, writer.coalesce(big, nc.getNatsStatistics()));
+        assertNull(big.next);
+
+        assertEquals(0, nc.getStatistics().getCoalescedWrites());
+        assertFalse(nc.getStatistics().toString().contains("Coalesced Writes"));
+    }
+}
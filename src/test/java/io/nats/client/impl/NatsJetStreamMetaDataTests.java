@@ -16,6 +16,7 @@ package io.nats.client.impl;
 import io.nats.client.Message;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
@@ -69,6 +70,29 @@ public class NatsJetStreamMetaDataTests extends JetStreamTestBase {
         }
     }
 
+    @Test
+    public void testMetaDataFromMessageBytes() {
+        // the byte parser keeps the subject and reply to bytes and the metadata is read straight from them
+        String[] replies = {TestMetaV0, TestMetaV1, TestMetaV2, TestMetaVFuture};
+        for (int x = 0; x < replies.length; x++) {
+            byte[] raw = ("subj" + replies[x]).getBytes(StandardCharsets.UTF_8);
+            NatsMessage m = new IncomingMessageFactory(raw, 4, 1, 0, false).getMessage();
+            assertTrue(m.isJetStream());
+            assertNull(m.replyTo);
+            validateMeta(x > 0, x > 1, m);
+            assertNull(m.replyTo); // still not made
+        }
+
+        NatsJetStreamMetaData meta = getTestMessage(TestMetaV2).metaData();
+        assertEquals(1605139610113260000L, meta.timestampNanos());
+        assertEquals("$JS", meta.getPrefix());
+        assertNotNull(meta.toString());
+
+        // like split, a trailing dot does not make a token
+        assertEquals(4, getTestMessage(TestMetaV1 + ".").metaData().pendingCount());
+        assertEquals("strëam", getTestMessage("$JS.ACK.strëam.test-consumer.1.2.3.1605139610113260000").metaData().getStream());
+    }
+
     @Test
     public void testNotInVersion() {
         assertEquals(-1, new NatsJetStreamMetaData(getTestMessage(TestMetaV0)).pendingCount());
@@ -103,5 +127,14 @@ public class NatsJetStreamMetaDataTests extends JetStreamTestBase {
 
         assertThrows(IllegalArgumentException.class,
             () -> new NatsJetStreamMetaData(getTestMessage("$JS.ACK.test-stream.test-consumer.1.2.3.1605139610113260000.invalid")));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new NatsJetStreamMetaData(getTestMessage("$JS.ACK.test-stream.test-consumer.1.2.3.16051396101132600a0")));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new NatsJetStreamMetaData(getTestMessage("$JS.ACK.test-stream.test-consumer..2.3.1605139610113260000")));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new NatsJetStreamMetaData(getTestMessage("$JS.ACK.test-stream.test-consumer.1.99999999999999999999.3.1605139610113260000")));
     }
 }
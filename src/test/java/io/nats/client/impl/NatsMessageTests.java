@@ -294,6 +294,39 @@ public class NatsMessageTests extends JetStreamTestBase {
         assertNotNull(sm.toString());
     }
 
+    @Test
+    public void testFactoryRawSubjectReplyAndSid() {
+        byte[] raw = "subj$JS.ACK.stream.consumer.1.2.3.4.5".getBytes(StandardCharsets.US_ASCII);
+        NatsMessage m = new IncomingMessageFactory(raw, 4, 42, 0, false).getMessage();
+        assertTrue(m.isJetStream());
+        assertEquals(42, m.rawSid);
+        assertEquals("42", m.getSID());
+        assertEquals("subj", m.getSubject());
+        assertEquals("$JS.ACK.stream.consumer.1.2.3.4.5", m.getReplyTo());
+        assertEquals(raw.length, m.consumeByteCount());
+
+        m = new IncomingMessageFactory("subj".getBytes(StandardCharsets.US_ASCII), 4, 43, 0, false).getMessage();
+        assertFalse(m.isJetStream());
+        assertEquals("subj", m.getSubject());
+        assertNull(m.getReplyTo());
+
+        m = new IncomingMessageFactory("44", "subj", null, 0, false).getMessage();
+        assertEquals(44, m.rawSid);
+        m = new IncomingMessageFactory("sid", "subj", null, 0, false).getMessage();
+        assertEquals(-1, m.rawSid);
+    }
+
+    @Test
+    public void testSidNumber() {
+        assertEquals(0, NatsConnection.sidNumber("0"));
+        assertEquals(1234567890123L, NatsConnection.sidNumber("1234567890123"));
+        assertEquals(-1, NatsConnection.sidNumber(null));
+        assertEquals(-1, NatsConnection.sidNumber(""));
+        assertEquals(-1, NatsConnection.sidNumber("sid"));
+        assertEquals(-1, NatsConnection.sidNumber("12x"));
+        assertEquals(-1, NatsConnection.sidNumber("1234567890123456789"));
+    }
+
     private NatsMessage testMessage() {
         Headers h = new Headers();
         h.add("key", "value");
@@ -332,4 +365,4 @@ public class NatsMessageTests extends JetStreamTestBase {
             assertEquals(3, incoming.getHeaders().size());
         });
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -16,6 +16,7 @@ package io.nats.client.impl;
 import io.nats.client.*;
 import org.junit.jupiter.api.Test;
 
+import java.text.NumberFormat;
 import java.time.Duration;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -291,4 +292,57 @@ public class NatsStatisticsTests {
             assertFalse(stringStats.contains("Orphan Replies Received"), "orphan replies");
         });
     }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        NatsStatistics stats = new NatsStatistics();
+        stats.setAdvancedTracking(true);
+        int threads = 8;
+        int perThread = 10_000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    stats.incrementInMsgs();
+                    stats.incrementInBytes(i);
+                    stats.incrementOutstandingRequests();
+                    stats.decrementOutstandingRequests();
+                    stats.registerRead(i);
+                    stats.registerWrite(i * 2L);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+
+        long perThreadBytes = (long) perThread * (perThread + 1) / 2;
+        assertEquals((long) threads * perThread, stats.getInMsgs());
+        assertEquals(threads * perThreadBytes, stats.getInBytes());
+        assertEquals(0, stats.getOutstandingRequests());
+
+        String str = stats.toString();
+        assertTrue(str.contains("Min Bytes Per Read:              1\n"), str);
+        assertTrue(str.contains("Max Bytes Per Read:              " + NumberFormat.getNumberInstance().format(perThread) + "\n"), str);
+        assertTrue(str.contains("Min Bytes Per Write:             2\n"), str);
+        assertTrue(str.contains("Socket Writes:                   " + NumberFormat.getNumberInstance().format((long) threads * perThread) + "\n"), str);
+    }
+
+    @Test
+    public void testSizeSummary() {
+        NatsStatistics.SizeSummary summary = new NatsStatistics.SizeSummary();
+        assertEquals(0, summary.getCount());
+        assertEquals(0.0d, summary.getAverage());
+        assertEquals(Long.MAX_VALUE, summary.getMin());
+        assertEquals(Long.MIN_VALUE, summary.getMax());
+
+        summary.accept(10);
+        summary.accept(2);
+        summary.accept(30);
+        assertEquals(3, summary.getCount());
+        assertEquals(14.0d, summary.getAverage());
+        assertEquals(2, summary.getMin());
+        assertEquals(30, summary.getMax());
+    }
 }
@@ -14,6 +14,7 @@ package io.nats.client.impl;
 
 import io.nats.client.*;
 import io.nats.client.api.*;
+import io.nats.client.support.DeflatePayloadCodec;
 import io.nats.client.utils.TestBase;
 import org.junit.jupiter.api.Test;
 
@@ -710,4 +711,25 @@ public class ObjectStoreTests extends JetStreamTestBase {
             assertArrayEquals(hubBytes, leafBytes);
         }
     }
+
+    @Test
+    public void testPayloadCodec() throws Exception {
+        Options.Builder builder = Options.builder().payloadCodec(new DeflatePayloadCodec()).payloadCodecThreshold(100);
+        jsServer.run(builder, null, nc -> {
+            String bucket = bucket();
+            nc.objectStoreManagement().create(ObjectStoreConfiguration.builder(bucket)
+                .storageType(StorageType.Memory)
+                .build());
+
+            // the chunks are encoded on the way in and decoded as the subscription delivers them
+            ObjectStore os = nc.objectStore(bucket);
+            byte[] object = PayloadCodecTests.payload(300_000);
+            ObjectInfo oi = os.put("object", object);
+            assertEquals(object.length, oi.getSize());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            os.get("object", out);
+            assertArrayEquals(object, out.toByteArray());
+        });
+    }
 }
@@ -52,6 +52,69 @@ public class ParseTests {
                 () -> NatsConnectionReader.parseLength(String.valueOf(100_000_000_000L)));
     }
 
+    @Test
+    public void testParseNumber() {
+        byte[] bytes = "x 1234567890 x".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(1234567890L, NatsConnectionReader.parseNumber(bytes, 2, 12, Long.MAX_VALUE));
+        assertEquals(1234567890L, NatsConnectionReader.parseNumber(bytes, 2, 12, Integer.MAX_VALUE));
+        assertEquals(0, NatsConnectionReader.parseNumber("0".getBytes(StandardCharsets.US_ASCII), 0, 1, Integer.MAX_VALUE));
+
+        byte[] tooBig = String.valueOf(Integer.MAX_VALUE + 1L).getBytes(StandardCharsets.US_ASCII);
+        assertThrows(NumberFormatException.class, () -> NatsConnectionReader.parseNumber(tooBig, 0, tooBig.length, Integer.MAX_VALUE));
+        assertThrows(NumberFormatException.class, () -> NatsConnectionReader.parseNumber(bytes, 0, 12, Long.MAX_VALUE));
+        assertThrows(NumberFormatException.class, () -> NatsConnectionReader.parseNumber(bytes, 2, 2, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testByteParserBadMessageLines() throws Exception {
+        String[] badLines = {
+            "MSG  1\r\n", "MSG subject  1\r\n", "MSG subject 2 \r\n", "MSG subject 2 x\r\n",
+            "MSG subject x 2\r\n", "MSG subject 1 reply 2 3\r\n", "HMSG subject 1 2\r\n", "HMSG subject 1 3 2\r\n",
+            "MSG\r\n"
+        };
+        byte[] ping = "PING\r\n".getBytes(StandardCharsets.US_ASCII);
+        try (NatsTestServer ts = new NatsTestServer(false);
+             NatsConnection nc = (NatsConnection) Nats.connect(new Options.Builder().
+                                                                server(ts.getURI()).
+                                                                useMessageByteParser().
+                                                                build())) {
+            NatsConnectionReader reader = nc.getReader();
+            for (String badLine : badLines) {
+                byte[] bytes = badLine.getBytes(StandardCharsets.US_ASCII);
+                assertThrows(IOException.class, () -> {
+                    reader.fakeReadForTest(bytes);
+                    reader.gatherOp(bytes.length);
+                    reader.gatherMessageProtocolBytes(bytes.length);
+                    reader.parseProtocolMessage();
+                }, badLine);
+
+                // the bad line must not leak into the next protocol line
+                reader.fakeReadForTest(ping);
+                reader.gatherOp(ping.length);
+                reader.parseProtocolMessage();
+            }
+        }
+    }
+
+    @Test
+    public void testByteParserMessageLineTooLong() {
+        assertThrows(IOException.class, () -> {
+            try (NatsTestServer ts = new NatsTestServer(false);
+                    NatsConnection nc = (NatsConnection) Nats.connect(new Options.Builder().
+                                                                        server(ts.getURI()).
+                                                                        maxControlLine(16).
+                                                                        useMessageByteParser().
+                                                                        build())) {
+                NatsConnectionReader reader = nc.getReader();
+                byte[] bytes = ("MSG reallylongsubjectobreakthelength 1 1\r\n").getBytes(StandardCharsets.US_ASCII);
+                reader.fakeReadForTest(bytes);
+                reader.gatherOp(bytes.length);
+                reader.gatherMessageProtocolBytes(bytes.length);
+                reader.parseProtocolMessage();
+            }
+        });
+    }
+
     @Test
     public void testLongProtocolOpThrows() {
         assertThrows(IOException.class, () -> {
@@ -0,0 +1,216 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import io.nats.client.support.DeflatePayloadCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadCodecTests {
+
+    static byte[] payload(int len) {
+        byte[] data = new byte[len];
+        for (int x = 0; x < len; x++) {
+            data[x] = (byte) ('a' + (x % 3));
+        }
+        return data;
+    }
+
+    @Test
+    public void testEncodeAboveThresholdAndDecodeOnDelivery() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Options options = Options.builder().server(ts.getURI())
+                .payloadCodec(new DeflatePayloadCodec()).payloadCodecThreshold(100).build();
+            Connection nc = Nats.connect(options);
+            try {
+                Subscription decoded = nc.subscribe("codec");
+                assertNotNull(decoded.getPayloadCodec());
+                nc.flush(Duration.ofSeconds(5));
+
+                byte[] small = payload(99);
+                byte[] big = payload(5000);
+                Headers headers = new Headers().add("key", "value");
+                nc.publish("codec", small);
+                nc.publish("codec", headers, big);
+                nc.publisher("codec").publish(big);
+                nc.publishBatch(Arrays.asList(
+                    NatsMessage.builder().subject("codec").data(big).build(),
+                    NatsMessage.builder().subject("codec").data(small).build()));
+                nc.flush(Duration.ofSeconds(5));
+
+                // the caller's headers are never changed
+                assertFalse(headers.containsKey(PayloadCodec.ENCODING_HEADER));
+
+                Message m = decoded.nextMessage(Duration.ofSeconds(5));
+                assertArrayEquals(small, m.getData());
+                assertFalse(m.hasHeaders());
+
+                m = decoded.nextMessage(Duration.ofSeconds(5));
+                assertArrayEquals(big, m.getData());
+                assertEquals("value", m.getHeaders().getFirst("key"));
+                assertFalse(m.getHeaders().containsKey(PayloadCodec.ENCODING_HEADER));
+
+                for (byte[] expected : new byte[][] {big, big, small}) {
+                    m = decoded.nextMessage(Duration.ofSeconds(5));
+                    assertArrayEquals(expected, m.getData());
+                    assertFalse(m.hasHeaders() && m.getHeaders().containsKey(PayloadCodec.ENCODING_HEADER));
+                }
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testSubscriptionCodec() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Options options = Options.builder().server(ts.getURI()).payloadCodec(new DeflatePayloadCodec()).build();
+            Connection nc = Nats.connect(options);
+            try {
+                Subscription raw = nc.subscribe("codec");
+                raw.setPayloadCodec(null);
+                assertNull(raw.getPayloadCodec());
+                nc.flush(Duration.ofSeconds(5));
+
+                byte[] big = payload(5000);
+                nc.publish("codec", big);
+                nc.flush(Duration.ofSeconds(5));
+
+                // what went over the wire
+                Message m = raw.nextMessage(Duration.ofSeconds(5));
+                assertEquals("deflate", m.getHeaders().getFirst(PayloadCodec.ENCODING_HEADER));
+                assertTrue(m.getData().length < big.length / 10);
+                assertArrayEquals(big, new DeflatePayloadCodec().decode(m.getData()));
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testUndecodableIsDeliveredAsIs() throws Exception {
+        CompletableFuture<Exception> reported = new CompletableFuture<>();
+        ErrorListener el = new ErrorListener() {
+            @Override
+            public void exceptionOccurred(Connection conn, Exception exp) {
+                reported.complete(exp);
+            }
+        };
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).errorListener(el).build());
+            try {
+                Subscription sub = nc.subscribe("codec");
+                sub.setPayloadCodec(new DeflatePayloadCodec());
+                nc.flush(Duration.ofSeconds(5));
+
+                // no codec on the connection, so this is sent as is
+                byte[] notDeflate = "not deflate".getBytes(StandardCharsets.US_ASCII);
+                nc.publish("codec", new Headers().add(PayloadCodec.ENCODING_HEADER, "deflate"), notDeflate);
+                nc.publish("codec", new Headers().add(PayloadCodec.ENCODING_HEADER, "gzip"), notDeflate);
+                nc.flush(Duration.ofSeconds(5));
+
+                Message m = sub.nextMessage(Duration.ofSeconds(5));
+                assertArrayEquals(notDeflate, m.getData());
+                assertEquals("deflate", m.getHeaders().getFirst(PayloadCodec.ENCODING_HEADER));
+                assertTrue(reported.get(5, TimeUnit.SECONDS) instanceof IllegalArgumentException);
+
+                m = sub.nextMessage(Duration.ofSeconds(5));
+                assertArrayEquals(notDeflate, m.getData());
+                assertEquals("gzip", m.getHeaders().getFirst(PayloadCodec.ENCODING_HEADER));
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testMaxDecodedSize() throws Exception {
+        CompletableFuture<Exception> reported = new CompletableFuture<>();
+        ErrorListener el = new ErrorListener() {
+            @Override
+            public void exceptionOccurred(Connection conn, Exception exp) {
+                reported.complete(exp);
+            }
+        };
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).errorListener(el)
+                .payloadCodec(new DeflatePayloadCodec()).payloadCodecMaxDecodedSize(4096).build());
+            try {
+                Subscription sub = nc.subscribe("codec");
+                nc.flush(Duration.ofSeconds(5));
+
+                byte[] fits = payload(4096);
+                byte[] tooBig = payload(100_000);
+                nc.publish("codec", fits);
+                nc.publish("codec", tooBig);
+                nc.flush(Duration.ofSeconds(5));
+
+                NatsMessage m = (NatsMessage) sub.nextMessage(Duration.ofSeconds(5));
+                assertArrayEquals(fits, m.getData());
+                assertEquals(fits.length, m.dataLen);
+                assertFalse(reported.isDone());
+
+                // a small body that would decode past the limit is delivered as it arrived
+                m = (NatsMessage) sub.nextMessage(Duration.ofSeconds(5));
+                assertEquals("deflate", m.getHeaders().getFirst(PayloadCodec.ENCODING_HEADER));
+                assertTrue(m.getData().length < 4096);
+                assertEquals(m.getData().length, m.dataLen);
+                assertTrue(reported.get(5, TimeUnit.SECONDS) instanceof IllegalArgumentException);
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeOnTheDispatcher() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).payloadCodec(new DeflatePayloadCodec()).build());
+            try {
+                AtomicReference<Message> received = new AtomicReference<>();
+                CountDownLatch latch = new CountDownLatch(1);
+                Dispatcher d = nc.createDispatcher(m -> {
+                    received.set(m);
+                    latch.countDown();
+                });
+                d.subscribe("codec");
+                nc.flush(Duration.ofSeconds(5));
+
+                byte[] big = payload(5000);
+                nc.publish("codec", big);
+                assertTrue(latch.await(5, TimeUnit.SECONDS));
+                assertArrayEquals(big, received.get().getData());
+                assertFalse(received.get().getHeaders().containsKey(PayloadCodec.ENCODING_HEADER));
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PublishAckTrackerTests {
+
+    static class CollectingListener implements PublishAckListener {
+        final Map<Long, Long> acked = new ConcurrentHashMap<>();
+        final Set<Long> duplicates = ConcurrentHashMap.newKeySet();
+        final Map<Long, Exception> failed = new ConcurrentHashMap<>();
+        final Semaphore outcomes = new Semaphore(0);
+
+        @Override
+        public void acked(long id, long seqno, boolean duplicate) {
+            acked.put(id, seqno);
+            if (duplicate) {
+                duplicates.add(id);
+            }
+            outcomes.release();
+        }
+
+        @Override
+        public void failed(long id, Exception e) {
+            failed.put(id, e);
+            outcomes.release();
+        }
+
+        void await(int count) throws InterruptedException {
+            assertTrue(outcomes.tryAcquire(count, 5, TimeUnit.SECONDS));
+        }
+    }
+
+    static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testAcksAreReported() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             JetStreamPublisherTests.FakeStream stream = new JetStreamPublisherTests.FakeStream(ts, "track")) {
+            stream.autoAck = true;
+            CollectingListener listener = new CollectingListener();
+            try (PublishAckTracker tracker = stream.jetStream(Duration.ofSeconds(5)).publishAckTracker(100, listener)) {
+                assertEquals(128, tracker.getCapacity());
+
+                Set<Long> ids = new HashSet<>();
+                for (int x = 0; x < 100; x++) {
+                    ids.add(x % 2 == 0
+                        ? tracker.publish("track", new byte[10])
+                        : tracker.publish(NatsMessage.builder().subject("track").data(new byte[10]).build()));
+                }
+                assertEquals(100, ids.size());
+                listener.await(100);
+
+                assertEquals(ids, listener.acked.keySet());
+                assertEquals(100, new HashSet<>(listener.acked.values()).size());
+                assertTrue(listener.failed.isEmpty());
+                assertEquals(0, tracker.getPending());
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicatesAndErrors() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             JetStreamPublisherTests.FakeStream stream = new JetStreamPublisherTests.FakeStream(ts, "track")) {
+            CollectingListener listener = new CollectingListener();
+            try (PublishAckTracker tracker = stream.jetStream(Duration.ofSeconds(5)).publishAckTracker(8, listener)) {
+                long dupe = tracker.publish("track", null);
+                long error = tracker.publish("track", null);
+                long spaced = tracker.publish("track", null);
+                assertEquals(3, tracker.getPending());
+
+                stream.nc.publish(stream.held.poll(5, TimeUnit.SECONDS).getReplyTo(),
+                    bytes("{\"stream\":\"fake\",\"seq\":7,\"duplicate\":true}"));
+                stream.nc.publish(stream.held.poll(5, TimeUnit.SECONDS).getReplyTo(),
+                    bytes("{\"error\":{\"code\":400,\"err_code\":10060,\"description\":\"expected stream does not match\"}}"));
+                // not the usual shape, so it gets the full parse
+                stream.nc.publish(stream.held.poll(5, TimeUnit.SECONDS).getReplyTo(),
+                    bytes("{ \"stream\" : \"fake\", \"seq\" : 8 }"));
+                listener.await(3);
+
+                assertEquals(Long.valueOf(7), listener.acked.get(dupe));
+                assertTrue(listener.duplicates.contains(dupe));
+                assertEquals(10060, ((JetStreamApiException) listener.failed.get(error)).getApiErrorCode());
+                assertEquals(Long.valueOf(8), listener.acked.get(spaced));
+                assertFalse(listener.duplicates.contains(spaced));
+                assertEquals(0, tracker.getPending());
+            }
+        }
+    }
+
+    @Test
+    public void testExpectedStream() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             JetStreamPublisherTests.FakeStream stream = new JetStreamPublisherTests.FakeStream(ts, "track")) {
+            stream.autoAck = true;
+            CollectingListener listener = new CollectingListener();
+            try (PublishAckTracker tracker = stream.jetStream(Duration.ofSeconds(5)).publishAckTracker(8, listener)) {
+                long right = tracker.publish("track", null, null, PublishOptions.builder().stream("fake").build());
+                long wrong = tracker.publish(NatsMessage.builder().subject("track").build(), PublishOptions.builder().stream("other").build());
+                long any = tracker.publish("track", null, null, PublishOptions.builder().build());
+                listener.await(3);
+
+                assertTrue(listener.acked.containsKey(right));
+                assertTrue(listener.acked.containsKey(any));
+                Exception e = listener.failed.get(wrong);
+                assertTrue(e instanceof IOException);
+                assertTrue(e.getMessage().contains("other"));
+                assertEquals(0, tracker.getPending());
+            }
+        }
+    }
+
+    @Test
+    public void testFullTimeoutAndClose() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false);
+             JetStreamPublisherTests.FakeStream stream = new JetStreamPublisherTests.FakeStream(ts, "track")) {
+            CollectingListener listener = new CollectingListener();
+            PublishAckTracker tracker = stream.jetStream(Duration.ofMillis(200)).publishAckTracker(2, listener);
+
+            long first = tracker.publish("track", null);
+            long second = tracker.publish("track", null);
+            assertThrows(IllegalStateException.class, () -> tracker.publish("track", null));
+            listener.await(2);
+            assertTrue(listener.failed.get(first) instanceof TimeoutException);
+            assertTrue(listener.failed.get(second) instanceof TimeoutException);
+            assertEquals(0, tracker.getPending());
+
+            // late acks are ignored
+            stream.ackHeld(2);
+            long third = tracker.publish("track", null);
+            tracker.close();
+            listener.await(1);
+            assertTrue(listener.failed.get(third) instanceof IllegalStateException);
+            assertTrue(listener.acked.isEmpty());
+            assertThrows(IllegalStateException.class, () -> tracker.publish("track", null));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PublishBatchTests {
+
+    private static List<Message> batch(String subject, int start, int count) {
+        List<Message> messages = new ArrayList<>();
+        for (int x = start; x < start + count; x++) {
+            messages.add(NatsMessage.builder().subject(subject).data("" + x, StandardCharsets.US_ASCII).build());
+        }
+        return messages;
+    }
+
+    @Test
+    public void testPublishBatch() throws Exception {
+        _testPublishBatch(Options.builder());
+        _testPublishBatch(Options.builder().maxMessagesInOutgoingQueue(64).useRingBufferOutgoingQueue());
+    }
+
+    private static void _testPublishBatch(Options.Builder builder) throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(builder.server(ts.getURI()).build());
+            try {
+                Subscription sub = nc.subscribe("batch");
+                nc.flush(Duration.ofSeconds(5));
+
+                // bigger than the bounded queue, and mixed with single publishes
+                nc.publishBatch(batch("batch", 0, 100));
+                nc.publish("batch", "100".getBytes(StandardCharsets.US_ASCII));
+                nc.publishBatch(batch("batch", 101, 99), true);
+                nc.publishBatch(Collections.emptyList());
+                nc.flush(Duration.ofSeconds(5));
+
+                for (int x = 0; x < 200; x++) {
+                    Message m = sub.nextMessage(Duration.ofSeconds(5));
+                    assertNotNull(m);
+                    assertEquals("" + x, new String(m.getData(), StandardCharsets.US_ASCII));
+                }
+                assertNull(sub.nextMessage(Duration.ofMillis(100)));
+            }
+            finally {
+                nc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testBadMessageFailsTheWholeBatch() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).build());
+            try {
+                Subscription sub = nc.subscribe("batch");
+                nc.flush(Duration.ofSeconds(5));
+
+                assertThrows(IllegalArgumentException.class, () -> nc.publishBatch(null));
+                assertThrows(IllegalArgumentException.class, () -> nc.publishBatch(Arrays.asList(batch("batch", 0, 1).get(0), null)));
+
+                List<Message> tooBig = batch("batch", 0, 2);
+                tooBig.add(NatsMessage.builder().subject("batch").data(new byte[(int) nc.getMaxPayload() + 1]).build());
+                assertThrows(IllegalArgumentException.class, () -> nc.publishBatch(tooBig));
+
+                nc.flush(Duration.ofSeconds(5));
+                assertNull(sub.nextMessage(Duration.ofMillis(100)));
+            }
+            finally {
+                nc.close();
+            }
+            assertThrows(IllegalStateException.class, () -> nc.publishBatch(batch("batch", 0, 1)));
+        }
+    }
+}
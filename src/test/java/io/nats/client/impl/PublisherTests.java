@@ -0,0 +1,119 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PublisherTests {
+
+    @Test
+    public void testSameBytesAsPublish() {
+        Headers headers = new Headers().add("key", "value");
+        NatsConnection nc = new NatsConnection(Options.builder().build());
+        NatsPublisher[] publishers = {
+            new NatsPublisher(nc, "subject", null, null),
+            new NatsPublisher(nc, "subject.with.tokens", "reply", null),
+            new NatsPublisher(nc, "subject", null, headers),
+            new NatsPublisher(nc, "subject", "reply", headers),
+            new NatsPublisher(nc, "subject", "reply", new Headers()), // empty is no headers
+        };
+
+        for (NatsPublisher p : publishers) {
+            for (int len : new int[] {0, 1, 9, 10, 99, 100, 999, 1000, 12345}) {
+                byte[] data = new byte[len];
+                NatsMessage expected = new NatsPublishableMessage(p.getSubject(), p.getReplyTo(), p.getHeaders(), data, true, false);
+                NatsMessage actual = new NatsPublisher.PublisherMessage(p, data);
+
+                assertEquals(expected.getSizeInBytes(), actual.getSizeInBytes());
+                assertEquals(expected.getControlLineLength(), actual.getControlLineLength());
+                assertArrayEquals(expected.getProtocolBytes(), actual.getProtocolBytes());
+
+                byte[] dest = new byte[expected.getControlLineLength() + 2];
+                int copied = actual.copyProtocolLine(2, dest);
+                assertEquals(expected.getControlLineLength() - 2, copied);
+                assertEquals(new String(expected.getProtocolBytes(), StandardCharsets.US_ASCII),
+                    new String(dest, 2, copied, StandardCharsets.US_ASCII));
+
+                byte[] expectedHeaders = new byte[1024];
+                byte[] actualHeaders = new byte[1024];
+                assertEquals(expected.copyNotEmptyHeaders(0, expectedHeaders), actual.copyNotEmptyHeaders(0, actualHeaders));
+                assertArrayEquals(expectedHeaders, actualHeaders);
+            }
+        }
+    }
+
+    @Test
+    public void testPublisherFields() {
+        NatsConnection nc = new NatsConnection(Options.builder().build());
+        Headers headers = new Headers().add("key", "value");
+        Publisher p = nc.publisher("subject", "reply", headers);
+        assertEquals("subject", p.getSubject());
+        assertEquals("reply", p.getReplyTo());
+        assertTrue(p.getHeaders().isReadOnly());
+        assertEquals("value", p.getHeaders().getFirst("key"));
+
+        // later changes to the headers don't change the publisher
+        headers.put("key", "changed");
+        assertEquals("value", p.getHeaders().getFirst("key"));
+
+        p = nc.publisher("subject");
+        assertNull(p.getReplyTo());
+        assertNull(p.getHeaders());
+
+        assertThrows(IllegalArgumentException.class, () -> nc.publisher(null));
+        assertThrows(IllegalArgumentException.class, () -> nc.publisher("bad subject"));
+        assertThrows(IllegalArgumentException.class, () -> nc.publisher("subject", "bad reply", null));
+    }
+
+    @Test
+    public void testPublish() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Connection nc = Nats.connect(Options.builder().server(ts.getURI()).build());
+            Publisher p = nc.publisher("template", "reply", null);
+            try {
+                Subscription sub = nc.subscribe("template");
+                nc.flush(Duration.ofSeconds(5));
+
+                for (int x = 0; x < 100; x++) {
+                    p.publish(("" + x).getBytes(StandardCharsets.US_ASCII));
+                }
+                p.publish(null);
+                nc.flush(Duration.ofSeconds(5));
+
+                for (int x = 0; x < 100; x++) {
+                    Message m = sub.nextMessage(Duration.ofSeconds(5));
+                    assertNotNull(m);
+                    assertEquals("template", m.getSubject());
+                    assertEquals("reply", m.getReplyTo());
+                    assertEquals("" + x, new String(m.getData(), StandardCharsets.US_ASCII));
+                }
+                Message empty = sub.nextMessage(Duration.ofSeconds(5));
+                assertNotNull(empty);
+                assertEquals(0, empty.getData().length);
+
+                assertThrows(IllegalArgumentException.class, () -> p.publish(new byte[(int) nc.getMaxPayload() + 1]));
+            }
+            finally {
+                nc.close();
+            }
+            assertThrows(IllegalStateException.class, () -> p.publish(null));
+        }
+    }
+}
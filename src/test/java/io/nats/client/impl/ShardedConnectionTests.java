@@ -0,0 +1,118 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedConnectionTests {
+
+    @Test
+    public void testPublishAndSubscribeBySubject() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            ShardedConnection sc = Nats.connectSharded(Options.builder().server(ts.getURI()).build(), 3);
+            try {
+                assertEquals(3, sc.getConnections().size());
+                assertEquals(1048576, sc.getMaxPayload());
+
+                // a subject's publishes and subscriptions are always on the same member,
+                // so the messages of each subject arrive in order
+                Set<Connection> used = new HashSet<>();
+                List<Subscription> subs = new ArrayList<>();
+                for (int s = 0; s < 10; s++) {
+                    String subject = "shard." + s;
+                    assertSame(sc.getConnection(subject), sc.getConnection(subject));
+                    used.add(sc.getConnection(subject));
+                    subs.add(sc.subscribe(subject));
+                }
+                assertEquals(3, used.size());
+                sc.flush(Duration.ofSeconds(5));
+
+                for (int x = 0; x < 50; x++) {
+                    for (int s = 0; s < 10; s++) {
+                        sc.publish("shard." + s, ("" + x).getBytes(StandardCharsets.US_ASCII));
+                    }
+                }
+                List<Message> batch = new ArrayList<>();
+                for (int x = 50; x < 100; x++) {
+                    for (int s = 0; s < 10; s++) {
+                        batch.add(NatsMessage.builder().subject("shard." + s).data("" + x, StandardCharsets.US_ASCII).build());
+                    }
+                }
+                sc.publishBatch(batch);
+                sc.flush(Duration.ofSeconds(5));
+
+                for (Subscription sub : subs) {
+                    for (int x = 0; x < 100; x++) {
+                        Message m = sub.nextMessage(Duration.ofSeconds(5));
+                        assertNotNull(m);
+                        assertEquals("" + x, new String(m.getData(), StandardCharsets.US_ASCII));
+                    }
+                }
+            }
+            finally {
+                sc.close();
+            }
+            for (Connection c : sc.getConnections()) {
+                assertEquals(Connection.Status.CLOSED, c.getStatus());
+            }
+        }
+    }
+
+    @Test
+    public void testRequestsAreBalancedOverConnectedMembers() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            NatsShardedConnection sc = (NatsShardedConnection) Nats.connectSharded(Options.builder().server(ts.getURI()).build(), 3);
+            try {
+                Map<Connection, Integer> counts = new HashMap<>();
+                for (int x = 0; x < 30; x++) {
+                    counts.merge(sc.forRequest(), 1, Integer::sum);
+                }
+                assertEquals(3, counts.size());
+                for (int count : counts.values()) {
+                    assertEquals(10, count);
+                }
+
+                Connection closed = sc.getConnections().get(1);
+                closed.close();
+                for (int x = 0; x < 30; x++) {
+                    assertNotSame(closed, sc.forRequest());
+                }
+            }
+            finally {
+                sc.close();
+            }
+        }
+    }
+
+    @Test
+    public void testConnectSharded() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Options options = Options.builder().server(ts.getURI()).build();
+            assertThrows(IllegalArgumentException.class, () -> Nats.connectSharded(options, 0));
+
+            try (ShardedConnection sc = Nats.connectSharded(options, 1)) {
+                assertEquals(1, sc.getConnections().size());
+                assertSame(sc.getConnections().get(0), sc.getConnection("any"));
+                assertThrows(UnsupportedOperationException.class, () -> sc.getConnections().clear());
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Connection;
+import io.nats.client.ConnectionListener;
+import io.nats.client.Message;
+import io.nats.client.Nats;
+import io.nats.client.NatsTestServer;
+import io.nats.client.Options;
+import io.nats.client.ReadListener;
+import io.nats.client.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedIoLoopTests {
+
+    @Test
+    public void testManyConnectionsShareTheLoop() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            Options options = Options.builder()
+                .server(ts.getURI())
+                .dataPortType(SocketChannelDataPort.class.getCanonicalName())
+                .useSharedIoLoop()
+                .build();
+
+            List<Connection> connections = new ArrayList<>();
+            List<Subscription> subs = new ArrayList<>();
+            for (int x = 0; x < 20; x++) {
+                Connection nc = Nats.connect(options);
+                assertEquals(Connection.Status.CONNECTED, nc.getStatus());
+                connections.add(nc);
+                subs.add(nc.subscribe("loop" + x));
+                nc.flush(Duration.ofSeconds(5));
+            }
+
+            int count = 200;
+            byte[] large = new byte[100_000];
+            for (int m = 0; m < count; m++) {
+                for (int x = 0; x < connections.size(); x++) {
+                    connections.get(x).publish("loop" + x, m == 0 ? large : ("m" + m).getBytes());
+                }
+            }
+
+            for (int x = 0; x < connections.size(); x++) {
+                for (int m = 0; m < count; m++) {
+                    Message msg = subs.get(x).nextMessage(Duration.ofSeconds(5));
+                    assertNotNull(msg, "connection " + x + " message " + m);
+                    if (m == 0) {
+                        assertArrayEquals(large, msg.getData());
+                    }
+                    else {
+                        assertEquals("m" + m, new String(msg.getData()));
+                    }
+                }
+            }
+
+            // none of the connections has a reader or writer thread of its own
+            assertEquals(0, countReaderAndWriterThreads());
+
+            for (Connection nc : connections) {
+                nc.close();
+                assertEquals(Connection.Status.CLOSED, nc.getStatus());
+            }
+        }
+    }
+
+    @Test
+    public void testErrorInOneConnectionDoesNotStopTheLoop() throws Exception {
+        try (NatsTestServer ts = new NatsTestServer(false)) {
+            AtomicBoolean thrown = new AtomicBoolean();
+            CountDownLatch reconnected = new CountDownLatch(1);
+            Options.Builder builder = Options.builder()
+                .server(ts.getURI())
+                .dataPortType(SocketChannelDataPort.class.getCanonicalName())
+                .useSharedIoLoop();
+            Options failing = new Options.Builder(builder.build())
+                .readListener(new ReadListener() {
+                    @Override
+                    public void protocol(String op, String string) {}
+
+                    @Override
+                    public void message(String op, Message message) {
+                        if (thrown.compareAndSet(false, true)) {
+                            throw new AssertionError("boom");
+                        }
+                    }
+                })
+                .connectionListener((conn, type) -> {
+                    if (type == ConnectionListener.Events.RECONNECTED) {
+                        reconnected.countDown();
+                    }
+                })
+                .build();
+
+            // more connections than io threads, so the failing one shares its thread
+            List<Connection> others = new ArrayList<>();
+            for (int x = 0; x < SharedIoLoop.THREADS; x++) {
+                others.add(Nats.connect(builder.build()));
+            }
+            Connection nc = Nats.connect(failing);
+            Subscription sub = nc.subscribe("fail");
+            nc.flush(Duration.ofSeconds(5));
+            nc.publish("fail", "one".getBytes());
+
+            // the error stopped the reader, so the connection reconnects and works again
+            assertTrue(reconnected.await(10, TimeUnit.SECONDS));
+            assertTrue(thrown.get());
+            nc.publish("fail", "two".getBytes());
+            assertNotNull(sub.nextMessage(Duration.ofSeconds(5)));
+
+            for (int x = 0; x < others.size(); x++) {
+                Connection other = others.get(x);
+                Subscription otherSub = other.subscribe("other" + x);
+                other.flush(Duration.ofSeconds(5));
+                other.publish("other" + x, "ok".getBytes());
+                assertNotNull(otherSub.nextMessage(Duration.ofSeconds(5)), "connection " + x);
+                other.close();
+            }
+            nc.close();
+        }
+    }
+
+    private static long countReaderAndWriterThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+            .filter(SharedIoLoopTests::isReaderOrWriter)
+            .count();
+    }
+
+    private static boolean isReaderOrWriter(Thread t) {
+        for (StackTraceElement e : t.getStackTrace()) {
+            if (e.getClassName().equals(NatsConnectionReader.class.getName()) && e.getMethodName().equals("run")) {
+                return true;
+            }
+            if (e.getClassName().equals(NatsConnectionWriter.class.getName()) && e.getMethodName().equals("run")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Options;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SidSubscriptionTableTests {
+
+    @Test
+    public void testPutGetRemove() {
+        MockNatsConnection nc = new MockNatsConnection(Options.builder().build());
+        SidSubscriptionTable table = new SidSubscriptionTable();
+        assertThrows(IllegalArgumentException.class, () -> table.put(0, null));
+        assertNull(table.get(0));
+        assertNull(table.get(-1));
+        assertNull(table.remove(-1));
+
+        List<NatsSubscription> subs = new ArrayList<>();
+        for (int sid = 1; sid <= 1000; sid++) {
+            NatsSubscription sub = new NatsSubscription(Integer.toString(sid), "sub" + sid, null, nc, null);
+            subs.add(sub);
+            table.put(sid, sub);
+        }
+        assertEquals(1000, table.size());
+        assertEquals(1000, table.values().size());
+        for (int sid = 1; sid <= 1000; sid++) {
+            assertSame(subs.get(sid - 1), table.get(sid));
+        }
+        assertNull(table.get(1001));
+
+        // remove the even ones
+        for (int sid = 2; sid <= 1000; sid += 2) {
+            assertSame(subs.get(sid - 1), table.remove(sid));
+            assertNull(table.remove(sid));
+        }
+        assertEquals(500, table.size());
+        for (int sid = 1; sid <= 1000; sid++) {
+            if (sid % 2 == 0) {
+                assertNull(table.get(sid));
+            }
+            else {
+                assertSame(subs.get(sid - 1), table.get(sid));
+            }
+        }
+
+        // re-put a removed sid, then grow past the original size
+        table.put(2, subs.get(1));
+        assertSame(subs.get(1), table.get(2));
+        for (int sid = 1001; sid <= 5000; sid++) {
+            table.put(sid, subs.get(0));
+        }
+        assertEquals(4501, table.size());
+        assertSame(subs.get(2), table.get(3));
+        assertSame(subs.get(0), table.get(5000));
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertNull(table.get(3));
+    }
+}
@@ -0,0 +1,255 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Options;
+import io.nats.client.SslTestingHelper;
+import io.nats.client.support.NatsUri;
+import io.nats.client.support.SSLUtils;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SocketChannelDataPortTests {
+
+    // Accepts one connection, optionally upgrades it to TLS, then echos everything back
+    private static CompletableFuture<Void> echoServer(ServerSocket server, SSLContext ctx) {
+        return CompletableFuture.runAsync(() -> {
+            try (Socket accepted = server.accept()) {
+                Socket socket = accepted;
+                if (ctx != null) {
+                    SSLSocket ssl = (SSLSocket) ctx.getSocketFactory().createSocket(accepted, null, accepted.getPort(), true);
+                    ssl.setUseClientMode(false);
+                    ssl.startHandshake();
+                    socket = ssl;
+                }
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) > 0) {
+                    out.write(buf, 0, n);
+                    out.flush();
+                }
+            }
+            catch (IOException ignore) {
+                // the client closing ends the echo
+            }
+        });
+    }
+
+    private static byte[] payload(int len) {
+        byte[] data = new byte[len];
+        for (int x = 0; x < len; x++) {
+            data[x] = (byte) (x * 31);
+        }
+        return data;
+    }
+
+    private static void readFully(DataPort dp, byte[] dst) throws IOException {
+        int pos = 0;
+        while (pos < dst.length) {
+            int n = dp.read(dst, pos, dst.length - pos);
+            assertTrue(n > 0);
+            pos += n;
+        }
+    }
+
+    private static void _testEcho(boolean secure) throws Exception {
+        SSLContext ctx = secure ? SslTestingHelper.createTestSSLContext() : null;
+        try (ServerSocket server = new ServerSocket(0)) {
+            CompletableFuture<Void> echo = echoServer(server, ctx);
+
+            Options.Builder builder = Options.builder().dataPortType(SocketChannelDataPort.class.getCanonicalName());
+            if (secure) {
+                builder.sslContext(SSLUtils.createTrustAllTlsContext());
+            }
+            Options options = builder.build();
+            NatsConnection nc = new MockNatsConnection(options);
+            DataPort dp = options.buildDataPort();
+            assertInstanceOf(SocketChannelDataPort.class, dp);
+            dp.connect(nc, new NatsUri("nats://localhost:" + server.getLocalPort()), TimeUnit.SECONDS.toNanos(5));
+            try {
+                if (secure) {
+                    dp.upgradeToSecure();
+                }
+            }
+            catch (IOException e) {
+                dp.close();
+                throw e;
+            }
+            assertEquals(!secure, dp.supportsGatheringWrites());
+
+            // bigger than the buffers so the writes and reads are split
+            byte[] small = payload(100);
+            byte[] large = payload(1024 * 1024);
+            ByteBuffer direct = ByteBuffer.allocateDirect(1000);
+            direct.put(payload(1000)).flip();
+
+            dp.write(small, small.length);
+            byte[] read = new byte[small.length];
+            readFully(dp, read);
+            assertArrayEquals(small, read);
+
+            dp.write(new ByteBuffer[] { ByteBuffer.wrap(small, 10, 20), ByteBuffer.wrap(large), direct }, 0, 3);
+            read = new byte[20 + large.length + 1000];
+            readFully(dp, read);
+            byte[] expected = new byte[read.length];
+            System.arraycopy(small, 10, expected, 0, 20);
+            System.arraycopy(large, 0, expected, 20, large.length);
+            System.arraycopy(payload(1000), 0, expected, 20 + large.length, 1000);
+            assertArrayEquals(expected, read);
+            assertArrayEquals(payload(1024 * 1024), large); // the message bytes are not touched
+
+            int pooledBefore = DirectBufferPool.SHARED.pooled();
+            dp.close();
+            assertTrue(DirectBufferPool.SHARED.pooled() > pooledBefore);
+            assertThrows(IOException.class, () -> dp.write(small, small.length));
+            echo.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testPlainEcho() throws Exception {
+        _testEcho(false);
+    }
+
+    @Test
+    public void testSecureEcho() throws Exception {
+        _testEcho(true);
+    }
+
+    // Counts the writes the data port makes and remembers the buffers given to gathering writes
+    static class CountingChannel extends SocketChannel {
+        final SocketChannel delegate;
+        final List<ByteBuffer> gathered = new ArrayList<>();
+        int gatheringWrites;
+        int singleWrites;
+
+        CountingChannel(SocketChannel delegate) {
+            super(delegate.provider());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            gatheringWrites++;
+            for (int x = offset; x < offset + length; x++) {
+                gathered.add(srcs[x]);
+            }
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            singleWrites++;
+            return delegate.write(src);
+        }
+
+        @Override public int read(ByteBuffer dst) throws IOException { return delegate.read(dst); }
+        @Override public long read(ByteBuffer[] dsts, int offset, int length) throws IOException { return delegate.read(dsts, offset, length); }
+        @Override public SocketChannel bind(SocketAddress local) throws IOException { delegate.bind(local); return this; }
+        @Override public <T> SocketChannel setOption(SocketOption<T> name, T value) throws IOException { delegate.setOption(name, value); return this; }
+        @Override public <T> T getOption(SocketOption<T> name) throws IOException { return delegate.getOption(name); }
+        @Override public Set<SocketOption<?>> supportedOptions() { return delegate.supportedOptions(); }
+        @Override public SocketChannel shutdownInput() throws IOException { delegate.shutdownInput(); return this; }
+        @Override public SocketChannel shutdownOutput() throws IOException { delegate.shutdownOutput(); return this; }
+        @Override public Socket socket() { return delegate.socket(); }
+        @Override public boolean isConnected() { return delegate.isConnected(); }
+        @Override public boolean isConnectionPending() { return delegate.isConnectionPending(); }
+        @Override public boolean connect(SocketAddress remote) throws IOException { return delegate.connect(remote); }
+        @Override public boolean finishConnect() throws IOException { return delegate.finishConnect(); }
+        @Override public SocketAddress getRemoteAddress() throws IOException { return delegate.getRemoteAddress(); }
+        @Override public SocketAddress getLocalAddress() throws IOException { return delegate.getLocalAddress(); }
+        @Override protected void implCloseSelectableChannel() throws IOException { delegate.close(); }
+        @Override protected void implConfigureBlocking(boolean block) throws IOException { delegate.configureBlocking(block); }
+    }
+
+    @Test
+    public void testGatheringWrites() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            CompletableFuture<Void> echo = echoServer(server, null);
+
+            Options options = Options.builder().dataPortType(SocketChannelDataPort.class.getCanonicalName()).build();
+            SocketChannelDataPort dp = (SocketChannelDataPort) options.buildDataPort();
+            dp.connect(new MockNatsConnection(options), new NatsUri("nats://localhost:" + server.getLocalPort()), TimeUnit.SECONDS.toNanos(5));
+            CountingChannel channel = new CountingChannel(dp.channel);
+            dp.channel = channel;
+            assertTrue(dp.supportsGatheringWrites());
+
+            byte[] line = payload(30);
+            byte[] large = payload(1024 * 1024);
+            dp.write(new ByteBuffer[] { ByteBuffer.wrap(line), ByteBuffer.wrap(large), ByteBuffer.wrap(line) }, 0, 3);
+
+            // the payload went to the channel as it is, nothing was staged through the write buffer
+            assertTrue(channel.gatheringWrites > 0);
+            assertEquals(0, channel.singleWrites);
+            assertTrue(channel.gathered.stream().anyMatch(bb -> bb.hasArray() && bb.array() == large));
+
+            byte[] read = new byte[line.length * 2 + large.length];
+            readFully(dp, read);
+            byte[] expected = new byte[read.length];
+            System.arraycopy(line, 0, expected, 0, line.length);
+            System.arraycopy(large, 0, expected, line.length, large.length);
+            System.arraycopy(line, 0, expected, line.length + large.length, line.length);
+            assertArrayEquals(expected, read);
+
+            // a plain array write is still staged
+            dp.write(line, line.length);
+            assertTrue(channel.singleWrites > 0);
+            readFully(dp, new byte[line.length]);
+
+            dp.close();
+            echo.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testDirectBufferPool() {
+        DirectBufferPool pool = new DirectBufferPool(2);
+        ByteBuffer a = pool.acquire(100);
+        ByteBuffer b = pool.acquire(100);
+        ByteBuffer c = pool.acquire(100);
+        assertTrue(a.isDirect());
+        a.put((byte) 1);
+        pool.release(a);
+        pool.release(b);
+        pool.release(c); // over the limit
+        pool.release(ByteBuffer.allocate(100)); // not direct
+        assertEquals(2, pool.pooled());
+
+        ByteBuffer again = pool.acquire(100);
+        assertSame(a, again);
+        assertEquals(0, again.position());
+        assertEquals(1, pool.pooled());
+        assertNotSame(b, pool.acquire(200));
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.impl;
+
+import io.nats.client.Connection;
+import io.nats.client.Consumer;
+import io.nats.client.MetricsListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestMetricsListener implements MetricsListener {
+
+    public final AtomicInteger reconnects = new AtomicInteger();
+    public final AtomicInteger slowConsumers = new AtomicInteger();
+    public final AtomicInteger flushes = new AtomicInteger();
+    public final AtomicLong flushNanos = new AtomicLong();
+    public final AtomicInteger batches = new AtomicInteger();
+    public final AtomicLong batchMessages = new AtomicLong();
+    public final AtomicLong batchBytes = new AtomicLong();
+
+    @Override
+    public void reconnected(Connection conn, int attempts, long nanos) {
+        reconnects.incrementAndGet();
+    }
+
+    @Override
+    public void slowConsumer(Connection conn, Consumer consumer) {
+        slowConsumers.incrementAndGet();
+    }
+
+    @Override
+    public void flushed(Connection conn, long nanos) {
+        flushes.incrementAndGet();
+        flushNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public void batchWritten(Connection conn, int messages, long bytes) {
+        batches.incrementAndGet();
+        batchMessages.addAndGet(messages);
+        batchBytes.addAndGet(bytes);
+    }
+}
@@ -0,0 +1,86 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class DeflatePayloadCodecTests {
+
+    static byte[] json(int records) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int x = 0; x < records; x++) {
+            sb.append("{\"symbol\":\"ACME\",\"price\":").append(100 + x % 7).append(",\"size\":").append(x % 100).append("},");
+        }
+        return sb.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(42);
+        for (DeflatePayloadCodec codec : new DeflatePayloadCodec[] {
+            new DeflatePayloadCodec(), new DeflatePayloadCodec(Deflater.BEST_COMPRESSION), new DeflatePayloadCodec(Deflater.NO_COMPRESSION)}) {
+            assertEquals("deflate", codec.getEncoding());
+            for (int len : new int[] {0, 1, 63, 64, 65, 1000, 100_000}) {
+                byte[] data = new byte[len];
+                random.nextBytes(data);
+                assertArrayEquals(data, codec.decode(codec.encode(data)));
+            }
+            byte[] json = json(1000);
+            assertArrayEquals(json, codec.decode(codec.encode(json)));
+        }
+    }
+
+    @Test
+    public void testJsonCompresses() {
+        byte[] json = json(1000);
+        byte[] encoded = new DeflatePayloadCodec().encode(json);
+        assertTrue(encoded.length * 5 < json.length, encoded.length + " vs " + json.length);
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new DeflatePayloadCodec(10));
+        assertThrows(IllegalArgumentException.class, () -> new DeflatePayloadCodec(-2));
+
+        DeflatePayloadCodec codec = new DeflatePayloadCodec();
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("not deflate".getBytes(StandardCharsets.US_ASCII)));
+        byte[] encoded = codec.encode(json(100));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(encoded, encoded.length / 2)));
+    }
+
+    @Test
+    public void testMaxSize() {
+        DeflatePayloadCodec codec = new DeflatePayloadCodec();
+        byte[] json = json(1000);
+        byte[] encoded = codec.encode(json);
+        assertArrayEquals(json, codec.decode(encoded, json.length));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded, json.length - 1));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded, 1));
+
+        // a small body that inflates to many megabytes
+        byte[] bomb = codec.encode(new byte[50 * 1024 * 1024]);
+        assertTrue(bomb.length < 512 * 1024);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bomb, 1024 * 1024));
+
+        byte[] empty = codec.encode(new byte[0]);
+        assertEquals(0, codec.decode(empty, 1).length);
+    }
+}
@@ -0,0 +1,142 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.nats.client.support.JsonReader.Token.*;
+import static io.nats.client.utils.ResourceUtils.dataAsString;
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class JsonReaderTests {
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<JsonReader.Token> tokens(String json) throws JsonParseException {
+        JsonReader reader = reader(json);
+        List<JsonReader.Token> tokens = new ArrayList<>();
+        JsonReader.Token t;
+        do {
+            t = reader.next();
+            tokens.add(t);
+        } while (t != END);
+        return tokens;
+    }
+
+    @Test
+    public void testTokens() throws JsonParseException {
+        assertEquals(Arrays.asList(END), tokens(""));
+        assertEquals(Arrays.asList(START_OBJECT, END_OBJECT, END), tokens(" {} "));
+        assertEquals(Arrays.asList(START_OBJECT, FIELD_NAME, STRING, FIELD_NAME, START_ARRAY, NUMBER, TRUE, FALSE, NULL,
+                START_OBJECT, END_OBJECT, END_ARRAY, END_OBJECT, END),
+            tokens("{\"a\":\"b\", \"c\" : [1, true, false, null, {}]}"));
+
+        JsonReader reader = reader("{\"name\":\"h\\u00e9llo \\\"w\u00f6rld\\\"\",\"int\":42,\"long\":9876543210,\"dec\":1.5}");
+        assertEquals(START_OBJECT, reader.next());
+        assertEquals(FIELD_NAME, reader.next());
+        assertEquals("name", reader.getString());
+        assertEquals(STRING, reader.next());
+        assertEquals("h\u00e9llo \"w\u00f6rld\"", reader.getString());
+        assertNull(reader.getNumber());
+        assertEquals(-1, reader.getInt(-1));
+
+        reader.next();
+        assertEquals(NUMBER, reader.next());
+        assertEquals(42, reader.getInt(-1));
+        assertEquals(42, reader.getLong(-1));
+
+        reader.next();
+        assertEquals(NUMBER, reader.next());
+        assertEquals(-1, reader.getInt(-1));
+        assertEquals(9876543210L, reader.getLong(-1));
+
+        reader.next();
+        assertEquals(NUMBER, reader.next());
+        assertEquals("1.5", reader.getString());
+        assertEquals(-1, reader.getLong(-1));
+        assertNotNull(reader.getNumber().bd);
+
+        assertEquals(END_OBJECT, reader.next());
+        assertEquals(END, reader.next());
+        assertEquals(END, reader.getToken());
+    }
+
+    @Test
+    public void testSkipValue() throws JsonParseException {
+        JsonReader reader = reader("{\"skip\":{\"a\":[1,{\"b\":\"}]\\\"\"}],\"c\":{}},\"keep\":7,\"also\":[[],[[]]],\"last\":\"x\"}");
+        assertEquals(START_OBJECT, reader.next());
+        List<String> kept = new ArrayList<>();
+        while (reader.next() == FIELD_NAME) {
+            String name = reader.getString();
+            JsonReader.Token t = reader.next();
+            if (t == START_OBJECT || t == START_ARRAY) {
+                reader.skipValue();
+            }
+            else {
+                kept.add(name + "=" + reader.readValue(false).toJson());
+            }
+        }
+        assertEquals(Arrays.asList("keep=7", "last=\"x\""), kept);
+        assertEquals(END_OBJECT, reader.getToken());
+        assertEquals(END, reader.next());
+    }
+
+    @Test
+    public void testReadValueMatchesParser() throws JsonParseException {
+        for (String file : new String[] {"StreamInfo.json", "ConsumerInfo.json", "ConsumerListResponse.json", "StreamConfiguration.json"}) {
+            String json = dataAsString(file);
+            assertEquals(JsonParser.parse(json.toCharArray()), JsonParser.parse(json.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // the char parser's leniencies are kept
+        String[] lenient = {
+            "{\"foo\":1,}", "[\"foo\",]", "[1 2,,3]", "{\"a\":TRUE,\"b\":Null,\"c\":-0}", "{\"a\":{\"b\":1,},\"c\":2}",
+            "{\"a\":null,\"b\":[null]}", "\"\\u 0 0 4 1\"", "{\"\u00e9\":\"\u4e2d\uD83D\uDE00\"}"
+        };
+        for (String json : lenient) {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            assertEquals(JsonParser.parse(json), JsonParser.parse(bytes), json);
+            assertEquals(JsonParser.parse(json, JsonParser.Option.KEEP_NULLS), JsonParser.parse(bytes, JsonParser.Option.KEEP_NULLS), json);
+        }
+    }
+
+    @Test
+    public void testErrorsMatchParser() {
+        String[] invalid = {
+            "{", "{{", "{[", "{\"foo\":1 ]", "{\"foo\" 1", "[\"bad\",", "[1Z]", "t", "f", "{\"a\":}",
+            "\"u", "\"u\r", "\"u\n", "\"\\x\"", "\"\\u000", "\"\\uzzzz"
+        };
+        for (String json : invalid) {
+            String expected = assertThrows(JsonParseException.class, () -> JsonParser.parse(json)).getMessage();
+            assertEquals(expected, assertThrows(JsonParseException.class,
+                () -> JsonParser.parse(json.getBytes(StandardCharsets.UTF_8))).getMessage(), json);
+
+            // skipping checks the same things
+            if (json.startsWith("{") || json.startsWith("[")) {
+                JsonReader reader = reader(json);
+                assertEquals(expected, assertThrows(JsonParseException.class, () -> {
+                    reader.next();
+                    reader.skipValue();
+                }).getMessage(), json);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+// Copyright 2024 The NATS Authors
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at:
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package io.nats.client.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTests {
+
+    @Test
+    public void testBuckets() {
+        // every value lands in a bucket whose top is at or above it and within the precision
+        int lastIndex = 0;
+        for (long v = 0; v < 1_000_000; v++) {
+            int index = LatencyHistogram.bucketIndex(v);
+            assertTrue(index == lastIndex || index == lastIndex + 1, "contiguous at " + v);
+            lastIndex = index;
+            long top = LatencyHistogram.highestValueInBucket(index);
+            assertTrue(top >= v);
+            assertTrue(top - v <= v / LatencyHistogram.SUB_BUCKET_COUNT, "precision at " + v);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(LatencyHistogram.HIGHEST_TRACKABLE_VALUE));
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE,
+            LatencyHistogram.highestValueInBucket(LatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMin());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getMean());
+        assertEquals(0, h.getValueAtPercentile(99));
+        assertNotNull(h.toString());
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            h.record(v * 1000); // 1 to 10,000 micros
+        }
+        assertEquals(10_000, h.getCount());
+        assertEquals(1000, h.getMin());
+        assertEquals(10_000_000, h.getMax());
+        assertEquals(5_000_500, h.getMean(), 1);
+        assertWithin(5_000_000, h.getValueAtPercentile(50));
+        assertWithin(9_900_000, h.getValueAtPercentile(99));
+        assertWithin(9_990_000, h.getValueAtPercentile(99.9));
+        assertEquals(10_000_000, h.getValueAtPercentile(100));
+        assertEquals(h.getValueAtPercentile(0), h.getValueAtPercentile(-1));
+        assertWithin(1000, h.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void testOutOfRangeAndReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        h.record(Long.MAX_VALUE);
+        assertEquals(2, h.getCount());
+        assertEquals(0, h.getMin());
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, h.getMax());
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, h.getValueAtPercentile(99));
+
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getValueAtPercentile(50));
+        h.record(42);
+        assertEquals(42, h.getMin());
+        assertEquals(42, h.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram h = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    h.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(80_000, h.getCount());
+        assertEquals(9_999, h.getMax());
+        assertWithin(5_000, h.getValueAtPercentile(50));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        long tolerance = expected / LatencyHistogram.SUB_BUCKET_COUNT + 1;
+        assertTrue(Math.abs(actual - expected) <= tolerance, "expected about " + expected + " but was " + actual);
+    }
+}